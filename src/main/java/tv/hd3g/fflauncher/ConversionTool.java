@@ -36,6 +36,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,7 +45,9 @@ import java.util.Optional;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -58,6 +61,7 @@ import tv.hd3g.processlauncher.ExecutionCallbacker;
 import tv.hd3g.processlauncher.LineEntry;
 import tv.hd3g.processlauncher.ProcesslauncherBuilder;
 import tv.hd3g.processlauncher.ProcesslauncherLifecycle;
+import tv.hd3g.processlauncher.cmdline.ExecutableFinder;
 import tv.hd3g.processlauncher.cmdline.Parameters;
 
 public class ConversionTool implements ExecutableTool {
@@ -136,6 +140,38 @@ public class ConversionTool implements ExecutableTool {
 		return filterForLinesEventsToDisplay;
 	}
 
+	/**
+	 * @return a tool with the same parameters and the same beforeRun as this, which add executionCallbackers to
+	 *         the ProcesslauncherBuilder of each of its executions. This tool stay unchanged.
+	 */
+	public ExecutableTool toExecutableTool(final ExecutionCallbacker... executionCallbackers) {
+		final var callbackers = List.of(executionCallbackers);
+		return new ExecutableTool() {
+
+			@Override
+			public Parameters getReadyToRunParameters() {
+				return ConversionTool.this.getReadyToRunParameters();
+			}
+
+			@Override
+			public String getExecutableName() {
+				return ConversionTool.this.getExecutableName();
+			}
+
+			@Override
+			public void beforeRun(final ProcesslauncherBuilder processBuilder) {
+				ConversionTool.this.beforeRun(processBuilder);
+				callbackers.forEach(processBuilder::addExecutionCallbacker);
+			}
+
+			@Override
+			public Predicate<String> filterOutErrorLines() {
+				return ConversionTool.this.filterOutErrorLines();
+			}
+
+		};
+	}
+
 	/**
 	 * Set values for variables like &lt;%myvar%&gt; in the command line, do NOT set input/output references if they was set with addInputSource/addOutputDestination.
 	 */
@@ -351,18 +387,8 @@ public class ConversionTool implements ExecutableTool {
 			}
 		}
 		if (onErrorDeleteOutFiles) {
-			/**
-			 * If fail transcoding or shutdown hook, delete out files (optional)
-			 */
-			processBuilder.addExecutionCallbacker(new ExecutionCallbacker() {
-				@Override
-				public void onEndExecution(final ProcesslauncherLifecycle processlauncherLifecycle) {
-					if (processlauncherLifecycle.isCorrectlyDone() == false) {
-						log.warn("Error during execution of \"{}\", remove output files", processlauncherLifecycle);
-						cleanUpOutputFiles(true, true);
-					}
-				}
-			});
+			processBuilder.addExecutionCallbacker(
+			        new OnErrorDeleteOutFiles(() -> getOutputFiles(OutputFilePresencePolicy.MUST_EXISTS)));
 		}
 
 		filterForLinesEventsToDisplay
@@ -377,6 +403,43 @@ public class ConversionTool implements ExecutableTool {
 		                });
 	}
 
+	/**
+	 * If fail transcoding or shutdown hook, delete out files (optional)
+	 */
+	static class OnErrorDeleteOutFiles implements ExecutionCallbacker {
+		private final Supplier<List<File>> outputFiles;
+
+		OnErrorDeleteOutFiles(final Supplier<List<File>> outputFiles) {
+			this.outputFiles = outputFiles;
+		}
+
+		@Override
+		public void onEndExecution(final ProcesslauncherLifecycle processlauncherLifecycle) {
+			if (processlauncherLifecycle.isCorrectlyDone() == false) {
+				log.warn("Error during execution of \"{}\", remove output files", processlauncherLifecycle);
+				cleanUpFiles(outputFiles.get(), true, true);
+			}
+		}
+	}
+
+	/**
+	 * Like execute, but let the caller choose how to capture stdout/stderr (no default text retention), and start it.
+	 * beforeRun is already called on the returned builder: a setCaptureStandardOutput will replace the capture set
+	 * by beforeRun (like the lines to display).
+	 */
+	public ProcesslauncherBuilder prepareProcesslauncherBuilder(final ExecutableFinder executableFinder) {
+		requireNonNull(executableFinder, "\"executableFinder\" can't to be null");
+		final File executable;
+		try {
+			executable = executableFinder.get(getExecutableName());
+		} catch (final FileNotFoundException e) {
+			throw new UncheckedIOException(e);
+		}
+		final var processBuilder = new ProcesslauncherBuilder(executable, getReadyToRunParameters().getParameters());
+		beforeRun(processBuilder);
+		return processBuilder;
+	}
+
 	protected PrintStream getStdOutPrintStreamToDisplayLinesEvents() {
 		return System.out;// NOSONAR
 	}
@@ -447,7 +510,15 @@ public class ConversionTool implements ExecutableTool {
 	 * Don't need to be executed before, only checks.
 	 */
 	public List<File> getOutputFiles(final OutputFilePresencePolicy filterPolicy) {
-		return outputExpectedDestinations.stream().map(ConversionToolParameterReference::getRessource).flatMap(
+		return getOutputFiles(outputExpectedDestinations.stream().map(ConversionToolParameterReference::getRessource),
+		        filterPolicy);
+	}
+
+	/**
+	 * @param ressources like the outputs set on a ConversionToolTemplate, resolved with this working directory.
+	 */
+	List<File> getOutputFiles(final Stream<String> ressources, final OutputFilePresencePolicy filterPolicy) {
+		return ressources.flatMap(
 		        ressource -> {
 			        try {
 				        final var url = new URL(ressource);
@@ -478,7 +549,14 @@ public class ConversionTool implements ExecutableTool {
 	 * @param remove_all if false, remove only empty files.
 	 */
 	public ConversionTool cleanUpOutputFiles(final boolean remove_all, final boolean clean_output_directories) {
-		getOutputFiles(OutputFilePresencePolicy.MUST_EXISTS).stream().filter(file -> {
+		cleanUpFiles(getOutputFiles(OutputFilePresencePolicy.MUST_EXISTS), remove_all, clean_output_directories);
+		return this;
+	}
+
+	private static void cleanUpFiles(final List<File> files,
+	                                 final boolean remove_all,
+	                                 final boolean clean_output_directories) {
+		files.stream().filter(file -> {
 			if (file.isFile() == false) {
 				/**
 				 * It's a dir, remove dirs ?
@@ -511,8 +589,6 @@ public class ConversionTool implements ExecutableTool {
 				throw new UncheckedIOException(new IOException("Can't delete \"" + file + "\""));
 			}
 		});
-
-		return this;
 	}
 
 	/**
@@ -614,6 +690,29 @@ public class ConversionTool implements ExecutableTool {
 		if (checkSourcesBeforeReady) {
 			checkSources();
 		}
+		return injectParameters(ConversionToolParameterReference::getRessource);
+	}
+
+	/**
+	 * Build once the ready to run parameters, with a slot in place of each declared source and destination.
+	 * Sources will not be checked on each instantiation.
+	 * This tool is still used for beforeRun/filterOutErrorLines on each run, but don't change it after that.
+	 * @return a template usable for each job who only change the I/O.
+	 */
+	public ConversionToolTemplate compileTemplate() {
+		final var ioSlots = new IdentityHashMap<ConversionToolParameterReference, String>();
+		for (var pos = 0; pos < inputSources.size(); pos++) {
+			ioSlots.put(inputSources.get(pos), ConversionToolTemplate.makeSlotMarker(true, pos));
+		}
+		for (var pos = 0; pos < outputExpectedDestinations.size(); pos++) {
+			ioSlots.put(outputExpectedDestinations.get(pos), ConversionToolTemplate.makeSlotMarker(false, pos));
+		}
+		final var markedParameters = injectParameters(ioSlots::get);
+		return new ConversionToolTemplate(this, markedParameters.getParameters(),
+		        inputSources.size(), outputExpectedDestinations.size());
+	}
+
+	private Parameters injectParameters(final Function<ConversionToolParameterReference, String> ressourceProvider) {
 		final var allVarsToInject = new HashMap<>(parametersVariables);
 
 		final var newerParameters = parameters.duplicate();
@@ -632,7 +731,7 @@ public class ConversionTool implements ExecutableTool {
 					                                + "\" was already set to \""
 					                                + allVarsToInject.get(taggedVarName) + "\" in " + newerParameters);
 				}
-				allVarsToInject.put(taggedVarName, Parameters.of(paramRef.getRessource()));
+				allVarsToInject.put(taggedVarName, Parameters.of(ressourceProvider.apply(paramRef)));
 			} else {
 				onMissingInputOutputVar(taggedVarName, paramRef.getRessource());
 			}
@@ -0,0 +1,181 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toUnmodifiableList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+import tv.hd3g.fflauncher.ConversionTool.OnErrorDeleteOutFiles;
+import tv.hd3g.fflauncher.enums.OutputFilePresencePolicy;
+import tv.hd3g.processlauncher.ExecutableTool;
+import tv.hd3g.processlauncher.ProcesslauncherBuilder;
+import tv.hd3g.processlauncher.cmdline.Parameters;
+
+/**
+ * Immutable ready to run command line, compiled once from a configured ConversionTool, with a slot for each
+ * declared source and destination. Each instantiation only copy the arguments and set the I/O slots: no Parameters
+ * duplication, no variable injection, no collision management.
+ * Threadsafe.
+ * @see ConversionTool#compileTemplate()
+ */
+public class ConversionToolTemplate {
+
+	private static final String SLOT_MARKER_INPUT = "\u0000fflauncher-slot:in:";
+	private static final String SLOT_MARKER_OUTPUT = "\u0000fflauncher-slot:out:";
+
+	private final ConversionTool tool;
+	private final String[] arguments;
+	private final int inputSlotCount;
+	private final int outputSlotCount;
+	/**
+	 * Argument positions to set, and for each one, its slot index (inputs, then outputs).
+	 */
+	private final int[] slotArgumentPositions;
+	private final int[] slotIndexes;
+
+	static String makeSlotMarker(final boolean input, final int pos) {
+		return (input ? SLOT_MARKER_INPUT : SLOT_MARKER_OUTPUT) + pos;
+	}
+
+	ConversionToolTemplate(final ConversionTool tool,
+	                       final List<String> markedArguments,
+	                       final int inputSlotCount,
+	                       final int outputSlotCount) {
+		this.tool = requireNonNull(tool, "\"tool\" can't to be null");
+		this.inputSlotCount = inputSlotCount;
+		this.outputSlotCount = outputSlotCount;
+		arguments = markedArguments.toArray(new String[markedArguments.size()]);
+
+		final var positions = new ArrayList<Integer>();
+		final var indexes = new ArrayList<Integer>();
+		for (var pos = 0; pos < arguments.length; pos++) {
+			final var arg = arguments[pos];
+			if (arg.startsWith(SLOT_MARKER_INPUT)) {
+				positions.add(pos);
+				indexes.add(Integer.parseInt(arg.substring(SLOT_MARKER_INPUT.length())));
+			} else if (arg.startsWith(SLOT_MARKER_OUTPUT)) {
+				positions.add(pos);
+				indexes.add(inputSlotCount + Integer.parseInt(arg.substring(SLOT_MARKER_OUTPUT.length())));
+			}
+		}
+		slotArgumentPositions = positions.stream().mapToInt(Integer::intValue).toArray();
+		slotIndexes = indexes.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	public int getInputSlotCount() {
+		return inputSlotCount;
+	}
+
+	public int getOutputSlotCount() {
+		return outputSlotCount;
+	}
+
+	/**
+	 * @param inputs same count and order as the sources declared on the compiled tool
+	 * @param outputs same count and order as the destinations declared on the compiled tool
+	 * @return an unmodifiable list, like ConversionTool.getReadyToRunParameters().getParameters() with this I/O.
+	 */
+	public List<String> instantiate(final List<String> inputs, final List<String> outputs) {
+		requireNonNull(inputs, "\"inputs\" can't to be null");
+		requireNonNull(outputs, "\"outputs\" can't to be null");
+		if (inputs.size() != inputSlotCount) {
+			throw new IllegalArgumentException("Invalid inputs count: " + inputs.size() + ", expected "
+			                                   + inputSlotCount);
+		} else if (outputs.size() != outputSlotCount) {
+			throw new IllegalArgumentException("Invalid outputs count: " + outputs.size() + ", expected "
+			                                   + outputSlotCount);
+		}
+
+		final var result = Arrays.copyOf(arguments, arguments.length);
+		for (var pos = 0; pos < slotArgumentPositions.length; pos++) {
+			final var slotIndex = slotIndexes[pos];
+			final String value;
+			if (slotIndex < inputSlotCount) {
+				value = inputs.get(slotIndex);
+			} else {
+				value = outputs.get(slotIndex - inputSlotCount);
+			}
+			result[slotArgumentPositions[pos]] = requireNonNull(value, "Null I/O for slot " + slotIndex);
+		}
+		return List.of(result);
+	}
+
+	/**
+	 * @param inputs same count and order as the sources declared on the compiled tool
+	 * @param outputs same count and order as the destinations declared on the compiled tool
+	 * @return a tool with the same executable name and the same beforeRun as the compiled tool. With
+	 *         ConversionTool.setOnErrorDeleteOutFiles, only the outputs of this instantiation are deleted on error.
+	 */
+	public ExecutableTool toExecutableTool(final List<String> inputs, final List<String> outputs) {
+		final var parameters = instantiate(inputs, outputs);
+		return new ExecutableTool() {
+
+			@Override
+			public Parameters getReadyToRunParameters() {
+				return Parameters.of(parameters);
+			}
+
+			@Override
+			public String getExecutableName() {
+				return tool.getExecutableName();
+			}
+
+			@Override
+			public void beforeRun(final ProcesslauncherBuilder processBuilder) {
+				tool.beforeRun(processBuilder);
+				processBuilder.getExecutionCallbackers().stream()
+				        .filter(OnErrorDeleteOutFiles.class::isInstance)
+				        .collect(toUnmodifiableList())
+				        .forEach(processBuilder::removeExecutionCallbacker);
+				if (tool.isOnErrorDeleteOutFiles()) {
+					final var jobOutputs = List.copyOf(outputs);
+					processBuilder.addExecutionCallbacker(new OnErrorDeleteOutFiles(
+					        () -> tool.getOutputFiles(jobOutputs.stream(), OutputFilePresencePolicy.MUST_EXISTS)));
+				}
+			}
+
+			@Override
+			public Predicate<String> filterOutErrorLines() {
+				return tool.filterOutErrorLines();
+			}
+
+		};
+	}
+
+	/**
+	 * @return the command line, with "&lt;in:N&gt;" and "&lt;out:N&gt;" in place of the I/O slots.
+	 */
+	@Override
+	public String toString() {
+		final var display = Arrays.copyOf(arguments, arguments.length);
+		for (var pos = 0; pos < slotArgumentPositions.length; pos++) {
+			final var slotIndex = slotIndexes[pos];
+			if (slotIndex < inputSlotCount) {
+				display[slotArgumentPositions[pos]] = "<in:" + slotIndex + ">";
+			} else {
+				display[slotArgumentPositions[pos]] = "<out:" + (slotIndex - inputSlotCount) + ">";
+			}
+		}
+		return tool.getExecutableName() + " " + String.join(" ", display);
+	}
+
+}
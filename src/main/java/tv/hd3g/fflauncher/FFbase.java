@@ -24,16 +24,20 @@ import java.io.PrintStream;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import tv.hd3g.fflauncher.about.FFAbout;
+import tv.hd3g.fflauncher.about.FFAboutCache;
+import tv.hd3g.fflauncher.about.FFAboutRegistry;
 import tv.hd3g.fflauncher.enums.FFLogLevel;
 import tv.hd3g.fflauncher.enums.FilterConnectorType;
 import tv.hd3g.fflauncher.filtering.Filter;
 import tv.hd3g.fflauncher.filtering.FilterChains;
+import tv.hd3g.fflauncher.log.FFLogEvent;
+import tv.hd3g.fflauncher.log.FFLogParser;
 import tv.hd3g.processlauncher.ProcesslauncherBuilder;
 import tv.hd3g.processlauncher.cmdline.ExecutableFinder;
 import tv.hd3g.processlauncher.cmdline.Parameters;
@@ -43,7 +47,10 @@ public class FFbase extends ConversionTool {
 	private static final String IN_AUTOMATIC = "IN_AUTOMATIC_";
 	private static final String P_LOGLEVEL = "-loglevel";
 	private static final String P_HIDE_BANNER = "-hide_banner";
-	private FFAbout about;
+	private volatile FFAbout about;
+	private FFAboutCache aboutCache;
+	private FFLogLevel logEventsMaxLevel;
+	private Consumer<FFLogEvent> logEventListener;
 
 	public FFbase(final String execName, final Parameters parameters) {
 		super(execName, parameters);
@@ -55,6 +62,21 @@ public class FFbase extends ConversionTool {
 		if (processBuilder.getEnvironmentVar("AV_LOG_FORCE_COLOR") == null) {
 			processBuilder.setEnvironmentVarIfNotFound("AV_LOG_FORCE_NOCOLOR", "1");
 		}
+		if (logEventListener != null) {
+			processBuilder.getSetCaptureStandardOutputAsOutputText()
+			        .addObserver(new FFLogParser(logEventsMaxLevel, logEventListener));
+		}
+	}
+
+	/**
+	 * Parse stderr lines during executions, and send them as FFLogEvent.
+	 * Use setLogLevel with display_level to get the level on each event.
+	 * @param maxLevel the most verbose level to send, like WARNING for get only warnings and errors.
+	 */
+	public FFbase setLogEventListener(final FFLogLevel maxLevel, final Consumer<FFLogEvent> logEventListener) {
+		logEventsMaxLevel = requireNonNull(maxLevel, "\"maxLevel\" can't to be null");
+		this.logEventListener = requireNonNull(logEventListener, "\"logEventListener\" can't to be null");
+		return this;
 	}
 
 	@Override
@@ -227,29 +249,42 @@ public class FFbase extends ConversionTool {
 		return super.addSimpleOutputDestination(destinationFile);
 	}
 
-	public synchronized FFAbout getAbout(final ExecutableFinder executableFinder) {
-		if (about == null) {
-			final var maxExecTimeScheduler = getMaxExecTimeScheduler();
-			if (maxExecTimeScheduler == null) {
-				about = new FFAbout(execName, executableFinder, Executors.newSingleThreadScheduledExecutor());
-			} else {
-				about = new FFAbout(execName, executableFinder, maxExecTimeScheduler);
+	/**
+	 * @param aboutCache used by the next getAbout, can be null. Ignored if an FFAbout is already registred for this
+	 *        executable.
+	 */
+	public synchronized FFbase setAboutCache(final FFAboutCache aboutCache) {
+		this.aboutCache = aboutCache;
+		return this;
+	}
+
+	/**
+	 * @return the FFAbout shared by all FFbase with the same executable, from FFAboutRegistry.getDefault()
+	 */
+	public FFAbout getAbout(final ExecutableFinder executableFinder) {
+		final var current = about;
+		if (current != null) {
+			return current;
+		}
+		synchronized (this) {
+			if (about == null) {
+				about = FFAboutRegistry.getDefault().getAbout(execName, executableFinder, aboutCache);
 			}
+			return about;
 		}
-		return about;
 	}
 
-	public synchronized List<Filter> checkFiltersAvailability(final ExecutableFinder executableFinder) {
-		getAbout(executableFinder);
+	public List<Filter> checkFiltersAvailability(final ExecutableFinder executableFinder) {
+		final var currentAbout = getAbout(executableFinder);
 
 		final var badVideoFilters = FilterChains.merge(FilterChains.parse("-vf", this))
-		        .checkFiltersAvailability(about, FilterConnectorType.VIDEO);
+		        .checkFiltersAvailability(currentAbout, FilterConnectorType.VIDEO);
 		final var badAudioFilters = FilterChains.merge(FilterChains.parse("-af", this))
-		        .checkFiltersAvailability(about, FilterConnectorType.AUDIO);
+		        .checkFiltersAvailability(currentAbout, FilterConnectorType.AUDIO);
 		final var badGenericFilterChainsLists = FilterChains.merge(FilterChains.parse("-filter", this))
-		        .checkFiltersAvailability(about);
+		        .checkFiltersAvailability(currentAbout);
 		final var badGenericComplexFilterChainsLists = FilterChains.merge(FilterChains.parse("-filter_complex", this))
-		        .checkFiltersAvailability(about);
+		        .checkFiltersAvailability(currentAbout);
 
 		return Stream.of(badVideoFilters.stream(),
 		        badAudioFilters.stream(),
@@ -259,28 +294,20 @@ public class FFbase extends ConversionTool {
 		        .collect(Collectors.toUnmodifiableList());
 	}
 
-	private static final Predicate<String> filterOutErrorLines = rawL -> {
-		final var l = rawL.trim();
-		if (l.startsWith("[")) {
-			return true;
-		} else if (l.startsWith("ffmpeg version")
-		           || l.startsWith("ffprobe version")
-		           || l.startsWith("built with")
-		           || l.startsWith("configuration:")
-		           || l.startsWith("Press [q]")) {
-			return false;
-		} else if (l.startsWith("libavutil")
-		           || l.startsWith("libavcodec")
-		           || l.startsWith("libavformat")
-		           || l.startsWith("libavdevice")
-		           || l.startsWith("libavfilter")
-		           || l.startsWith("libswscale")
-		           || l.startsWith("libswresample")
-		           || l.startsWith("libpostproc")) {
-			return false;
-		}
-		return true;
-	};
+	/**
+	 * Check the -vf, -af, -filter and -filter_complex filters arguments, before run ffmpeg.
+	 * @return all errors messages. Empty == all ok.
+	 */
+	public List<String> checkFiltersArguments(final ExecutableFinder executableFinder) {
+		final var currentAbout = getAbout(executableFinder);
+
+		return Stream.of("-vf", "-af", "-filter", "-filter_complex")
+		        .map(parameterName -> FilterChains.merge(FilterChains.parse(parameterName, this)))
+		        .flatMap(chains -> chains.checkFiltersArguments(currentAbout).stream())
+		        .collect(Collectors.toUnmodifiableList());
+	}
+
+	private static final Predicate<String> filterOutErrorLines = l -> FFLogParser.isBannerLine(l) == false;
 
 	@Override
 	public Predicate<String> filterOutErrorLines() {
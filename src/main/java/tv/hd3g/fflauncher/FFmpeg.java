@@ -21,8 +21,10 @@ import static java.util.Objects.requireNonNull;
 import java.awt.Point;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
@@ -31,18 +33,70 @@ import org.ffmpeg.ffprobe.StreamType;
 
 import tv.hd3g.fflauncher.about.FFAbout;
 import tv.hd3g.fflauncher.enums.FFUnit;
+import tv.hd3g.fflauncher.mediainfo.MediaInfo;
+import tv.hd3g.fflauncher.mediainfo.MediaStream;
+import tv.hd3g.fflauncher.progress.FFmpegProgressListener;
+import tv.hd3g.fflauncher.progress.FFmpegProgressParser;
 import tv.hd3g.ffprobejaxb.FFprobeJAXB;
+import tv.hd3g.processlauncher.ProcesslauncherBuilder;
+import tv.hd3g.processlauncher.cmdline.ExecutableFinder;
 import tv.hd3g.processlauncher.cmdline.Parameters;
 
 public class FFmpeg extends FFbase implements InputGeneratorsTraits {
 
 	private static final Logger log = LogManager.getLogger();
+	private static final String P_PROGRESS = "-progress";
+	private static final String P_NOSTATS = "-nostats";
+
 	private int deviceIdToUse = -1;
+	private FFmpegProgressListener progressListener;
+	private long progressDurationUs = -1;
 
 	public FFmpeg(final String execName, final Parameters parameters) {
 		super(execName, parameters);
 	}
 
+	@Override
+	public void beforeRun(final ProcesslauncherBuilder processBuilder) {
+		super.beforeRun(processBuilder);
+		if (progressListener != null) {
+			processBuilder.getSetCaptureStandardOutputAsOutputText()
+			        .addObserver(new FFmpegProgressParser(progressListener, progressDurationUs));
+		}
+	}
+
+	/**
+	 * Add "-progress pipe:1 -nostats", and send each parsed progress block to the listener during executions.
+	 * No percent/ETA will be computed.
+	 */
+	public FFmpeg setProgressListener(final FFmpegProgressListener progressListener) {
+		return setProgressListener(progressListener, -1, TimeUnit.MICROSECONDS);
+	}
+
+	/**
+	 * Add "-progress pipe:1 -nostats", and send each parsed progress block to the listener during executions.
+	 * @param expectedDuration media duration to produce (like the probed source duration), used for compute percent/ETA. Set -1 if unknown.
+	 */
+	public FFmpeg setProgressListener(final FFmpegProgressListener progressListener,
+	                                  final long expectedDuration,
+	                                  final TimeUnit unit) {
+		this.progressListener = requireNonNull(progressListener, "\"progressListener\" can't to be null");
+		if (expectedDuration > 0) {
+			progressDurationUs = unit.toMicros(expectedDuration);
+		} else {
+			progressDurationUs = -1;
+		}
+
+		final var parameters = getInternalParameters();
+		parameters.ifHasNotParameter(() -> parameters.prependParameters(P_NOSTATS), P_NOSTATS);
+		parameters.ifHasNotParameter(() -> parameters.prependParameters(P_PROGRESS, "pipe:1"), P_PROGRESS);
+		return this;
+	}
+
+	public boolean isProgressListenerSet() {
+		return progressListener != null;
+	}
+
 	/**
 	 * Define cmd var name like &lt;%OUT_AUTOMATIC_n%&gt; with "n" the # of setted destination.
 	 * Add "-f container destination"
@@ -147,6 +201,13 @@ public class FFmpeg extends FFbase implements InputGeneratorsTraits {
 		return Optional.empty();
 	}
 
+	/**
+	 * Same as getFirstVideoStream, with the lightweight model.
+	 */
+	public static Optional<MediaStream> getFirstVideoStream(final MediaInfo analysingResult) {
+		return analysingResult.getFirstVideoStream();
+	}
+
 	public enum FFHardwareCodec {
 		/**
 		 * cuvid and nvenc
@@ -187,12 +248,39 @@ public class FFmpeg extends FFbase implements InputGeneratorsTraits {
 		}
 
 		final var videoStream = oVideoStream.get();
+		return addHardwareVideoDecoding(source, videoStream.getCodecName(), videoStream.getCodecLongName(),
+		        hardwareCodec, about);
+	}
 
-		final var codec = about.getCodecs().stream()
-		        .filter(c -> (c.decodingSupported && c.name.equals(videoStream.getCodecName())))
-		        .findFirst()
-		        .orElseThrow(() -> new MediaException("Can't found a valid decoder codec for " + videoStream
-		                .getCodecName() + " in \"" + source + "\""));
+	/**
+	 * Same as addHardwareVideoDecoding, with the lightweight model.
+	 * @throws MediaException if hardware decoding is not possible.
+	 */
+	public FFmpeg addHardwareVideoDecoding(final String source,
+	                                       final MediaInfo analysingResult,
+	                                       final FFHardwareCodec hardwareCodec,
+	                                       final FFAbout about) throws MediaException {
+		final var oVideoStream = getFirstVideoStream(analysingResult);
+
+		if (oVideoStream.isPresent() == false) {
+			throw new MediaException("Can't found \"valid\" video stream on \"" + source + "\"");
+		}
+
+		final var videoStream = oVideoStream.get();
+		final var codecName = videoStream.getCodecName()
+		        .orElseThrow(() -> new MediaException("Can't found video codec name on \"" + source + "\""));
+		return addHardwareVideoDecoding(source, codecName, videoStream.getCodecLongName().orElse(null),
+		        hardwareCodec, about);
+	}
+
+	private FFmpeg addHardwareVideoDecoding(final String source,
+	                                        final String codecName,
+	                                        final String codecLongName,
+	                                        final FFHardwareCodec hardwareCodec,
+	                                        final FFAbout about) throws MediaException {
+		final var codec = about.getDecodingCodec(codecName)
+		        .orElseThrow(() -> new MediaException("Can't found a valid decoder codec for " + codecName
+		                                              + " in \"" + source + "\""));
 
 		if (hardwareCodec == FFHardwareCodec.NV && about.isNVToolkitIsAvaliable()) {
 			final var oSourceCuvidCodecEngine = codec.decoders.stream().filter(decoder -> decoder
@@ -222,8 +310,8 @@ public class FFmpeg extends FFbase implements InputGeneratorsTraits {
 			}
 		}
 
-		throw new MediaException("Can't found a valid hardware decoder on \"" + source + "\" (\"" + videoStream
-		        .getCodecLongName() + "\")");
+		throw new MediaException("Can't found a valid hardware decoder on \"" + source + "\" (\"" + codecLongName
+		                         + "\")");
 	}
 
 	/**
@@ -240,9 +328,8 @@ public class FFmpeg extends FFbase implements InputGeneratorsTraits {
 			throw new MediaException("\"copy\" codec can't be handled by hardware !");
 		}
 
-		final var codec = about.getCodecs().stream().filter(c -> (c.encodingSupported && c.name.equals(
-		        destCodecName))).findFirst().orElseThrow(() -> new MediaException("Can't found a valid codec for "
-		                                                                          + destCodecName));
+		final var codec = about.getEncodingCodec(destCodecName)
+		        .orElseThrow(() -> new MediaException("Can't found a valid codec for " + destCodecName));
 
 		String coder;
 		if (hardwareCodec == FFHardwareCodec.NV && about.isNVToolkitIsAvaliable()) {
@@ -354,7 +441,7 @@ public class FFmpeg extends FFbase implements InputGeneratorsTraits {
 	}
 
 	/**
-	 * No checks will be done.
+	 * No checks will be done, see checkOutputsCompatibility.
 	 * See FFmpeg.addVideoEncoding for hardware use
 	 * @param outputVideoStreamIndex -1 by default
 	 */
@@ -444,4 +531,15 @@ public class FFmpeg extends FFbase implements InputGeneratorsTraits {
 		return this;
 	}
 
+	/**
+	 * Check, before run, the ready to run command line with "-h encoder=" and "-h muxer=" for each output:
+	 * unknown encoders and muxers, unsupported pixel formats, sample formats and sample rates, preset and tune
+	 * values, and audio/video streams in muxers without default audio/video codec.
+	 * See checkFiltersAvailability and checkFiltersArguments for filters.
+	 * @return all problems found. Empty == all ok.
+	 */
+	public List<String> checkOutputsCompatibility(final ExecutableFinder executableFinder) {
+		return FFmpegCommandValidator.check(getReadyToRunParameters().getParameters(), getAbout(executableFinder));
+	}
+
 }
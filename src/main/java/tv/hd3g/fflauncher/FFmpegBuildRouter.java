@@ -0,0 +1,249 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import tv.hd3g.fflauncher.about.FFAbout;
+import tv.hd3g.fflauncher.about.FFAboutRegistry;
+import tv.hd3g.fflauncher.progress.FFmpegProgressListener;
+import tv.hd3g.processlauncher.ExecutableTool;
+import tv.hd3g.processlauncher.ProcesslauncherBuilder;
+import tv.hd3g.processlauncher.cmdline.ExecutableFinder;
+import tv.hd3g.processlauncher.cmdline.Parameters;
+
+/**
+ * Choose, for each command, an ffmpeg build (executable) that supports all the needed encoders, filters, muxers and
+ * demuxers. If several builds can run it, choose first the never measured builds for this command profile, then the
+ * build with the best measured speed (exponentially weighted moving average) for this profile.
+ * A never measured build is routed only once per profile, until a speed is recorded for it: the concurrent commands
+ * of a new profile don't all go to the same unmeasured build. If all the unmeasured builds are already probed, and
+ * none is measured, the commands are distributed in turn on the capable builds.
+ * Threadsafe.
+ */
+public class FFmpegBuildRouter {
+	private static final Logger log = LogManager.getLogger();
+
+	private final ExecutableFinder executableFinder;
+	private final double speedSmoothingFactor;
+	private final List<String> execNames;
+	private final Map<String, Double> speedsByBuildProfile;
+	private final Set<String> probingBuildProfiles;
+	private final AtomicInteger roundRobin;
+
+	/**
+	 * @param speedSmoothingFactor EWMA factor for the last measured speed, from 0 (excluded) to 1 (only the last).
+	 */
+	public FFmpegBuildRouter(final ExecutableFinder executableFinder, final double speedSmoothingFactor) {
+		this.executableFinder = requireNonNull(executableFinder, "\"executableFinder\" can't to be null");
+		if (speedSmoothingFactor <= 0d || speedSmoothingFactor > 1d) {
+			throw new IllegalArgumentException("Invalid speedSmoothingFactor: " + speedSmoothingFactor);
+		}
+		this.speedSmoothingFactor = speedSmoothingFactor;
+		execNames = new CopyOnWriteArrayList<>();
+		speedsByBuildProfile = new ConcurrentHashMap<>();
+		probingBuildProfiles = ConcurrentHashMap.newKeySet();
+		roundRobin = new AtomicInteger();
+	}
+
+	public FFmpegBuildRouter(final ExecutableFinder executableFinder) {
+		this(executableFinder, 0.3d);
+	}
+
+	/**
+	 * @param execName like "ffmpeg-lean", or a full path, resolvable by the executableFinder.
+	 */
+	public FFmpegBuildRouter register(final String execName) {
+		requireNonNull(execName, "\"execName\" can't to be null");
+		if (execNames.contains(execName) == false) {
+			execNames.add(execName);
+		}
+		return this;
+	}
+
+	public List<String> getRegistered() {
+		return List.copyOf(execNames);
+	}
+
+	public FFAbout getAbout(final String execName) {
+		return FFAboutRegistry.getDefault().getAbout(execName, executableFinder, null);
+	}
+
+	/**
+	 * The chosen build for a command.
+	 */
+	public class Route {
+		private final String execName;
+		private final String profile;
+
+		private Route(final String execName, final String profile) {
+			this.execName = execName;
+			this.profile = profile;
+		}
+
+		public String getExecName() {
+			return execName;
+		}
+
+		public String getProfile() {
+			return profile;
+		}
+
+		public FFAbout getAbout() {
+			return FFmpegBuildRouter.this.getAbout(execName);
+		}
+
+		/**
+		 * @param speed like 1.5 for "1.5x"
+		 */
+		public void recordSpeed(final double speed) {
+			FFmpegBuildRouter.this.recordSpeed(execName, profile, speed);
+		}
+
+		/**
+		 * @return a listener for FFmpeg.setProgressListener, to record the speed of the ended execution.
+		 */
+		public FFmpegProgressListener getSpeedRecorder() {
+			return progress -> {
+				if (progress.isEnded() && progress.getSpeed() > 0d) {
+					recordSpeed(progress.getSpeed());
+				}
+			};
+		}
+
+		/**
+		 * @return a tool with the same parameters and the same beforeRun as tool, but with this route executable.
+		 */
+		public ExecutableTool toExecutableTool(final ConversionTool tool) {
+			final var parameters = tool.getReadyToRunParameters();
+			return new ExecutableTool() {
+
+				@Override
+				public Parameters getReadyToRunParameters() {
+					return parameters;
+				}
+
+				@Override
+				public String getExecutableName() {
+					return execName;
+				}
+
+				@Override
+				public void beforeRun(final ProcesslauncherBuilder processBuilder) {
+					tool.beforeRun(processBuilder);
+				}
+
+				@Override
+				public Predicate<String> filterOutErrorLines() {
+					return tool.filterOutErrorLines();
+				}
+
+			};
+		}
+
+		@Override
+		public String toString() {
+			return execName + " for " + profile;
+		}
+	}
+
+	/**
+	 * Set a profile from the needed encoders, filters, muxers and demuxers.
+	 * @return empty if no registered build can run this command.
+	 */
+	public Optional<Route> route(final ConversionTool ffmpeg) {
+		return route(ffmpeg, null);
+	}
+
+	/**
+	 * @param profile can be null, the name to group the speed measures, like "proxy-h264".
+	 * @return empty if no registered build can run this command.
+	 */
+	public Optional<Route> route(final ConversionTool ffmpeg, final String profile) {
+		requireNonNull(ffmpeg, "\"ffmpeg\" can't to be null");
+		final var requirements = new FFmpegCommandRequirements(ffmpeg.getReadyToRunParameters());
+		final var routeProfile = Optional.ofNullable(profile).orElseGet(requirements::toProfile);
+
+		final var capables = execNames.stream()
+		        .filter(execName -> {
+			        final var missing = requirements.getFirstMissing(getAbout(execName));
+			        if (missing != null) {
+				        log.debug("Build {} can't run {}, missing {}", execName, routeProfile, missing);
+				        return false;
+			        }
+			        return true;
+		        })
+		        .collect(Collectors.toUnmodifiableList());
+
+		final var chosen = capables.stream()
+		        .filter(execName -> getMeasuredSpeed(execName, routeProfile).isEmpty()
+		                            && probingBuildProfiles.add(toSpeedKey(execName, routeProfile)))
+		        .findFirst()
+		        .or(() -> capables.stream()
+		                .filter(execName -> getMeasuredSpeed(execName, routeProfile).isPresent())
+		                .max((l, r) -> Double.compare(
+		                        getMeasuredSpeed(l, routeProfile).orElse(0d),
+		                        getMeasuredSpeed(r, routeProfile).orElse(0d))))
+		        .or(() -> capables.stream()
+		                .skip(Math.floorMod(roundRobin.getAndIncrement(), Math.max(1, capables.size())))
+		                .findFirst());
+		chosen.ifPresentOrElse(
+		        execName -> log.debug("Route {} to {}", routeProfile, execName),
+		        () -> log.warn("No registered build can run {}", routeProfile));
+		return chosen.map(execName -> new Route(execName, routeProfile));
+	}
+
+	private static String toSpeedKey(final String execName, final String profile) {
+		return execName + "\u0000" + profile;
+	}
+
+	/**
+	 * @param speed like 1.5 for "1.5x". Ignored if not positive.
+	 */
+	public void recordSpeed(final String execName, final String profile, final double speed) {
+		requireNonNull(execName, "\"execName\" can't to be null");
+		requireNonNull(profile, "\"profile\" can't to be null");
+		if (speed <= 0d || Double.isFinite(speed) == false) {
+			return;
+		}
+		final var speedKey = toSpeedKey(execName, profile);
+		speedsByBuildProfile.merge(speedKey, speed,
+		        (previous, last) -> previous + speedSmoothingFactor * (last - previous));
+		probingBuildProfiles.remove(speedKey);
+	}
+
+	/**
+	 * @return the EWMA speed, empty if never measured.
+	 */
+	public Optional<Double> getMeasuredSpeed(final String execName, final String profile) {
+		return Optional.ofNullable(speedsByBuildProfile.get(toSpeedKey(execName, profile)));
+	}
+
+}
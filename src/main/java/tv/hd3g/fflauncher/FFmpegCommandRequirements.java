@@ -0,0 +1,113 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import tv.hd3g.fflauncher.about.FFAbout;
+import tv.hd3g.fflauncher.filtering.Filter;
+import tv.hd3g.fflauncher.filtering.FilterChains;
+import tv.hd3g.processlauncher.cmdline.Parameters;
+
+/**
+ * Encoders, filters, muxers and demuxers needed by an ffmpeg command line. Immutable.
+ */
+final class FFmpegCommandRequirements {
+
+	private static final List<String> FILTER_PARAMETERS = List.of("-vf", "-af", "-filter", "-filter_complex");
+
+	final Set<String> encoders;
+	final Set<String> filters;
+	final Set<String> muxers;
+	final Set<String> demuxers;
+
+	/**
+	 * @param parameters like ConversionTool.getReadyToRunParameters()
+	 */
+	FFmpegCommandRequirements(final Parameters parameters) {
+		final var parameterList = parameters.getParameters();
+		final var outputs = FFmpegCommandValidator.parseOutputs(parameterList);
+
+		encoders = outputs.stream()
+		        .flatMap(output -> Stream.of(
+		                output.getCodecs("v", "-vcodec").values(),
+		                output.getCodecs("a", "-acodec").values(),
+		                output.getCodecs("s", "-scodec").values(),
+		                output.get("-c").values(),
+		                output.get("-codec").values()))
+		        .flatMap(Collection::stream)
+		        .filter(codec -> "copy".equals(codec) == false)
+		        .collect(Collectors.toCollection(TreeSet::new));
+		filters = FILTER_PARAMETERS.stream()
+		        .map(parameterName -> FilterChains.merge(FilterChains.parse(parameterName, parameters)))
+		        .flatMap(chains -> IntStream.range(0, chains.getChainsCount()).mapToObj(chains::getChain))
+		        .flatMap(List::stream)
+		        .map(Filter::getFilterName)
+		        .collect(Collectors.toCollection(TreeSet::new));
+		muxers = outputs.stream()
+		        .map(output -> output.get("-f").get(""))
+		        .filter(format -> format != null)
+		        .collect(Collectors.toCollection(TreeSet::new));
+		demuxers = FFmpegCommandValidator.parseInputFormats(parameterList)
+		        .stream()
+		        .collect(Collectors.toCollection(TreeSet::new));
+	}
+
+	/**
+	 * @return the first missing capability on this build, or null if it can run this command.
+	 */
+	String getFirstMissing(final FFAbout about) {
+		for (final var encoder : encoders) {
+			if (about.isCoderIsAvaliable(encoder) == false && about.isCoderEngineIsAvaliable(encoder) == false) {
+				return "encoder " + encoder;
+			}
+		}
+		for (final var filter : filters) {
+			if (about.isFilterIsAvaliable(filter) == false) {
+				return "filter " + filter;
+			}
+		}
+		for (final var muxer : muxers) {
+			if (about.isToFormatIsAvaliable(muxer) == false) {
+				return "muxer " + muxer;
+			}
+		}
+		for (final var demuxer : demuxers) {
+			if (about.isFromFormatIsAvaliable(demuxer) == false) {
+				return "demuxer " + demuxer;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return like "enc=aac,libx264;flt=scale;mux=mp4;dmx="
+	 */
+	String toProfile() {
+		return "enc=" + String.join(",", encoders)
+		       + ";flt=" + String.join(",", filters)
+		       + ";mux=" + String.join(",", muxers)
+		       + ";dmx=" + String.join(",", demuxers);
+	}
+
+}
@@ -0,0 +1,333 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import tv.hd3g.fflauncher.about.FFAbout;
+import tv.hd3g.fflauncher.about.FFAboutEncoder;
+
+/**
+ * Check an ffmpeg command line, output by output, with the encoders and muxers declared capabilities.
+ * Only checks what ffmpeg will surely refuse, or will surely not do.
+ */
+final class FFmpegCommandValidator {
+
+	/**
+	 * Options names, without stream specifier, used without value.
+	 */
+	private static final Set<String> NO_VALUE_OPTIONS = Set.of(
+	        "-y", "-n", "-hide_banner", "-nostats", "-stats", "-nostdin", "-stdin", "-vn", "-an", "-sn", "-dn",
+	        "-shortest", "-re", "-copyts", "-start_at_zero", "-benchmark", "-benchmark_all", "-ignore_unknown",
+	        "-xerror", "-report", "-debug_ts", "-noautorotate", "-autorotate", "-accurate_seek",
+	        "-noaccurate_seek", "-copyinkf");
+
+	/**
+	 * Options names, without stream specifier, always followed by a value.
+	 */
+	private static final Set<String> VALUE_OPTIONS = Set.of(
+	        "-i", "-f", "-c", "-codec", "-vcodec", "-acodec", "-scodec", "-dcodec", "-pix_fmt", "-sample_fmt",
+	        "-ar", "-ac", "-channel_layout", "-preset", "-tune", "-profile", "-level", "-crf", "-qp", "-q",
+	        "-qscale", "-b", "-vb", "-ab", "-maxrate", "-minrate", "-bufsize", "-g", "-bf", "-r", "-s", "-aspect",
+	        "-vf", "-af", "-filter", "-filter_complex", "-map", "-map_metadata", "-map_chapters", "-metadata",
+	        "-disposition", "-ss", "-sseof", "-t", "-to", "-fs", "-itsoffset", "-frames", "-vframes", "-aframes",
+	        "-threads", "-loglevel", "-v", "-movflags", "-flags", "-fflags", "-strict", "-vsync", "-fps_mode",
+	        "-tag", "-vtag", "-atag", "-bsf", "-timecode", "-stream_loop", "-framerate", "-video_size",
+	        "-hwaccel", "-hwaccel_device", "-hwaccel_output_format", "-init_hw_device", "-filter_hw_device",
+	        "-max_muxing_queue_size", "-progress", "-pass", "-passlogfile", "-x264-params", "-x265-params",
+	        "-probesize", "-analyzeduration", "-color_primaries", "-color_trc", "-colorspace", "-color_range",
+	        "-field_order");
+
+	private static final String COPY = "copy";
+	private static final List<String> ENCODER_PRIVATE_OPTIONS = List.of("preset", "tune");
+
+	private FFmpegCommandValidator() {
+	}
+
+	/**
+	 * Options for an output, by name without stream specifier, then by stream specifier.
+	 */
+	static class OutputSetup {
+		final Map<String, Map<String, String>> options = new LinkedHashMap<>();
+		String destination;
+
+		void put(final String option, final String value) {
+			final var specifierPos = option.indexOf(':');
+			final String name;
+			final String specifier;
+			if (specifierPos == -1) {
+				name = option;
+				specifier = "";
+			} else {
+				name = option.substring(0, specifierPos);
+				specifier = option.substring(specifierPos + 1);
+			}
+			options.computeIfAbsent(name, n -> new LinkedHashMap<>()).put(specifier, value);
+		}
+
+		Map<String, String> get(final String name) {
+			return options.getOrDefault(name, Map.of());
+		}
+
+		/**
+		 * @param mediaType like "v" or "a"
+		 * @return encoders by stream specifier, like "v:0" -&gt; "libx264"
+		 */
+		Map<String, String> getCodecs(final String mediaType, final String legacyOptionName) {
+			final var result = new LinkedHashMap<String, String>();
+			List.of("-c", "-codec").forEach(option -> get(option).forEach((specifier, codec) -> {
+				if (specifier.equals(mediaType) || specifier.startsWith(mediaType + ":")) {
+					result.put(specifier, codec);
+				}
+			}));
+			final var legacy = get(legacyOptionName).get("");
+			if (legacy != null) {
+				result.put(mediaType, legacy);
+			}
+			return result;
+		}
+
+		/**
+		 * @return values for this option, applicable to the stream with codecSpecifier
+		 */
+		List<String> getValuesFor(final String name, final String mediaType, final String codecSpecifier) {
+			return get(name).entrySet().stream()
+			        .filter(entry -> {
+				        final var specifier = entry.getKey();
+				        return specifier.isEmpty()
+				               || specifier.equals(mediaType)
+				               || specifier.equals(codecSpecifier)
+				               || codecSpecifier.equals(mediaType) && specifier.startsWith(mediaType + ":");
+			        })
+			        .map(Map.Entry::getValue)
+			        .collect(Collectors.toUnmodifiableList());
+		}
+	}
+
+	/**
+	 * @return the option name without stream specifier, like "-c" for "-c:v:0"
+	 */
+	private static String getOptionName(final String parameter) {
+		final var specifierPos = parameter.indexOf(':');
+		if (specifierPos == -1) {
+			return parameter;
+		}
+		return parameter.substring(0, specifierPos);
+	}
+
+	/**
+	 * Options before an "-i" are for this input, and are ignored here.
+	 * Stops on the first unknown option: it may or may not take a value, so nothing after it can be trusted.
+	 * @param parameters like ConversionTool.getReadyToRunParameters().getParameters()
+	 * @return the outputs set before the first unknown option
+	 */
+	static List<OutputSetup> parseOutputs(final List<String> parameters) {
+		final var result = new ArrayList<OutputSetup>();
+		var current = new OutputSetup();
+		for (var pos = 0; pos < parameters.size(); pos++) {
+			final var parameter = parameters.get(pos);
+			if (parameter.startsWith("-") && parameter.length() > 1) {
+				final var optionName = getOptionName(parameter);
+				if (NO_VALUE_OPTIONS.contains(optionName)) {
+					continue;
+				} else if (VALUE_OPTIONS.contains(optionName) == false || pos + 1 == parameters.size()) {
+					break;
+				}
+				final var value = parameters.get(++pos);
+				if (parameter.equals("-i")) {
+					current = new OutputSetup();
+				} else {
+					current.put(parameter, value);
+				}
+			} else {
+				current.destination = parameter;
+				result.add(current);
+				current = new OutputSetup();
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Stops on the first unknown option, like parseOutputs.
+	 * @return the "-f" values set before each "-i"
+	 */
+	static List<String> parseInputFormats(final List<String> parameters) {
+		final var result = new ArrayList<String>();
+		String format = null;
+		for (var pos = 0; pos < parameters.size(); pos++) {
+			final var parameter = parameters.get(pos);
+			if (parameter.startsWith("-") && parameter.length() > 1) {
+				final var optionName = getOptionName(parameter);
+				if (NO_VALUE_OPTIONS.contains(optionName)) {
+					continue;
+				} else if (VALUE_OPTIONS.contains(optionName) == false || pos + 1 == parameters.size()) {
+					break;
+				}
+				final var value = parameters.get(++pos);
+				if (parameter.equals("-f")) {
+					format = value;
+				} else if (parameter.equals("-i")) {
+					if (format != null) {
+						result.add(format);
+					}
+					format = null;
+				}
+			} else {
+				format = null;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return all problems found. Empty == all ok.
+	 */
+	static List<String> check(final List<String> parameters, final FFAbout about) {
+		final var result = new ArrayList<String>();
+		for (final var output : parseOutputs(parameters)) {
+			final var videoCodecs = output.getCodecs("v", "-vcodec");
+			final var audioCodecs = output.getCodecs("a", "-acodec");
+
+			final var encoders = new LinkedHashMap<String, FFAboutEncoder>();
+			videoCodecs.forEach((specifier, codec) -> checkEncoder(about, output, "v", specifier, codec, result)
+			        .ifPresent(encoder -> encoders.put(specifier, encoder)));
+			audioCodecs.forEach((specifier, codec) -> checkEncoder(about, output, "a", specifier, codec, result)
+			        .ifPresent(encoder -> encoders.put(specifier, encoder)));
+			Optional.ofNullable(output.get("-c").get(""))
+			        .flatMap(codec -> checkEncoder(about, output, "", "", codec, result))
+			        .ifPresent(encoder -> encoders.put("", encoder));
+			ENCODER_PRIVATE_OPTIONS.forEach(option -> checkPrivateOption(output, option, encoders, result));
+
+			final var format = output.get("-f").get("");
+			if (format != null) {
+				checkMuxer(about, output, format, videoCodecs, audioCodecs, result);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return the encoder, if known
+	 */
+	private static Optional<FFAboutEncoder> checkEncoder(final FFAbout about,
+	                                                     final OutputSetup output,
+	                                                     final String mediaType,
+	                                                     final String specifier,
+	                                                     final String codec,
+	                                                     final List<String> result) {
+		if (COPY.equals(codec)) {
+			return Optional.empty();
+		}
+		final var encoder = about.getEncoder(codec);
+		final var prefix = "Output " + output.destination + ", encoder " + codec + ": ";
+		if (encoder.isKnown() == false) {
+			result.add(prefix + "unknown encoder");
+			return Optional.empty();
+		}
+
+		if ("v".equals(mediaType)) {
+			checkSupported(encoder.getPixelFormats(), output.getValuesFor("-pix_fmt", mediaType, specifier),
+			        prefix + "unsupported pixel format ", result);
+		} else if ("a".equals(mediaType)) {
+			checkSupported(encoder.getSampleFormats(), output.getValuesFor("-sample_fmt", mediaType, specifier),
+			        prefix + "unsupported sample format ", result);
+			checkSupported(encoder.getSampleRates().stream()
+			        .map(String::valueOf)
+			        .collect(Collectors.toUnmodifiableList()),
+			        output.getValuesFor("-ar", mediaType, specifier),
+			        prefix + "unsupported sample rate ", result);
+		}
+		return Optional.ofNullable(encoder);
+	}
+
+	/**
+	 * ffmpeg only refuse a private option if none of the targeted encoders use it.
+	 * @param encoders by stream specifier
+	 */
+	private static void checkPrivateOption(final OutputSetup output,
+	                                       final String optionName,
+	                                       final Map<String, FFAboutEncoder> encoders,
+	                                       final List<String> result) {
+		output.get("-" + optionName).forEach((optionSpecifier, value) -> {
+			final var targeted = encoders.entrySet().stream()
+			        .filter(entry -> optionSpecifier.isEmpty()
+			                         || entry.getKey().isEmpty()
+			                         || entry.getKey().equals(optionSpecifier)
+			                         || entry.getKey().startsWith(optionSpecifier + ":")
+			                         || optionSpecifier.startsWith(entry.getKey() + ":"))
+			        .map(Map.Entry::getValue)
+			        .collect(Collectors.toUnmodifiableList());
+			if (targeted.isEmpty()) {
+				return;
+			}
+			final var options = targeted.stream()
+			        .map(encoder -> encoder.getOption(optionName))
+			        .flatMap(Optional::stream)
+			        .collect(Collectors.toUnmodifiableList());
+			final var prefix = "Output " + output.destination + ", -" + optionName + " " + value + ": ";
+			if (options.isEmpty()) {
+				result.add(prefix + "not an option for " + targeted.stream()
+				        .map(FFAboutEncoder::getEncoderName)
+				        .collect(Collectors.toUnmodifiableList()));
+			} else {
+				options.forEach(option -> option.checkValue(value).ifPresent(reason -> result.add(prefix + reason)));
+			}
+		});
+	}
+
+	private static void checkSupported(final List<String> supported,
+	                                   final List<String> values,
+	                                   final String message,
+	                                   final List<String> result) {
+		if (supported.isEmpty()) {
+			return;
+		}
+		values.stream()
+		        .filter(value -> supported.contains(value) == false)
+		        .forEach(value -> result.add(message + value + " " + supported));
+	}
+
+	private static void checkMuxer(final FFAbout about,
+	                               final OutputSetup output,
+	                               final String format,
+	                               final Map<String, String> videoCodecs,
+	                               final Map<String, String> audioCodecs,
+	                               final List<String> result) {
+		final var muxer = about.getMuxer(format);
+		final var prefix = "Output " + output.destination + ", muxer " + format + ": ";
+		if (muxer.isKnown() == false) {
+			result.add(prefix + "unknown muxer");
+			return;
+		}
+		if (videoCodecs.isEmpty() == false
+		    && muxer.getDefaultVideoCodec().isEmpty()) {
+			result.add(prefix + "no default video codec, it can't accept video " + videoCodecs.values());
+		}
+		if (audioCodecs.isEmpty() == false
+		    && muxer.getDefaultAudioCodec().isEmpty()) {
+			result.add(prefix + "no default audio codec, it can't accept audio " + audioCodecs.values());
+		}
+	}
+
+}
@@ -31,6 +31,11 @@ public class FFprobe extends FFbase {
 	private static final String P_SHOW_CHAPTERS = "-show_chapters";
 	private static final String P_PRINT_FORMAT = "-print_format";
 	private static final String P_PRETTY = "-pretty";
+	private static final String P_READ_INTERVALS = "-read_intervals";
+	private static final String P_PROBESIZE = "-probesize";
+	private static final String P_ANALYZEDURATION = "-analyzeduration";
+	private static final String P_SHOW_ENTRIES = "-show_entries";
+	private static final String P_SELECT_STREAMS = "-select_streams";
 
 	public FFprobe(final String execName, final Parameters parameters) {
 		super(execName, parameters);
@@ -197,4 +202,122 @@ public class FFprobe extends FFbase {
 		return getInternalParameters().hasParameters(P_SHOW_CHAPTERS);
 	}
 
+	/**
+	 * -read_intervals set read intervals, like "%+10" (the 10 first seconds) or "%+#1" (only the first packet)
+	 */
+	public FFprobe setReadIntervals(final String readIntervals) {
+		getInternalParameters().ifHasNotParameter(() -> getInternalParameters().addParameters(P_READ_INTERVALS,
+		        readIntervals), P_READ_INTERVALS);
+		return this;
+	}
+
+	public boolean hasReadIntervals() {
+		return getInternalParameters().hasParameters(P_READ_INTERVALS);
+	}
+
+	/**
+	 * -probesize set probing size, in bytes (format option, for the next input)
+	 */
+	public FFprobe setProbeSize(final long bytes) {
+		if (bytes < 32) {
+			throw new IllegalArgumentException("Invalid probesize: " + bytes);
+		}
+		getInternalParameters().ifHasNotParameter(() -> getInternalParameters().addParameters(P_PROBESIZE,
+		        String.valueOf(bytes)), P_PROBESIZE);
+		return this;
+	}
+
+	public boolean hasProbeSize() {
+		return getInternalParameters().hasParameters(P_PROBESIZE);
+	}
+
+	/**
+	 * -analyzeduration set how many microseconds are analyzed to probe the input (format option, for the next input)
+	 */
+	public FFprobe setAnalyzeDuration(final long microseconds) {
+		if (microseconds < 0) {
+			throw new IllegalArgumentException("Invalid analyzeduration: " + microseconds);
+		}
+		getInternalParameters().ifHasNotParameter(() -> getInternalParameters().addParameters(P_ANALYZEDURATION,
+		        String.valueOf(microseconds)), P_ANALYZEDURATION);
+		return this;
+	}
+
+	public boolean hasAnalyzeDuration() {
+		return getInternalParameters().hasParameters(P_ANALYZEDURATION);
+	}
+
+	/**
+	 * -show_entries set list of entries to show
+	 */
+	public FFprobe setShowEntries(final FFprobeEntries entries) {
+		if (entries.isEmpty()) {
+			throw new IllegalArgumentException("No entries to show");
+		}
+		return setShowEntries(entries.toString());
+	}
+
+	/**
+	 * -show_entries set list of entries to show, like "format=duration:stream=index,codec_type"
+	 */
+	public FFprobe setShowEntries(final String entries) {
+		getInternalParameters().ifHasNotParameter(() -> getInternalParameters().addParameters(P_SHOW_ENTRIES,
+		        entries), P_SHOW_ENTRIES);
+		return this;
+	}
+
+	public boolean hasShowEntries() {
+		return getInternalParameters().hasParameters(P_SHOW_ENTRIES);
+	}
+
+	public enum FFStreamType {
+		VIDEO("v"),
+		AUDIO("a"),
+		SUBTITLE("s"),
+		DATA("d"),
+		ATTACHMENT("t");
+
+		private final String specifier;
+
+		FFStreamType(final String specifier) {
+			this.specifier = specifier;
+		}
+
+		@Override
+		public String toString() {
+			return specifier;
+		}
+	}
+
+	/**
+	 * -select_streams select the specified streams, like "a" or "v:0"
+	 */
+	public FFprobe setSelectStreams(final String streamSpecifier) {
+		getInternalParameters().ifHasNotParameter(() -> getInternalParameters().addParameters(P_SELECT_STREAMS,
+		        streamSpecifier), P_SELECT_STREAMS);
+		return this;
+	}
+
+	/**
+	 * -select_streams select all the streams of this type
+	 */
+	public FFprobe setSelectStreams(final FFStreamType streamType) {
+		return setSelectStreams(streamType.toString());
+	}
+
+	/**
+	 * -select_streams select only one stream of this type
+	 * @param relativeIndex the position in the streams of this type, starting by 0
+	 */
+	public FFprobe setSelectStreams(final FFStreamType streamType, final int relativeIndex) {
+		if (relativeIndex < 0) {
+			throw new IllegalArgumentException("Invalid relativeIndex: " + relativeIndex);
+		}
+		return setSelectStreams(streamType + ":" + relativeIndex);
+	}
+
+	public boolean hasSelectStreams() {
+		return getInternalParameters().hasParameters(P_SELECT_STREAMS);
+	}
+
 }
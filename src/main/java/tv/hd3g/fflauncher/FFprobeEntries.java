@@ -0,0 +1,131 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.joining;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builder for the ffprobe -show_entries value, like "format=duration:stream=index,channels:stream_tags=language".
+ * Only the requested sections are shown, with only the requested fields. A section without fields shows all its
+ * fields. Sections and fields keep the add order; add twice a field is ignored.
+ */
+public class FFprobeEntries {
+
+	public static final String SECTION_FORMAT = "format";
+	public static final String SECTION_FORMAT_TAGS = "format_tags";
+	public static final String SECTION_STREAM = "stream";
+	public static final String SECTION_STREAM_TAGS = "stream_tags";
+	public static final String SECTION_STREAM_DISPOSITION = "stream_disposition";
+	public static final String SECTION_CHAPTER = "chapter";
+	public static final String SECTION_PACKET = "packet";
+	public static final String SECTION_FRAME = "frame";
+	public static final String SECTION_PROGRAM = "program";
+
+	private final Map<String, Set<String>> sections;
+
+	public FFprobeEntries() {
+		sections = new LinkedHashMap<>();
+	}
+
+	/**
+	 * @param section any ffprobe section name, like "stream" or "packet_tags"
+	 * @param fields can be empty: all the section fields
+	 */
+	public FFprobeEntries add(final String section, final String... fields) {
+		requireNonNull(section, "\"section\" can't to be null");
+		requireNonNull(fields, "\"fields\" can't to be null");
+		if (section.isEmpty() || section.matches("[a-z_]+") == false) {
+			throw new IllegalArgumentException("Invalid section name: \"" + section + "\"");
+		}
+		final var sectionFields = sections.computeIfAbsent(section, s -> new LinkedHashSet<>());
+		for (final var field : fields) {
+			requireNonNull(field, "\"field\" can't to be null");
+			if (field.isEmpty() || field.matches("[a-zA-Z0-9_]+") == false) {
+				throw new IllegalArgumentException("Invalid field name: \"" + field + "\" for " + section);
+			}
+			sectionFields.add(field);
+		}
+		return this;
+	}
+
+	public FFprobeEntries format(final String... fields) {
+		return add(SECTION_FORMAT, fields);
+	}
+
+	public FFprobeEntries formatTags(final String... tags) {
+		return add(SECTION_FORMAT_TAGS, tags);
+	}
+
+	public FFprobeEntries stream(final String... fields) {
+		return add(SECTION_STREAM, fields);
+	}
+
+	public FFprobeEntries streamTags(final String... tags) {
+		return add(SECTION_STREAM_TAGS, tags);
+	}
+
+	public FFprobeEntries streamDisposition(final String... dispositions) {
+		return add(SECTION_STREAM_DISPOSITION, dispositions);
+	}
+
+	public FFprobeEntries chapter(final String... fields) {
+		return add(SECTION_CHAPTER, fields);
+	}
+
+	public FFprobeEntries packet(final String... fields) {
+		return add(SECTION_PACKET, fields);
+	}
+
+	public FFprobeEntries frame(final String... fields) {
+		return add(SECTION_FRAME, fields);
+	}
+
+	public boolean isEmpty() {
+		return sections.isEmpty();
+	}
+
+	/**
+	 * @return true if this section is requested
+	 */
+	public boolean hasSection(final String section) {
+		return sections.containsKey(section);
+	}
+
+	/**
+	 * @return the -show_entries value
+	 */
+	@Override
+	public String toString() {
+		return sections.entrySet().stream()
+		        .map(FFprobeEntries::toEntry)
+		        .collect(joining(":"));
+	}
+
+	private static String toEntry(final Map.Entry<String, Set<String>> section) {
+		if (section.getValue().isEmpty()) {
+			return section.getKey();
+		}
+		return section.getKey() + "=" + String.join(",", section.getValue());
+	}
+
+}
@@ -16,13 +16,22 @@
  */
 package tv.hd3g.fflauncher.about;
 
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+
+import java.io.FileNotFoundException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.BiFunction;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -30,18 +39,20 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import tv.hd3g.fflauncher.FFbase;
+import tv.hd3g.fflauncher.enums.FilterConnectorType;
 import tv.hd3g.processlauncher.CapturedStdOutErrTextRetention;
 import tv.hd3g.processlauncher.InvalidExecution;
 import tv.hd3g.processlauncher.cmdline.ExecutableFinder;
 import tv.hd3g.processlauncher.cmdline.Parameters;
 
 /**
- * Threadsafe
- * Sync (blocking) during executions
+ * Threadsafe, and lock-free after each section load.
+ * Sync (blocking) during executions, except for warmUp. Concurrent first calls share the same execution.
  */
 public class FFAbout {
 
 	private static final String CUVID = "cuvid";
+	private static final Pattern HELP_TOPIC_NAME = Pattern.compile("^[\\w-]+$");
 
 	private static final Logger log = LogManager.getLogger();
 
@@ -49,13 +60,46 @@ public class FFAbout {
 	private final ExecutableFinder executableFinder;
 	private final ScheduledExecutorService maxExecTimeScheduler;
 
+	private final FFAboutCache cache;
+	private final FFAboutLazySection<Optional<FFAboutCache.Entry>> cacheEntry;
+
 	public FFAbout(final String execName,
 	               final ExecutableFinder executableFinder,
 	               final ScheduledExecutorService maxExecTimeScheduler) {
+		this(execName, executableFinder, maxExecTimeScheduler, null);
+	}
+
+	/**
+	 * @param cache can be null, avoid to run again the executable if it's not changed since the last cache write.
+	 */
+	public FFAbout(final String execName,
+	               final ExecutableFinder executableFinder,
+	               final ScheduledExecutorService maxExecTimeScheduler,
+	               final FFAboutCache cache) {
 		this.execName = Objects.requireNonNull(execName, "\"execName\" can't to be null");
 		this.executableFinder = Objects.requireNonNull(executableFinder, "\"executableFinder\" can't to be null");
 		this.maxExecTimeScheduler = Objects.requireNonNull(maxExecTimeScheduler,
 		        "\"maxExecTimeScheduler\" can't to be null");
+		this.cache = cache;
+		cacheEntry = new FFAboutLazySection<>(this::loadCacheEntry);
+
+		version = new FFAboutLazySection<>(this::loadVersion);
+		codecs = new FFAboutLazySection<>(this::loadCodecs);
+		formats = new FFAboutLazySection<>(this::loadFormats);
+		devices = new FFAboutLazySection<>(this::loadDevices);
+		bitStreamFilters = new FFAboutLazySection<>(this::loadBitStreamFilters);
+		protocols = new FFAboutLazySection<>(this::loadProtocols);
+		filters = new FFAboutLazySection<>(this::loadFilters);
+		pixelsFormats = new FFAboutLazySection<>(this::loadPixelFormats);
+		hardwareAccelerationMethods = new FFAboutLazySection<>(this::loadHWAccelerationMethods);
+
+		codecsIndex = new FFAboutLazySection<>(() -> new FFAboutIndexes.Codecs(getCodecs()));
+		formatsIndex = new FFAboutLazySection<>(() -> new FFAboutIndexes.Formats(getFormats()));
+		filtersIndex = new FFAboutLazySection<>(() -> new FFAboutIndexes.Filters(getFilters()));
+		nvToolkitAvaliable = new FFAboutLazySection<>(this::computeNVToolkitIsAvaliable);
+		filterOptions = new ConcurrentHashMap<>();
+		encoders = new ConcurrentHashMap<>();
+		muxers = new ConcurrentHashMap<>();
 	}
 
 	private CapturedStdOutErrTextRetention internalRun(final String bulkParameters) {
@@ -71,59 +115,138 @@ public class FFAbout {
 		}
 	}
 
-	private FFAboutVersion version;
-	private List<FFAboutCodec> codecs;
-	private List<FFAboutFormat> formats;
-	private List<FFAboutDevice> devices;
-	private Set<String> bitStreamFilters;
-	private FFAboutProtocols protocols;
-	private List<FFAboutFilter> filters;
-	private List<FFAboutPixelFormat> pixelsFormats;
-	private Set<String> hardwareAccelerationMethods;
-
-	public synchronized FFAboutVersion getVersion() {
-		if (version == null) {
-			version = new FFAboutVersion(internalRun("-loglevel quiet -version").getStdouterrLines(false).map(
-			        String::trim)
-			        .collect(Collectors.toUnmodifiableList()));
+	private Optional<FFAboutCache.Entry> loadCacheEntry() {
+		if (cache == null) {
+			return Optional.empty();
+		}
+		try {
+			return Optional.ofNullable(cache.getEntry(executableFinder.get(execName)));
+		} catch (final FileNotFoundException e) {
+			log.debug("Can't found {} for the cache", execName, e);
+			return Optional.empty();
 		}
-		return version;
+	}
+
+	private Optional<FFAboutCache.Entry> getCacheEntry() {
+		return cacheEntry.get();
 	}
 
 	/**
-	 * -codecs show available codecs
+	 * Run (or get from the cache) and trim all lines.
 	 */
-	public synchronized List<FFAboutCodec> getCodecs() {
-		if (codecs == null) {
-			codecs = FFAboutCodec.parse(internalRun("-codecs").getStdoutLines(false).map(String::trim).collect(
-			        Collectors
-			                .toUnmodifiableList()));
+	private List<String> getLines(final String bulkParameters, final boolean withStdErr) {
+		final var cached = getCacheEntry().flatMap(entry -> entry.get(bulkParameters));
+		if (cached.isPresent()) {
+			return cached.get();
 		}
-		return codecs;
+		final var textRetention = internalRun(bulkParameters);
+		final var lines = (withStdErr ? textRetention.getStdouterrLines(false) : textRetention.getStdoutLines(false))
+		        .map(String::trim)
+		        .collect(Collectors.toUnmodifiableList());
+		getCacheEntry().ifPresent(entry -> entry.put(bulkParameters, lines));
+		return lines;
+	}
+
+	private final FFAboutLazySection<FFAboutVersion> version;
+	private final FFAboutLazySection<List<FFAboutCodec>> codecs;
+	private final FFAboutLazySection<List<FFAboutFormat>> formats;
+	private final FFAboutLazySection<List<FFAboutDevice>> devices;
+	private final FFAboutLazySection<Set<String>> bitStreamFilters;
+	private final FFAboutLazySection<FFAboutProtocols> protocols;
+	private final FFAboutLazySection<List<FFAboutFilter>> filters;
+	private final FFAboutLazySection<List<FFAboutPixelFormat>> pixelsFormats;
+	private final FFAboutLazySection<Set<String>> hardwareAccelerationMethods;
+
+	private final FFAboutLazySection<FFAboutIndexes.Codecs> codecsIndex;
+	private final FFAboutLazySection<FFAboutIndexes.Formats> formatsIndex;
+	private final FFAboutLazySection<FFAboutIndexes.Filters> filtersIndex;
+	private final FFAboutLazySection<Boolean> nvToolkitAvaliable;
+	private final ConcurrentHashMap<String, FFAboutLazySection<FFAboutFilterOptions>> filterOptions;
+	private final ConcurrentHashMap<String, FFAboutLazySection<FFAboutEncoder>> encoders;
+	private final ConcurrentHashMap<String, FFAboutLazySection<FFAboutMuxer>> muxers;
+
+	private FFAboutVersion loadVersion() {
+		return new FFAboutVersion(getLines("-loglevel quiet -version", true));
+	}
+
+	private List<FFAboutCodec> loadCodecs() {
+		return FFAboutCodec.parse(getLines("-codecs", false));
+	}
+
+	private List<FFAboutFormat> loadFormats() {
+		return FFAboutFormat.parseFormats(getLines("-formats", false));
+	}
+
+	private List<FFAboutDevice> loadDevices() {
+		return FFAboutDevice.parseDevices(getLines("-devices", false));
+	}
+
+	private Set<String> loadBitStreamFilters() {
+		return parseBSFS(getLines("-bsfs", false).stream());
+	}
+
+	private FFAboutProtocols loadProtocols() {
+		return new FFAboutProtocols(getLines("-protocols", true));
+	}
+
+	private List<FFAboutFilter> loadFilters() {
+		return FFAboutFilter.parseFilters(getLines("-filters", false));
+	}
+
+	private List<FFAboutPixelFormat> loadPixelFormats() {
+		return FFAboutPixelFormat.parsePixelsFormats(getLines("-pix_fmts", false));
+	}
+
+	private Set<String> loadHWAccelerationMethods() {
+		return parseHWAccelerationMethods(getLines("-hwaccels", false).stream());
+	}
+
+	/**
+	 * Run all the not yet loaded sections queries in parallel, and publish all the results at once.
+	 * Getters called during the warm up still run their own query, and the sections they load are kept.
+	 * @return completed when all sections are loaded, or exceptionally if one query fails (nothing is published).
+	 */
+	public CompletableFuture<Void> warmUp(final Executor executor) {
+		Objects.requireNonNull(executor, "\"executor\" can't to be null");
+		final var publishers = Stream.of(
+		        version, codecs, formats, devices, bitStreamFilters, protocols, filters, pixelsFormats,
+		        hardwareAccelerationMethods)
+		        .filter(section -> section.isLoaded() == false)
+		        .map(section -> prepareWarmUp(section, executor))
+		        .collect(Collectors.toUnmodifiableList());
+		return CompletableFuture.allOf(publishers.toArray(new CompletableFuture[publishers.size()]))
+		        .thenRun(() -> publishers.forEach(publisher -> publisher.join().run()));
+	}
+
+	private static <T> CompletableFuture<Runnable> prepareWarmUp(final FFAboutLazySection<T> section,
+	                                                             final Executor executor) {
+		return supplyAsync(section::loadUnpublished, executor)
+		        .thenApply(loaded -> () -> section.publish(loaded));
+	}
+
+	public FFAboutVersion getVersion() {
+		return version.get();
+	}
+
+	/**
+	 * -codecs show available codecs
+	 */
+	public List<FFAboutCodec> getCodecs() {
+		return codecs.get();
 	}
 
 	/**
 	 * -formats show available formats
 	 */
-	public synchronized List<FFAboutFormat> getFormats() {
-		if (formats == null) {
-			formats = FFAboutFormat.parseFormats(internalRun("-formats").getStdoutLines(false).map(String::trim)
-			        .collect(
-			                Collectors.toUnmodifiableList()));
-		}
-		return formats;
+	public List<FFAboutFormat> getFormats() {
+		return formats.get();
 	}
 
 	/**
 	 * -devices show available devices
 	 */
-	public synchronized List<FFAboutDevice> getDevices() {
-		if (devices == null) {
-			devices = FFAboutDevice.parseDevices(internalRun("-devices").getStdoutLines(false).map(String::trim)
-			        .collect(
-			                Collectors.toUnmodifiableList()));
-		}
-		return devices;
+	public List<FFAboutDevice> getDevices() {
+		return devices.get();
 	}
 
 	static Set<String> parseBSFS(final Stream<String> lines) {
@@ -134,47 +257,29 @@ public class FFAbout {
 	/**
 	 * -bsfs show available bit stream filters
 	 */
-	public synchronized Set<String> getBitStreamFilters() {
-		if (bitStreamFilters == null) {
-			bitStreamFilters = parseBSFS(internalRun("-bsfs").getStdoutLines(false).map(String::trim));
-		}
-		return bitStreamFilters;
+	public Set<String> getBitStreamFilters() {
+		return bitStreamFilters.get();
 	}
 
 	/**
 	 * -protocols show available protocols
 	 */
-	public synchronized FFAboutProtocols getProtocols() {
-		if (protocols == null) {
-			protocols = new FFAboutProtocols(internalRun("-protocols").getStdouterrLines(false).map(String::trim)
-			        .collect(
-			                Collectors.toUnmodifiableList()));
-		}
-
-		return protocols;
+	public FFAboutProtocols getProtocols() {
+		return protocols.get();
 	}
 
 	/**
 	 * -filters show available filters
 	 */
-	public synchronized List<FFAboutFilter> getFilters() {
-		if (filters == null) {
-			filters = FFAboutFilter.parseFilters(internalRun("-filters").getStdoutLines(false).map(String::trim)
-			        .collect(
-			                Collectors.toUnmodifiableList()));
-		}
-		return filters;
+	public List<FFAboutFilter> getFilters() {
+		return filters.get();
 	}
 
 	/**
 	 * -pix_fmts show available pixel formats
 	 */
-	public synchronized List<FFAboutPixelFormat> getPixelFormats() {
-		if (pixelsFormats == null) {
-			pixelsFormats = FFAboutPixelFormat.parsePixelsFormats(internalRun("-pix_fmts").getStdoutLines(false).map(
-			        String::trim).collect(Collectors.toUnmodifiableList()));
-		}
-		return pixelsFormats;
+	public List<FFAboutPixelFormat> getPixelFormats() {
+		return pixelsFormats.get();
 	}
 
 	static Set<String> parseHWAccelerationMethods(final Stream<String> lines) {
@@ -185,12 +290,8 @@ public class FFAbout {
 	/**
 	 * -hwaccels show available HW acceleration methods
 	 */
-	public synchronized Set<String> getAvailableHWAccelerationMethods() {
-		if (hardwareAccelerationMethods == null) {
-			hardwareAccelerationMethods = parseHWAccelerationMethods(internalRun("-hwaccels").getStdoutLines(false)
-			        .map(String::trim));
-		}
-		return hardwareAccelerationMethods;
+	public Set<String> getAvailableHWAccelerationMethods() {
+		return hardwareAccelerationMethods.get();
 	}
 
 	/**
@@ -215,29 +316,103 @@ public class FFAbout {
 		sample_formats = Collections.unmodifiableMap(sf);
 	}
 
+	private FFAboutIndexes.Codecs getCodecsIndex() {
+		return codecsIndex.get();
+	}
+
+	private FFAboutIndexes.Formats getFormatsIndex() {
+		return formatsIndex.get();
+	}
+
+	private FFAboutIndexes.Filters getFiltersIndex() {
+		return filtersIndex.get();
+	}
+
+	/**
+	 * @param codec_name case insensitive, like "h264"
+	 * @return the codec only if encoding is supported
+	 */
+	public Optional<FFAboutCodec> getEncodingCodec(final String codec_name) {
+		return getCodecsIndex().getEncodingCodec(codec_name);
+	}
+
+	/**
+	 * @param codec_name case insensitive, like "h264"
+	 * @return the codec only if decoding is supported
+	 */
+	public Optional<FFAboutCodec> getDecodingCodec(final String codec_name) {
+		return getCodecsIndex().getDecodingCodec(codec_name);
+	}
+
+	/**
+	 * @param sourceConnector null for all filters
+	 * @return lower-cased filter tags, like "aeval"
+	 */
+	public Set<String> getFilterTags(final FilterConnectorType sourceConnector) {
+		return getFiltersIndex().getTags(sourceConnector);
+	}
+
 	public boolean isCoderIsAvaliable(final String codec_name) {
-		return getCodecs().stream()
-		        .anyMatch(codec -> (codec.name.equalsIgnoreCase(codec_name) && codec.encodingSupported == true));
+		return getCodecsIndex().getEncodingCodec(codec_name).isPresent();
 	}
 
 	public boolean isDecoderIsAvaliable(final String codec_name) {
-		return getCodecs().stream()
-		        .anyMatch(codec -> (codec.name.equalsIgnoreCase(codec_name) && codec.decodingSupported == true));
+		return getCodecsIndex().getDecodingCodec(codec_name).isPresent();
 	}
 
+	/**
+	 * @param demuxer_name any alternate tag, like "mp4" for "mov,mp4,m4a,3gp,3g2,mj2"
+	 */
 	public boolean isFromFormatIsAvaliable(final String demuxer_name) {
-		return getFormats().stream()
-		        .anyMatch(format -> (format.name.equalsIgnoreCase(demuxer_name) && format.demuxing == true));
+		return getFormatsIndex().isDemuxer(demuxer_name);
 	}
 
+	/**
+	 * @param muxer_name any alternate tag
+	 */
 	public boolean isToFormatIsAvaliable(final String muxer_name) {
-		return getFormats().stream()
-		        .anyMatch(format -> (format.name.equalsIgnoreCase(muxer_name) && format.muxing == true));
+		return getFormatsIndex().isMuxer(muxer_name);
 	}
 
 	public boolean isFilterIsAvaliable(final String filter_name) {
-		return getFilters().stream()
-		        .anyMatch(filter -> filter.getTag().equalsIgnoreCase(filter_name));
+		return getFiltersIndex().getTags(null).contains(FFAboutIndexes.toKey(filter_name));
+	}
+
+	/**
+	 * -h filter=filter_name, loaded on the first call for each filter.
+	 * @param filter_name case sensitive, like "scale"
+	 */
+	public FFAboutFilterOptions getFilterOptions(final String filter_name) {
+		return getHelpTopic(filterOptions, "filter", filter_name, FFAboutFilterOptions::new);
+	}
+
+	/**
+	 * -h encoder=encoder_name, loaded on the first call for each encoder.
+	 * @param encoder_name like "libx264", or a codec name like "h264" (for the first encoder of this codec)
+	 */
+	public FFAboutEncoder getEncoder(final String encoder_name) {
+		return getHelpTopic(encoders, "encoder", encoder_name, FFAboutEncoder::new);
+	}
+
+	/**
+	 * -h muxer=muxer_name, loaded on the first call for each muxer.
+	 * @param muxer_name like "mp4"
+	 */
+	public FFAboutMuxer getMuxer(final String muxer_name) {
+		return getHelpTopic(muxers, "muxer", muxer_name, FFAboutMuxer::new);
+	}
+
+	private <T> T getHelpTopic(final ConcurrentHashMap<String, FFAboutLazySection<T>> loaded,
+	                           final String topic,
+	                           final String name,
+	                           final BiFunction<String, List<String>, T> parser) {
+		Objects.requireNonNull(name, "\"name\" can't to be null");
+		if (HELP_TOPIC_NAME.matcher(name).matches() == false) {
+			throw new IllegalArgumentException("Invalid " + topic + " name: \"" + name + "\"");
+		}
+		return loaded.computeIfAbsent(name, n -> new FFAboutLazySection<>(
+		        () -> parser.apply(n, getLines("-h " + topic + "=" + n, false))))
+		        .get();
 	}
 
 	/**
@@ -245,9 +420,7 @@ public class FFAbout {
 	 *        ALL CODECS ARE NOT AVAILABLE FOR ALL GRAPHICS CARDS, EVEN IF FFMPEG SUPPORT IT HERE.
 	 */
 	public boolean isCoderEngineIsAvaliable(final String engine_name) {
-		return getCodecs().stream()
-		        .anyMatch(codec -> (codec.encodingSupported == true
-		                            && codec.encoders.contains(engine_name)));
+		return getCodecsIndex().getByEncoderEngine(engine_name).isPresent();
 	}
 
 	/**
@@ -255,15 +428,18 @@ public class FFAbout {
 	 *        ALL CODECS ARE NOT AVAILABLE FOR ALL GRAPHICS CARDS, EVEN IF FFMPEG SUPPORT IT HERE.
 	 */
 	public boolean isDecoderEngineIsAvaliable(final String engine_name) {
-		return getCodecs().stream().anyMatch(codec -> (codec.decodingSupported == true && codec.decoders.contains(
-		        engine_name)));
+		return getCodecsIndex().getByDecoderEngine(engine_name).isPresent();
 	}
 
 	/**
 	 * ALL FUNCTIONS ARE NOT AVAILABLE FOR ALL GRAPHICS CARDS, EVEN IF FFMPEG SUPPORT IT HERE.
-	 * @return true if configured and up for cuda, cuvid and nvenc
+	 * @return true if configured and up for cuda, cuvid and nvenc. Computed only once.
 	 */
 	public boolean isNVToolkitIsAvaliable() {
+		return nvToolkitAvaliable.get();
+	}
+
+	private boolean computeNVToolkitIsAvaliable() {
 		if (getAvailableHWAccelerationMethods().contains("cuda") == false) {
 			log.debug("(NVIDIA) Cuda is not available in hardware acceleration methods");
 			return false;
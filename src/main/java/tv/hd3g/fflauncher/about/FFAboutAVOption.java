@@ -0,0 +1,279 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.about;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableSet;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * An option entry from an "AVOptions:" section, like with "ffmpeg -h filter=scale":
+ * "w  &lt;string&gt;  ..FV.....T. Output video width"
+ * Encoders and muxers options names are displayed with a "-", like "-preset": it's removed here.
+ */
+public class FFAboutAVOption {
+
+	private static final Pattern FLAGS = Pattern.compile("^[.A-Z]{6,}$");
+	private static final Pattern RANGE = Pattern.compile("\\(from (\\S+) to (\\S+)\\)");
+	private static final Pattern DEFAULT = Pattern.compile("\\(default (.*)\\)\\s*$");
+	private static final Pattern NUMBER = Pattern.compile("^-?(\\d+\\.?\\d*|\\.\\d+)([eE][-+]?\\d+)?$");
+	private static final Set<String> BOOLEANS = Set.of(
+	        "auto", "true", "y", "yes", "enable", "enabled", "on", "false", "n", "no", "disable", "disabled", "off");
+
+	/**
+	 * Parse all "AVOptions:" sections. Following options with the same type and help are set as aliases.
+	 * Lines without type after an option are its named constants, like "bilinear  2  ..FV.......".
+	 * @param lines trimmed lines
+	 */
+	static List<FFAboutAVOption> parseAVOptions(final List<String> lines) {
+		final var result = new ArrayList<FFAboutAVOption>();
+		var inSection = false;
+		FFAboutAVOption last = null;
+		for (final var line : lines) {
+			if (line.endsWith("AVOptions:")) {
+				inSection = true;
+				last = null;
+				continue;
+			} else if (inSection == false) {
+				continue;
+			}
+			final var blocs = line.split("\\s+", 4);
+			if (blocs.length < 2 || line.isEmpty()) {
+				inSection = false;
+				continue;
+			}
+			if (blocs[1].startsWith("<") && blocs[1].endsWith(">")) {
+				final var option = new FFAboutAVOption(blocs);
+				if (last != null && last.type.equals(option.type) && last.help.equals(option.help)
+				    && option.help.isEmpty() == false) {
+					option.aliases.addAll(last.aliases);
+					option.aliases.add(last.name);
+					for (final var alias : option.aliases) {
+						result.stream()
+						        .filter(o -> o.name.equals(alias))
+						        .forEach(o -> o.aliases.add(option.name));
+					}
+				}
+				result.add(option);
+				last = option;
+			} else if (last != null) {
+				last.constants.add(blocs[0]);
+			} else {
+				inSection = false;
+			}
+		}
+		return unmodifiableList(result);
+	}
+
+	private final String name;
+	private final String type;
+	private final String flags;
+	private final String help;
+	private final Double min;
+	private final Double max;
+	private final String defaultValue;
+	private final Set<String> aliases;
+	private final Set<String> constants;
+
+	private FFAboutAVOption(final String[] blocs) {
+		if (blocs[0].startsWith("-")) {
+			name = blocs[0].substring(1);
+		} else {
+			name = blocs[0];
+		}
+		type = blocs[1].substring(1, blocs[1].length() - 1);
+		if (blocs.length > 2 && FLAGS.matcher(blocs[2]).matches()) {
+			flags = blocs[2];
+			help = blocs.length > 3 ? blocs[3] : "";
+		} else {
+			flags = "";
+			help = blocs.length > 2 ? String.join(" ", List.of(blocs).subList(2, blocs.length)) : "";
+		}
+
+		final var range = RANGE.matcher(help);
+		if (range.find()) {
+			min = parseBound(range.group(1));
+			max = parseBound(range.group(2));
+		} else {
+			min = null;
+			max = null;
+		}
+		final var defaultMatcher = DEFAULT.matcher(help);
+		if (defaultMatcher.find()) {
+			defaultValue = defaultMatcher.group(1);
+		} else {
+			defaultValue = null;
+		}
+		aliases = new LinkedHashSet<>();
+		constants = new LinkedHashSet<>();
+	}
+
+	/**
+	 * @return null for unbounded (like "DBL_MAX", "INT_MAX"...)
+	 */
+	private static Double parseBound(final String value) {
+		if (NUMBER.matcher(value).matches()) {
+			return Double.valueOf(value);
+		}
+		return null;
+	}
+
+	/**
+	 * @return like "w"
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return like "string", "int", "boolean", "flags"...
+	 */
+	public String getType() {
+		return type;
+	}
+
+	/**
+	 * @return like "..FV.....T."
+	 */
+	public String getFlags() {
+		return flags;
+	}
+
+	/**
+	 * @return like "Output video width", with range and default indications.
+	 */
+	public String getHelp() {
+		return help;
+	}
+
+	public Optional<Double> getMin() {
+		return Optional.ofNullable(min);
+	}
+
+	public Optional<Double> getMax() {
+		return Optional.ofNullable(max);
+	}
+
+	/**
+	 * @return as displayed, like "\"auto\"" or "false"
+	 */
+	public Optional<String> getDefaultValue() {
+		return Optional.ofNullable(defaultValue);
+	}
+
+	/**
+	 * @return the other names for this option, like "width" for "w"
+	 */
+	public Set<String> getAliases() {
+		return unmodifiableSet(aliases);
+	}
+
+	/**
+	 * @return named values, like "init", "frame" for "eval"
+	 */
+	public Set<String> getConstants() {
+		return unmodifiableSet(constants);
+	}
+
+	/**
+	 * Only reject values that ffmpeg will surely refuse: out of range numbers, unknown flags and non booleans.
+	 * Expressions and other types are not checked.
+	 * @return empty if ok, else the reason
+	 */
+	public Optional<String> checkValue(final String value) {
+		if (value == null || value.isEmpty()) {
+			return Optional.empty();
+		}
+		switch (type) {
+		case "int":
+		case "int64":
+		case "uint64":
+		case "float":
+		case "double":
+			return checkNumberValue(value);
+		case "boolean":
+			if (NUMBER.matcher(value).matches() || BOOLEANS.contains(value.toLowerCase())) {
+				return Optional.empty();
+			}
+			return Optional.ofNullable("\"" + value + "\" is not a boolean for " + name);
+		case "flags":
+			return checkFlagsValue(value);
+		default:
+			return Optional.empty();
+		}
+	}
+
+	private Optional<String> checkNumberValue(final String value) {
+		if (NUMBER.matcher(value).matches() == false) {
+			return Optional.empty();
+		}
+		final var number = Double.parseDouble(value);
+		if (min != null && number < min - tolerance(min)
+		    || max != null && number > max + tolerance(max)) {
+			return Optional.ofNullable(value + " is out of range for " + name
+			                           + " (from " + (min == null ? "-" : min)
+			                           + " to " + (max == null ? "-" : max) + ")");
+		}
+		return Optional.empty();
+	}
+
+	/**
+	 * Large bounds are displayed by ffmpeg with "%g", like 2.14748e+09
+	 */
+	private static double tolerance(final double bound) {
+		return Math.abs(bound) * 1e-5d;
+	}
+
+	private Optional<String> checkFlagsValue(final String value) {
+		if (constants.isEmpty()) {
+			return Optional.empty();
+		}
+		for (final var flag : value.split("[+-]")) {
+			if (flag.isEmpty() == false
+			    && constants.contains(flag) == false
+			    && NUMBER.matcher(flag).matches() == false) {
+				return Optional.ofNullable("\"" + flag + "\" is not a valid flag for " + name + " " + constants);
+			}
+		}
+		return Optional.empty();
+	}
+
+	@Override
+	public String toString() {
+		final var sb = new StringBuilder();
+		sb.append(name);
+		sb.append(" <");
+		sb.append(type);
+		sb.append(">");
+		if (aliases.isEmpty() == false) {
+			sb.append(" ");
+			sb.append(aliases);
+		}
+		if (help.isEmpty() == false) {
+			sb.append(" ");
+			sb.append(help);
+		}
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,182 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.about;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Objects.requireNonNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Persist on disk the FFAbout outputs (-version, -codecs, -formats...), one file by executable, in a directory.
+ * A cache file is valid only for the same resolved executable path, size and last modified date: replace the
+ * binary invalidate it.
+ * Stored values are the captured lines, not the parsed objects: a FFAbout update will not need to invalidate
+ * the caches, only the executions are saved.
+ * Threadsafe.
+ */
+public class FFAboutCache {
+	private static final Logger log = LogManager.getLogger();
+
+	private static final int MAGIC = 0x46464162;// FFAb
+	private static final int FORMAT_VERSION = 1;
+
+	private final Path directory;
+
+	/**
+	 * @param directory will be created if needed
+	 */
+	public FFAboutCache(final Path directory) {
+		this.directory = requireNonNull(directory, "\"directory\" can't to be null");
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * @return the cache file used for this executable (it may not exists)
+	 */
+	public Path getCacheFile(final File executable) {
+		final var path = executable.getAbsolutePath();
+		return directory.resolve("ffabout-" + executable.getName().replaceAll("[^a-zA-Z0-9._-]", "_")
+		                         + "-" + Integer.toHexString(path.hashCode()) + ".bin");
+	}
+
+	/**
+	 * Load the cache file for this executable, and ignore it if it's not valid (or not readable).
+	 */
+	Entry getEntry(final File executable) {
+		final var entry = new Entry(executable);
+		entry.load();
+		return entry;
+	}
+
+	class Entry {
+		private final String path;
+		private final long size;
+		private final long lastModified;
+		private final Path cacheFile;
+		private final Map<String, List<String>> sections;
+
+		private Entry(final File executable) {
+			path = executable.getAbsolutePath();
+			size = executable.length();
+			lastModified = executable.lastModified();
+			cacheFile = getCacheFile(executable);
+			sections = new LinkedHashMap<>();
+		}
+
+		private synchronized void load() {
+			if (Files.exists(cacheFile) == false) {
+				return;
+			}
+			try (var in = new DataInputStream(new GZIPInputStream(new BufferedInputStream(Files.newInputStream(
+			        cacheFile))))) {
+				if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+					log.debug("Ignore cache file {}: not a valid format", cacheFile);
+					return;
+				}
+				if (path.equals(in.readUTF()) == false || in.readLong() != size || in.readLong() != lastModified) {
+					log.info("Ignore outdated cache file {}: {} has changed", cacheFile, path);
+					return;
+				}
+				final var sectionCount = in.readInt();
+				for (var s = 0; s < sectionCount; s++) {
+					final var name = in.readUTF();
+					final var lineCount = in.readInt();
+					final var lines = new ArrayList<String>(lineCount);
+					for (var l = 0; l < lineCount; l++) {
+						lines.add(in.readUTF());
+					}
+					sections.put(name, Collections.unmodifiableList(lines));
+				}
+				log.debug("Load {} sections from cache file {}", sectionCount, cacheFile);
+			} catch (final IOException e) {
+				sections.clear();
+				log.warn("Can't read cache file {}, ignore it", cacheFile, e);
+			}
+		}
+
+		synchronized Optional<List<String>> get(final String section) {
+			return Optional.ofNullable(sections.get(section));
+		}
+
+		/**
+		 * Rewrite the full cache file (write and move).
+		 */
+		synchronized void put(final String section, final List<String> lines) {
+			sections.put(section, List.copyOf(lines));
+			try {
+				Files.createDirectories(directory);
+				final var tempFile = Files.createTempFile(directory, cacheFile.getFileName().toString(), ".tmp");
+				try {
+					write(tempFile);
+					try {
+						Files.move(tempFile, cacheFile, REPLACE_EXISTING, ATOMIC_MOVE);
+					} catch (final IOException e) {
+						Files.move(tempFile, cacheFile, REPLACE_EXISTING);
+					}
+				} finally {
+					Files.deleteIfExists(tempFile);
+				}
+			} catch (final IOException e) {
+				log.warn("Can't write cache file {}", cacheFile, e);
+			}
+		}
+
+		private void write(final Path file) throws IOException {
+			try (var out = new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(Files
+			        .newOutputStream(file))))) {
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT_VERSION);
+				out.writeUTF(path);
+				out.writeLong(size);
+				out.writeLong(lastModified);
+				out.writeInt(sections.size());
+				for (final var s : sections.entrySet()) {
+					out.writeUTF(s.getKey());
+					out.writeInt(s.getValue().size());
+					for (final var line : s.getValue()) {
+						out.writeUTF(line);
+					}
+				}
+			}
+		}
+
+	}
+
+}
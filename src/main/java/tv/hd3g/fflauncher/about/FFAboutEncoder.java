@@ -0,0 +1,175 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.about;
+
+import static java.util.Collections.unmodifiableMap;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Encoder capabilities and private options, from "ffmpeg -h encoder=name". Immutable.
+ * If name is a codec name with several encoders (like "h264"), only the first displayed encoder is kept.
+ */
+public class FFAboutEncoder {
+
+	private final String name;
+	private final String encoderName;
+	private final String longName;
+	private final boolean known;
+	private final List<String> generalCapabilities;
+	private final String threadingCapabilities;
+	private final List<String> pixelFormats;
+	private final List<String> sampleFormats;
+	private final List<Integer> sampleRates;
+	private final List<String> channelLayouts;
+	private final List<FFAboutAVOption> options;
+	private final Map<String, FFAboutAVOption> optionsByName;
+
+	/**
+	 * @param lines trimmed lines from "ffmpeg -h encoder=name"
+	 */
+	FFAboutEncoder(final String name, final List<String> lines) {
+		this.name = name;
+		final var blockLines = FFAboutHelpLines.getFirstBlock(lines, "Encoder ");
+		known = blockLines.isEmpty() == false;
+
+		if (known) {
+			final var header = FFAboutHelpLines.parseHeader(blockLines.get(0), "Encoder ");
+			encoderName = header[0];
+			longName = header[1];
+		} else {
+			encoderName = name;
+			longName = "";
+		}
+		generalCapabilities = FFAboutHelpLines.getListValue(blockLines, "General capabilities:");
+		threadingCapabilities = FFAboutHelpLines.getValue(blockLines, "Threading capabilities:").orElse("none");
+		pixelFormats = FFAboutHelpLines.getListValue(blockLines, "Supported pixel formats:");
+		sampleFormats = FFAboutHelpLines.getListValue(blockLines, "Supported sample formats:");
+		sampleRates = FFAboutHelpLines.getListValue(blockLines, "Supported sample rates:").stream()
+		        .filter(v -> v.chars().allMatch(Character::isDigit))
+		        .map(Integer::valueOf)
+		        .collect(Collectors.toUnmodifiableList());
+		channelLayouts = FFAboutHelpLines.getListValue(blockLines, "Supported channel layouts:");
+		options = FFAboutAVOption.parseAVOptions(blockLines);
+
+		final var byName = new HashMap<String, FFAboutAVOption>();
+		options.forEach(o -> byName.putIfAbsent(o.getName(), o));
+		optionsByName = unmodifiableMap(byName);
+	}
+
+	/**
+	 * @return as requested, like "h264"
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return like "libx264"
+	 */
+	public String getEncoderName() {
+		return encoderName;
+	}
+
+	/**
+	 * @return like "libx264 H.264 / AVC / MPEG-4 AVC / MPEG-4 part 10"
+	 */
+	public String getLongName() {
+		return longName;
+	}
+
+	/**
+	 * @return false if ffmpeg don't know this encoder
+	 */
+	public boolean isKnown() {
+		return known;
+	}
+
+	/**
+	 * @return like "dr1", "delay", "threads"
+	 */
+	public List<String> getGeneralCapabilities() {
+		return generalCapabilities;
+	}
+
+	/**
+	 * @return like "none", "frame", "slice", "frame and slice", "other"
+	 */
+	public String getThreadingCapabilities() {
+		return threadingCapabilities;
+	}
+
+	public boolean isFrameThreading() {
+		return threadingCapabilities.contains("frame");
+	}
+
+	public boolean isSliceThreading() {
+		return threadingCapabilities.contains("slice");
+	}
+
+	/**
+	 * @return empty if not declared by the encoder (all are accepted, or not a video encoder)
+	 */
+	public List<String> getPixelFormats() {
+		return pixelFormats;
+	}
+
+	/**
+	 * @return empty if not declared by the encoder (all are accepted, or not an audio encoder)
+	 */
+	public List<String> getSampleFormats() {
+		return sampleFormats;
+	}
+
+	/**
+	 * @return empty if not declared by the encoder
+	 */
+	public List<Integer> getSampleRates() {
+		return sampleRates;
+	}
+
+	/**
+	 * @return empty if not declared by the encoder
+	 */
+	public List<String> getChannelLayouts() {
+		return channelLayouts;
+	}
+
+	/**
+	 * @return private options, like "preset" for libx264
+	 */
+	public List<FFAboutAVOption> getOptions() {
+		return options;
+	}
+
+	/**
+	 * @param name case sensitive, without "-", like "preset"
+	 */
+	public Optional<FFAboutAVOption> getOption(final String name) {
+		return Optional.ofNullable(optionsByName.get(name));
+	}
+
+	@Override
+	public String toString() {
+		return longName + " [" + encoderName + "]";
+	}
+
+}
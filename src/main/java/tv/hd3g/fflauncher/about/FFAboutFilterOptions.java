@@ -0,0 +1,127 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.about;
+
+import static java.util.Collections.unmodifiableMap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import tv.hd3g.fflauncher.filtering.Filter;
+import tv.hd3g.fflauncher.filtering.FilterArgument;
+
+/**
+ * Options for a filter, from "ffmpeg -h filter=name". Immutable.
+ */
+public class FFAboutFilterOptions {
+
+	/**
+	 * Generic option for filters with timeline support.
+	 */
+	public static final String TIMELINE_OPTION = "enable";
+
+	private final String filterName;
+	private final boolean known;
+	private final boolean timelineSupport;
+	private final List<FFAboutAVOption> options;
+	private final Map<String, FFAboutAVOption> optionsByName;
+
+	/**
+	 * @param lines trimmed lines from "ffmpeg -h filter=filterName"
+	 */
+	FFAboutFilterOptions(final String filterName, final List<String> lines) {
+		this.filterName = filterName;
+		known = lines.stream().anyMatch(line -> line.equals("Filter " + filterName));
+		timelineSupport = lines.stream().anyMatch(line -> line.contains("support for timeline"));
+		options = FFAboutAVOption.parseAVOptions(lines);
+
+		final var byName = new HashMap<String, FFAboutAVOption>();
+		options.forEach(o -> byName.putIfAbsent(o.getName(), o));
+		optionsByName = unmodifiableMap(byName);
+	}
+
+	public String getFilterName() {
+		return filterName;
+	}
+
+	/**
+	 * @return false if ffmpeg don't know this filter
+	 */
+	public boolean isKnown() {
+		return known;
+	}
+
+	public boolean isTimelineSupport() {
+		return timelineSupport;
+	}
+
+	public List<FFAboutAVOption> getOptions() {
+		return options;
+	}
+
+	/**
+	 * @param name case sensitive, like "w"
+	 */
+	public Optional<FFAboutAVOption> getOption(final String name) {
+		return Optional.ofNullable(optionsByName.get(name));
+	}
+
+	/**
+	 * Arguments without value (like "1280" in "scale=1280:720") are positional, and not checked.
+	 * @return empty if ok, else the reason
+	 */
+	public Optional<String> checkArgument(final FilterArgument argument) {
+		if (argument.getValue() == null) {
+			return Optional.empty();
+		}
+		final var key = argument.getKey();
+		if (timelineSupport && TIMELINE_OPTION.equals(key)) {
+			return Optional.empty();
+		}
+		final var option = optionsByName.get(key);
+		if (option == null) {
+			return Optional.ofNullable("Unknown option \"" + key + "\" for filter " + filterName);
+		}
+		return option.checkValue(argument.getValue())
+		        .map(reason -> reason + ", for filter " + filterName);
+	}
+
+	/**
+	 * @return all errors for this filter arguments. Empty == all ok.
+	 */
+	public List<String> checkFilter(final Filter filter) {
+		final var result = new ArrayList<String>();
+		if (known == false) {
+			result.add("Unknown filter " + filterName);
+			return result;
+		}
+		filter.getArguments().stream()
+		        .map(this::checkArgument)
+		        .flatMap(Optional::stream)
+		        .forEach(result::add);
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return filterName + " " + options;
+	}
+
+}
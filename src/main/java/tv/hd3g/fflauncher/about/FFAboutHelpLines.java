@@ -0,0 +1,96 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.about;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Utilities for "ffmpeg -h type=name" trimmed lines.
+ */
+final class FFAboutHelpLines {
+
+	private FFAboutHelpLines() {
+	}
+
+	/**
+	 * @param headerStart like "Encoder "
+	 * @return lines from the first header, to the next header (excluded). Empty if no header is found.
+	 */
+	static List<String> getFirstBlock(final List<String> lines, final String headerStart) {
+		var from = -1;
+		var to = lines.size();
+		for (var pos = 0; pos < lines.size(); pos++) {
+			final var line = lines.get(pos);
+			if (line.startsWith(headerStart) && line.endsWith(":")) {
+				if (from == -1) {
+					from = pos;
+				} else {
+					to = pos;
+					break;
+				}
+			}
+		}
+		if (from == -1) {
+			return List.of();
+		}
+		return lines.subList(from, to);
+	}
+
+	/**
+	 * @param header like "Encoder libx264 [libx264 H.264 / AVC]:"
+	 * @return [name, long name], like ["libx264", "libx264 H.264 / AVC"]
+	 */
+	static String[] parseHeader(final String header, final String headerStart) {
+		final var content = header.substring(headerStart.length(), header.length() - 1).trim();
+		final var bracketPos = content.indexOf('[');
+		if (bracketPos == -1) {
+			return new String[] { content, "" };
+		}
+		final var longName = content.substring(bracketPos + 1);
+		return new String[] {
+		                      content.substring(0, bracketPos).trim(),
+		                      longName.endsWith("]") ? longName.substring(0, longName.length() - 1) : longName };
+	}
+
+	/**
+	 * @param key like "Default video codec:"
+	 * @return like "h264" for "Default video codec: h264."
+	 */
+	static Optional<String> getValue(final List<String> lines, final String key) {
+		return lines.stream()
+		        .filter(line -> line.startsWith(key))
+		        .findFirst()
+		        .map(line -> line.substring(key.length()).trim())
+		        .map(value -> value.endsWith(".") ? value.substring(0, value.length() - 1) : value)
+		        .filter(value -> value.isEmpty() == false);
+	}
+
+	/**
+	 * Values separated by spaces or commas.
+	 */
+	static List<String> getListValue(final List<String> lines, final String key) {
+		return getValue(lines, key)
+		        .stream()
+		        .flatMap(value -> Arrays.stream(value.split("[\\s,]+")))
+		        .filter(value -> value.isEmpty() == false)
+		        .collect(Collectors.toUnmodifiableList());
+	}
+
+}
@@ -0,0 +1,172 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.about;
+
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Collections.unmodifiableSet;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import tv.hd3g.fflauncher.enums.FilterConnectorType;
+
+/**
+ * Immutable hash indexes, built once by FFAbout section, for the capability lookups.
+ * All names are lower-cased.
+ */
+final class FFAboutIndexes {
+
+	private FFAboutIndexes() {
+	}
+
+	/**
+	 * @return null for a null name: the hash indexes never contains it, so the lookups answers "not available".
+	 */
+	static String toKey(final String name) {
+		if (name == null) {
+			return null;
+		}
+		return name.toLowerCase(Locale.ROOT);
+	}
+
+	static final class Codecs {
+		private final Map<String, FFAboutCodec> encodingByName;
+		private final Map<String, FFAboutCodec> decodingByName;
+		private final Map<String, FFAboutCodec> byEncoderEngine;
+		private final Map<String, FFAboutCodec> byDecoderEngine;
+
+		Codecs(final List<FFAboutCodec> codecs) {
+			final var encoding = new HashMap<String, FFAboutCodec>();
+			final var decoding = new HashMap<String, FFAboutCodec>();
+			final var encoderEngines = new HashMap<String, FFAboutCodec>();
+			final var decoderEngines = new HashMap<String, FFAboutCodec>();
+			for (final var codec : codecs) {
+				final var key = toKey(codec.name);
+				if (codec.encodingSupported) {
+					encoding.putIfAbsent(key, codec);
+					codec.encoders.forEach(e -> encoderEngines.putIfAbsent(e, codec));
+				}
+				if (codec.decodingSupported) {
+					decoding.putIfAbsent(key, codec);
+					codec.decoders.forEach(d -> decoderEngines.putIfAbsent(d, codec));
+				}
+			}
+			encodingByName = unmodifiableMap(encoding);
+			decodingByName = unmodifiableMap(decoding);
+			byEncoderEngine = unmodifiableMap(encoderEngines);
+			byDecoderEngine = unmodifiableMap(decoderEngines);
+		}
+
+		Optional<FFAboutCodec> getEncodingCodec(final String name) {
+			return Optional.ofNullable(encodingByName.get(toKey(name)));
+		}
+
+		Optional<FFAboutCodec> getDecodingCodec(final String name) {
+			return Optional.ofNullable(decodingByName.get(toKey(name)));
+		}
+
+		/**
+		 * @param engine case sensitive, like "h264_nvenc"
+		 */
+		Optional<FFAboutCodec> getByEncoderEngine(final String engine) {
+			return Optional.ofNullable(byEncoderEngine.get(engine));
+		}
+
+		/**
+		 * @param engine case sensitive, like "h264_cuvid"
+		 */
+		Optional<FFAboutCodec> getByDecoderEngine(final String engine) {
+			return Optional.ofNullable(byDecoderEngine.get(engine));
+		}
+
+		Set<String> getEncoderEngines() {
+			return byEncoderEngine.keySet();
+		}
+
+		Set<String> getDecoderEngines() {
+			return byDecoderEngine.keySet();
+		}
+	}
+
+	static final class Formats {
+		private final Set<String> demuxers;
+		private final Set<String> muxers;
+
+		/**
+		 * Index all alternate tags, like "mov", "mp4", "m4a"... for "mov,mp4,m4a,3gp,3g2,mj2"
+		 */
+		Formats(final List<FFAboutFormat> formats) {
+			final var demuxing = new HashSet<String>();
+			final var muxing = new HashSet<String>();
+			for (final var format : formats) {
+				for (final var tag : format.alternateTags) {
+					if (format.demuxing) {
+						demuxing.add(toKey(tag));
+					}
+					if (format.muxing) {
+						muxing.add(toKey(tag));
+					}
+				}
+			}
+			demuxers = unmodifiableSet(demuxing);
+			muxers = unmodifiableSet(muxing);
+		}
+
+		boolean isDemuxer(final String name) {
+			return demuxers.contains(toKey(name));
+		}
+
+		boolean isMuxer(final String name) {
+			return muxers.contains(toKey(name));
+		}
+	}
+
+	static final class Filters {
+		private final Set<String> all;
+		private final Map<FilterConnectorType, Set<String>> bySourceConnector;
+
+		Filters(final List<FFAboutFilter> filters) {
+			final var allTags = new HashSet<String>();
+			final var bySource = new EnumMap<FilterConnectorType, Set<String>>(FilterConnectorType.class);
+			for (final var filter : filters) {
+				final var key = toKey(filter.getTag());
+				allTags.add(key);
+				bySource.computeIfAbsent(filter.getSourceConnector(), k -> new HashSet<>()).add(key);
+			}
+			all = unmodifiableSet(allTags);
+			bySource.replaceAll((k, v) -> unmodifiableSet(v));
+			bySourceConnector = unmodifiableMap(bySource);
+		}
+
+		/**
+		 * @param sourceConnector null for all
+		 */
+		Set<String> getTags(final FilterConnectorType sourceConnector) {
+			if (sourceConnector == null) {
+				return all;
+			}
+			return bySourceConnector.getOrDefault(sourceConnector, Set.of());
+		}
+	}
+
+}
@@ -0,0 +1,90 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.about;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Lazy loaded value, without lock.
+ * After the load, get is a volatile read only. Concurrent first callers share the same in-flight load: the first
+ * one run the loader, the others wait its result.
+ * If the load fails, the first caller get the error, the waiting callers get it in a CompletionException, and the
+ * next call will retry it.
+ */
+final class FFAboutLazySection<T> {
+
+	private final Supplier<T> loader;
+	private final AtomicReference<CompletableFuture<T>> inFlight;
+	private volatile T value;
+
+	FFAboutLazySection(final Supplier<T> loader) {
+		this.loader = requireNonNull(loader, "\"loader\" can't to be null");
+		inFlight = new AtomicReference<>();
+	}
+
+	T get() {
+		final var loaded = value;
+		if (loaded != null) {
+			return loaded;
+		}
+		return load();
+	}
+
+	boolean isLoaded() {
+		return value != null;
+	}
+
+	/**
+	 * Run the loader, but don't publish its result.
+	 */
+	T loadUnpublished() {
+		return requireNonNull(loader.get(), "Loader has return null");
+	}
+
+	/**
+	 * Publish a result from loadUnpublished, only if nothing is already published or in-flight.
+	 */
+	void publish(final T loaded) {
+		requireNonNull(loaded, "\"loaded\" can't to be null");
+		if (inFlight.compareAndSet(null, CompletableFuture.completedFuture(loaded))) {
+			value = loaded;
+		}
+	}
+
+	private T load() {
+		final var newLoad = new CompletableFuture<T>();
+		final var currentLoad = inFlight.compareAndExchange(null, newLoad);
+		if (currentLoad != null) {
+			return currentLoad.join();
+		}
+		try {
+			final var result = loadUnpublished();
+			value = result;
+			newLoad.complete(result);
+			return result;
+		} catch (final RuntimeException | Error e) {
+			inFlight.set(null);
+			newLoad.completeExceptionally(e);
+			throw e;
+		}
+	}
+
+}
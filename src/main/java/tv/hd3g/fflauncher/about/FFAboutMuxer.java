@@ -0,0 +1,132 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.about;
+
+import static java.util.Collections.unmodifiableMap;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Muxer defaults and private options, from "ffmpeg -h muxer=name". Immutable.
+ */
+public class FFAboutMuxer {
+
+	private final String name;
+	private final String longName;
+	private final boolean known;
+	private final List<String> extensions;
+	private final List<String> mimeTypes;
+	private final String defaultVideoCodec;
+	private final String defaultAudioCodec;
+	private final String defaultSubtitleCodec;
+	private final List<FFAboutAVOption> options;
+	private final Map<String, FFAboutAVOption> optionsByName;
+
+	/**
+	 * @param lines trimmed lines from "ffmpeg -h muxer=name"
+	 */
+	FFAboutMuxer(final String name, final List<String> lines) {
+		this.name = name;
+		final var blockLines = FFAboutHelpLines.getFirstBlock(lines, "Muxer ");
+		known = blockLines.isEmpty() == false;
+		longName = known ? FFAboutHelpLines.parseHeader(blockLines.get(0), "Muxer ")[1] : "";
+
+		extensions = FFAboutHelpLines.getListValue(blockLines, "Common extensions:");
+		mimeTypes = FFAboutHelpLines.getListValue(blockLines, "Mime type:");
+		defaultVideoCodec = FFAboutHelpLines.getValue(blockLines, "Default video codec:").orElse(null);
+		defaultAudioCodec = FFAboutHelpLines.getValue(blockLines, "Default audio codec:").orElse(null);
+		defaultSubtitleCodec = FFAboutHelpLines.getValue(blockLines, "Default subtitle codec:").orElse(null);
+		options = FFAboutAVOption.parseAVOptions(blockLines);
+
+		final var byName = new HashMap<String, FFAboutAVOption>();
+		options.forEach(o -> byName.putIfAbsent(o.getName(), o));
+		optionsByName = unmodifiableMap(byName);
+	}
+
+	/**
+	 * @return like "mp4"
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return like "MP4 (MPEG-4 Part 14)"
+	 */
+	public String getLongName() {
+		return longName;
+	}
+
+	/**
+	 * @return false if ffmpeg don't know this muxer
+	 */
+	public boolean isKnown() {
+		return known;
+	}
+
+	/**
+	 * @return like "mp4"
+	 */
+	public List<String> getExtensions() {
+		return extensions;
+	}
+
+	public List<String> getMimeTypes() {
+		return mimeTypes;
+	}
+
+	/**
+	 * @return empty if the muxer don't declare it: it may not accept video streams.
+	 */
+	public Optional<String> getDefaultVideoCodec() {
+		return Optional.ofNullable(defaultVideoCodec);
+	}
+
+	/**
+	 * @return empty if the muxer don't declare it: it may not accept audio streams.
+	 */
+	public Optional<String> getDefaultAudioCodec() {
+		return Optional.ofNullable(defaultAudioCodec);
+	}
+
+	public Optional<String> getDefaultSubtitleCodec() {
+		return Optional.ofNullable(defaultSubtitleCodec);
+	}
+
+	/**
+	 * @return private options, like "movflags" for mp4
+	 */
+	public List<FFAboutAVOption> getOptions() {
+		return options;
+	}
+
+	/**
+	 * @param name case sensitive, without "-", like "movflags"
+	 */
+	public Optional<FFAboutAVOption> getOption(final String name) {
+		return Optional.ofNullable(optionsByName.get(name));
+	}
+
+	@Override
+	public String toString() {
+		return longName + " [" + name + "]";
+	}
+
+}
@@ -0,0 +1,139 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.about;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import tv.hd3g.processlauncher.cmdline.ExecutableFinder;
+
+/**
+ * Share one FFAbout by executable file, for all FFbase instances.
+ * An executable replaced on disk (size or date changed) get a new FFAbout.
+ * All the FFAbout created here share the same daemon thread max exec time scheduler.
+ * Threadsafe.
+ */
+public class FFAboutRegistry {
+	private static final Logger log = LogManager.getLogger();
+
+	private static final FFAboutRegistry DEFAULT = new FFAboutRegistry();
+
+	private final ConcurrentHashMap<File, Registered> abouts;
+	private volatile ScheduledExecutorService scheduler;
+
+	public FFAboutRegistry() {
+		abouts = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * @return the process-wide registry, used by FFbase.getAbout
+	 */
+	public static FFAboutRegistry getDefault() {
+		return DEFAULT;
+	}
+
+	private static class Registered {
+		final long size;
+		final long lastModified;
+		final FFAbout about;
+
+		Registered(final File executable, final FFAbout about) {
+			size = executable.length();
+			lastModified = executable.lastModified();
+			this.about = about;
+		}
+
+		boolean isStillValid(final File executable) {
+			return size == executable.length() && lastModified == executable.lastModified();
+		}
+	}
+
+	/**
+	 * @param cache can be null, only used on the first FFAbout creation for this executable.
+	 * @return the same FFAbout for the same resolved executable. If execName can't be resolved, a new FFAbout
+	 *         (not registred) is returned, and its first use will fail like it would have done with a direct run.
+	 */
+	public FFAbout getAbout(final String execName, final ExecutableFinder executableFinder, final FFAboutCache cache) {
+		requireNonNull(execName, "\"execName\" can't to be null");
+		requireNonNull(executableFinder, "\"executableFinder\" can't to be null");
+
+		final File executable;
+		try {
+			executable = executableFinder.get(execName).getAbsoluteFile();
+		} catch (final FileNotFoundException e) {
+			log.debug("Can't found {}, the FFAbout will not be shared", execName, e);
+			return new FFAbout(execName, executableFinder, getScheduler(), cache);
+		}
+
+		final var current = abouts.get(executable);
+		if (current != null && current.isStillValid(executable)) {
+			return current.about;
+		}
+		return abouts.compute(executable, (k, registered) -> {
+			if (registered != null && registered.isStillValid(executable)) {
+				return registered;
+			} else if (registered != null) {
+				log.info("{} has changed on disk, reload its capabilities", executable);
+			}
+			return new Registered(executable, new FFAbout(execName, executableFinder, getScheduler(), cache));
+		}).about;
+	}
+
+	/**
+	 * @return a daemon single thread scheduler, created on the first call.
+	 */
+	public ScheduledExecutorService getScheduler() {
+		final var current = scheduler;
+		if (current != null) {
+			return current;
+		}
+		synchronized (this) {
+			if (scheduler == null) {
+				scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+					final var t = new Thread(r);
+					t.setDaemon(true);
+					t.setName("FFAbout max exec time scheduler");
+					return t;
+				});
+			}
+			return scheduler;
+		}
+	}
+
+	/**
+	 * @return the registred executables count
+	 */
+	public int size() {
+		return abouts.size();
+	}
+
+	/**
+	 * Forget all the registred FFAbout. The next getAbout calls will create new ones.
+	 */
+	public void clear() {
+		abouts.clear();
+	}
+
+}
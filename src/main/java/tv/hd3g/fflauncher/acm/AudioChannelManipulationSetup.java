@@ -26,12 +26,14 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 
 import tv.hd3g.fflauncher.acm.InputAudioStream.SelectedInputChannel;
 import tv.hd3g.fflauncher.enums.ChannelLayout;
 import tv.hd3g.fflauncher.enums.SourceNotFoundPolicy;
 import tv.hd3g.fflauncher.enums.SourceNotFoundPolicy.SourceNotFoundException;
+import tv.hd3g.fflauncher.mediainfo.MediaInfo;
 import tv.hd3g.ffprobejaxb.FFprobeJAXB;
 
 public class AudioChannelManipulationSetup {
@@ -95,8 +97,8 @@ public class AudioChannelManipulationSetup {
 		final List<OutputAudioStream> outputStreams;
 		final HashMap<Integer, Integer> relativeOutStrIdxByOutFileIdx;
 
-		SetupBuilder(final List<FFprobeJAXB> sourcesAnalysis) {
-			inputStreams = InputAudioStream.getListFromAnalysis(sourcesAnalysis);
+		SetupBuilder(final List<InputAudioStream> inputStreams) {
+			this.inputStreams = inputStreams;
 			outputStreams = new ArrayList<>();
 			relativeOutStrIdxByOutFileIdx = new HashMap<>();
 		}
@@ -273,6 +275,17 @@ public class AudioChannelManipulationSetup {
 	}
 
 	public List<OutputAudioStream> getAllOutputStreamList(final List<FFprobeJAXB> sourcesAnalysis) {
+		return getAllOutputStreamList(() -> InputAudioStream.getListFromAnalysis(sourcesAnalysis));
+	}
+
+	/**
+	 * Same as getAllOutputStreamList, with the lightweight model.
+	 */
+	public List<OutputAudioStream> getAllOutputStreamListFromMediaInfo(final List<MediaInfo> sourcesAnalysis) {
+		return getAllOutputStreamList(() -> InputAudioStream.getListFromMediaInfo(sourcesAnalysis));
+	}
+
+	private List<OutputAudioStream> getAllOutputStreamList(final Supplier<List<InputAudioStream>> inputStreams) {
 		Objects.requireNonNull(channelMap);
 		if (notFound == null) {
 			notFound = ERROR;
@@ -284,7 +297,7 @@ public class AudioChannelManipulationSetup {
 			return List.of();
 		}
 
-		return new SetupBuilder(sourcesAnalysis).build();
+		return new SetupBuilder(inputStreams.get()).build();
 	}
 
 }
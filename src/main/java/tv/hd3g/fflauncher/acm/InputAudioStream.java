@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Objects;
 
 import tv.hd3g.fflauncher.enums.ChannelLayout;
+import tv.hd3g.fflauncher.mediainfo.MediaInfo;
 import tv.hd3g.ffprobejaxb.FFprobeJAXB;
 
 /**
@@ -75,6 +76,31 @@ public class InputAudioStream extends ACMAudioStream {
 		return Collections.unmodifiableList(allSourceStreams);
 	}
 
+	public static List<InputAudioStream> getListFromMediaInfo(final MediaInfo... sourcesAnalysis) {
+		for (var pos = 0; pos < sourcesAnalysis.length; pos++) {
+			Objects.requireNonNull(sourcesAnalysis[pos]);
+		}
+		return getListFromMediaInfo(List.of(sourcesAnalysis));
+	}
+
+	/**
+	 * Same as getListFromAnalysis, with the lightweight model.
+	 */
+	public static List<InputAudioStream> getListFromMediaInfo(final List<MediaInfo> sourcesAnalysis) {
+		final var allSourceStreams = new ArrayList<InputAudioStream>();
+		for (var pos = 0; pos < sourcesAnalysis.size(); pos++) {
+			final var absoluteSourceIndex = pos;
+			sourcesAnalysis.get(pos).getAudioStreams()
+			        .sorted((l, r) -> Integer.compare(l.getIndex(), r.getIndex()))
+			        .map(as -> new InputAudioStream(as.getChannelLayout()
+			                .map(ChannelLayout::parse)
+			                .orElseGet(() -> ChannelLayout.getByChannelSize(as.getChannels())),
+			                absoluteSourceIndex, as.getIndex()))
+			        .forEach(allSourceStreams::add);
+		}
+		return Collections.unmodifiableList(allSourceStreams);
+	}
+
 	public static InputAudioStream getFromRelativeIndexes(final List<InputAudioStream> streamList,
 	                                                      final int fileIndex,
 	                                                      final int audioStreamRelativeIndex) {
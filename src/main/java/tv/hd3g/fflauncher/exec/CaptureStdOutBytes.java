@@ -0,0 +1,224 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.exec;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import tv.hd3g.processlauncher.CaptureStandardOutput;
+import tv.hd3g.processlauncher.ProcesslauncherLifecycle;
+
+/**
+ * Capture the raw stdout bytes in one growing buffer (no line split, no line list), for a machine readable output
+ * like a ffprobe XML/JSON document.
+ * Stderr is read by lines, and only the last lines are retained.
+ * Use it with ProcesslauncherBuilder.setCaptureStandardOutput, for one execution only.
+ */
+public class CaptureStdOutBytes implements CaptureStandardOutput {
+	private static final Logger log = LogManager.getLogger();
+
+	/**
+	 * Create a daemon thread for each capture.
+	 */
+	public static final ThreadFactory DAEMON_THREAD_FACTORY = r -> {
+		final var t = new Thread(r);
+		t.setDaemon(true);
+		t.setName("Capture " + t.getId());
+		return t;
+	};
+
+	private final ThreadFactory threadFactory;
+	private final int stdErrMaxLines;
+	private final Consumer<String> stdErrLineConsumer;
+	private final ByteArrayOutputStream stdOut;
+	private final ArrayDeque<String> stdErrTail;
+	private final CompletableFuture<Void> stdOutEnd;
+	private final CompletableFuture<Void> stdErrEnd;
+	private volatile OutputStream stdOutSink;
+
+	/**
+	 * @param stdErrMaxLines last stderr lines count to keep
+	 * @param stdErrLineConsumer called on each stderr line, from the stderr capture thread.
+	 * @param threadFactory create the stdout and stderr read loops threads, 2 per execution.
+	 */
+	public CaptureStdOutBytes(final int stdErrMaxLines,
+	                          final Consumer<String> stdErrLineConsumer,
+	                          final ThreadFactory threadFactory) {
+		if (stdErrMaxLines < 0) {
+			throw new IllegalArgumentException("Invalid stdErrMaxLines: " + stdErrMaxLines);
+		}
+		this.threadFactory = requireNonNull(threadFactory, "\"threadFactory\" can't to be null");
+		this.stdErrMaxLines = stdErrMaxLines;
+		this.stdErrLineConsumer = stdErrLineConsumer;
+		stdOut = new ByteArrayOutputStream(8192);
+		stdErrTail = new ArrayDeque<>(Math.min(stdErrMaxLines, 64));
+		stdOutEnd = new CompletableFuture<>();
+		stdErrEnd = new CompletableFuture<>();
+	}
+
+	public CaptureStdOutBytes(final int stdErrMaxLines, final Consumer<String> stdErrLineConsumer) {
+		this(stdErrMaxLines, stdErrLineConsumer, DAEMON_THREAD_FACTORY);
+	}
+
+	public CaptureStdOutBytes(final int stdErrMaxLines) {
+		this(stdErrMaxLines, null);
+	}
+
+	/**
+	 * Send stdout bytes to a sink instead of the internal buffer, for a streaming parser.
+	 * Set it before the process start. The sink is called from the stdout capture thread, and closed on stdout end.
+	 * getStdOut will be empty.
+	 * @param stdOutSink can be null (internal buffer, default)
+	 */
+	public CaptureStdOutBytes setStdOutSink(final OutputStream stdOutSink) {
+		this.stdOutSink = stdOutSink;
+		return this;
+	}
+
+	@Override
+	public Thread stdOutStreamConsumer(final InputStream processInputStream,
+	                                   final ProcesslauncherLifecycle source) {
+		final var sink = stdOutSink;
+		if (sink != null) {
+			return startCapture("stdout", source, stdOutEnd, () -> {
+				try (sink) {
+					processInputStream.transferTo(sink);
+				}
+			});
+		}
+		return startCapture("stdout", source, stdOutEnd, () -> {
+			final var buffer = new byte[8192];
+			int read;
+			while ((read = processInputStream.read(buffer)) > -1) {
+				synchronized (stdOut) {
+					stdOut.write(buffer, 0, read);
+				}
+			}
+		});
+	}
+
+	@Override
+	public Thread stdErrStreamConsumer(final InputStream processInputStream,
+	                                   final ProcesslauncherLifecycle source) {
+		return startCapture("stderr", source, stdErrEnd, () -> {
+			final var reader = new BufferedReader(new InputStreamReader(processInputStream, UTF_8));
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (stdErrLineConsumer != null) {
+					stdErrLineConsumer.accept(line);
+				}
+				if (stdErrMaxLines == 0) {
+					continue;
+				}
+				synchronized (stdErrTail) {
+					if (stdErrTail.size() == stdErrMaxLines) {
+						stdErrTail.poll();
+					}
+					stdErrTail.add(line);
+				}
+			}
+		});
+	}
+
+	@FunctionalInterface
+	private interface StreamReader {
+		void read() throws IOException;
+	}
+
+	/**
+	 * @return the started thread
+	 */
+	private Thread startCapture(final String name,
+	                            final ProcesslauncherLifecycle source,
+	                            final CompletableFuture<Void> end,
+	                            final StreamReader reader) {
+		final var thread = threadFactory.newThread(() -> {
+			try {
+				reader.read();
+			} catch (final IOException e) {
+				if (source.isRunning()) {
+					log.warn("Can't read {} from {}", name, source, e);
+				}
+			} finally {
+				end.complete(null);
+			}
+		});
+		if (thread == null) {
+			final var e = new IllegalStateException("Can't create a " + name + " capture thread");
+			end.completeExceptionally(e);
+			throw e;
+		}
+		thread.start();
+		return thread;
+	}
+
+	/**
+	 * Wait the end of the stdout and stderr streams (after the process end).
+	 */
+	public CaptureStdOutBytes waitForCaptureEnd() {
+		try {
+			CompletableFuture.allOf(stdOutEnd, stdErrEnd).get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted", e);
+		} catch (final ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+		return this;
+	}
+
+	/**
+	 * @return the full stdout, decoded as UTF-8, in one pass.
+	 */
+	public String getStdOut() {
+		synchronized (stdOut) {
+			return stdOut.toString(UTF_8);
+		}
+	}
+
+	public int getStdOutSize() {
+		synchronized (stdOut) {
+			return stdOut.size();
+		}
+	}
+
+	/**
+	 * @return the last stderr lines
+	 */
+	public List<String> getStdErrTail() {
+		synchronized (stdErrTail) {
+			return List.copyOf(stdErrTail);
+		}
+	}
+
+}
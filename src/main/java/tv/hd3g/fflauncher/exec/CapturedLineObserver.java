@@ -0,0 +1,48 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.exec;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import tv.hd3g.processlauncher.CapturedStdOutErrTextInteractive;
+import tv.hd3g.processlauncher.LineEntry;
+
+/**
+ * A CapturedStdOutErrText which only reads the captured lines, usable with
+ * CaptureStandardOutputText.addObserver. CapturedStdOutErrText.onText can't be implemented outside processlauncher,
+ * so this extends CapturedStdOutErrTextInteractive, and never sends anything to the process stdin.
+ */
+public abstract class CapturedLineObserver extends CapturedStdOutErrTextInteractive {
+
+	protected CapturedLineObserver() {
+		this(new AtomicReference<>());
+	}
+
+	private CapturedLineObserver(final AtomicReference<CapturedLineObserver> self) {
+		super(lineEntry -> {
+			self.get().onLine(lineEntry);
+			return null;
+		});
+		self.set(this);
+	}
+
+	/**
+	 * Called from the stdout and stderr capture threads.
+	 */
+	public abstract void onLine(LineEntry lineEntry);
+
+}
@@ -0,0 +1,256 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.exec;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import tv.hd3g.fflauncher.FFbase;
+import tv.hd3g.processlauncher.ExecutionCallbacker;
+import tv.hd3g.processlauncher.ProcesslauncherLifecycle;
+import tv.hd3g.processlauncher.cmdline.ExecutableFinder;
+
+/**
+ * Queue FFmpeg/FFprobe executions, and start them only if the CPU slot budget permit it.
+ * Each job take a weight (slot count) during all its execution time, like 1 for a ffprobe, or 4 for a x264 encoding.
+ * Jobs are admitted in FIFO order: a heavy job on the queue head will not be overtaken by lighter ones.
+ * Threadsafe
+ */
+public class FFExecutionScheduler {
+	private static final Logger log = LogManager.getLogger();
+
+	private final ExecutableFinder executableFinder;
+	private final int totalSlots;
+	private final ArrayDeque<Job> queue;
+	private int usedSlots;
+	private int runningJobs;
+
+	private final AtomicLong admittedCount;
+	private final AtomicLong totalWaitTimeNanos;
+	private final LongAccumulator maxWaitTimeNanos;
+
+	/**
+	 * @param totalSlots CPU slot budget, like the available processors count
+	 */
+	public FFExecutionScheduler(final ExecutableFinder executableFinder, final int totalSlots) {
+		this.executableFinder = requireNonNull(executableFinder, "\"executableFinder\" can't to be null");
+		if (totalSlots < 1) {
+			throw new IllegalArgumentException("Invalid totalSlots: " + totalSlots);
+		}
+		this.totalSlots = totalSlots;
+		queue = new ArrayDeque<>();
+		admittedCount = new AtomicLong();
+		totalWaitTimeNanos = new AtomicLong();
+		maxWaitTimeNanos = new LongAccumulator(Math::max, 0);
+	}
+
+	/**
+	 * Use the available processors count as CPU slot budget.
+	 */
+	public FFExecutionScheduler(final ExecutableFinder executableFinder) {
+		this(executableFinder, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * The tool must be ready to run (I/O set, fixIOParametredVars done), and must not be executed elsewhere.
+	 * @param weight slot count needed by this job, will be capped to the total slot count.
+	 * @return completed at the end of the execution (correctly done or not). Cancel it will remove the job from the queue, or kill the running process.
+	 */
+	public CompletableFuture<ProcesslauncherLifecycle> submit(final FFbase tool, final int weight) {
+		requireNonNull(tool, "\"tool\" can't to be null");
+		if (weight < 1) {
+			throw new IllegalArgumentException("Invalid weight: " + weight);
+		}
+		final var job = new Job(tool, Math.min(weight, totalSlots));
+		job.future.whenComplete((l, e) -> {
+			if (job.future.isCancelled()) {
+				job.onCancel();
+			}
+		});
+
+		synchronized (this) {
+			queue.add(job);
+		}
+		dispatch();
+		return job.future;
+	}
+
+	/**
+	 * Submit with a weight of 1.
+	 */
+	public CompletableFuture<ProcesslauncherLifecycle> submit(final FFbase tool) {
+		return submit(tool, 1);
+	}
+
+	private void dispatch() {
+		final var toStart = new ArrayList<Job>();
+		synchronized (this) {
+			while (queue.isEmpty() == false && queue.peek().weight <= totalSlots - usedSlots) {
+				final var job = queue.poll();
+				usedSlots += job.weight;
+				runningJobs++;
+				toStart.add(job);
+			}
+		}
+		toStart.forEach(Job::start);
+	}
+
+	private void release(final Job job) {
+		synchronized (this) {
+			usedSlots -= job.weight;
+			runningJobs--;
+		}
+		dispatch();
+	}
+
+	private class Job implements ExecutionCallbacker {
+		final FFbase tool;
+		final int weight;
+		final long enqueuedNanos;
+		final CompletableFuture<ProcesslauncherLifecycle> future;
+		private volatile ProcesslauncherLifecycle lifecycle;
+		private volatile boolean started;
+		private volatile boolean released;
+
+		Job(final FFbase tool, final int weight) {
+			this.tool = tool;
+			this.weight = weight;
+			enqueuedNanos = System.nanoTime();
+			future = new CompletableFuture<>();
+		}
+
+		void start() {
+			final var waitTime = System.nanoTime() - enqueuedNanos;
+			admittedCount.incrementAndGet();
+			totalWaitTimeNanos.addAndGet(waitTime);
+			maxWaitTimeNanos.accumulate(waitTime);
+
+			started = true;
+			if (future.isDone()) {
+				releaseOnce();
+				return;
+			}
+			log.debug("Start {} after {} ms in queue", tool.getExecutableName(), TimeUnit.NANOSECONDS.toMillis(
+			        waitTime));
+			try {
+				tool.toExecutableTool(this).execute(executableFinder);
+			} catch (final RuntimeException e) {
+				log.warn("Can't start {}", tool.getExecutableName(), e);
+				future.completeExceptionally(e);
+				releaseOnce();
+			}
+		}
+
+		private void releaseOnce() {
+			synchronized (this) {
+				if (released) {
+					return;
+				}
+				released = true;
+			}
+			release(this);
+		}
+
+		void onCancel() {
+			if (started == false) {
+				final boolean removed;
+				synchronized (FFExecutionScheduler.this) {
+					removed = queue.remove(this);
+				}
+				if (removed) {
+					return;
+				}
+			}
+			final var currentLifecycle = lifecycle;
+			if (currentLifecycle != null && currentLifecycle.isRunning()) {
+				currentLifecycle.kill();
+			}
+		}
+
+		@Override
+		public void postStartupExecution(final ProcesslauncherLifecycle processlauncherLifecycle) {
+			lifecycle = processlauncherLifecycle;
+			if (future.isCancelled()) {
+				processlauncherLifecycle.kill();
+			}
+		}
+
+		@Override
+		public void onEndExecution(final ProcesslauncherLifecycle processlauncherLifecycle) {
+			lifecycle = processlauncherLifecycle;
+			releaseOnce();
+			future.complete(processlauncherLifecycle);
+		}
+	}
+
+	public int getTotalSlots() {
+		return totalSlots;
+	}
+
+	/**
+	 * @return slot count actually took by running jobs
+	 */
+	public synchronized int getUsedSlots() {
+		return usedSlots;
+	}
+
+	public synchronized int getRunningJobsCount() {
+		return runningJobs;
+	}
+
+	/**
+	 * @return jobs waiting to be started
+	 */
+	public synchronized int getQueueDepth() {
+		return queue.size();
+	}
+
+	/**
+	 * @return all jobs started since the creation of this scheduler
+	 */
+	public long getAdmittedCount() {
+		return admittedCount.get();
+	}
+
+	/**
+	 * @return the mean time passed in queue by the started jobs
+	 */
+	public long getMeanWaitTime(final TimeUnit unit) {
+		final var count = admittedCount.get();
+		if (count == 0) {
+			return 0;
+		}
+		return unit.convert(totalWaitTimeNanos.get() / count, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * @return the longest time passed in queue by a started job
+	 */
+	public long getMaxWaitTime(final TimeUnit unit) {
+		return unit.convert(maxWaitTimeNanos.get(), TimeUnit.NANOSECONDS);
+	}
+
+}
@@ -0,0 +1,66 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.exec;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.CompletableFuture;
+
+import tv.hd3g.processlauncher.ExecutionCallbacker;
+import tv.hd3g.processlauncher.ProcesslauncherLifecycle;
+
+/**
+ * Link a future to an execution: cancel the future will kill the process, now if it runs, or just after its start.
+ * Add it to the execution ProcesslauncherBuilder, like with ConversionTool.toExecutableTool(killOnCancel).
+ */
+public class KillOnCancel implements ExecutionCallbacker {
+
+	private final CompletableFuture<?> future;
+	private volatile ProcesslauncherLifecycle lifecycle;
+
+	public KillOnCancel(final CompletableFuture<?> future) {
+		this.future = requireNonNull(future, "\"future\" can't to be null");
+		future.whenComplete((r, e) -> {
+			if (future.isCancelled()) {
+				kill();
+			}
+		});
+	}
+
+	private void kill() {
+		final var currentLifecycle = lifecycle;
+		if (currentLifecycle != null && currentLifecycle.isRunning()) {
+			currentLifecycle.kill();
+		}
+	}
+
+	@Override
+	public void postStartupExecution(final ProcesslauncherLifecycle processlauncherLifecycle) {
+		lifecycle = processlauncherLifecycle;
+		if (future.isCancelled()) {
+			processlauncherLifecycle.kill();
+		}
+	}
+
+	/**
+	 * @return true if the future is already cancelled or completed: no needs to start the process.
+	 */
+	public boolean isFutureDone() {
+		return future.isDone();
+	}
+
+}
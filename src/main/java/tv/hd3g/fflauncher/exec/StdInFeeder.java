@@ -0,0 +1,162 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.exec;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Copy a source channel to a process stdin (like ffprobe -i pipe:0), chunk by chunk, with one reusable buffer.
+ * The source is only read when the previous chunk was accepted by the process: a slow reader (or a full pipe)
+ * slows down the source reading, without memory growth.
+ * If the process closes its stdin (it has read enough, or it has ended), the copy stops without error.
+ * For one execution only.
+ */
+public class StdInFeeder {
+	private static final Logger log = LogManager.getLogger();
+
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	private final ReadableByteChannel source;
+	private final int bufferSize;
+	private final AtomicLong writtenBytes;
+	private final CompletableFuture<Void> end;
+	private volatile boolean sourceEndReached;
+	private volatile boolean closedByProcess;
+
+	/**
+	 * @param source will be read until its end, or until the process closes its stdin. Not closed here.
+	 */
+	public StdInFeeder(final ReadableByteChannel source, final int bufferSize) {
+		this.source = requireNonNull(source, "\"source\" can't to be null");
+		if (bufferSize < 1) {
+			throw new IllegalArgumentException("Invalid bufferSize: " + bufferSize);
+		}
+		this.bufferSize = bufferSize;
+		writtenBytes = new AtomicLong();
+		end = new CompletableFuture<>();
+	}
+
+	public StdInFeeder(final ReadableByteChannel source) {
+		this(source, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Start the copy in a new thread, from threadFactory. processStdIn will be closed at the end.
+	 */
+	public StdInFeeder start(final OutputStream processStdIn, final ThreadFactory threadFactory) {
+		requireNonNull(processStdIn, "\"processStdIn\" can't to be null");
+		requireNonNull(threadFactory, "\"threadFactory\" can't to be null");
+		final var thread = threadFactory.newThread(() -> {
+			try {
+				copy(processStdIn);
+				end.complete(null);
+			} catch (final IOException e) {
+				end.completeExceptionally(e);
+			}
+		});
+		if (thread == null) {
+			final var e = new IllegalStateException("Can't create a stdin feeder thread");
+			end.completeExceptionally(e);
+			throw e;
+		}
+		thread.start();
+		return this;
+	}
+
+	private void copy(final OutputStream processStdIn) throws IOException {
+		final var buffer = ByteBuffer.allocate(bufferSize);
+		try (var stdIn = Channels.newChannel(processStdIn)) {
+			while (true) {
+				buffer.clear();
+				if (source.read(buffer) == -1) {
+					sourceEndReached = true;
+					return;
+				}
+				buffer.flip();
+				while (buffer.hasRemaining()) {
+					try {
+						writtenBytes.addAndGet(stdIn.write(buffer));
+					} catch (final IOException e) {
+						log.debug("Process stdin is closed after {} bytes", writtenBytes.get(), e);
+						closedByProcess = true;
+						return;
+					}
+				}
+			}
+		} catch (final IOException e) {
+			if (closedByProcess) {
+				return;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Wait the end of the copy.
+	 * @throws UncheckedIOException if the source can't be read
+	 */
+	public StdInFeeder waitForEnd() {
+		try {
+			end.get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted", e);
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw new UncheckedIOException("Can't read source", (IOException) e.getCause());
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+		return this;
+	}
+
+	/**
+	 * @return bytes accepted by the process stdin, up to now.
+	 */
+	public long getWrittenBytes() {
+		return writtenBytes.get();
+	}
+
+	/**
+	 * @return true if all the source was read and written to the process
+	 */
+	public boolean isSourceEndReached() {
+		return sourceEndReached;
+	}
+
+	/**
+	 * @return true if the process has closed its stdin before the source end
+	 */
+	public boolean isClosedByProcess() {
+		return closedByProcess;
+	}
+
+}
@@ -26,7 +26,6 @@ import java.util.stream.Collectors;
 import tv.hd3g.fflauncher.ConversionTool;
 import tv.hd3g.fflauncher.FFbase;
 import tv.hd3g.fflauncher.about.FFAbout;
-import tv.hd3g.fflauncher.about.FFAboutFilter;
 import tv.hd3g.fflauncher.enums.FilterConnectorType;
 import tv.hd3g.fflauncher.filtering.parser.FilterParser;
 import tv.hd3g.processlauncher.cmdline.Parameters;
@@ -191,18 +190,7 @@ public class FilterChains {
 	 */
 	public List<Filter> checkFiltersAvailability(final FFAbout about,
 	                                             final FilterConnectorType expectedType) {
-		final var filters = about.getFilters();
-
-		final var availableFilters = filters.stream()
-		        .filter(f -> {
-			        if (expectedType == null) {
-				        return true;
-			        }
-			        return expectedType.equals(f.getSourceConnector());
-		        })
-		        .map(FFAboutFilter::getTag)
-		        .distinct()
-		        .collect(Collectors.toUnmodifiableSet());
+		final var availableFilters = about.getFilterTags(expectedType);
 
 		return chain.stream()
 		        .flatMap(List::stream)
@@ -210,4 +198,19 @@ public class FilterChains {
 		        .collect(Collectors.toUnmodifiableList());
 	}
 
+	/**
+	 * Check all filters arguments names and values with "ffmpeg -h filter=", without run ffmpeg with this chains.
+	 * Non available filters are ignored here, see checkFiltersAvailability.
+	 * @return all errors messages. Empty == all ok.
+	 */
+	public List<String> checkFiltersArguments(final FFAbout about) {
+		final var availableFilters = about.getFilterTags(null);
+
+		return chain.stream()
+		        .flatMap(List::stream)
+		        .filter(filter -> availableFilters.contains(filter.getFilterName()))
+		        .flatMap(filter -> about.getFilterOptions(filter.getFilterName()).checkFilter(filter).stream())
+		        .collect(Collectors.toUnmodifiableList());
+	}
+
 }
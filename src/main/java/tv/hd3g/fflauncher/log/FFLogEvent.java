@@ -0,0 +1,87 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.log;
+
+import java.util.Optional;
+
+import tv.hd3g.fflauncher.enums.FFLogLevel;
+
+/**
+ * A parsed ffmpeg/ffprobe stderr log line, like "[h264 @ 0x55d5] [error] non-existing PPS 0 referenced"
+ */
+public class FFLogEvent {
+
+	private final FFLogLevel level;
+	private final String component;
+	private final String message;
+	private final int repeatCount;
+
+	public FFLogEvent(final FFLogLevel level, final String component, final String message, final int repeatCount) {
+		this.level = level;
+		this.component = component;
+		this.message = message;
+		this.repeatCount = repeatCount;
+	}
+
+	/**
+	 * @return empty if the log line don't display level (see FFbase.setLogLevel)
+	 */
+	public Optional<FFLogLevel> getLevel() {
+		return Optional.ofNullable(level);
+	}
+
+	/**
+	 * @return like "h264 @ 0x55d5a0ee3c40", or empty for generic messages
+	 */
+	public Optional<String> getComponent() {
+		return Optional.ofNullable(component);
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	/**
+	 * @return 1, or more for a "Last message repeated N times" line.
+	 */
+	public int getRepeatCount() {
+		return repeatCount;
+	}
+
+	@Override
+	public String toString() {
+		final var sb = new StringBuilder();
+		if (component != null) {
+			sb.append("[");
+			sb.append(component);
+			sb.append("] ");
+		}
+		if (level != null) {
+			sb.append("[");
+			sb.append(level);
+			sb.append("] ");
+		}
+		sb.append(message);
+		if (repeatCount > 1) {
+			sb.append(" (x");
+			sb.append(repeatCount);
+			sb.append(")");
+		}
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,162 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.log;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.function.Consumer;
+
+import tv.hd3g.fflauncher.enums.FFLogLevel;
+import tv.hd3g.fflauncher.exec.CapturedLineObserver;
+import tv.hd3g.processlauncher.LineEntry;
+
+/**
+ * Streaming parser for ffmpeg/ffprobe stderr lines, produced with "-loglevel level+..." (FFbase.setLogLevel with display_level).
+ * Lines are classified in place: only the lines selected by maxLevel will create a FFLogEvent.
+ * Lines without level tag are handled as INFO lines.
+ */
+public class FFLogParser extends CapturedLineObserver {
+
+	private static final String LAST_MESSAGE_REPEATED = "Last message repeated ";
+
+	private static final PrefixTrie<Boolean> bannerPrefixes = new PrefixTrie<>();
+	private static final PrefixTrie<FFLogLevel> levelTags = new PrefixTrie<>();
+
+	static {
+		bannerPrefixes.put("ffmpeg version", true)
+		        .put("ffprobe version", true)
+		        .put("built with", true)
+		        .put("configuration:", true)
+		        .put("Press [q]", true)
+		        .put("libavutil", true)
+		        .put("libavcodec", true)
+		        .put("libavformat", true)
+		        .put("libavdevice", true)
+		        .put("libavfilter", true)
+		        .put("libswscale", true)
+		        .put("libswresample", true)
+		        .put("libpostproc", true);
+
+		for (final var level : FFLogLevel.values()) {
+			levelTags.put("[" + level.toString() + "]", level);
+		}
+	}
+
+	private final FFLogLevel maxLevel;
+	private final Consumer<FFLogEvent> listener;
+	private FFLogEvent lastEvent;
+
+	/**
+	 * @param maxLevel the most verbose level to send, like WARNING for get only warnings and errors.
+	 */
+	public FFLogParser(final FFLogLevel maxLevel, final Consumer<FFLogEvent> listener) {
+		this.maxLevel = requireNonNull(maxLevel, "\"maxLevel\" can't to be null");
+		this.listener = requireNonNull(listener, "\"listener\" can't to be null");
+	}
+
+	/**
+	 * @return true for ffmpeg/ffprobe header lines like "ffmpeg version", "configuration:", "libavutil 56. 14.100"...
+	 */
+	public static boolean isBannerLine(final String line) {
+		return bannerPrefixes.find(line, PrefixTrie.skipWhitespaces(line, 0)) != null;
+	}
+
+	@Override
+	public void onLine(final LineEntry lineEntry) {
+		if (lineEntry.isStdErr()) {
+			parseLine(lineEntry.getLine());
+		}
+	}
+
+	private boolean isSelected(final FFLogLevel level) {
+		if (level == null) {
+			return FFLogLevel.INFO.ordinal() <= maxLevel.ordinal();
+		}
+		return level.ordinal() <= maxLevel.ordinal();
+	}
+
+	void parseLine(final String line) {
+		var pos = PrefixTrie.skipWhitespaces(line, 0);
+		final var len = line.length();
+		if (pos == len) {
+			return;
+		} else if (line.startsWith(LAST_MESSAGE_REPEATED, pos)) {
+			onRepeat(line, pos + LAST_MESSAGE_REPEATED.length());
+			return;
+		} else if (bannerPrefixes.find(line, pos) != null) {
+			return;
+		}
+
+		var componentStart = -1;
+		var componentEnd = -1;
+		FFLogLevel level = null;
+		while (pos < len && line.charAt(pos) == '[') {
+			level = levelTags.find(line, pos);
+			if (level != null) {
+				pos = PrefixTrie.skipWhitespaces(line, pos + level.toString().length() + 2);
+				break;
+			}
+			final var end = line.indexOf(']', pos);
+			if (end == -1) {
+				break;
+			}
+			componentStart = pos + 1;
+			componentEnd = end;
+			pos = PrefixTrie.skipWhitespaces(line, end + 1);
+		}
+
+		if (isSelected(level) == false) {
+			lastEvent = null;
+			return;
+		}
+
+		var messageEnd = len;
+		while (messageEnd > pos && line.charAt(messageEnd - 1) <= ' ') {
+			messageEnd--;
+		}
+		String component = null;
+		if (componentStart > -1) {
+			component = line.substring(componentStart, componentEnd);
+		}
+		lastEvent = new FFLogEvent(level, component, line.substring(pos, messageEnd), 1);
+		listener.accept(lastEvent);
+	}
+
+	/**
+	 * "Last message repeated 5 times"
+	 */
+	private void onRepeat(final String line, final int from) {
+		if (lastEvent == null) {
+			return;
+		}
+		var count = 0;
+		for (var pos = from; pos < line.length(); pos++) {
+			final var c = line.charAt(pos);
+			if (c < '0' || c > '9') {
+				break;
+			}
+			count = count * 10 + (c - '0');
+		}
+		if (count > 0) {
+			listener.accept(new FFLogEvent(lastEvent.getLevel().orElse(null),
+			        lastEvent.getComponent().orElse(null),
+			        lastEvent.getMessage(),
+			        count));
+		}
+	}
+
+}
@@ -0,0 +1,94 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.log;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Minimal ASCII char trie, for test a lot of line prefixes in one pass, without substring.
+ * Not threadsafe during puts, threadsafe for reads after.
+ */
+public class PrefixTrie<T> {
+
+	private static final int ASCII_SIZE = 128;
+
+	private final Node<T> root;
+
+	private static class Node<T> {
+		final Map<Character, Node<T>> children = new HashMap<>();
+		T value;
+	}
+
+	public PrefixTrie() {
+		root = new Node<>();
+	}
+
+	/**
+	 * @param prefix only ASCII chars
+	 */
+	public PrefixTrie<T> put(final String prefix, final T value) {
+		requireNonNull(value, "\"value\" can't to be null");
+		if (prefix == null || prefix.isEmpty()) {
+			throw new IllegalArgumentException("Invalid empty prefix");
+		}
+		var node = root;
+		for (var pos = 0; pos < prefix.length(); pos++) {
+			final var c = prefix.charAt(pos);
+			if (c >= ASCII_SIZE) {
+				throw new IllegalArgumentException("Only ASCII chars are managed: \"" + prefix + "\"");
+			}
+			node = node.children.computeIfAbsent(c, k -> new Node<>());
+		}
+		node.value = value;
+		return this;
+	}
+
+	/**
+	 * @return the value of the shortest prefix found on text, starting at from. Null if nothing match.
+	 */
+	public T find(final CharSequence text, final int from) {
+		var node = root;
+		for (var pos = from; pos < text.length(); pos++) {
+			final var c = text.charAt(pos);
+			if (c >= ASCII_SIZE) {
+				return null;
+			}
+			node = node.children.get(c);
+			if (node == null) {
+				return null;
+			} else if (node.value != null) {
+				return node.value;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the first non-whitespace char position (like String.trim), or text length if blank.
+	 */
+	public static int skipWhitespaces(final CharSequence text, final int from) {
+		var pos = from;
+		while (pos < text.length() && text.charAt(pos) <= ' ') {
+			pos++;
+		}
+		return pos;
+	}
+
+}
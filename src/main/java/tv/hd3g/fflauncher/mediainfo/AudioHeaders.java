@@ -0,0 +1,287 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.mediainfo;
+
+import static tv.hd3g.fflauncher.enums.Channel.BC;
+import static tv.hd3g.fflauncher.enums.Channel.FC;
+import static tv.hd3g.fflauncher.enums.Channel.FL;
+import static tv.hd3g.fflauncher.enums.Channel.FR;
+import static tv.hd3g.fflauncher.enums.Channel.LFE;
+import static tv.hd3g.fflauncher.enums.Channel.SL;
+import static tv.hd3g.fflauncher.enums.Channel.SR;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import tv.hd3g.fflauncher.enums.Channel;
+import tv.hd3g.fflauncher.enums.ChannelLayout;
+
+/**
+ * Audio codec headers parsers for the MediaHeaderReader implementations, to get what ffprobe would report as
+ * sample rate, channels and channel layout.
+ * An unusual or ambiguous header throws an IllegalArgumentException: ffprobe should be used instead.
+ */
+final class AudioHeaders {
+
+	private static final int[] AAC_SAMPLE_RATES = { 96000, 88200, 64000, 48000, 44100, 32000, 24000, 22050,
+	                                                16000, 12000, 11025, 8000, 7350 };
+	private static final String[] AAC_LAYOUTS = { null, "mono", "stereo", "3.0", "4.0", "5.0", "5.1", "7.1(wide)" };
+	private static final int[] AC3_SAMPLE_RATES = { 48000, 44100, 32000 };
+	private static final int[] MPEG_AUDIO_SAMPLE_RATES = { 44100, 48000, 32000 };
+	private static final List<List<Channel>> AC3_CHANNELS = List.of(
+	        List.of(FL, FR), List.of(FC), List.of(FL, FR), List.of(FL, FR, FC), List.of(FL, FR, BC),
+	        List.of(FL, FR, FC, BC), List.of(FL, FR, SL, SR), List.of(FL, FR, FC, SL, SR));
+
+	private AudioHeaders() {
+	}
+
+	/**
+	 * Audio parameters, as ffprobe reports them.
+	 */
+	static class AudioLayout {
+		final String codecName;
+		final int sampleRate;
+		final int channels;
+		final String channelLayout;
+
+		AudioLayout(final String codecName, final int sampleRate, final int channels, final String channelLayout) {
+			this.codecName = codecName;
+			this.sampleRate = sampleRate;
+			this.channels = channels;
+			this.channelLayout = channelLayout;
+		}
+
+		void putTo(final MediaInfoBuilder.Section stream) {
+			stream.put("codec_name", codecName)
+			        .put("sample_rate", sampleRate)
+			        .put("channels", channels)
+			        .put("channel_layout", channelLayout);
+		}
+	}
+
+	static class BitReader {
+		private final ByteBuffer buffer;
+		private long bitPosition;
+
+		BitReader(final ByteBuffer buffer, final int bytePosition) {
+			this.buffer = buffer;
+			bitPosition = bytePosition * 8L;
+		}
+
+		int read(final int count) {
+			var result = 0;
+			for (var pos = 0; pos < count; pos++) {
+				final var value = buffer.get((int) (bitPosition >> 3)) & 0xFF;
+				result = result << 1 | value >> 7 - (int) (bitPosition & 7) & 1;
+				bitPosition++;
+			}
+			return result;
+		}
+
+		void skip(final int count) {
+			bitPosition += count;
+		}
+	}
+
+	/**
+	 * @return like "5.1(side)", empty if ffmpeg has no name for these channels.
+	 */
+	static Optional<String> getLayoutName(final List<Channel> channels) {
+		final var channelSet = Set.copyOf(channels);
+		return Stream.of(ChannelLayout.values())
+		        .filter(layout -> layout.getChannelSize() == channels.size())
+		        .filter(layout -> Set.copyOf(layout.getChannelList()).equals(channelSet))
+		        .findFirst()
+		        .map(ChannelLayout::toString);
+	}
+
+	/**
+	 * @param mask WAVEFORMATEXTENSIBLE dwChannelMask, same bits as ffmpeg channel masks.
+	 */
+	static Optional<String> getLayoutNameFromMask(final long mask) {
+		if (mask == 0 || mask >> 18 != 0) {
+			return Optional.empty();
+		}
+		final var channels = new ArrayList<Channel>();
+		for (var bit = 0; bit < 18; bit++) {
+			if ((mask >> bit & 1) == 1) {
+				channels.add(Channel.values()[bit]);
+			}
+		}
+		return getLayoutName(channels);
+	}
+
+	/**
+	 * MPEG-4 AudioSpecificConfig, like in an esds box or a Matroska CodecPrivate.
+	 */
+	static AudioLayout readAudioSpecificConfig(final ByteBuffer buffer, final int position) {
+		final var bits = new BitReader(buffer, position);
+		var audioObjectType = bits.read(5);
+		if (audioObjectType == 31) {
+			audioObjectType = 32 + bits.read(6);
+		}
+		var sampleRate = readAacSampleRate(bits);
+		final var channelConfiguration = bits.read(4);
+		if (audioObjectType == 5 || audioObjectType == 29) {
+			sampleRate = readAacSampleRate(bits);
+		} else if (sampleRate <= 24000) {
+			throw new IllegalArgumentException("Low rate AAC, can be an implicit HE-AAC");
+		}
+		return getAacLayout(sampleRate, channelConfiguration);
+	}
+
+	/**
+	 * ADTS header, from an AAC elementary stream.
+	 */
+	static AudioLayout readAdts(final ByteBuffer buffer, final int position) {
+		final var bits = new BitReader(buffer, position);
+		if (bits.read(12) != 0xFFF) {
+			throw new IllegalArgumentException("No ADTS sync word");
+		}
+		bits.skip(6);
+		final var sampleRate = readAacSampleRate(bits);
+		bits.skip(1);
+		final var channelConfiguration = bits.read(3);
+		if (sampleRate <= 24000) {
+			throw new IllegalArgumentException("Low rate AAC, can be an implicit HE-AAC");
+		}
+		return getAacLayout(sampleRate, channelConfiguration);
+	}
+
+	private static int readAacSampleRate(final BitReader bits) {
+		final var index = bits.read(4);
+		if (index == 15) {
+			return bits.read(24);
+		} else if (index >= AAC_SAMPLE_RATES.length) {
+			throw new IllegalArgumentException("Invalid AAC sample rate index " + index);
+		}
+		return AAC_SAMPLE_RATES[index];
+	}
+
+	private static AudioLayout getAacLayout(final int sampleRate, final int channelConfiguration) {
+		if (channelConfiguration < 1 || channelConfiguration > 7) {
+			throw new IllegalArgumentException("AAC channel configuration " + channelConfiguration);
+		}
+		return new AudioLayout("aac", sampleRate, channelConfiguration == 7 ? 8 : channelConfiguration,
+		        AAC_LAYOUTS[channelConfiguration]);
+	}
+
+	/**
+	 * AC-3 from its acmod and lfeon values.
+	 */
+	static AudioLayout getAc3Layout(final int sampleRate, final int acmod, final boolean lfe) {
+		final var channels = new ArrayList<>(AC3_CHANNELS.get(acmod));
+		if (lfe) {
+			channels.add(LFE);
+		}
+		return new AudioLayout("ac3", sampleRate, channels.size(), getLayoutName(channels).orElse(null));
+	}
+
+	/**
+	 * AC-3 sync frame header (not E-AC-3).
+	 */
+	static AudioLayout readAc3(final ByteBuffer buffer, final int position) {
+		final var bits = new BitReader(buffer, position);
+		if (bits.read(16) != 0x0B77) {
+			throw new IllegalArgumentException("No AC-3 sync word");
+		}
+		bits.skip(16);
+		final var fscod = bits.read(2);
+		bits.skip(6);
+		final var bsid = bits.read(5);
+		if (fscod == 3 || bsid > 10) {
+			throw new IllegalArgumentException("Not an AC-3 frame");
+		}
+		bits.skip(3);
+		final var acmod = bits.read(3);
+		if ((acmod & 1) == 1 && acmod != 1) {
+			bits.skip(2);
+		}
+		if ((acmod & 4) == 4) {
+			bits.skip(2);
+		}
+		if (acmod == 2) {
+			bits.skip(2);
+		}
+		return getAc3Layout(AC3_SAMPLE_RATES[fscod], acmod, bits.read(1) == 1);
+	}
+
+	/**
+	 * MPEG-1/2 audio frame header (mp1, mp2, mp3).
+	 */
+	static AudioLayout readMpegAudio(final ByteBuffer buffer, final int position) {
+		final var bits = new BitReader(buffer, position);
+		if (bits.read(11) != 0x7FF) {
+			throw new IllegalArgumentException("No MPEG audio sync word");
+		}
+		final var version = bits.read(2);
+		final var layer = bits.read(2);
+		bits.skip(1);
+		final var bitrateIndex = bits.read(4);
+		final var sampleRateIndex = bits.read(2);
+		bits.skip(2);
+		final var mode = bits.read(2);
+		if (version == 1 || layer == 0 || bitrateIndex == 0 || bitrateIndex == 15 || sampleRateIndex == 3) {
+			throw new IllegalArgumentException("Unusual MPEG audio header");
+		}
+		final var divider = version == 3 ? 1 : version == 2 ? 2 : 4;
+		final var channels = mode == 3 ? 1 : 2;
+		return new AudioLayout("mp" + (4 - layer), MPEG_AUDIO_SAMPLE_RATES[sampleRateIndex] / divider,
+		        channels, channels == 1 ? "mono" : "stereo");
+	}
+
+	/**
+	 * SMPTE 302M AES3 PES payload header.
+	 */
+	static AudioLayout readS302m(final ByteBuffer buffer, final int position) {
+		final var bits = new BitReader(buffer, position);
+		bits.skip(16);
+		final var channels = (bits.read(2) + 1) * 2;
+		bits.skip(8);
+		if (bits.read(2) == 3) {
+			throw new IllegalArgumentException("Invalid S302M bits per sample");
+		}
+		final String layout;
+		if (channels == 2) {
+			layout = "stereo";
+		} else if (channels == 4) {
+			layout = "quad";
+		} else if (channels == 6) {
+			layout = "5.1";
+		} else {
+			layout = null;
+		}
+		return new AudioLayout("s302m", 48000, channels, layout);
+	}
+
+	/**
+	 * @return empty if an audio stream has more than 2 channels and no layout: InputAudioStream can't use it,
+	 *         and ffprobe may know its layout.
+	 */
+	static Optional<MediaInfo> requireAudioLayouts(final MediaInfo mediaInfo) {
+		if (mediaInfo.getAudioStreams()
+		        .anyMatch(s -> s.getChannels() > 2 && s.getChannelLayout().isEmpty())) {
+			return Optional.empty();
+		}
+		return Optional.ofNullable(mediaInfo);
+	}
+
+}
@@ -0,0 +1,156 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.mediainfo;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Shared binary helpers for the MediaHeaderReader implementations.
+ * A malformed content throws an IllegalArgumentException, catched by the readers to fall back to ffprobe.
+ */
+final class HeaderReading {
+
+	private HeaderReading() {
+	}
+
+	/**
+	 * Positional read, without changing the channel position.
+	 * @return buffer, flipped
+	 */
+	static ByteBuffer readFully(final FileChannel channel,
+	                             final ByteBuffer buffer,
+	                             final long position) throws IOException {
+		var pos = position;
+		while (buffer.hasRemaining()) {
+			final var read = channel.read(buffer, pos);
+			if (read == -1) {
+				throw new EOFException("Can't read " + buffer.remaining() + " bytes at " + pos);
+			}
+			pos += read;
+		}
+		return buffer.flip();
+	}
+
+	/**
+	 * @return 4 ASCII chars, like "moov"
+	 */
+	static String fourcc(final ByteBuffer buffer, final int index) {
+		final var bytes = new byte[4];
+		for (var pos = 0; pos < 4; pos++) {
+			bytes[pos] = buffer.get(index + pos);
+		}
+		return new String(bytes, ISO_8859_1);
+	}
+
+	static boolean isPrintableFourcc(final ByteBuffer buffer, final int index) {
+		for (var pos = 0; pos < 4; pos++) {
+			final var c = buffer.get(index + pos) & 0xFF;
+			if (c < 0x20 || c > 0x7E) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	static long uint32(final ByteBuffer buffer, final int index) {
+		return buffer.getInt(index) & 0xFFFFFFFFL;
+	}
+
+	static int uint16(final ByteBuffer buffer, final int index) {
+		return buffer.getShort(index) & 0xFFFF;
+	}
+
+	static int uint8(final ByteBuffer buffer, final int index) {
+		return buffer.get(index) & 0xFF;
+	}
+
+	/**
+	 * @return like "30000/1001", reduced, as ffprobe displays rationals.
+	 */
+	static String rational(final long num, final long den) {
+		if (den == 0) {
+			return "0/0";
+		}
+		final var gcd = BigInteger.valueOf(num).gcd(BigInteger.valueOf(den)).longValue();
+		if (gcd == 0) {
+			return num + "/" + den;
+		}
+		return num / gcd + "/" + den / gcd;
+	}
+
+	/**
+	 * For rates only known by a rounded period, like the Matroska DefaultDuration in nanoseconds.
+	 * @return num/den as a rational, snapped on integer and NTSC (x1000/1001) rates, else the nearest
+	 *         continued fraction convergent with terms up to max.
+	 */
+	static String approximate(final long num, final long den, final int max) {
+		if (den == 0) {
+			return "0/0";
+		}
+		final var value = (double) num / den;
+		final var integer = Math.round(value);
+		if (integer > 0 && Math.abs(value - integer) / value < 1e-4) {
+			return integer + "/1";
+		}
+		final var ntsc = Math.round(value * 1.001);
+		if (ntsc > 0 && Math.abs(value * 1.001 - ntsc) / value < 1e-4) {
+			return rational(ntsc * 1000, 1001);
+		}
+		long p0 = 0;
+		long q0 = 1;
+		long p1 = 1;
+		long q1 = 0;
+		var remainder = value;
+		for (var pos = 0; pos < 32; pos++) {
+			final var a = (long) Math.floor(remainder);
+			final var p2 = a * p1 + p0;
+			final var q2 = a * q1 + q0;
+			if (p2 > max || q2 > max) {
+				break;
+			}
+			p0 = p1;
+			q0 = q1;
+			p1 = p2;
+			q1 = q2;
+			final var fraction = remainder - a;
+			if (fraction < 1e-9) {
+				break;
+			}
+			remainder = 1 / fraction;
+		}
+		return rational(p1, q1);
+	}
+
+	/**
+	 * @return buffer[from, to[ as a new zero-positioned buffer, with the same byte order.
+	 */
+	static ByteBuffer slice(final ByteBuffer buffer, final int from, final int to) {
+		if (from < 0 || to > buffer.limit() || from > to) {
+			throw new IllegalArgumentException("Invalid slice " + from + "-" + to + "/" + buffer.limit());
+		}
+		final var dup = buffer.duplicate();
+		dup.limit(to).position(from);
+		return dup.slice().order(buffer.order());
+	}
+
+}
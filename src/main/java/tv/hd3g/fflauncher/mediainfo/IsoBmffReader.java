@@ -0,0 +1,635 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.mediainfo;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static tv.hd3g.fflauncher.mediainfo.HeaderReading.fourcc;
+import static tv.hd3g.fflauncher.mediainfo.HeaderReading.isPrintableFourcc;
+import static tv.hd3g.fflauncher.mediainfo.HeaderReading.rational;
+import static tv.hd3g.fflauncher.mediainfo.HeaderReading.readFully;
+import static tv.hd3g.fflauncher.mediainfo.HeaderReading.slice;
+import static tv.hd3g.fflauncher.mediainfo.HeaderReading.uint16;
+import static tv.hd3g.fflauncher.mediainfo.HeaderReading.uint32;
+import static tv.hd3g.fflauncher.mediainfo.HeaderReading.uint8;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import tv.hd3g.fflauncher.mediainfo.AudioHeaders.AudioLayout;
+
+/**
+ * ISO-BMFF (MP4, MOV) header reader: walk the top level boxes with positional reads, and memory map the moov box
+ * only. Get the duration, the tracks codecs FourCC, sample rates, channels, dimensions, frame rates and the
+ * start timecode.
+ * Fragmented, encrypted, compressed moov, multiple sample descriptions, QuickTime chapters, E-AC-3 and
+ * HE-AAC candidates are left to ffprobe, like multichannel audio without a known layout.
+ */
+public class IsoBmffReader implements MediaHeaderReader {
+	private static final Logger log = LogManager.getLogger();
+
+	public static final String FORMAT_NAME = "mov,mp4,m4a,3gp,3g2,mj2";
+	public static final String FORMAT_LONG_NAME = "QuickTime / MOV";
+	/**
+	 * Larger moov boxes (very long files) are left to ffprobe.
+	 */
+	public static final int MAX_MOOV_SIZE = 64 * 1024 * 1024;
+
+	private static final Set<String> FIRST_BOX_TYPES = Set.of("ftyp", "moov", "mdat", "free", "skip", "wide",
+	        "pnot", "styp");
+	/**
+	 * Seconds between 1904-01-01 and 1970-01-01.
+	 */
+	private static final long MAC_EPOCH_OFFSET = 2_082_844_800L;
+	private static final Map<String, String> VIDEO_CODECS = Map.ofEntries(
+	        Map.entry("avc1", "h264"), Map.entry("avc3", "h264"),
+	        Map.entry("hvc1", "hevc"), Map.entry("hev1", "hevc"),
+	        Map.entry("av01", "av1"), Map.entry("vp09", "vp9"),
+	        Map.entry("apch", "prores"), Map.entry("apcn", "prores"), Map.entry("apcs", "prores"),
+	        Map.entry("apco", "prores"), Map.entry("ap4h", "prores"), Map.entry("ap4x", "prores"),
+	        Map.entry("AVdn", "dnxhd"), Map.entry("AVdh", "dnxhd"), Map.entry("mjpa", "mjpeg"),
+	        Map.entry("jpeg", "mjpeg"), Map.entry("xdvc", "mpeg2video"), Map.entry("xd5c", "mpeg2video"),
+	        Map.entry("dvh1", "hevc"), Map.entry("dvhe", "hevc"));
+	private static final Map<String, String> AUDIO_CODECS = Map.of(
+	        "ac-3", "ac3", "Opus", "opus", "fLaC", "flac", "alac", "alac", ".mp3", "mp3", "samr", "amr_nb");
+	private static final Map<String, String> SUBTITLE_CODECS = Map.of(
+	        "tx3g", "mov_text", "text", "mov_text", "wvtt", "webvtt", "stpp", "ttml", "c608", "eia_608");
+	private static final Set<String> UNSUPPORTED_ENTRIES = Set.of("encv", "enca", "enct", "encs", "ec-3");
+
+	@Override
+	public String getName() {
+		return "iso-bmff";
+	}
+
+	/**
+	 * A wrong or unusual content in a box.
+	 */
+	private static class UnsupportedContent extends Exception {
+		private static final long serialVersionUID = 1L;
+
+		UnsupportedContent(final String message) {
+			super(message, null, false, false);
+		}
+	}
+
+	@Override
+	public Optional<MediaInfo> read(final FileChannel channel, final String fileName) throws IOException {
+		try {
+			return AudioHeaders.requireAudioLayouts(walk(channel, fileName));
+		} catch (final UnsupportedContent e) {
+			log.debug("Can't read {} as ISO-BMFF: {}", fileName, e.getMessage());
+			return Optional.empty();
+		} catch (final IllegalArgumentException | IndexOutOfBoundsException e) {
+			log.debug("Invalid ISO-BMFF box in {}", fileName, e);
+			return Optional.empty();
+		}
+	}
+
+	private static MediaInfo walk(final FileChannel channel, final String fileName) throws IOException,
+	                                                                                     UnsupportedContent {
+		final var size = channel.size();
+		final var header = ByteBuffer.allocate(16);
+		var position = 0L;
+		ByteBuffer ftyp = null;
+		ByteBuffer moov = null;
+
+		while (position + 8 <= size) {
+			header.clear().limit(8);
+			readFully(channel, header, position);
+			var boxSize = uint32(header, 0);
+			final var type = fourcc(header, 4);
+			var headerSize = 8;
+			if (isPrintableFourcc(header, 4) == false || position == 0 && FIRST_BOX_TYPES.contains(type) == false) {
+				throw new UnsupportedContent("Not an ISO-BMFF box at " + position);
+			}
+			if (boxSize == 1) {
+				header.clear().limit(8);
+				readFully(channel, header, position + 8);
+				boxSize = header.getLong(0);
+				headerSize = 16;
+			} else if (boxSize == 0) {
+				boxSize = size - position;
+			}
+			if (boxSize < headerSize || position + boxSize > size) {
+				throw new UnsupportedContent("Invalid or truncated " + type + " box at " + position);
+			}
+
+			if (type.equals("ftyp") && boxSize - headerSize <= 1024) {
+				ftyp = readFully(channel, ByteBuffer.allocate((int) (boxSize - headerSize)), position + headerSize);
+			} else if (type.equals("moov")) {
+				if (moov != null || boxSize - headerSize > MAX_MOOV_SIZE) {
+					throw new UnsupportedContent("Multiple or too big moov box");
+				}
+				moov = channel.map(READ_ONLY, position + headerSize, boxSize - headerSize);
+			} else if (type.equals("moof") || type.equals("styp")) {
+				throw new UnsupportedContent("Fragmented file");
+			}
+			position += boxSize;
+		}
+		if (moov == null) {
+			throw new UnsupportedContent("No moov box");
+		}
+
+		final var builder = new MediaInfoBuilder();
+		final var format = builder.format()
+		        .put("filename", fileName)
+		        .put("format_name", FORMAT_NAME)
+		        .put("format_long_name", FORMAT_LONG_NAME)
+		        .put("size", size);
+		if (ftyp != null && ftyp.limit() >= 8) {
+			format.putTag("major_brand", fourcc(ftyp, 0).trim());
+			format.putTag("minor_version", String.valueOf(uint32(ftyp, 4)));
+			final var brands = new StringBuilder();
+			for (var pos = 8; pos + 4 <= ftyp.limit(); pos += 4) {
+				brands.append(fourcc(ftyp, pos));
+			}
+			format.putTag("compatible_brands", brands.toString().replace("\0", ""));
+		}
+
+		final var tracks = new ArrayList<ByteBuffer>();
+		final var unsupported = new String[1];
+		forEachBox(moov, (type, box) -> {
+			if (type.equals("mvhd")) {
+				readMvhd(box, format);
+			} else if (type.equals("trak")) {
+				tracks.add(box);
+			} else if (type.equals("mvex") || type.equals("cmov")) {
+				unsupported[0] = type;
+			} else if (type.equals("udta")) {
+				forEachBox(box, (udtaType, udta) -> {
+					if (udtaType.equals("chpl")) {
+						unsupported[0] = udtaType;
+					}
+				});
+			}
+		});
+		if (unsupported[0] != null) {
+			throw new UnsupportedContent("Unsupported " + unsupported[0] + " box");
+		}
+		for (final var track : tracks) {
+			readTrak(channel, track, builder.addStream());
+		}
+		format.put("nb_streams", builder.getStreamsCount());
+		format.put("nb_programs", 0);
+		return builder.build(false);
+	}
+
+	/**
+	 * Call boxConsumer for each child box of container, with the child payload.
+	 */
+	private static void forEachBox(final ByteBuffer container, final BiConsumer<String, ByteBuffer> boxConsumer) {
+		var position = 0;
+		final var limit = container.limit();
+		while (position + 8 <= limit) {
+			var boxSize = uint32(container, position);
+			final var type = fourcc(container, position + 4);
+			var headerSize = 8;
+			if (boxSize == 1) {
+				boxSize = container.getLong(position + 8);
+				headerSize = 16;
+			} else if (boxSize == 0) {
+				boxSize = (long) limit - position;
+			}
+			if (boxSize < headerSize || position + boxSize > limit) {
+				throw new IllegalArgumentException("Invalid " + type + " box size: " + boxSize);
+			}
+			boxConsumer.accept(type, slice(container, position + headerSize, (int) (position + boxSize)));
+			position += (int) boxSize;
+		}
+	}
+
+	private static Optional<ByteBuffer> findBox(final ByteBuffer container, final String... path) {
+		var current = container;
+		for (final var name : path) {
+			final var found = new ByteBuffer[1];
+			forEachBox(current, (type, box) -> {
+				if (found[0] == null && type.equals(name)) {
+					found[0] = box;
+				}
+			});
+			if (found[0] == null) {
+				return Optional.empty();
+			}
+			current = found[0];
+		}
+		return Optional.ofNullable(current);
+	}
+
+	private static void readMvhd(final ByteBuffer mvhd, final MediaInfoBuilder.Section format) {
+		final var version = uint8(mvhd, 0);
+		final long creation;
+		final long timescale;
+		final long duration;
+		if (version == 1) {
+			creation = mvhd.getLong(4);
+			timescale = uint32(mvhd, 20);
+			duration = mvhd.getLong(24);
+		} else {
+			creation = uint32(mvhd, 4);
+			timescale = uint32(mvhd, 12);
+			duration = uint32(mvhd, 16);
+		}
+		if (timescale > 0) {
+			format.put("duration", toSeconds(duration, timescale));
+		}
+		if (creation > MAC_EPOCH_OFFSET) {
+			format.putTag("creation_time", formatDate(creation));
+		}
+	}
+
+	private static String toSeconds(final long duration, final long timescale) {
+		return String.format(Locale.ENGLISH, "%.6f", (double) duration / (double) timescale);
+	}
+
+	private static String formatDate(final long macSeconds) {
+		return DateTimeFormatter.ISO_INSTANT.format(Instant.ofEpochSecond(macSeconds - MAC_EPOCH_OFFSET)
+		        .truncatedTo(ChronoUnit.SECONDS))
+		        .replace("Z", ".000000Z");
+	}
+
+	private static void readTrak(final FileChannel channel,
+	                             final ByteBuffer trak,
+	                             final MediaInfoBuilder.Section stream) throws IOException, UnsupportedContent {
+		if (findBox(trak, "tref", "chap").isPresent()) {
+			throw new UnsupportedContent("QuickTime chapters track");
+		}
+		final var tkhd = findBox(trak, "tkhd")
+		        .orElseThrow(() -> new UnsupportedContent("No tkhd box"));
+		stream.putDisposition("default", (uint32(tkhd, 0) & 1) == 1);
+
+		final var mdhd = findBox(trak, "mdia", "mdhd")
+		        .orElseThrow(() -> new UnsupportedContent("No mdhd box"));
+		final var handler = findBox(trak, "mdia", "hdlr")
+		        .map(hdlr -> fourcc(hdlr, 8))
+		        .orElseThrow(() -> new UnsupportedContent("No hdlr box"));
+		final var stbl = findBox(trak, "mdia", "minf", "stbl")
+		        .orElseThrow(() -> new UnsupportedContent("No stbl box"));
+		final var stsd = findBox(stbl, "stsd")
+		        .orElseThrow(() -> new UnsupportedContent("No stsd box"));
+		if (uint32(stsd, 4) != 1) {
+			throw new UnsupportedContent("Not one sample description");
+		}
+		final var entrySize = (int) uint32(stsd, 8);
+		final var entryType = fourcc(stsd, 12);
+		if (UNSUPPORTED_ENTRIES.contains(entryType)) {
+			throw new UnsupportedContent("Unsupported " + entryType + " sample entry");
+		}
+		final var entry = slice(stsd, 16, 8 + entrySize);
+		stream.put("codec_tag_string", entryType.replace("\0", ""));
+
+		final long timescale;
+		final long duration;
+		final int languageCode;
+		if (uint8(mdhd, 0) == 1) {
+			timescale = uint32(mdhd, 20);
+			duration = mdhd.getLong(24);
+			languageCode = uint16(mdhd, 32);
+		} else {
+			timescale = uint32(mdhd, 12);
+			duration = uint32(mdhd, 16);
+			languageCode = uint16(mdhd, 20);
+		}
+		if (timescale == 0) {
+			throw new UnsupportedContent("Invalid track timescale");
+		}
+		stream.put("time_base", "1/" + timescale);
+		stream.put("duration_ts", duration);
+		stream.put("duration", toSeconds(duration, timescale));
+		getLanguage(languageCode).ifPresent(language -> stream.putTag("language", language));
+		findBox(stbl, "stsz").ifPresent(stsz -> stream.put("nb_frames", uint32(stsz, 8)));
+
+		if (handler.equals("vide")) {
+			readVideoEntry(entryType, entry, stream);
+			findBox(stbl, "stts")
+			        .filter(stts -> uint32(stts, 4) == 1 && uint32(stts, 12) > 0)
+			        .map(stts -> rational(timescale, uint32(stts, 12)))
+			        .ifPresent(frameRate -> stream.put("r_frame_rate", frameRate).put("avg_frame_rate", frameRate));
+		} else if (handler.equals("soun")) {
+			readAudioEntry(entryType, entry, stream);
+		} else if (handler.equals("sbtl") || handler.equals("subt") || handler.equals("text")
+		           || handler.equals("clcp")) {
+			stream.put("codec_type", MediaStream.CODEC_TYPE_SUBTITLE);
+			stream.put("codec_name", SUBTITLE_CODECS.get(entryType));
+		} else {
+			stream.put("codec_type", MediaStream.CODEC_TYPE_DATA);
+			if (entryType.equals("tmcd")) {
+				readTimecode(channel, entry, stbl).ifPresent(timecode -> stream.putTag("timecode", timecode));
+			}
+		}
+	}
+
+	/**
+	 * @return like "eng", or "und". The Macintosh language codes are not managed, except 0 (English).
+	 */
+	private static Optional<String> getLanguage(final int code) {
+		if (code == 0) {
+			return Optional.ofNullable("eng");
+		} else if (code < 0x400 || code == 0x7FFF) {
+			return Optional.empty();
+		}
+		final var chars = new char[] {
+		                               (char) ((code >> 10 & 0x1F) + 0x60),
+		                               (char) ((code >> 5 & 0x1F) + 0x60),
+		                               (char) ((code & 0x1F) + 0x60) };
+		return Optional.ofNullable(new String(chars));
+	}
+
+	/**
+	 * VisualSampleEntry: 8 bytes header, 16 bytes pre_defined/reserved, width, height... and 78 bytes before boxes.
+	 */
+	private static void readVideoEntry(final String entryType,
+	                                   final ByteBuffer entry,
+	                                   final MediaInfoBuilder.Section stream) {
+		stream.put("codec_type", MediaStream.CODEC_TYPE_VIDEO);
+		stream.put("codec_name", VIDEO_CODECS.get(entryType));
+		stream.put("width", uint16(entry, 24));
+		stream.put("height", uint16(entry, 26));
+		if (entry.limit() <= 78) {
+			return;
+		}
+		forEachBox(slice(entry, 78, entry.limit()), (type, box) -> {
+			if (type.equals("pasp") && box.limit() >= 8 && uint32(box, 4) > 0) {
+				stream.put("sample_aspect_ratio", rational(uint32(box, 0), uint32(box, 4)).replace('/', ':'));
+			} else if (type.equals("fiel") && box.limit() >= 2) {
+				stream.put("field_order", getFieldOrder(uint8(box, 0), uint8(box, 1)));
+			}
+		});
+	}
+
+	private static String getFieldOrder(final int fields, final int detail) {
+		if (fields == 1) {
+			return "progressive";
+		} else if (fields != 2) {
+			return null;
+		}
+		switch (detail) {
+		case 1:
+			return "tt";
+		case 6:
+			return "bb";
+		case 9:
+			return "tb";
+		case 14:
+			return "bt";
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * (QuickTime) AudioSampleEntry: 8 bytes header, version, revision, vendor, channels, sample size,
+	 * compression id, packet size and 16.16 sample rate. Version 1 adds 16 bytes, version 2 moves the values in
+	 * 36 more bytes.
+	 */
+	private static void readAudioEntry(final String entryType,
+	                                   final ByteBuffer entry,
+	                                   final MediaInfoBuilder.Section stream) throws UnsupportedContent {
+		stream.put("codec_type", MediaStream.CODEC_TYPE_AUDIO);
+		final var version = uint16(entry, 8);
+		var channels = uint16(entry, 16);
+		var bitsPerSample = uint16(entry, 18);
+		var sampleRate = (int) (uint32(entry, 24) >>> 16);
+		var lpcmFlags = 0L;
+		final int boxesStart;
+		if (version == 0) {
+			boxesStart = 28;
+		} else if (version == 1) {
+			boxesStart = 44;
+		} else if (version == 2) {
+			sampleRate = (int) Double.longBitsToDouble(entry.getLong(32));
+			channels = (int) uint32(entry, 40);
+			bitsPerSample = (int) uint32(entry, 48);
+			lpcmFlags = uint32(entry, 52);
+			boxesStart = 64;
+		} else {
+			throw new UnsupportedContent("Unknown sound description version " + version);
+		}
+
+		final var boxes = new HashMap<String, ByteBuffer>();
+		if (entry.limit() > boxesStart) {
+			forEachBox(slice(entry, boxesStart, entry.limit()), (type, box) -> {
+				boxes.putIfAbsent(type, box);
+				if (type.equals("wave")) {
+					forEachBox(box, boxes::putIfAbsent);
+				}
+			});
+		}
+
+		String codecName = AUDIO_CODECS.get(entryType);
+		String channelLayout = null;
+		final var littleEndian = Optional.ofNullable(boxes.get("enda"))
+		        .map(enda -> enda.limit() >= 2 && uint16(enda, 0) == 1)
+		        .orElse(false);
+		switch (entryType) {
+		case "mp4a":
+			final var esds = Optional.ofNullable(boxes.get("esds"))
+			        .orElseThrow(() -> new UnsupportedContent("No esds box"));
+			final var aac = readEsds(esds);
+			if (aac.isEmpty()) {
+				codecName = "mp3";
+			} else {
+				codecName = aac.get().codecName;
+				sampleRate = aac.get().sampleRate;
+				channels = aac.get().channels;
+				channelLayout = aac.get().channelLayout;
+			}
+			break;
+		case "ac-3":
+			final var dac3 = Optional.ofNullable(boxes.get("dac3"))
+			        .orElseThrow(() -> new UnsupportedContent("No dac3 box"));
+			final var ac3 = AudioHeaders.getAc3Layout(sampleRate, uint8(dac3, 1) >> 3 & 0x07,
+			        (uint8(dac3, 1) >> 2 & 0x01) == 1);
+			channels = ac3.channels;
+			channelLayout = ac3.channelLayout;
+			break;
+		case "Opus":
+			channels = Optional.ofNullable(boxes.get("dOps"))
+			        .map(dOps -> uint8(dOps, 1))
+			        .orElseThrow(() -> new UnsupportedContent("No dOps box"));
+			sampleRate = 48000;
+			break;
+		case "sowt":
+		case "twos":
+			codecName = getPcmName(false, true, bitsPerSample, entryType.equals("sowt"));
+			break;
+		case "in24":
+		case "in32":
+			codecName = getPcmName(false, true, entryType.equals("in24") ? 24 : 32, littleEndian);
+			bitsPerSample = entryType.equals("in24") ? 24 : 32;
+			break;
+		case "fl32":
+		case "fl64":
+			codecName = getPcmName(true, true, entryType.equals("fl32") ? 32 : 64, littleEndian);
+			bitsPerSample = entryType.equals("fl32") ? 32 : 64;
+			break;
+		case "lpcm":
+			codecName = getPcmName((lpcmFlags & 1) == 1, (lpcmFlags & 4) == 4, bitsPerSample,
+			        (lpcmFlags & 2) == 0);
+			break;
+		default:
+			bitsPerSample = 0;
+			break;
+		}
+		if (codecName != null && codecName.startsWith("pcm_") == false) {
+			bitsPerSample = 0;
+		}
+		if (channels < 1 || sampleRate < 1) {
+			throw new UnsupportedContent("Invalid audio parameters for " + entryType);
+		}
+		stream.put("codec_name", codecName);
+		stream.put("sample_rate", sampleRate);
+		stream.put("channels", channels);
+		stream.put("channel_layout", channelLayout);
+		if (bitsPerSample > 0) {
+			stream.put("bits_per_sample", bitsPerSample);
+		}
+	}
+
+	/**
+	 * @return like "pcm_s24le", or null for an unknown combination.
+	 */
+	static String getPcmName(final boolean isFloat,
+	                         final boolean isSigned,
+	                         final int bits,
+	                         final boolean littleEndian) {
+		if (bits == 8) {
+			return isFloat ? null : isSigned ? "pcm_s8" : "pcm_u8";
+		} else if (bits != 16 && bits != 24 && bits != 32 && bits != 64) {
+			return null;
+		} else if (isFloat && bits != 32 && bits != 64) {
+			return null;
+		}
+		final var type = isFloat ? "f" : isSigned ? "s" : "u";
+		return "pcm_" + type + bits + (littleEndian ? "le" : "be");
+	}
+
+	/**
+	 * @return empty for MP3
+	 */
+	private static Optional<AudioLayout> readEsds(final ByteBuffer esds) throws UnsupportedContent {
+		var pos = 4;
+		if (uint8(esds, pos) != 0x03) {
+			throw new UnsupportedContent("No ES descriptor");
+		}
+		pos = skipDescriptorLength(esds, pos + 1);
+		final var esFlags = uint8(esds, pos + 2);
+		pos += 3;
+		if ((esFlags & 0x80) != 0) {
+			pos += 2;
+		}
+		if ((esFlags & 0x40) != 0) {
+			pos += 1 + uint8(esds, pos);
+		}
+		if ((esFlags & 0x20) != 0) {
+			pos += 2;
+		}
+		if (uint8(esds, pos) != 0x04) {
+			throw new UnsupportedContent("No decoder config descriptor");
+		}
+		pos = skipDescriptorLength(esds, pos + 1);
+		final var objectType = uint8(esds, pos);
+		if (objectType == 0x69 || objectType == 0x6B) {
+			return Optional.empty();
+		} else if (objectType != 0x40 && objectType != 0x66 && objectType != 0x67 && objectType != 0x68) {
+			throw new UnsupportedContent("Unknown MPEG-4 audio object type: " + objectType);
+		}
+		pos += 13;
+		if (uint8(esds, pos) != 0x05) {
+			throw new UnsupportedContent("No decoder specific info");
+		}
+		return Optional.ofNullable(AudioHeaders.readAudioSpecificConfig(esds, skipDescriptorLength(esds, pos + 1)));
+	}
+
+	/**
+	 * @return the position after the descriptor length (1 to 4 bytes, 7 bits each)
+	 */
+	private static int skipDescriptorLength(final ByteBuffer buffer, final int position) {
+		var pos = position;
+		for (var count = 0; count < 4; count++) {
+			if ((uint8(buffer, pos++) & 0x80) == 0) {
+				break;
+			}
+		}
+		return pos;
+	}
+
+	/**
+	 * TimecodeSampleEntry: 8 bytes header, 4 reserved, flags, timescale, frame duration, frames count. The start
+	 * timecode is the first sample, a frame number.
+	 */
+	private static Optional<String> readTimecode(final FileChannel channel,
+	                                             final ByteBuffer entry,
+	                                             final ByteBuffer stbl) throws IOException {
+		final var flags = uint32(entry, 12);
+		final var fps = uint8(entry, 24);
+		final var firstChunk = findBox(stbl, "stco")
+		        .filter(stco -> uint32(stco, 4) > 0)
+		        .map(stco -> uint32(stco, 8))
+		        .or(() -> findBox(stbl, "co64")
+		                .filter(co64 -> uint32(co64, 4) > 0)
+		                .map(co64 -> co64.getLong(8)));
+		if (fps == 0 || firstChunk.isEmpty() || firstChunk.get() + 4 > channel.size()) {
+			return Optional.empty();
+		}
+		final var frameNumber = uint32(readFully(channel, ByteBuffer.allocate(4), firstChunk.get()), 0);
+		return formatTimecode(frameNumber, fps, (flags & 1) == 1, (flags & 2) == 2);
+	}
+
+	/**
+	 * Like ffmpeg av_timecode_make_string.
+	 * @return empty for a drop frame timecode not on 30 or 60 fps.
+	 */
+	static Optional<String> formatTimecode(final long frameNumber,
+	                                       final int fps,
+	                                       final boolean dropFrame,
+	                                       final boolean max24Hours) {
+		var frames = frameNumber;
+		if (dropFrame) {
+			if (fps != 30 && fps != 60) {
+				return Optional.empty();
+			}
+			final var drop = fps / 15;
+			final var framesPer10Mins = fps * 600L - drop * 9L;
+			final var d = frames / framesPer10Mins;
+			final var m = frames % framesPer10Mins;
+			frames += 9 * drop * d + drop * ((m - drop) / (framesPer10Mins / 10));
+		}
+		final var ff = frames % fps;
+		final var ss = frames / fps % 60;
+		final var mm = frames / (fps * 60L) % 60;
+		var hh = frames / (fps * 3600L);
+		if (max24Hours) {
+			hh = hh % 24;
+		}
+		return Optional.ofNullable(String.format(Locale.ENGLISH, "%02d:%02d:%02d%c%02d", hh, mm, ss,
+		        dropFrame ? ';' : ':', ff));
+	}
+
+}
@@ -0,0 +1,250 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.mediainfo;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.function.Consumer;
+
+/**
+ * Minimal streaming JSON reader, without intermediate tree: the caller pulls the values it needs, all the others
+ * are skipped. Numbers and booleans are returned as their raw text.
+ * Not threadsafe.
+ */
+final class JsonPullParser {
+
+	private final CharSequence content;
+	private final int length;
+	private int pos;
+
+	JsonPullParser(final CharSequence content) {
+		this.content = requireNonNull(content, "\"content\" can't to be null");
+		length = content.length();
+	}
+
+	private IllegalArgumentException error(final String message) {
+		return new IllegalArgumentException(message + " at char " + pos);
+	}
+
+	private void skipWhitespaces() {
+		while (pos < length) {
+			final var c = content.charAt(pos);
+			if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+				return;
+			}
+			pos++;
+		}
+	}
+
+	private char peek() {
+		skipWhitespaces();
+		if (pos >= length) {
+			throw error("Unexpected end of JSON");
+		}
+		return content.charAt(pos);
+	}
+
+	private void expect(final char c) {
+		if (peek() != c) {
+			throw error("Expected '" + c + "'");
+		}
+		pos++;
+	}
+
+	/**
+	 * @param onField called for each field name, it should read (or not) the value. Unread values are skipped.
+	 */
+	void readObject(final Consumer<String> onField) {
+		expect('{');
+		if (peek() == '}') {
+			pos++;
+			return;
+		}
+		while (true) {
+			if (peek() != '"') {
+				throw error("Expected field name");
+			}
+			final var name = readString();
+			expect(':');
+			skipWhitespaces();
+			final var before = pos;
+			onField.accept(name);
+			if (pos == before) {
+				skipValue();
+			}
+			final var c = peek();
+			pos++;
+			if (c == '}') {
+				return;
+			} else if (c != ',') {
+				throw error("Expected ',' or '}'");
+			}
+		}
+	}
+
+	/**
+	 * @param onItem called for each item, it should read (or not) the value. Unread values are skipped.
+	 */
+	void readArray(final Runnable onItem) {
+		expect('[');
+		if (peek() == ']') {
+			pos++;
+			return;
+		}
+		while (true) {
+			skipWhitespaces();
+			final var before = pos;
+			onItem.run();
+			if (pos == before) {
+				skipValue();
+			}
+			final var c = peek();
+			pos++;
+			if (c == ']') {
+				return;
+			} else if (c != ',') {
+				throw error("Expected ',' or ']'");
+			}
+		}
+	}
+
+	/**
+	 * @return the string, or the raw number/boolean text, or null for a JSON null.
+	 * @throws IllegalArgumentException on an object or an array
+	 */
+	String readValue() {
+		final var c = peek();
+		if (c == '"') {
+			return readString();
+		} else if (c == '{' || c == '[') {
+			throw error("Expected a value");
+		}
+		final var start = pos;
+		while (pos < length) {
+			final var current = content.charAt(pos);
+			if (current == ',' || current == '}' || current == ']'
+			    || current == ' ' || current == '\n' || current == '\r' || current == '\t') {
+				break;
+			}
+			pos++;
+		}
+		if (start == pos) {
+			throw error("Empty value");
+		}
+		final var raw = content.subSequence(start, pos).toString();
+		if (raw.equals("null")) {
+			return null;
+		}
+		return raw;
+	}
+
+	void skipValue() {
+		final var c = peek();
+		if (c == '{') {
+			readObject(name -> {
+			});
+		} else if (c == '[') {
+			readArray(() -> {
+			});
+		} else {
+			readValue();
+		}
+	}
+
+	/**
+	 * @return true if the next value is an object or an array
+	 */
+	boolean isStructure() {
+		final var c = peek();
+		return c == '{' || c == '[';
+	}
+
+	/**
+	 * Check there is nothing else after the last read value.
+	 */
+	void end() {
+		skipWhitespaces();
+		if (pos < length) {
+			throw error("Unexpected content after JSON");
+		}
+	}
+
+	private String readString() {
+		expect('"');
+		final var start = pos;
+		while (pos < length) {
+			final var c = content.charAt(pos);
+			if (c == '"') {
+				return content.subSequence(start, pos++).toString();
+			} else if (c == '\\') {
+				return readEscapedString(start);
+			}
+			pos++;
+		}
+		throw error("Unterminated string");
+	}
+
+	private String readEscapedString(final int start) {
+		final var sb = new StringBuilder(pos - start + 16);
+		sb.append(content, start, pos);
+		while (pos < length) {
+			final var c = content.charAt(pos++);
+			if (c == '"') {
+				return sb.toString();
+			} else if (c != '\\') {
+				sb.append(c);
+				continue;
+			}
+			if (pos >= length) {
+				break;
+			}
+			final var escaped = content.charAt(pos++);
+			switch (escaped) {
+			case 'b':
+				sb.append('\b');
+				break;
+			case 'f':
+				sb.append('\f');
+				break;
+			case 'n':
+				sb.append('\n');
+				break;
+			case 'r':
+				sb.append('\r');
+				break;
+			case 't':
+				sb.append('\t');
+				break;
+			case 'u':
+				if (pos + 4 > length) {
+					throw error("Invalid unicode escape");
+				}
+				try {
+					sb.append((char) Integer.parseInt(content.subSequence(pos, pos + 4).toString(), 16));
+				} catch (final NumberFormatException e) {
+					throw error("Invalid unicode escape");
+				}
+				pos += 4;
+				break;
+			default:
+				sb.append(escaped);
+			}
+		}
+		throw error("Unterminated string");
+	}
+
+}
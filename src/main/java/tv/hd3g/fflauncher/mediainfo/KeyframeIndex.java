@@ -0,0 +1,174 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.mediainfo;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Sorted keyframes pts and byte positions for one stream. Immutable.
+ * @see tv.hd3g.fflauncher.recipes.ProbeMedia#doKeyframesAnalysing(java.io.File, boolean)
+ */
+public class KeyframeIndex {
+
+	private final int streamIndex;
+	private final String timeBase;
+	private final double timeBaseSeconds;
+	private final long[] pts;
+	private final long[] positions;
+
+	KeyframeIndex(final int streamIndex, final String timeBase, final long[] pts, final long[] positions) {
+		this.streamIndex = streamIndex;
+		this.timeBase = requireNonNull(timeBase, "\"timeBase\" can't to be null");
+		this.pts = pts;
+		this.positions = positions;
+		if (pts.length != positions.length) {
+			throw new IllegalArgumentException("Invalid positions count: " + positions.length + "/" + pts.length);
+		}
+		final var slash = timeBase.indexOf('/');
+		try {
+			if (slash == -1) {
+				timeBaseSeconds = Double.parseDouble(timeBase);
+			} else {
+				timeBaseSeconds = Double.parseDouble(timeBase.substring(0, slash))
+				                  / Double.parseDouble(timeBase.substring(slash + 1));
+			}
+		} catch (final NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid time base: " + timeBase, e);
+		}
+	}
+
+	/**
+	 * @param packets with or without the non key packets/frames
+	 * @throws IllegalArgumentException if the stream time base is not known
+	 */
+	public static KeyframeIndex from(final MediaPackets packets, final int streamIndex) {
+		final var timeBase = packets.getTimeBase(streamIndex)
+		        .orElseThrow(() -> new IllegalArgumentException("Unknown time base for stream " + streamIndex));
+
+		final var sorted = IntStream.range(0, packets.size())
+		        .filter(pos -> packets.getStreamIndex(pos) == streamIndex
+		                       && packets.isKey(pos)
+		                       && packets.getTime(pos) != MediaPackets.NO_VALUE)
+		        .boxed()
+		        .sorted(Comparator.comparingLong(packets::getTime))
+		        .mapToInt(Integer::intValue)
+		        .toArray();
+
+		final var pts = new long[sorted.length];
+		final var positions = new long[sorted.length];
+		for (var pos = 0; pos < sorted.length; pos++) {
+			pts[pos] = packets.getTime(sorted[pos]);
+			positions[pos] = packets.getPosition(sorted[pos]);
+		}
+		return new KeyframeIndex(streamIndex, timeBase, pts, positions);
+	}
+
+	public int getStreamIndex() {
+		return streamIndex;
+	}
+
+	/**
+	 * @return like "1/90000"
+	 */
+	public String getTimeBase() {
+		return timeBase;
+	}
+
+	/**
+	 * @return keyframes count
+	 */
+	public int size() {
+		return pts.length;
+	}
+
+	/**
+	 * @return in time base
+	 */
+	public long getPts(final int keyframe) {
+		return pts[keyframe];
+	}
+
+	/**
+	 * @return in seconds, from the stream time base (not relative to the file start time)
+	 */
+	public double getTime(final int keyframe) {
+		return pts[keyframe] * timeBaseSeconds;
+	}
+
+	/**
+	 * @return in bytes in the source file, or MediaPackets.NO_VALUE
+	 */
+	public long getPosition(final int keyframe) {
+		return positions[keyframe];
+	}
+
+	/**
+	 * @param seconds in stream time (not relative to the file start time)
+	 * @return the last keyframe at or before seconds, or -1 if seconds is before the first keyframe.
+	 */
+	public int findPreceding(final double seconds) {
+		final var target = (long) Math.floor(seconds / timeBaseSeconds + 0.001d);
+		final var found = Arrays.binarySearch(pts, target);
+		if (found >= 0) {
+			var pos = found;
+			while (pos + 1 < pts.length && pts[pos + 1] == target) {
+				pos++;
+			}
+			return pos;
+		}
+		return -found - 2;
+	}
+
+	public void write(final DataOutput out) throws IOException {
+		out.writeInt(streamIndex);
+		out.writeUTF(timeBase);
+		out.writeInt(pts.length);
+		for (var pos = 0; pos < pts.length; pos++) {
+			out.writeLong(pts[pos]);
+			out.writeLong(positions[pos]);
+		}
+	}
+
+	public static KeyframeIndex read(final DataInput in) throws IOException {
+		final var streamIndex = in.readInt();
+		final var timeBase = in.readUTF();
+		final var size = in.readInt();
+		if (size < 0) {
+			throw new IOException("Invalid keyframe count: " + size);
+		}
+		final var pts = new long[size];
+		final var positions = new long[size];
+		for (var pos = 0; pos < size; pos++) {
+			pts[pos] = in.readLong();
+			positions[pos] = in.readLong();
+		}
+		return new KeyframeIndex(streamIndex, timeBase, pts, positions);
+	}
+
+	@Override
+	public String toString() {
+		return "stream " + streamIndex + ": " + pts.length + " keyframes (" + timeBase + ")";
+	}
+
+}
@@ -0,0 +1,498 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.mediainfo;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static tv.hd3g.fflauncher.mediainfo.HeaderReading.approximate;
+import static tv.hd3g.fflauncher.mediainfo.HeaderReading.rational;
+import static tv.hd3g.fflauncher.mediainfo.HeaderReading.readFully;
+import static tv.hd3g.fflauncher.mediainfo.HeaderReading.slice;
+import static tv.hd3g.fflauncher.mediainfo.IsoBmffReader.getPcmName;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Matroska and WebM header reader: parse the EBML header, and the Segment Info and Tracks elements placed before
+ * the first Cluster, from the first MAX_HEADER_SIZE bytes.
+ * Get the duration, the tracks codecs, dimensions, sample rates and channels. The AAC layouts are read from
+ * the CodecPrivate.
+ * Files with attachments or chapters, encrypted tracks, and multichannel tracks without a known layout
+ * are left to ffprobe. Tags elements are not read.
+ */
+public class MatroskaReader implements MediaHeaderReader {
+	private static final Logger log = LogManager.getLogger();
+
+	public static final String FORMAT_NAME = "matroska,webm";
+	public static final String FORMAT_LONG_NAME = "Matroska / WebM";
+	/**
+	 * Info and Tracks after these first bytes are left to ffprobe.
+	 */
+	public static final int MAX_HEADER_SIZE = 4 * 1024 * 1024;
+
+	private static final int ID_EBML = 0x1A45DFA3;
+	private static final int ID_DOCTYPE = 0x4282;
+	private static final int ID_SEGMENT = 0x18538067;
+	private static final int ID_SEEKHEAD = 0x114D9B74;
+	private static final int ID_SEEK = 0x4DBB;
+	private static final int ID_SEEKID = 0x53AB;
+	private static final int ID_INFO = 0x1549A966;
+	private static final int ID_TIMESTAMP_SCALE = 0x2AD7B1;
+	private static final int ID_DURATION = 0x4489;
+	private static final int ID_TITLE = 0x7BA9;
+	private static final int ID_MUXING_APP = 0x4D80;
+	private static final int ID_TRACKS = 0x1654AE6B;
+	private static final int ID_TRACK_ENTRY = 0xAE;
+	private static final int ID_TRACK_TYPE = 0x83;
+	private static final int ID_FLAG_DEFAULT = 0x88;
+	private static final int ID_FLAG_FORCED = 0x55AA;
+	private static final int ID_DEFAULT_DURATION = 0x23E383;
+	private static final int ID_NAME = 0x536E;
+	private static final int ID_LANGUAGE = 0x22B59C;
+	private static final int ID_CODEC_ID = 0x86;
+	private static final int ID_CODEC_PRIVATE = 0x63A2;
+	private static final int ID_CONTENT_ENCODINGS = 0x6D80;
+	private static final int ID_CONTENT_ENCODING = 0x6240;
+	private static final int ID_CONTENT_ENCRYPTION = 0x5035;
+	private static final int ID_VIDEO = 0xE0;
+	private static final int ID_PIXEL_WIDTH = 0xB0;
+	private static final int ID_PIXEL_HEIGHT = 0xBA;
+	private static final int ID_DISPLAY_WIDTH = 0x54B0;
+	private static final int ID_DISPLAY_HEIGHT = 0x54BA;
+	private static final int ID_DISPLAY_UNIT = 0x54B2;
+	private static final int ID_AUDIO = 0xE1;
+	private static final int ID_SAMPLING_FREQUENCY = 0xB5;
+	private static final int ID_OUTPUT_SAMPLING_FREQUENCY = 0x78B5;
+	private static final int ID_CHANNELS = 0x9F;
+	private static final int ID_BIT_DEPTH = 0x6264;
+	private static final int ID_CLUSTER = 0x1F43B675;
+	private static final int ID_ATTACHMENTS = 0x1941A469;
+	private static final int ID_CHAPTERS = 0x1043A770;
+
+	private static final long UNKNOWN_SIZE = -1;
+	private static final Set<Integer> UNSUPPORTED_ELEMENTS = Set.of(ID_ATTACHMENTS, ID_CHAPTERS);
+	private static final Map<String, String> CODECS = Map.ofEntries(
+	        Map.entry("V_MPEG4/ISO/AVC", "h264"), Map.entry("V_MPEGH/ISO/HEVC", "hevc"),
+	        Map.entry("V_VP8", "vp8"), Map.entry("V_VP9", "vp9"), Map.entry("V_AV1", "av1"),
+	        Map.entry("V_MPEG2", "mpeg2video"), Map.entry("V_PRORES", "prores"), Map.entry("V_FFV1", "ffv1"),
+	        Map.entry("A_AC3", "ac3"), Map.entry("A_EAC3", "eac3"), Map.entry("A_DTS", "dts"),
+	        Map.entry("A_OPUS", "opus"), Map.entry("A_VORBIS", "vorbis"), Map.entry("A_FLAC", "flac"),
+	        Map.entry("A_MPEG/L3", "mp3"), Map.entry("A_MPEG/L2", "mp2"), Map.entry("A_TRUEHD", "truehd"),
+	        Map.entry("S_TEXT/UTF8", "subrip"), Map.entry("S_TEXT/ASS", "ass"), Map.entry("S_ASS", "ass"),
+	        Map.entry("S_TEXT/WEBVTT", "webvtt"), Map.entry("S_HDMV/PGS", "hdmv_pgs_subtitle"),
+	        Map.entry("S_VOBSUB", "dvd_subtitle"), Map.entry("S_DVBSUB", "dvb_subtitle"));
+
+	@Override
+	public String getName() {
+		return "matroska";
+	}
+
+	/**
+	 * An EBML element header, read from a buffer.
+	 */
+	private static class Element {
+		final int id;
+		final int dataPosition;
+		final long size;
+
+		Element(final int id, final int dataPosition, final long size) {
+			this.id = id;
+			this.dataPosition = dataPosition;
+			this.size = size;
+		}
+
+		int getEnd(final ByteBuffer buffer) {
+			if (size == UNKNOWN_SIZE || dataPosition + size > buffer.limit()) {
+				throw new IllegalArgumentException("Element " + Integer.toHexString(id) + " out of the header");
+			}
+			return dataPosition + (int) size;
+		}
+	}
+
+	private static Element readElement(final ByteBuffer buffer, final int position) {
+		final var first = buffer.get(position) & 0xFF;
+		final var idLength = Integer.numberOfLeadingZeros(first) - 23;
+		if (idLength < 1 || idLength > 4) {
+			throw new IllegalArgumentException("Invalid EBML ID at " + position);
+		}
+		var id = 0;
+		for (var pos = 0; pos < idLength; pos++) {
+			id = id << 8 | buffer.get(position + pos) & 0xFF;
+		}
+		final var sizePosition = position + idLength;
+		final var sizeFirst = buffer.get(sizePosition) & 0xFF;
+		final var sizeLength = Integer.numberOfLeadingZeros(sizeFirst) - 23;
+		if (sizeLength < 1 || sizeLength > 8) {
+			throw new IllegalArgumentException("Invalid EBML size at " + sizePosition);
+		}
+		var size = (long) (sizeFirst & 0xFF >> sizeLength);
+		var allOnes = size == (0xFF >> sizeLength);
+		for (var pos = 1; pos < sizeLength; pos++) {
+			final var b = buffer.get(sizePosition + pos) & 0xFF;
+			allOnes &= b == 0xFF;
+			size = size << 8 | b;
+		}
+		return new Element(id, sizePosition + sizeLength, allOnes ? UNKNOWN_SIZE : size);
+	}
+
+	private static long readUnsigned(final ByteBuffer buffer, final Element element) {
+		if (element.size > 8) {
+			throw new IllegalArgumentException("Invalid integer size: " + element.size);
+		}
+		var value = 0L;
+		for (var pos = 0; pos < element.size; pos++) {
+			value = value << 8 | buffer.get(element.dataPosition + pos) & 0xFF;
+		}
+		return value;
+	}
+
+	private static double readFloat(final ByteBuffer buffer, final Element element) {
+		if (element.size == 4) {
+			return buffer.getFloat(element.dataPosition);
+		} else if (element.size == 8) {
+			return buffer.getDouble(element.dataPosition);
+		}
+		throw new IllegalArgumentException("Invalid float size: " + element.size);
+	}
+
+	private static String readString(final ByteBuffer buffer, final Element element) {
+		final var bytes = new byte[(int) element.size];
+		buffer.duplicate().position(element.dataPosition).get(bytes);
+		return new String(bytes, UTF_8).replace("\0", "");
+	}
+
+	@Override
+	public Optional<MediaInfo> read(final FileChannel channel, final String fileName) throws IOException {
+		final var size = channel.size();
+		if (size < 4) {
+			return Optional.empty();
+		}
+		final var magic = readFully(channel, ByteBuffer.allocate(4), 0);
+		if (magic.getInt(0) != ID_EBML) {
+			return Optional.empty();
+		}
+		final var buffer = readFully(channel, ByteBuffer.allocate((int) Math.min(size, MAX_HEADER_SIZE)), 0);
+		try {
+			return parse(buffer, fileName, size).flatMap(AudioHeaders::requireAudioLayouts);
+		} catch (final IllegalArgumentException | IndexOutOfBoundsException e) {
+			log.debug("Can't read {} EBML header", fileName, e);
+			return Optional.empty();
+		}
+	}
+
+	private static Optional<MediaInfo> parse(final ByteBuffer buffer,
+	                                         final String fileName,
+	                                         final long fileSize) {
+		final var ebml = readElement(buffer, 0);
+		final var ebmlEnd = ebml.getEnd(buffer);
+		var docType = "matroska";
+		for (var pos = ebml.dataPosition; pos < ebmlEnd;) {
+			final var element = readElement(buffer, pos);
+			if (element.id == ID_DOCTYPE) {
+				docType = readString(buffer, element);
+			}
+			pos = element.getEnd(buffer);
+		}
+		if (docType.equals("matroska") == false && docType.equals("webm") == false) {
+			return Optional.empty();
+		}
+
+		final var segment = readElement(buffer, ebmlEnd);
+		if (segment.id != ID_SEGMENT) {
+			return Optional.empty();
+		}
+		final var builder = new MediaInfoBuilder();
+		final var format = builder.format()
+		        .put("filename", fileName)
+		        .put("format_name", FORMAT_NAME)
+		        .put("format_long_name", FORMAT_LONG_NAME)
+		        .put("size", fileSize)
+		        .put("nb_programs", 0);
+
+		var infoFound = false;
+		var tracksFound = false;
+		var pos = segment.dataPosition;
+		while (pos < buffer.limit() && (infoFound && tracksFound) == false) {
+			final var element = readElement(buffer, pos);
+			if (element.id == ID_CLUSTER || UNSUPPORTED_ELEMENTS.contains(element.id)) {
+				return Optional.empty();
+			} else if (element.id == ID_SEEKHEAD && hasUnsupportedSeek(buffer, element)) {
+				return Optional.empty();
+			} else if (element.id == ID_INFO) {
+				readInfo(buffer, element, format);
+				infoFound = true;
+			} else if (element.id == ID_TRACKS) {
+				if (readTracks(buffer, element, builder) == false) {
+					return Optional.empty();
+				}
+				tracksFound = true;
+			}
+			pos = element.getEnd(buffer);
+		}
+		if (infoFound == false || tracksFound == false) {
+			return Optional.empty();
+		}
+		format.put("nb_streams", builder.getStreamsCount());
+		return Optional.ofNullable(builder.build(false));
+	}
+
+	/**
+	 * @return true if the SeekHead points to Attachments or Chapters, maybe after the first Cluster.
+	 */
+	private static boolean hasUnsupportedSeek(final ByteBuffer buffer, final Element seekHead) {
+		final var end = seekHead.getEnd(buffer);
+		for (var pos = seekHead.dataPosition; pos < end;) {
+			final var seek = readElement(buffer, pos);
+			if (seek.id == ID_SEEK) {
+				final var seekEnd = seek.getEnd(buffer);
+				for (var seekPos = seek.dataPosition; seekPos < seekEnd;) {
+					final var child = readElement(buffer, seekPos);
+					if (child.id == ID_SEEKID
+					    && UNSUPPORTED_ELEMENTS.contains((int) readUnsigned(buffer, child))) {
+						return true;
+					}
+					seekPos = child.getEnd(buffer);
+				}
+			}
+			pos = seek.getEnd(buffer);
+		}
+		return false;
+	}
+
+	private static void readInfo(final ByteBuffer buffer, final Element info, final MediaInfoBuilder.Section format) {
+		final var end = info.getEnd(buffer);
+		var timestampScale = 1_000_000L;
+		var duration = -1d;
+		for (var pos = info.dataPosition; pos < end;) {
+			final var element = readElement(buffer, pos);
+			if (element.id == ID_TIMESTAMP_SCALE) {
+				timestampScale = readUnsigned(buffer, element);
+			} else if (element.id == ID_DURATION) {
+				duration = readFloat(buffer, element);
+			} else if (element.id == ID_TITLE) {
+				format.putTag("title", readString(buffer, element));
+			} else if (element.id == ID_MUXING_APP) {
+				format.putTag("encoder", readString(buffer, element));
+			}
+			pos = element.getEnd(buffer);
+		}
+		if (duration > 0) {
+			format.put("duration", String.format(Locale.ENGLISH, "%.6f", duration * timestampScale / 1e9));
+		}
+	}
+
+	/**
+	 * @return false if a track is not supported
+	 */
+	private static boolean readTracks(final ByteBuffer buffer,
+	                                  final Element tracks,
+	                                  final MediaInfoBuilder builder) {
+		final var end = tracks.getEnd(buffer);
+		for (var pos = tracks.dataPosition; pos < end;) {
+			final var element = readElement(buffer, pos);
+			if (element.id == ID_TRACK_ENTRY && readTrackEntry(buffer, element, builder.addStream()) == false) {
+				return false;
+			}
+			pos = element.getEnd(buffer);
+		}
+		return true;
+	}
+
+	private static boolean readTrackEntry(final ByteBuffer buffer,
+	                                      final Element trackEntry,
+	                                      final MediaInfoBuilder.Section stream) {
+		final var end = trackEntry.getEnd(buffer);
+		var trackType = 0L;
+		var codecId = "";
+		ByteBuffer codecPrivate = null;
+		Element video = null;
+		Element audio = null;
+		var flagDefault = true;
+		var language = "eng";
+		for (var pos = trackEntry.dataPosition; pos < end;) {
+			final var element = readElement(buffer, pos);
+			switch (element.id) {
+			case ID_TRACK_TYPE:
+				trackType = readUnsigned(buffer, element);
+				break;
+			case ID_CODEC_ID:
+				codecId = readString(buffer, element);
+				break;
+			case ID_CODEC_PRIVATE:
+				codecPrivate = slice(buffer, element.dataPosition, element.getEnd(buffer));
+				break;
+			case ID_FLAG_DEFAULT:
+				flagDefault = readUnsigned(buffer, element) == 1;
+				break;
+			case ID_FLAG_FORCED:
+				stream.putDisposition("forced", readUnsigned(buffer, element) == 1);
+				break;
+			case ID_LANGUAGE:
+				language = readString(buffer, element);
+				break;
+			case ID_NAME:
+				stream.putTag("title", readString(buffer, element));
+				break;
+			case ID_DEFAULT_DURATION:
+				final var frameDuration = readUnsigned(buffer, element);
+				if (frameDuration > 0) {
+					stream.put("avg_frame_rate", approximate(1_000_000_000L, frameDuration, 30000));
+				}
+				break;
+			case ID_CONTENT_ENCODINGS:
+				if (isEncrypted(buffer, element)) {
+					return false;
+				}
+				break;
+			case ID_VIDEO:
+				video = element;
+				break;
+			case ID_AUDIO:
+				audio = element;
+				break;
+			default:
+				break;
+			}
+			pos = element.getEnd(buffer);
+		}
+
+		final var codecName = CODECS.get(codecId);
+		if (codecName == null && codecId.startsWith("A_AAC") == false && codecId.startsWith("A_PCM/") == false) {
+			return false;
+		}
+		stream.put("codec_name", codecName);
+		stream.putDisposition("default", flagDefault);
+		if (language.equals("und") == false) {
+			stream.putTag("language", language);
+		}
+		if (trackType == 1 && video != null) {
+			stream.put("codec_type", MediaStream.CODEC_TYPE_VIDEO);
+			readVideo(buffer, video, stream);
+		} else if (trackType == 2 && audio != null) {
+			stream.put("codec_type", MediaStream.CODEC_TYPE_AUDIO);
+			return readAudio(buffer, audio, codecId, codecPrivate, stream);
+		} else if (trackType == 17) {
+			stream.put("codec_type", MediaStream.CODEC_TYPE_SUBTITLE);
+		} else {
+			return false;
+		}
+		return true;
+	}
+
+	private static boolean isEncrypted(final ByteBuffer buffer, final Element contentEncodings) {
+		final var end = contentEncodings.getEnd(buffer);
+		for (var pos = contentEncodings.dataPosition; pos < end;) {
+			final var encoding = readElement(buffer, pos);
+			if (encoding.id == ID_CONTENT_ENCODING) {
+				final var encodingEnd = encoding.getEnd(buffer);
+				for (var encodingPos = encoding.dataPosition; encodingPos < encodingEnd;) {
+					final var child = readElement(buffer, encodingPos);
+					if (child.id == ID_CONTENT_ENCRYPTION) {
+						return true;
+					}
+					encodingPos = child.getEnd(buffer);
+				}
+			}
+			pos = encoding.getEnd(buffer);
+		}
+		return false;
+	}
+
+	private static void readVideo(final ByteBuffer buffer, final Element video, final MediaInfoBuilder.Section stream) {
+		final var end = video.getEnd(buffer);
+		var width = 0L;
+		var height = 0L;
+		var displayWidth = 0L;
+		var displayHeight = 0L;
+		var displayUnit = 0L;
+		for (var pos = video.dataPosition; pos < end;) {
+			final var element = readElement(buffer, pos);
+			if (element.id == ID_PIXEL_WIDTH) {
+				width = readUnsigned(buffer, element);
+			} else if (element.id == ID_PIXEL_HEIGHT) {
+				height = readUnsigned(buffer, element);
+			} else if (element.id == ID_DISPLAY_WIDTH) {
+				displayWidth = readUnsigned(buffer, element);
+			} else if (element.id == ID_DISPLAY_HEIGHT) {
+				displayHeight = readUnsigned(buffer, element);
+			} else if (element.id == ID_DISPLAY_UNIT) {
+				displayUnit = readUnsigned(buffer, element);
+			}
+			pos = element.getEnd(buffer);
+		}
+		stream.put("width", width).put("height", height);
+		if (displayUnit == 0 && displayWidth > 0 && displayHeight > 0 && width > 0 && height > 0) {
+			stream.put("sample_aspect_ratio", rational(displayWidth * height, displayHeight * width).replace('/', ':'));
+		}
+	}
+
+	private static boolean readAudio(final ByteBuffer buffer,
+	                                 final Element audio,
+	                                 final String codecId,
+	                                 final ByteBuffer codecPrivate,
+	                                 final MediaInfoBuilder.Section stream) {
+		final var end = audio.getEnd(buffer);
+		var sampleRate = 8000d;
+		var outputSampleRate = -1d;
+		var channels = 1L;
+		var bitDepth = 0L;
+		for (var pos = audio.dataPosition; pos < end;) {
+			final var element = readElement(buffer, pos);
+			if (element.id == ID_SAMPLING_FREQUENCY) {
+				sampleRate = readFloat(buffer, element);
+			} else if (element.id == ID_OUTPUT_SAMPLING_FREQUENCY) {
+				outputSampleRate = readFloat(buffer, element);
+			} else if (element.id == ID_CHANNELS) {
+				channels = readUnsigned(buffer, element);
+			} else if (element.id == ID_BIT_DEPTH) {
+				bitDepth = readUnsigned(buffer, element);
+			}
+			pos = element.getEnd(buffer);
+		}
+
+		if (codecId.startsWith("A_AAC")) {
+			if (codecPrivate == null || codecPrivate.limit() < 2) {
+				return false;
+			}
+			AudioHeaders.readAudioSpecificConfig(codecPrivate, 0).putTo(stream);
+			return true;
+		} else if (codecId.equals("A_OPUS")) {
+			sampleRate = 48000;
+		} else if (codecId.startsWith("A_PCM/")) {
+			stream.put("codec_name", getPcmName(codecId.equals("A_PCM/FLOAT/IEEE"), bitDepth != 8, (int) bitDepth,
+			        codecId.equals("A_PCM/INT/BIG") == false));
+			stream.put("bits_per_sample", bitDepth);
+		}
+		stream.put("sample_rate", Math.round(outputSampleRate > 0 ? outputSampleRate : sampleRate));
+		stream.put("channels", channels);
+		if (channels == 1) {
+			stream.put("channel_layout", "mono");
+		} else if (channels == 2) {
+			stream.put("channel_layout", "stereo");
+		}
+		return true;
+	}
+
+}
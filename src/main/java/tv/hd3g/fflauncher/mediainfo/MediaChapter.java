@@ -0,0 +1,101 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.mediainfo;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+
+/**
+ * A chapter from ffprobe -show_chapters. Immutable.
+ */
+public class MediaChapter {
+
+	private final long id;
+	private final String timeBase;
+	private final long start;
+	private final long end;
+	private final OptionalDouble startTime;
+	private final OptionalDouble endTime;
+	private final Map<String, String> tags;
+
+	MediaChapter(final MediaValues values) {
+		id = values.getLong("id");
+		timeBase = values.getString("time_base").orElse(null);
+		start = values.getLong("start");
+		end = values.getLong("end");
+		startTime = values.getDouble("start_time");
+		endTime = values.getDouble("end_time");
+		tags = values.getTags();
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	/**
+	 * @return like "1/1000"
+	 */
+	public Optional<String> getTimeBase() {
+		return Optional.ofNullable(timeBase);
+	}
+
+	/**
+	 * @return in time base
+	 */
+	public long getStart() {
+		return start;
+	}
+
+	/**
+	 * @return in time base
+	 */
+	public long getEnd() {
+		return end;
+	}
+
+	/**
+	 * @return in seconds
+	 */
+	public OptionalDouble getStartTime() {
+		return startTime;
+	}
+
+	/**
+	 * @return in seconds
+	 */
+	public OptionalDouble getEndTime() {
+		return endTime;
+	}
+
+	/**
+	 * @return the "title" tag
+	 */
+	public Optional<String> getTitle() {
+		return Optional.ofNullable(tags.get("title"));
+	}
+
+	public Map<String, String> getTags() {
+		return tags;
+	}
+
+	@Override
+	public String toString() {
+		return id + " " + startTime + "-" + endTime + " " + tags;
+	}
+
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.mediainfo;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+
+/**
+ * The container from ffprobe -show_format. Immutable.
+ * Numbers are 0 if not provided by ffprobe.
+ */
+public class MediaFormat {
+
+	private final String filename;
+	private final int nbStreams;
+	private final int nbPrograms;
+	private final String formatName;
+	private final String formatLongName;
+	private final OptionalDouble startTime;
+	private final OptionalDouble duration;
+	private final long size;
+	private final long bitRate;
+	private final int probeScore;
+	private final Map<String, String> tags;
+
+	MediaFormat(final MediaValues values) {
+		filename = values.getString("filename").orElse(null);
+		nbStreams = values.getInt("nb_streams");
+		nbPrograms = values.getInt("nb_programs");
+		formatName = values.getString("format_name").orElse(null);
+		formatLongName = values.getString("format_long_name").orElse(null);
+		startTime = values.getDouble("start_time");
+		duration = values.getDouble("duration");
+		size = values.getLong("size");
+		bitRate = values.getLong("bit_rate");
+		probeScore = values.getInt("probe_score");
+		tags = values.getTags();
+	}
+
+	public Optional<String> getFilename() {
+		return Optional.ofNullable(filename);
+	}
+
+	public int getNbStreams() {
+		return nbStreams;
+	}
+
+	public int getNbPrograms() {
+		return nbPrograms;
+	}
+
+	/**
+	 * @return like "mov,mp4,m4a,3gp,3g2,mj2"
+	 */
+	public Optional<String> getFormatName() {
+		return Optional.ofNullable(formatName);
+	}
+
+	public Optional<String> getFormatLongName() {
+		return Optional.ofNullable(formatLongName);
+	}
+
+	/**
+	 * @return in seconds
+	 */
+	public OptionalDouble getStartTime() {
+		return startTime;
+	}
+
+	/**
+	 * @return in seconds
+	 */
+	public OptionalDouble getDuration() {
+		return duration;
+	}
+
+	public long getSize() {
+		return size;
+	}
+
+	public long getBitRate() {
+		return bitRate;
+	}
+
+	public int getProbeScore() {
+		return probeScore;
+	}
+
+	public Map<String, String> getTags() {
+		return tags;
+	}
+
+	@Override
+	public String toString() {
+		return formatName + " " + filename;
+	}
+
+}
@@ -0,0 +1,62 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.mediainfo;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.Optional;
+import java.util.ServiceLoader;
+import java.util.ServiceLoader.Provider;
+import java.util.stream.Collectors;
+
+/**
+ * SPI for native Java media header readers, used before ffprobe to avoid a process start.
+ * A reader only answers if it's sure of its result: on an unknown or unusual file, it returns an empty Optional
+ * and ffprobe will be used instead.
+ * Implementations must be stateless and thread safe. They are declared in
+ * META-INF/services/tv.hd3g.fflauncher.mediainfo.MediaHeaderReader
+ * @see tv.hd3g.fflauncher.recipes.ProbeMedia#doFastAnalysingMediaInfo(java.io.File)
+ */
+public interface MediaHeaderReader {
+
+	/**
+	 * @return a short name, like "iso-bmff", for logs and stats
+	 */
+	String getName();
+
+	/**
+	 * Should be fast on a non-supported file: only check the first bytes before reading more.
+	 * @param channel a read only channel on a regular file, from its start. Don't close it, and don't rely
+	 *        on its position.
+	 * @param fileName only for format detection hints
+	 * @return empty if it's not a supported format, or if the result would be uncertain.
+	 * @throws IOException on read error: ProbeMedia will fall back to ffprobe, for its error report.
+	 */
+	Optional<MediaInfo> read(FileChannel channel, String fileName) throws IOException;
+
+	/**
+	 * @return the readers declared with ServiceLoader, in the declaration order.
+	 */
+	static List<MediaHeaderReader> getInstalled() {
+		return ServiceLoader.load(MediaHeaderReader.class, MediaHeaderReader.class.getClassLoader())
+		        .stream()
+		        .map(Provider::get)
+		        .collect(Collectors.toUnmodifiableList());
+	}
+
+}
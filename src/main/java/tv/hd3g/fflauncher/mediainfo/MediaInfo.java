@@ -0,0 +1,171 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.mediainfo;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toUnmodifiableList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import tv.hd3g.ffprobejaxb.FFprobeJAXB;
+
+/**
+ * Lightweight and immutable ffprobe result: format, streams and chapters.
+ * Parsed from "ffprobe -print_format json" output, without JAXB.
+ * @see tv.hd3g.fflauncher.recipes.ProbeMedia#doAnalysingMediaInfo(java.io.File)
+ */
+public class MediaInfo {
+
+	private final MediaFormat format;
+	private final List<MediaStream> streams;
+	private final List<MediaChapter> chapters;
+	private final boolean partial;
+
+	MediaInfo(final MediaFormat format, final List<MediaStream> streams, final List<MediaChapter> chapters) {
+		this(format, streams, chapters, false);
+	}
+
+	MediaInfo(final MediaFormat format,
+	          final List<MediaStream> streams,
+	          final List<MediaChapter> chapters,
+	          final boolean partial) {
+		this.format = format;
+		this.streams = List.copyOf(streams);
+		this.chapters = List.copyOf(chapters);
+		this.partial = partial;
+	}
+
+	/**
+	 * @param json the full ffprobe -print_format json output. Unknown sections and fields are ignored.
+	 * @throws IllegalArgumentException if it's not a valid JSON
+	 */
+	public static MediaInfo parseJson(final CharSequence json) {
+		return parseJson(json, false);
+	}
+
+	/**
+	 * @param partial true if ffprobe has not read all the media (-read_intervals, -probesize...)
+	 * @throws IllegalArgumentException if it's not a valid JSON
+	 */
+	public static MediaInfo parseJson(final CharSequence json, final boolean partial) {
+		final var parser = new JsonPullParser(json);
+		final var format = new MediaFormat[1];
+		final var streams = new ArrayList<MediaStream>();
+		final var chapters = new ArrayList<MediaChapter>();
+
+		parser.readObject(section -> {
+			if (section.equals("format")) {
+				format[0] = new MediaFormat(MediaValues.read(parser));
+			} else if (section.equals("streams")) {
+				parser.readArray(() -> streams.add(new MediaStream(MediaValues.read(parser))));
+			} else if (section.equals("chapters")) {
+				parser.readArray(() -> chapters.add(new MediaChapter(MediaValues.read(parser))));
+			}
+		});
+		parser.end();
+		return new MediaInfo(format[0], streams, chapters, partial);
+	}
+
+	/**
+	 * Adapter from the JAXB model, for the format duration and the streams index, type, codec, dimensions,
+	 * channels and attached pic disposition. Chapters and all the other fields are not adapted.
+	 */
+	public static MediaInfo from(final FFprobeJAXB analysingResult) {
+		requireNonNull(analysingResult, "\"analysingResult\" can't to be null");
+		final var format = Optional.ofNullable(analysingResult.getFormat())
+		        .map(f -> {
+			        final var values = new MediaValues();
+			        values.put("duration", f.getDuration());
+			        return new MediaFormat(values);
+		        })
+		        .orElse(null);
+
+		final var streams = Optional.ofNullable(analysingResult.getStreams())
+		        .orElse(List.of())
+		        .stream()
+		        .map(s -> {
+			        final var values = new MediaValues();
+			        values.put("index", s.getIndex());
+			        values.put("codec_type", s.getCodecType());
+			        values.put("codec_name", s.getCodecName());
+			        values.put("codec_long_name", s.getCodecLongName());
+			        values.put("width", s.getWidth());
+			        values.put("height", s.getHeight());
+			        values.put("channels", s.getChannels());
+			        values.put("channel_layout", s.getChannelLayout());
+			        Optional.ofNullable(s.getDisposition())
+			                .ifPresent(d -> values.putDisposition("attached_pic", d.getAttachedPic() == 1));
+			        return new MediaStream(values);
+		        })
+		        .collect(toUnmodifiableList());
+		return new MediaInfo(format, streams, List.of());
+	}
+
+	public Optional<MediaFormat> getFormat() {
+		return Optional.ofNullable(format);
+	}
+
+	public List<MediaStream> getStreams() {
+		return streams;
+	}
+
+	public List<MediaChapter> getChapters() {
+		return chapters;
+	}
+
+	/**
+	 * @return true if produced by a partial probe: durations, bitrates and frames counts may be estimated or missing.
+	 * @see tv.hd3g.fflauncher.recipes.ProbeMode
+	 */
+	public boolean isPartial() {
+		return partial;
+	}
+
+	public Stream<MediaStream> getVideoStreams() {
+		return streams.stream().filter(MediaStream::isVideo);
+	}
+
+	public Stream<MediaStream> getAudioStreams() {
+		return streams.stream().filter(MediaStream::isAudio);
+	}
+
+	public Stream<MediaStream> getSubtitleStreams() {
+		return streams.stream().filter(MediaStream::isSubtitle);
+	}
+
+	public Stream<MediaStream> getDataStreams() {
+		return streams.stream().filter(MediaStream::isData);
+	}
+
+	/**
+	 * @return the first video stream, only if it's not an attached pic (cover).
+	 */
+	public Optional<MediaStream> getFirstVideoStream() {
+		return getVideoStreams()
+		        .findFirst()
+		        .filter(s -> s.isAttachedPic() == false);
+	}
+
+	@Override
+	public String toString() {
+		return (partial ? "partial " : "") + format + " " + streams;
+	}
+
+}
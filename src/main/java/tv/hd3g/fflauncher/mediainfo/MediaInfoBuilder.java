@@ -0,0 +1,119 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.mediainfo;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Create a MediaInfo without ffprobe, like from a MediaHeaderReader. Values use the ffprobe JSON names
+ * ("codec_type", "channels", "duration"...), so the result is read like a ffprobe result.
+ * Not thread safe, for one MediaInfo only.
+ */
+public class MediaInfoBuilder {
+
+	private MediaValues format;
+	private final List<MediaValues> streams;
+	private final List<MediaValues> chapters;
+
+	public MediaInfoBuilder() {
+		streams = new ArrayList<>();
+		chapters = new ArrayList<>();
+	}
+
+	/**
+	 * A format, stream or chapter values, before the MediaInfo creation.
+	 */
+	public static class Section {
+		private final MediaValues values;
+
+		private Section(final MediaValues values) {
+			this.values = values;
+		}
+
+		/**
+		 * @param value toString()-ed, ignored if null
+		 */
+		public Section put(final String name, final Object value) {
+			values.put(requireNonNull(name, "\"name\" can't to be null"), value);
+			return this;
+		}
+
+		public Section putDisposition(final String name, final boolean enabled) {
+			values.putDisposition(requireNonNull(name, "\"name\" can't to be null"), enabled);
+			return this;
+		}
+
+		/**
+		 * @param value ignored if null
+		 */
+		public Section putTag(final String name, final String value) {
+			if (value != null) {
+				values.tags.put(requireNonNull(name, "\"name\" can't to be null"), value);
+			}
+			return this;
+		}
+	}
+
+	/**
+	 * @return the format section, created on the first call.
+	 */
+	public Section format() {
+		if (format == null) {
+			format = new MediaValues();
+		}
+		return new Section(format);
+	}
+
+	/**
+	 * @return a new stream section, with its "index" set to its position (can be overwritten).
+	 */
+	public Section addStream() {
+		final var values = new MediaValues();
+		values.put("index", streams.size());
+		streams.add(values);
+		return new Section(values);
+	}
+
+	/**
+	 * @return a new chapter section
+	 */
+	public Section addChapter() {
+		final var values = new MediaValues();
+		chapters.add(values);
+		return new Section(values);
+	}
+
+	public int getStreamsCount() {
+		return streams.size();
+	}
+
+	/**
+	 * @param partial true if the media was not fully read (estimated or missing values)
+	 */
+	public MediaInfo build(final boolean partial) {
+		final var mediaFormat = format != null ? new MediaFormat(format) : null;
+		final var mediaStreams = new ArrayList<MediaStream>(streams.size());
+		streams.forEach(values -> mediaStreams.add(new MediaStream(values)));
+		final var mediaChapters = new ArrayList<MediaChapter>(chapters.size());
+		chapters.forEach(values -> mediaChapters.add(new MediaChapter(values)));
+		return new MediaInfo(mediaFormat, mediaStreams, mediaChapters, partial);
+	}
+
+}
@@ -0,0 +1,413 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.mediainfo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Packets or frames from ffprobe -show_packets/-show_frames, stored in growable primitive columns:
+ * no object by packet, around 36 bytes by packet.
+ * Times (pts, dts, duration) are in stream time base units.
+ * Created by MediaPacketsParser. Not threadsafe during parsing, immutable after.
+ */
+public class MediaPackets {
+
+	/**
+	 * For pts, dts and position.
+	 */
+	public static final long NO_VALUE = Long.MIN_VALUE;
+	private static final byte FLAG_KEY = 1;
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private final boolean frames;
+	private final HashMap<Integer, String> timeBases;
+	private int count;
+	private long[] pts;
+	private long[] dts;
+	private long[] position;
+	private int[] duration;
+	private int[] size;
+	private short[] streamIndex;
+	private byte[] flags;
+	private byte[] pictType;
+
+	MediaPackets(final boolean frames) {
+		this.frames = frames;
+		timeBases = new HashMap<>();
+		pts = new long[INITIAL_CAPACITY];
+		dts = new long[INITIAL_CAPACITY];
+		position = new long[INITIAL_CAPACITY];
+		duration = new int[INITIAL_CAPACITY];
+		size = new int[INITIAL_CAPACITY];
+		streamIndex = new short[INITIAL_CAPACITY];
+		flags = new byte[INITIAL_CAPACITY];
+		pictType = new byte[INITIAL_CAPACITY];
+	}
+
+	private void ensureCapacity(final int capacity) {
+		if (capacity <= pts.length) {
+			return;
+		}
+		final var newCapacity = Math.max(capacity, pts.length + (pts.length >> 1));
+		pts = Arrays.copyOf(pts, newCapacity);
+		dts = Arrays.copyOf(dts, newCapacity);
+		position = Arrays.copyOf(position, newCapacity);
+		duration = Arrays.copyOf(duration, newCapacity);
+		size = Arrays.copyOf(size, newCapacity);
+		streamIndex = Arrays.copyOf(streamIndex, newCapacity);
+		flags = Arrays.copyOf(flags, newCapacity);
+		pictType = Arrays.copyOf(pictType, newCapacity);
+	}
+
+	/**
+	 * @param position in bytes, in the source file, or NO_VALUE
+	 * @param pictType like 'I', 'P', 'B', or 0
+	 */
+	void add(final long pts,
+	         final long dts,
+	         final long position,
+	         final long duration,
+	         final long size,
+	         final int streamIndex,
+	         final boolean key,
+	         final byte pictType) {
+		ensureCapacity(count + 1);
+		this.pts[count] = pts;
+		this.dts[count] = dts;
+		this.position[count] = position;
+		this.duration[count] = (int) Math.max(0, Math.min(Integer.MAX_VALUE, duration));
+		this.size[count] = (int) Math.max(0, Math.min(Integer.MAX_VALUE, size));
+		this.streamIndex[count] = (short) streamIndex;
+		flags[count] = key ? FLAG_KEY : 0;
+		this.pictType[count] = pictType;
+		count++;
+	}
+
+	void setTimeBase(final int streamIndex, final String timeBase) {
+		timeBases.put(streamIndex, timeBase);
+	}
+
+	/**
+	 * Free the unused columns capacity.
+	 */
+	void trimToSize() {
+		pts = Arrays.copyOf(pts, count);
+		dts = Arrays.copyOf(dts, count);
+		position = Arrays.copyOf(position, count);
+		duration = Arrays.copyOf(duration, count);
+		size = Arrays.copyOf(size, count);
+		streamIndex = Arrays.copyOf(streamIndex, count);
+		flags = Arrays.copyOf(flags, count);
+		pictType = Arrays.copyOf(pictType, count);
+	}
+
+	/**
+	 * @return true for -show_frames, false for -show_packets
+	 */
+	public boolean isFrames() {
+		return frames;
+	}
+
+	/**
+	 * @return packets/frames count, for all streams
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * @return packets/frames count for this stream
+	 */
+	public int size(final int streamIndex) {
+		var result = 0;
+		for (var pos = 0; pos < count; pos++) {
+			if (this.streamIndex[pos] == streamIndex) {
+				result++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return the approximative columns size in bytes
+	 */
+	public long getMemorySize() {
+		return pts.length * (long) (Long.BYTES * 3 + Integer.BYTES * 2 + Short.BYTES + 2);
+	}
+
+	/**
+	 * @return NO_VALUE if not set
+	 */
+	public long getPts(final int pos) {
+		return pts[checkPos(pos)];
+	}
+
+	/**
+	 * @return NO_VALUE if not set
+	 */
+	public long getDts(final int pos) {
+		return dts[checkPos(pos)];
+	}
+
+	/**
+	 * @return the packet position in bytes in the source file, or NO_VALUE if not set
+	 */
+	public long getPosition(final int pos) {
+		return position[checkPos(pos)];
+	}
+
+	/**
+	 * @return 0 if not set
+	 */
+	public int getDuration(final int pos) {
+		return duration[checkPos(pos)];
+	}
+
+	public int getSize(final int pos) {
+		return size[checkPos(pos)];
+	}
+
+	public int getStreamIndex(final int pos) {
+		return streamIndex[checkPos(pos)];
+	}
+
+	public boolean isKey(final int pos) {
+		return (flags[checkPos(pos)] & FLAG_KEY) == FLAG_KEY;
+	}
+
+	/**
+	 * @return like 'I', 'P', 'B', only for frames. 0 if not set.
+	 */
+	public char getPictType(final int pos) {
+		return (char) pictType[checkPos(pos)];
+	}
+
+	private int checkPos(final int pos) {
+		if (pos < 0 || pos >= count) {
+			throw new IndexOutOfBoundsException("Invalid pos " + pos + ", size " + count);
+		}
+		return pos;
+	}
+
+	/**
+	 * @return the streams indexes with a known time base, sorted.
+	 */
+	public List<Integer> getStreamIndexes() {
+		return timeBases.keySet().stream().sorted().collect(Collectors.toUnmodifiableList());
+	}
+
+	/**
+	 * @return like "1/90000", if provided by ffprobe (stream=time_base entry)
+	 */
+	public Optional<String> getTimeBase(final int streamIndex) {
+		return Optional.ofNullable(timeBases.get(streamIndex));
+	}
+
+	/**
+	 * @return the time base in seconds, like 1/90000
+	 * @throws IllegalArgumentException if the time base is not known for this stream
+	 */
+	public double getTimeBaseSeconds(final int streamIndex) {
+		final var timeBase = getTimeBase(streamIndex)
+		        .orElseThrow(() -> new IllegalArgumentException("Unknown time base for stream " + streamIndex));
+		final var slash = timeBase.indexOf('/');
+		try {
+			if (slash == -1) {
+				return Double.parseDouble(timeBase);
+			}
+			return Double.parseDouble(timeBase.substring(0, slash))
+			       / Double.parseDouble(timeBase.substring(slash + 1));
+		} catch (final NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid time base for stream " + streamIndex + ": " + timeBase, e);
+		}
+	}
+
+	/**
+	 * @return pts, or dts if pts is not set, or NO_VALUE
+	 */
+	public long getTime(final int pos) {
+		checkPos(pos);
+		if (pts[pos] != NO_VALUE) {
+			return pts[pos];
+		}
+		return dts[pos];
+	}
+
+	/**
+	 * @return dts, or pts if dts is not set, or NO_VALUE
+	 */
+	private long getDecodeTime(final int pos) {
+		if (dts[pos] != NO_VALUE) {
+			return dts[pos];
+		}
+		return pts[pos];
+	}
+
+	/**
+	 * @param windowSeconds the duration of each measure
+	 * @return bits by second for each window, from the first timestamp of this stream.
+	 *         Packets without timestamp are ignored.
+	 */
+	public long[] getBitrateOverTime(final int streamIndex, final double windowSeconds) {
+		if (windowSeconds <= 0) {
+			throw new IllegalArgumentException("Invalid windowSeconds: " + windowSeconds);
+		}
+		final var timeBase = getTimeBaseSeconds(streamIndex);
+		var first = Long.MAX_VALUE;
+		var last = Long.MIN_VALUE;
+		for (var pos = 0; pos < count; pos++) {
+			final var time = getTime(pos);
+			if (this.streamIndex[pos] == streamIndex && time != NO_VALUE) {
+				first = Math.min(first, time);
+				last = Math.max(last, time);
+			}
+		}
+		if (first > last) {
+			return new long[0];
+		}
+
+		final var bytes = new long[(int) ((last - first) * timeBase / windowSeconds) + 1];
+		for (var pos = 0; pos < count; pos++) {
+			final var time = getTime(pos);
+			if (this.streamIndex[pos] == streamIndex && time != NO_VALUE) {
+				bytes[(int) ((time - first) * timeBase / windowSeconds)] += size[pos];
+			}
+		}
+		for (var pos = 0; pos < bytes.length; pos++) {
+			bytes[pos] = Math.round(bytes[pos] * 8d / windowSeconds);
+		}
+		return bytes;
+	}
+
+	/**
+	 * @return the packets/frames count between each key packet/frame, in file order. The first GOP starts with the
+	 *         first key. Empty if no keys.
+	 */
+	public int[] getGopSizes(final int streamIndex) {
+		final var sizes = new int[Math.max(1, countKeys(streamIndex))];
+		var gop = -1;
+		for (var pos = 0; pos < count; pos++) {
+			if (this.streamIndex[pos] != streamIndex) {
+				continue;
+			}
+			if ((flags[pos] & FLAG_KEY) == FLAG_KEY) {
+				gop++;
+			}
+			if (gop > -1) {
+				sizes[gop]++;
+			}
+		}
+		return Arrays.copyOf(sizes, gop + 1);
+	}
+
+	private int countKeys(final int streamIndex) {
+		var result = 0;
+		for (var pos = 0; pos < count; pos++) {
+			if (this.streamIndex[pos] == streamIndex && (flags[pos] & FLAG_KEY) == FLAG_KEY) {
+				result++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Only for frames with pict_type.
+	 * @return the pict types of each GOP, like ["IBBPBBP", "IBBPBBP", "IBBP"]. Unknown pict type are "?".
+	 */
+	public List<String> getGopStructures(final int streamIndex) {
+		final var result = new ArrayList<String>();
+		final var current = new StringBuilder();
+		for (var pos = 0; pos < count; pos++) {
+			if (this.streamIndex[pos] != streamIndex) {
+				continue;
+			}
+			if ((flags[pos] & FLAG_KEY) == FLAG_KEY && current.length() > 0) {
+				result.add(current.toString());
+				current.setLength(0);
+			}
+			if ((flags[pos] & FLAG_KEY) == FLAG_KEY || current.length() > 0) {
+				current.append(pictType[pos] == 0 ? '?' : (char) pictType[pos]);
+			}
+		}
+		if (current.length() > 0) {
+			result.add(current.toString());
+		}
+		return List.copyOf(result);
+	}
+
+	/**
+	 * Compare the time deltas between consecutive packets/frames (dts for packets, pts for frames, in file order)
+	 * with the most frequent delta, with a 1 time base unit tolerance (for rounded time bases).
+	 * @param maxIrregularRatio like 0.01: more than 1% of irregular deltas is a variable frame rate.
+	 * @return false if less than 3 timestamped packets/frames
+	 */
+	public boolean isVariableFrameRate(final int streamIndex, final double maxIrregularRatio) {
+		final var deltas = new long[size(streamIndex)];
+		var deltaCount = 0;
+		var previous = NO_VALUE;
+		for (var pos = 0; pos < count; pos++) {
+			if (this.streamIndex[pos] != streamIndex) {
+				continue;
+			}
+			final var time = frames ? getTime(pos) : getDecodeTime(pos);
+			if (time == NO_VALUE) {
+				continue;
+			}
+			if (previous != NO_VALUE) {
+				deltas[deltaCount++] = time - previous;
+			}
+			previous = time;
+		}
+		if (deltaCount < 2) {
+			return false;
+		}
+
+		final var sorted = Arrays.copyOf(deltas, deltaCount);
+		Arrays.sort(sorted);
+		var mode = sorted[0];
+		var modeCount = 0;
+		var runStart = 0;
+		for (var pos = 1; pos <= sorted.length; pos++) {
+			if (pos == sorted.length || sorted[pos] != sorted[runStart]) {
+				if (pos - runStart > modeCount) {
+					modeCount = pos - runStart;
+					mode = sorted[runStart];
+				}
+				runStart = pos;
+			}
+		}
+
+		var irregulars = 0;
+		for (var pos = 0; pos < deltaCount; pos++) {
+			if (Math.abs(deltas[pos] - mode) > 1) {
+				irregulars++;
+			}
+		}
+		return irregulars > deltaCount * maxIrregularRatio;
+	}
+
+	@Override
+	public String toString() {
+		return count + (frames ? " frames" : " packets") + ", " + timeBases.size() + " streams";
+	}
+
+}
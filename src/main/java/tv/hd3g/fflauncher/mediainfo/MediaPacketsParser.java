@@ -0,0 +1,274 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.mediainfo;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Streaming parser for "ffprobe -print_format compact" packets or frames lines, like
+ * "packet|stream_index=0|pts=0|dts=-2|duration=1|size=1234|flags=K_", directly from the stdout bytes, to
+ * MediaPackets columns. Only one line is buffered. "stream|index=0|time_base=1/25" lines set the time bases.
+ * Use it as a CaptureStdOutBytes stdout sink, for one execution only.
+ * @see tv.hd3g.fflauncher.exec.CaptureStdOutBytes#setStdOutSink(OutputStream)
+ */
+public class MediaPacketsParser extends OutputStream {
+
+	/**
+	 * The ffprobe -show_entries value to set for packets.
+	 */
+	public static final String PACKETS_ENTRIES = "packet=stream_index,pts,dts,pos,duration,size,flags"
+	                                             + ":stream=index,time_base";
+	/**
+	 * The ffprobe -show_entries value to set for frames. Old (pkt_*) and new fields names are requested.
+	 */
+	public static final String FRAMES_ENTRIES = "frame=stream_index,key_frame,pts,pkt_pts,pkt_dts,pkt_pos,"
+	                                            + "best_effort_timestamp,duration,pkt_duration,pkt_size,pict_type"
+	                                            + ":stream=index,time_base";
+
+	private static final byte[] SECTION_PACKET = ascii("packet");
+	private static final byte[] SECTION_FRAME = ascii("frame");
+	private static final byte[] SECTION_STREAM = ascii("stream");
+	private static final byte[] STREAM_INDEX = ascii("stream_index");
+	private static final byte[] INDEX = ascii("index");
+	private static final byte[] TIME_BASE = ascii("time_base");
+	private static final byte[] PTS = ascii("pts");
+	private static final byte[] PKT_PTS = ascii("pkt_pts");
+	private static final byte[] DTS = ascii("dts");
+	private static final byte[] PKT_DTS = ascii("pkt_dts");
+	private static final byte[] POS = ascii("pos");
+	private static final byte[] PKT_POS = ascii("pkt_pos");
+	private static final byte[] BEST_EFFORT_TIMESTAMP = ascii("best_effort_timestamp");
+	private static final byte[] DURATION = ascii("duration");
+	private static final byte[] PKT_DURATION = ascii("pkt_duration");
+	private static final byte[] SIZE = ascii("size");
+	private static final byte[] PKT_SIZE = ascii("pkt_size");
+	private static final byte[] FLAGS = ascii("flags");
+	private static final byte[] KEY_FRAME = ascii("key_frame");
+	private static final byte[] PICT_TYPE = ascii("pict_type");
+
+	private final MediaPackets packets;
+	private final byte[] sectionName;
+	private final boolean keysOnly;
+	private byte[] line;
+	private int lineSize;
+	private boolean closed;
+
+	private long pts;
+	private long bestEffort;
+	private long dts;
+	private long position;
+	private long duration;
+	private long size;
+	private int streamIndex;
+	private boolean key;
+	private byte pictType;
+	private String timeBase;
+
+	/**
+	 * @param frames true for -show_frames lines, false for -show_packets lines
+	 * @param keysOnly only keep key packets/frames
+	 */
+	public MediaPacketsParser(final boolean frames, final boolean keysOnly) {
+		packets = new MediaPackets(frames);
+		sectionName = frames ? SECTION_FRAME : SECTION_PACKET;
+		this.keysOnly = keysOnly;
+		line = new byte[256];
+	}
+
+	/**
+	 * @param frames true for -show_frames lines, false for -show_packets lines
+	 */
+	public MediaPacketsParser(final boolean frames) {
+		this(frames, false);
+	}
+
+	private static byte[] ascii(final String value) {
+		return value.getBytes(US_ASCII);
+	}
+
+	@Override
+	public void write(final int b) {
+		if (b == '\n') {
+			parseLine();
+			lineSize = 0;
+			return;
+		}
+		if (lineSize == line.length) {
+			line = Arrays.copyOf(line, line.length * 2);
+		}
+		line[lineSize++] = (byte) b;
+	}
+
+	@Override
+	public void write(final byte[] b, final int off, final int len) {
+		for (var pos = off; pos < off + len; pos++) {
+			write(b[pos]);
+		}
+	}
+
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		if (lineSize > 0) {
+			parseLine();
+			lineSize = 0;
+		}
+		packets.trimToSize();
+		closed = true;
+	}
+
+	/**
+	 * Call it after the ffprobe end.
+	 * @return the parsed packets, after a close.
+	 */
+	public MediaPackets getResult() {
+		close();
+		return packets;
+	}
+
+	private static boolean equals(final byte[] source,
+	                              final int start,
+	                              final int end,
+	                              final byte[] expected) {
+		return Arrays.equals(source, start, end, expected, 0, expected.length);
+	}
+
+	/**
+	 * @return NO_VALUE if not a number (like "N/A")
+	 */
+	private long parseLong(final int start, final int end) {
+		if (start == end) {
+			return MediaPackets.NO_VALUE;
+		}
+		var pos = start;
+		final var negative = line[pos] == '-';
+		if (negative) {
+			pos++;
+		}
+		var result = 0L;
+		for (; pos < end; pos++) {
+			final var c = line[pos];
+			if (c < '0' || c > '9') {
+				return MediaPackets.NO_VALUE;
+			}
+			result = result * 10 + (c - '0');
+		}
+		return negative ? -result : result;
+	}
+
+	private void parseLine() {
+		var end = lineSize;
+		if (end > 0 && line[end - 1] == '\r') {
+			end--;
+		}
+		var sep = indexOf('|', 0, end);
+		final var isStream = equals(line, 0, sep, SECTION_STREAM);
+		if (isStream == false && equals(line, 0, sep, sectionName) == false) {
+			return;
+		}
+
+		pts = MediaPackets.NO_VALUE;
+		bestEffort = MediaPackets.NO_VALUE;
+		dts = MediaPackets.NO_VALUE;
+		position = MediaPackets.NO_VALUE;
+		duration = 0;
+		size = 0;
+		streamIndex = -1;
+		key = false;
+		pictType = 0;
+		timeBase = null;
+
+		while (sep < end) {
+			final var start = sep + 1;
+			sep = indexOf('|', start, end);
+			final var equal = indexOf('=', start, sep);
+			if (equal < sep) {
+				if (isStream) {
+					onStreamField(start, equal, sep);
+				} else {
+					onField(start, equal, sep);
+				}
+			}
+		}
+
+		if (isStream) {
+			if (streamIndex > -1 && timeBase != null) {
+				packets.setTimeBase(streamIndex, timeBase);
+			}
+		} else if (streamIndex > -1 && (key || keysOnly == false)) {
+			packets.add(pts == MediaPackets.NO_VALUE ? bestEffort : pts, dts, position, duration, size, streamIndex,
+			        key, pictType);
+		}
+	}
+
+	private int indexOf(final char c, final int start, final int end) {
+		for (var pos = start; pos < end; pos++) {
+			if (line[pos] == c) {
+				return pos;
+			}
+		}
+		return end;
+	}
+
+	private void onStreamField(final int start, final int equal, final int end) {
+		if (equals(line, start, equal, INDEX)) {
+			streamIndex = (int) parseLong(equal + 1, end);
+		} else if (equals(line, start, equal, TIME_BASE)) {
+			timeBase = new String(line, equal + 1, end - equal - 1, US_ASCII);
+		}
+	}
+
+	private void onField(final int start, final int equal, final int end) {
+		final var valueStart = equal + 1;
+		if (equals(line, start, equal, STREAM_INDEX)) {
+			streamIndex = (int) parseLong(valueStart, end);
+		} else if (equals(line, start, equal, PTS) || equals(line, start, equal, PKT_PTS)) {
+			final var value = parseLong(valueStart, end);
+			if (value != MediaPackets.NO_VALUE) {
+				pts = value;
+			}
+		} else if (equals(line, start, equal, DTS) || equals(line, start, equal, PKT_DTS)) {
+			dts = parseLong(valueStart, end);
+		} else if (equals(line, start, equal, POS) || equals(line, start, equal, PKT_POS)) {
+			position = parseLong(valueStart, end);
+		} else if (equals(line, start, equal, BEST_EFFORT_TIMESTAMP)) {
+			bestEffort = parseLong(valueStart, end);
+		} else if (equals(line, start, equal, DURATION) || equals(line, start, equal, PKT_DURATION)) {
+			final var value = parseLong(valueStart, end);
+			if (value != MediaPackets.NO_VALUE) {
+				duration = value;
+			}
+		} else if (equals(line, start, equal, SIZE) || equals(line, start, equal, PKT_SIZE)) {
+			final var value = parseLong(valueStart, end);
+			if (value != MediaPackets.NO_VALUE) {
+				size = value;
+			}
+		} else if (equals(line, start, equal, FLAGS)) {
+			key = indexOf('K', valueStart, end) < end;
+		} else if (equals(line, start, equal, KEY_FRAME)) {
+			key = parseLong(valueStart, end) == 1;
+		} else if (equals(line, start, equal, PICT_TYPE) && valueStart < end && line[valueStart] != '?') {
+			pictType = line[valueStart];
+		}
+	}
+
+}
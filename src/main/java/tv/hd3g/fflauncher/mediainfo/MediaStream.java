@@ -0,0 +1,257 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.mediainfo;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.Set;
+
+/**
+ * A stream from ffprobe -show_streams. Immutable.
+ * Numbers are 0 if not provided by ffprobe.
+ */
+public class MediaStream {
+
+	public static final String CODEC_TYPE_VIDEO = "video";
+	public static final String CODEC_TYPE_AUDIO = "audio";
+	public static final String CODEC_TYPE_SUBTITLE = "subtitle";
+	public static final String CODEC_TYPE_DATA = "data";
+
+	private final int index;
+	private final String codecType;
+	private final String codecName;
+	private final String codecLongName;
+	private final String profile;
+	private final String codecTagString;
+	private final int width;
+	private final int height;
+	private final String pixFmt;
+	private final String sampleAspectRatio;
+	private final String displayAspectRatio;
+	private final String fieldOrder;
+	private final String rFrameRate;
+	private final String avgFrameRate;
+	private final String timeBase;
+	private final String sampleFmt;
+	private final int sampleRate;
+	private final int channels;
+	private final String channelLayout;
+	private final int bitsPerSample;
+	private final OptionalDouble startTime;
+	private final OptionalDouble duration;
+	private final long bitRate;
+	private final long nbFrames;
+	private final Set<String> disposition;
+	private final Map<String, String> tags;
+
+	MediaStream(final MediaValues values) {
+		index = values.getInt("index");
+		codecType = values.getString("codec_type").orElse(null);
+		codecName = values.getString("codec_name").orElse(null);
+		codecLongName = values.getString("codec_long_name").orElse(null);
+		profile = values.getString("profile").orElse(null);
+		codecTagString = values.getString("codec_tag_string").orElse(null);
+		width = values.getInt("width");
+		height = values.getInt("height");
+		pixFmt = values.getString("pix_fmt").orElse(null);
+		sampleAspectRatio = values.getString("sample_aspect_ratio").orElse(null);
+		displayAspectRatio = values.getString("display_aspect_ratio").orElse(null);
+		fieldOrder = values.getString("field_order").orElse(null);
+		rFrameRate = values.getString("r_frame_rate").orElse(null);
+		avgFrameRate = values.getString("avg_frame_rate").orElse(null);
+		timeBase = values.getString("time_base").orElse(null);
+		sampleFmt = values.getString("sample_fmt").orElse(null);
+		sampleRate = values.getInt("sample_rate");
+		channels = values.getInt("channels");
+		channelLayout = values.getString("channel_layout").orElse(null);
+		bitsPerSample = values.getInt("bits_per_sample");
+		startTime = values.getDouble("start_time");
+		duration = values.getDouble("duration");
+		bitRate = values.getLong("bit_rate");
+		nbFrames = values.getLong("nb_frames");
+		disposition = values.getDisposition();
+		tags = values.getTags();
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * @return like CODEC_TYPE_VIDEO, CODEC_TYPE_AUDIO...
+	 */
+	public Optional<String> getCodecType() {
+		return Optional.ofNullable(codecType);
+	}
+
+	public boolean isVideo() {
+		return CODEC_TYPE_VIDEO.equals(codecType);
+	}
+
+	public boolean isAudio() {
+		return CODEC_TYPE_AUDIO.equals(codecType);
+	}
+
+	public boolean isSubtitle() {
+		return CODEC_TYPE_SUBTITLE.equals(codecType);
+	}
+
+	public boolean isData() {
+		return CODEC_TYPE_DATA.equals(codecType);
+	}
+
+	public Optional<String> getCodecName() {
+		return Optional.ofNullable(codecName);
+	}
+
+	public Optional<String> getCodecLongName() {
+		return Optional.ofNullable(codecLongName);
+	}
+
+	public Optional<String> getProfile() {
+		return Optional.ofNullable(profile);
+	}
+
+	public Optional<String> getCodecTagString() {
+		return Optional.ofNullable(codecTagString);
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public Optional<String> getPixFmt() {
+		return Optional.ofNullable(pixFmt);
+	}
+
+	/**
+	 * @return like "1:1"
+	 */
+	public Optional<String> getSampleAspectRatio() {
+		return Optional.ofNullable(sampleAspectRatio);
+	}
+
+	/**
+	 * @return like "16:9"
+	 */
+	public Optional<String> getDisplayAspectRatio() {
+		return Optional.ofNullable(displayAspectRatio);
+	}
+
+	public Optional<String> getFieldOrder() {
+		return Optional.ofNullable(fieldOrder);
+	}
+
+	/**
+	 * @return like "25/1"
+	 */
+	public Optional<String> getRFrameRate() {
+		return Optional.ofNullable(rFrameRate);
+	}
+
+	/**
+	 * @return like "30000/1001"
+	 */
+	public Optional<String> getAvgFrameRate() {
+		return Optional.ofNullable(avgFrameRate);
+	}
+
+	/**
+	 * @return like "1/1000"
+	 */
+	public Optional<String> getTimeBase() {
+		return Optional.ofNullable(timeBase);
+	}
+
+	public Optional<String> getSampleFmt() {
+		return Optional.ofNullable(sampleFmt);
+	}
+
+	public int getSampleRate() {
+		return sampleRate;
+	}
+
+	public int getChannels() {
+		return channels;
+	}
+
+	/**
+	 * @return like "stereo", "5.1(side)"
+	 */
+	public Optional<String> getChannelLayout() {
+		return Optional.ofNullable(channelLayout);
+	}
+
+	public int getBitsPerSample() {
+		return bitsPerSample;
+	}
+
+	/**
+	 * @return in seconds
+	 */
+	public OptionalDouble getStartTime() {
+		return startTime;
+	}
+
+	/**
+	 * @return in seconds
+	 */
+	public OptionalDouble getDuration() {
+		return duration;
+	}
+
+	public long getBitRate() {
+		return bitRate;
+	}
+
+	public long getNbFrames() {
+		return nbFrames;
+	}
+
+	/**
+	 * @return the set dispositions names, like "default", "attached_pic", "forced"...
+	 */
+	public Set<String> getDisposition() {
+		return disposition;
+	}
+
+	public boolean isDefault() {
+		return disposition.contains("default");
+	}
+
+	/**
+	 * @return true for a cover picture
+	 */
+	public boolean isAttachedPic() {
+		return disposition.contains("attached_pic");
+	}
+
+	public Map<String, String> getTags() {
+		return tags;
+	}
+
+	@Override
+	public String toString() {
+		return index + ":" + codecType + "(" + codecName + ")";
+	}
+
+}
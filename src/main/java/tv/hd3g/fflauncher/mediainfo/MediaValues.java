@@ -0,0 +1,135 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.mediainfo;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.Set;
+
+/**
+ * Raw ffprobe section values (name -&gt; text), as read from JSON or adapted from JAXB, with typed getters.
+ * "N/A" and unparsable values are handled as not set.
+ */
+final class MediaValues {
+
+	private static final String NOT_AVAILABLE = "N/A";
+
+	final Map<String, String> values;
+	final Set<String> disposition;
+	final Map<String, String> tags;
+
+	MediaValues() {
+		values = new HashMap<>();
+		disposition = new HashSet<>();
+		tags = new HashMap<>();
+	}
+
+	void put(final String name, final Object value) {
+		if (value != null) {
+			values.put(name, String.valueOf(value));
+		}
+	}
+
+	/**
+	 * @param enabled like 1 for "default": 1
+	 */
+	void putDisposition(final String name, final boolean enabled) {
+		if (enabled) {
+			disposition.add(name);
+		}
+	}
+
+	Optional<String> getString(final String name) {
+		return Optional.ofNullable(values.get(name))
+		        .filter(v -> v.isEmpty() == false && v.equals(NOT_AVAILABLE) == false);
+	}
+
+	/**
+	 * @return 0 if not set
+	 */
+	int getInt(final String name) {
+		return (int) getLong(name);
+	}
+
+	/**
+	 * @return 0 if not set
+	 */
+	long getLong(final String name) {
+		final var value = getString(name);
+		if (value.isEmpty()) {
+			return 0;
+		}
+		try {
+			return Long.parseLong(value.get());
+		} catch (final NumberFormatException e) {
+			final var asDouble = getDouble(name);
+			if (asDouble.isPresent()) {
+				return (long) asDouble.getAsDouble();
+			}
+			return 0;
+		}
+	}
+
+	OptionalDouble getDouble(final String name) {
+		final var value = getString(name);
+		if (value.isEmpty()) {
+			return OptionalDouble.empty();
+		}
+		try {
+			return OptionalDouble.of(Double.parseDouble(value.get()));
+		} catch (final NumberFormatException e) {
+			return OptionalDouble.empty();
+		}
+	}
+
+	Map<String, String> getTags() {
+		return Map.copyOf(tags);
+	}
+
+	Set<String> getDisposition() {
+		return Set.copyOf(disposition);
+	}
+
+	/**
+	 * Read a JSON section object, with its "tags" and "disposition" sub objects.
+	 */
+	static MediaValues read(final JsonPullParser parser) {
+		final var result = new MediaValues();
+		parser.readObject(name -> {
+			if (name.equals("tags")) {
+				parser.readObject(tag -> {
+					if (parser.isStructure() == false) {
+						Optional.ofNullable(parser.readValue()).ifPresent(v -> result.tags.put(tag, v));
+					}
+				});
+			} else if (name.equals("disposition")) {
+				parser.readObject(flag -> {
+					if (parser.isStructure() == false) {
+						result.putDisposition(flag, "1".equals(parser.readValue()));
+					}
+				});
+			} else if (parser.isStructure() == false) {
+				result.put(name, parser.readValue());
+			}
+		});
+		return result;
+	}
+
+}
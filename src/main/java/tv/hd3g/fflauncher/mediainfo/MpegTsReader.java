@@ -0,0 +1,386 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.mediainfo;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static tv.hd3g.fflauncher.mediainfo.HeaderReading.readFully;
+import static tv.hd3g.fflauncher.mediainfo.HeaderReading.slice;
+import static tv.hd3g.fflauncher.mediainfo.HeaderReading.uint16;
+import static tv.hd3g.fflauncher.mediainfo.HeaderReading.uint8;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * MPEG-TS and M2TS header reader: scan the first MAX_SCAN_SIZE bytes for the PAT, the PMTs, and the first PES
+ * of each audio stream.
+ * Get the programs streams codecs, and the audio layouts from the ADTS, AC-3, MPEG audio and SMPTE 302M headers.
+ * The result is always partial: no video geometry, no frame rates, and no durations.
+ * LATM, E-AC-3, DTS and unknown stream types are left to ffprobe.
+ */
+public class MpegTsReader implements MediaHeaderReader {
+	private static final Logger log = LogManager.getLogger();
+
+	public static final String FORMAT_NAME = "mpegts";
+	public static final String FORMAT_LONG_NAME = "MPEG-TS (MPEG-2 Transport Stream)";
+	/**
+	 * PSI and audio PES after these first bytes are left to ffprobe.
+	 */
+	public static final int MAX_SCAN_SIZE = 4 * 1024 * 1024;
+
+	private static final int SYNC_BYTE = 0x47;
+	private static final int TS_PACKET_SIZE = 188;
+	private static final int M2TS_PACKET_SIZE = 192;
+	private static final int PACKETS_BY_READ = 512;
+	private static final int PAT_PID = 0;
+	private static final int MAX_SECTION_SIZE = 1024;
+	private static final int MIN_AUDIO_HEADER_SIZE = 8;
+
+	private static final int DESCRIPTOR_REGISTRATION = 0x05;
+	private static final int DESCRIPTOR_LANGUAGE = 0x0A;
+	private static final int DESCRIPTOR_TELETEXT = 0x56;
+	private static final int DESCRIPTOR_SUBTITLING = 0x59;
+	private static final int DESCRIPTOR_AC3 = 0x6A;
+
+	@Override
+	public String getName() {
+		return "mpegts";
+	}
+
+	/**
+	 * A program elementary stream, from its PMT entry.
+	 */
+	private static class ElementaryStream {
+		final String codecType;
+		final String codecName;
+		final BiFunction<ByteBuffer, Integer, AudioHeaders.AudioLayout> audioHeaderReader;
+		String language;
+		AudioHeaders.AudioLayout audioLayout;
+
+		ElementaryStream(final String codecType,
+		                 final String codecName,
+		                 final BiFunction<ByteBuffer, Integer, AudioHeaders.AudioLayout> audioHeaderReader) {
+			this.codecType = codecType;
+			this.codecName = codecName;
+			this.audioHeaderReader = audioHeaderReader;
+		}
+
+		boolean isResolved() {
+			return audioHeaderReader == null || audioLayout != null;
+		}
+	}
+
+	/**
+	 * Collect a PSI section across TS packets.
+	 */
+	private static class SectionAssembler {
+		private final byte[] content = new byte[MAX_SECTION_SIZE + 3];
+		private int length = -1;
+		private int expected;
+
+		/**
+		 * Drop the current section, and start a new one.
+		 * @return like append
+		 */
+		ByteBuffer start(final ByteBuffer packet, final int from, final int to) {
+			length = 0;
+			expected = 0;
+			return append(packet, from, to);
+		}
+
+		/**
+		 * @return the complete section, with its header, or null if more packets are needed.
+		 */
+		ByteBuffer append(final ByteBuffer packet, final int from, final int to) {
+			if (length < 0) {
+				return null;
+			}
+			for (var pos = from; pos < to && length < content.length; pos++) {
+				content[length++] = packet.get(pos);
+			}
+			if (expected == 0 && length >= 3) {
+				expected = 3 + ((content[1] & 0x0F) << 8 | content[2] & 0xFF);
+				if (expected > content.length) {
+					throw new IllegalArgumentException("Too large PSI section: " + expected);
+				}
+			}
+			if (expected == 0 || length < expected) {
+				return null;
+			}
+			length = -1;
+			return ByteBuffer.wrap(content, 0, expected).slice();
+		}
+	}
+
+	@Override
+	public Optional<MediaInfo> read(final FileChannel channel, final String fileName) throws IOException {
+		final var size = channel.size();
+		if (size < M2TS_PACKET_SIZE * 3L) {
+			return Optional.empty();
+		}
+		final var probe = readFully(channel, ByteBuffer.allocate(M2TS_PACKET_SIZE * 3), 0);
+		final int packetSize;
+		final int syncOffset;
+		if (isSynced(probe, 0, TS_PACKET_SIZE)) {
+			packetSize = TS_PACKET_SIZE;
+			syncOffset = 0;
+		} else if (isSynced(probe, 4, M2TS_PACKET_SIZE)) {
+			packetSize = M2TS_PACKET_SIZE;
+			syncOffset = 4;
+		} else {
+			return Optional.empty();
+		}
+		try {
+			return scan(channel, fileName, size, packetSize, syncOffset)
+			        .flatMap(AudioHeaders::requireAudioLayouts);
+		} catch (final IllegalArgumentException | IndexOutOfBoundsException e) {
+			log.debug("Can't read {} MPEG-TS tables", fileName, e);
+			return Optional.empty();
+		}
+	}
+
+	private static boolean isSynced(final ByteBuffer buffer, final int offset, final int packetSize) {
+		return uint8(buffer, offset) == SYNC_BYTE
+		       && uint8(buffer, offset + packetSize) == SYNC_BYTE
+		       && uint8(buffer, offset + packetSize * 2) == SYNC_BYTE;
+	}
+
+	private static Optional<MediaInfo> scan(final FileChannel channel,
+	                                        final String fileName,
+	                                        final long fileSize,
+	                                        final int packetSize,
+	                                        final int syncOffset) throws IOException {
+		final var programs = new TreeMap<Integer, Integer>();
+		final var parsedPmtPids = new HashMap<Integer, Boolean>();
+		final var streams = new LinkedHashMap<Integer, ElementaryStream>();
+		final var assemblers = new HashMap<Integer, SectionAssembler>();
+		var patFound = false;
+
+		final var scanSize = Math.min(fileSize, MAX_SCAN_SIZE) / packetSize * packetSize;
+		final var buffer = ByteBuffer.allocate(packetSize * PACKETS_BY_READ);
+		for (var position = 0L; position < scanSize; position += buffer.limit()) {
+			buffer.clear().limit((int) Math.min(buffer.capacity(), scanSize - position));
+			readFully(channel, buffer, position);
+
+			for (var packetPos = syncOffset; packetPos < buffer.limit(); packetPos += packetSize) {
+				final var packet = slice(buffer, packetPos, packetPos + TS_PACKET_SIZE);
+				if (uint8(packet, 0) != SYNC_BYTE) {
+					throw new IllegalArgumentException("Lost TS sync at " + (position + packetPos));
+				}
+				final var pid = uint16(packet, 1) & 0x1FFF;
+				final var payloadStart = (uint8(packet, 1) & 0x40) != 0;
+				final var adaptationFieldControl = uint8(packet, 3) >> 4 & 0x03;
+				if ((adaptationFieldControl & 1) == 0 || (uint8(packet, 1) & 0x80) != 0) {
+					continue;
+				}
+				final var payloadPos = adaptationFieldControl == 3 ? 5 + uint8(packet, 4) : 4;
+				if (payloadPos >= TS_PACKET_SIZE) {
+					continue;
+				}
+
+				if (pid == PAT_PID || programs.containsValue(pid)) {
+					final var section = readSection(assemblers, pid, packet, payloadPos, payloadStart);
+					if (section == null) {
+						continue;
+					}
+					if (pid == PAT_PID && uint8(section, 0) == 0x00 && patFound == false) {
+						readPat(section, programs);
+						patFound = true;
+					} else if (pid != PAT_PID && uint8(section, 0) == 0x02 && parsedPmtPids.containsKey(pid) == false) {
+						readPmt(section, streams);
+						parsedPmtPids.put(pid, true);
+					}
+				} else if (payloadStart && streams.containsKey(pid) && streams.get(pid).isResolved() == false) {
+					readPes(packet, payloadPos, streams.get(pid));
+				}
+			}
+
+			if (patFound && parsedPmtPids.size() == programs.size()
+			    && streams.values().stream().allMatch(ElementaryStream::isResolved)) {
+				return Optional.ofNullable(toMediaInfo(fileName, fileSize, programs.size(), streams));
+			}
+		}
+		return Optional.empty();
+	}
+
+	private static ByteBuffer readSection(final Map<Integer, SectionAssembler> assemblers,
+	                                      final int pid,
+	                                      final ByteBuffer packet,
+	                                      final int payloadPos,
+	                                      final boolean payloadStart) {
+		final var assembler = assemblers.computeIfAbsent(pid, p -> new SectionAssembler());
+		if (payloadStart == false) {
+			return assembler.append(packet, payloadPos, TS_PACKET_SIZE);
+		}
+		final var sectionPos = payloadPos + 1 + uint8(packet, payloadPos);
+		if (sectionPos >= TS_PACKET_SIZE) {
+			throw new IllegalArgumentException("Invalid PSI pointer field");
+		}
+		final var previous = assembler.append(packet, payloadPos + 1, sectionPos);
+		if (previous != null) {
+			return previous;
+		}
+		return assembler.start(packet, sectionPos, TS_PACKET_SIZE);
+	}
+
+	private static void readPat(final ByteBuffer section, final Map<Integer, Integer> programs) {
+		final var end = section.limit() - 4;
+		for (var pos = 8; pos + 4 <= end; pos += 4) {
+			final var programNumber = uint16(section, pos);
+			if (programNumber != 0) {
+				programs.put(programNumber, uint16(section, pos + 2) & 0x1FFF);
+			}
+		}
+	}
+
+	private static void readPmt(final ByteBuffer section, final Map<Integer, ElementaryStream> streams) {
+		final var end = section.limit() - 4;
+		final var programInfoLength = uint16(section, 10) & 0x0FFF;
+		for (var pos = 12 + programInfoLength; pos + 5 <= end;) {
+			final var streamType = uint8(section, pos);
+			final var pid = uint16(section, pos + 1) & 0x1FFF;
+			final var descriptorsLength = uint16(section, pos + 3) & 0x0FFF;
+			final var descriptors = slice(section, pos + 5, pos + 5 + descriptorsLength);
+			if (streams.containsKey(pid) == false) {
+				final var stream = getElementaryStream(streamType, descriptors);
+				stream.language = getLanguage(descriptors);
+				streams.put(pid, stream);
+			}
+			pos += 5 + descriptorsLength;
+		}
+	}
+
+	/**
+	 * @return descriptor tag to descriptor content
+	 */
+	private static Map<Integer, ByteBuffer> getDescriptors(final ByteBuffer descriptors) {
+		final var result = new HashMap<Integer, ByteBuffer>();
+		for (var pos = 0; pos + 2 <= descriptors.limit();) {
+			final var length = uint8(descriptors, pos + 1);
+			result.putIfAbsent(uint8(descriptors, pos), slice(descriptors, pos + 2, pos + 2 + length));
+			pos += 2 + length;
+		}
+		return result;
+	}
+
+	private static String getLanguage(final ByteBuffer descriptors) {
+		final var language = getDescriptors(descriptors).get(DESCRIPTOR_LANGUAGE);
+		if (language == null || language.limit() < 3) {
+			return null;
+		}
+		final var bytes = new byte[3];
+		language.duplicate().get(bytes);
+		return new String(bytes, ISO_8859_1);
+	}
+
+	private static ElementaryStream getElementaryStream(final int streamType, final ByteBuffer descriptors) {
+		switch (streamType) {
+		case 0x01:
+			return new ElementaryStream(MediaStream.CODEC_TYPE_VIDEO, "mpeg1video", null);
+		case 0x02:
+			return new ElementaryStream(MediaStream.CODEC_TYPE_VIDEO, "mpeg2video", null);
+		case 0x10:
+			return new ElementaryStream(MediaStream.CODEC_TYPE_VIDEO, "mpeg4", null);
+		case 0x1B:
+			return new ElementaryStream(MediaStream.CODEC_TYPE_VIDEO, "h264", null);
+		case 0x24:
+			return new ElementaryStream(MediaStream.CODEC_TYPE_VIDEO, "hevc", null);
+		case 0x03:
+		case 0x04:
+			return new ElementaryStream(MediaStream.CODEC_TYPE_AUDIO, null, AudioHeaders::readMpegAudio);
+		case 0x0F:
+			return new ElementaryStream(MediaStream.CODEC_TYPE_AUDIO, "aac", AudioHeaders::readAdts);
+		case 0x81:
+			return new ElementaryStream(MediaStream.CODEC_TYPE_AUDIO, "ac3", AudioHeaders::readAc3);
+		case 0x86:
+			return new ElementaryStream(MediaStream.CODEC_TYPE_DATA, "scte_35", null);
+		case 0x15:
+			return new ElementaryStream(MediaStream.CODEC_TYPE_DATA, "timed_id3", null);
+		case 0x06:
+			return getPrivateElementaryStream(getDescriptors(descriptors));
+		default:
+			throw new IllegalArgumentException("Unsupported stream type 0x" + Integer.toHexString(streamType));
+		}
+	}
+
+	private static ElementaryStream getPrivateElementaryStream(final Map<Integer, ByteBuffer> descriptors) {
+		final var registration = Optional.ofNullable(descriptors.get(DESCRIPTOR_REGISTRATION))
+		        .filter(r -> r.limit() >= 4)
+		        .map(r -> HeaderReading.fourcc(r, 0))
+		        .orElse("");
+		if (registration.equals("BSSD")) {
+			return new ElementaryStream(MediaStream.CODEC_TYPE_AUDIO, "s302m", AudioHeaders::readS302m);
+		} else if (registration.equals("AC-3") || descriptors.containsKey(DESCRIPTOR_AC3)) {
+			return new ElementaryStream(MediaStream.CODEC_TYPE_AUDIO, "ac3", AudioHeaders::readAc3);
+		} else if (descriptors.containsKey(DESCRIPTOR_SUBTITLING)) {
+			return new ElementaryStream(MediaStream.CODEC_TYPE_SUBTITLE, "dvb_subtitle", null);
+		} else if (descriptors.containsKey(DESCRIPTOR_TELETEXT)) {
+			return new ElementaryStream(MediaStream.CODEC_TYPE_SUBTITLE, "dvb_teletext", null);
+		}
+		throw new IllegalArgumentException("Unsupported private stream, registration \"" + registration + "\"");
+	}
+
+	private static void readPes(final ByteBuffer packet, final int payloadPos, final ElementaryStream stream) {
+		if (payloadPos + 9 > TS_PACKET_SIZE
+		    || uint16(packet, payloadPos) != 0 || uint8(packet, payloadPos + 2) != 1) {
+			throw new IllegalArgumentException("Invalid PES start");
+		} else if ((uint8(packet, 3) & 0xC0) != 0) {
+			throw new IllegalArgumentException("Scrambled PES");
+		}
+		final var headerPos = payloadPos + 9 + uint8(packet, payloadPos + 8);
+		if (headerPos + MIN_AUDIO_HEADER_SIZE > TS_PACKET_SIZE) {
+			throw new IllegalArgumentException("Audio header out of the first PES packet");
+		}
+		stream.audioLayout = stream.audioHeaderReader.apply(packet, headerPos);
+	}
+
+	private static MediaInfo toMediaInfo(final String fileName,
+	                                     final long fileSize,
+	                                     final int programsCount,
+	                                     final Map<Integer, ElementaryStream> streams) {
+		final var builder = new MediaInfoBuilder();
+		streams.forEach((pid, stream) -> {
+			final var section = builder.addStream()
+			        .put("id", "0x" + Integer.toHexString(pid))
+			        .put("codec_type", stream.codecType)
+			        .put("codec_name", stream.codecName)
+			        .putTag("language", stream.language);
+			if (stream.audioLayout != null) {
+				stream.audioLayout.putTo(section);
+			}
+		});
+		builder.format()
+		        .put("filename", fileName)
+		        .put("format_name", FORMAT_NAME)
+		        .put("format_long_name", FORMAT_LONG_NAME)
+		        .put("size", fileSize)
+		        .put("nb_programs", programsCount)
+		        .put("nb_streams", builder.getStreamsCount());
+		return builder.build(true);
+	}
+
+}
@@ -0,0 +1,203 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.mediainfo;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static tv.hd3g.fflauncher.mediainfo.HeaderReading.fourcc;
+import static tv.hd3g.fflauncher.mediainfo.HeaderReading.readFully;
+import static tv.hd3g.fflauncher.mediainfo.IsoBmffReader.getPcmName;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Locale;
+import java.util.Optional;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * WAV, BWF, RF64 and BW64 header reader: walk the chunks with positional reads, without reading the audio data.
+ * Get the PCM format and layout from the fmt chunk (with the WAVEFORMATEXTENSIBLE channel mask), the real data
+ * size from the RF64 ds64 chunk, the BWF bext values as format tags, and the iXML document as a "iXML" format tag.
+ * Compressed formats are left to ffprobe.
+ */
+public class WavReader implements MediaHeaderReader {
+	private static final Logger log = LogManager.getLogger();
+
+	public static final String FORMAT_NAME = "wav";
+	public static final String FORMAT_LONG_NAME = "WAV / WAVE (Waveform Audio)";
+	/**
+	 * Larger iXML chunks are not read.
+	 */
+	public static final int MAX_IXML_SIZE = 1024 * 1024;
+
+	private static final int WAVE_FORMAT_PCM = 0x0001;
+	private static final int WAVE_FORMAT_IEEE_FLOAT = 0x0003;
+	private static final int WAVE_FORMAT_EXTENSIBLE = 0xFFFE;
+	private static final long UNSET_SIZE = 0xFFFFFFFFL;
+
+	@Override
+	public String getName() {
+		return "wav";
+	}
+
+	@Override
+	public Optional<MediaInfo> read(final FileChannel channel, final String fileName) throws IOException {
+		final var size = channel.size();
+		if (size < 12) {
+			return Optional.empty();
+		}
+		final var header = readFully(channel, ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN), 0);
+		final var riff = fourcc(header, 0);
+		if ((riff.equals("RIFF") || riff.equals("RF64") || riff.equals("BW64")) == false
+		    || fourcc(header, 8).equals("WAVE") == false) {
+			return Optional.empty();
+		}
+		try {
+			return walk(channel, fileName, riff.equals("RIFF") == false)
+			        .flatMap(AudioHeaders::requireAudioLayouts);
+		} catch (final IllegalArgumentException | IndexOutOfBoundsException e) {
+			log.debug("Invalid WAV chunk in {}", fileName, e);
+			return Optional.empty();
+		}
+	}
+
+	private static Optional<MediaInfo> walk(final FileChannel channel,
+	                                        final String fileName,
+	                                        final boolean rf64) throws IOException {
+		final var size = channel.size();
+		final var chunkHeader = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+		final var builder = new MediaInfoBuilder();
+		final var format = builder.format()
+		        .put("filename", fileName)
+		        .put("format_name", FORMAT_NAME)
+		        .put("format_long_name", FORMAT_LONG_NAME)
+		        .put("size", size)
+		        .put("nb_programs", 0);
+
+		ByteBuffer fmt = null;
+		var ds64DataSize = -1L;
+		var dataSize = -1L;
+		var position = 12L;
+		while (position + 8 <= size) {
+			chunkHeader.clear();
+			readFully(channel, chunkHeader, position);
+			final var id = fourcc(chunkHeader, 0);
+			final var chunkSize = chunkHeader.getInt(4) & 0xFFFFFFFFL;
+			final var payload = position + 8;
+
+			if (id.equals("ds64") && rf64 && chunkSize >= 24) {
+				final var ds64 = readFully(channel, ByteBuffer.allocate(24).order(ByteOrder.LITTLE_ENDIAN), payload);
+				ds64DataSize = ds64.getLong(8);
+			} else if (id.equals("fmt ") && chunkSize >= 16 && chunkSize <= 1024) {
+				fmt = readFully(channel, ByteBuffer.allocate((int) chunkSize).order(ByteOrder.LITTLE_ENDIAN), payload);
+			} else if (id.equals("bext") && chunkSize >= 348 && chunkSize <= 64 * 1024) {
+				readBext(readFully(channel, ByteBuffer.allocate((int) chunkSize).order(ByteOrder.LITTLE_ENDIAN),
+				        payload), format);
+			} else if (id.equals("iXML") && chunkSize <= MAX_IXML_SIZE) {
+				final var ixml = readFully(channel, ByteBuffer.allocate((int) chunkSize), payload);
+				format.putTag("iXML", UTF_8.decode(ixml).toString().replace("\0", "").trim());
+			} else if (id.equals("data")) {
+				dataSize = chunkSize == UNSET_SIZE && rf64 ? ds64DataSize : chunkSize;
+				if (dataSize < 0 || dataSize == UNSET_SIZE || payload + dataSize > size) {
+					return Optional.empty();
+				}
+			} else if (chunkSize == UNSET_SIZE) {
+				return Optional.empty();
+			}
+
+			final var nextChunkSize = id.equals("data") ? dataSize : chunkSize;
+			position = payload + nextChunkSize + (nextChunkSize & 1);
+		}
+		if (fmt == null || dataSize == -1) {
+			return Optional.empty();
+		}
+
+		final var formatTag = fmt.getShort(0) & 0xFFFF;
+		final var channels = fmt.getShort(2) & 0xFFFF;
+		final var sampleRate = fmt.getInt(4);
+		final var blockAlign = fmt.getShort(12) & 0xFFFF;
+		final var bitsPerSample = fmt.getShort(14) & 0xFFFF;
+		var subFormat = formatTag;
+		String channelLayout = null;
+		if (formatTag == WAVE_FORMAT_EXTENSIBLE) {
+			if (fmt.limit() < 40) {
+				return Optional.empty();
+			}
+			channelLayout = AudioHeaders.getLayoutNameFromMask(fmt.getInt(20) & 0xFFFFFFFFL).orElse(null);
+			subFormat = fmt.getShort(24) & 0xFFFF;
+		}
+		if (subFormat != WAVE_FORMAT_PCM && subFormat != WAVE_FORMAT_IEEE_FLOAT
+		    || channels == 0 || sampleRate <= 0 || blockAlign != channels * ((bitsPerSample + 7) / 8)) {
+			return Optional.empty();
+		}
+		final var codecName = getPcmName(subFormat == WAVE_FORMAT_IEEE_FLOAT, bitsPerSample != 8,
+		        bitsPerSample, true);
+		if (codecName == null) {
+			return Optional.empty();
+		}
+
+		final var samples = dataSize / blockAlign;
+		final var duration = String.format(Locale.ENGLISH, "%.6f", (double) samples / sampleRate);
+		format.put("nb_streams", 1).put("duration", duration);
+		builder.addStream()
+		        .put("codec_type", MediaStream.CODEC_TYPE_AUDIO)
+		        .put("codec_name", codecName)
+		        .put("sample_rate", sampleRate)
+		        .put("channels", channels)
+		        .put("channel_layout", channelLayout)
+		        .put("bits_per_sample", bitsPerSample)
+		        .put("bit_rate", (long) sampleRate * blockAlign * 8)
+		        .put("time_base", "1/" + sampleRate)
+		        .put("duration_ts", samples)
+		        .put("duration", duration);
+		return Optional.ofNullable(builder.build(false));
+	}
+
+	/**
+	 * EBU Tech 3285 bext chunk, with the ffmpeg wav demuxer tag names.
+	 */
+	private static void readBext(final ByteBuffer bext, final MediaInfoBuilder.Section format) {
+		format.putTag("description", readString(bext, 0, 256));
+		format.putTag("originator", readString(bext, 256, 32));
+		format.putTag("originator_reference", readString(bext, 288, 32));
+		format.putTag("origination_date", readString(bext, 320, 10));
+		format.putTag("origination_time", readString(bext, 330, 8));
+		format.putTag("time_reference", Long.toUnsignedString(bext.getLong(338)));
+		if (bext.limit() > 602) {
+			format.putTag("coding_history", readString(bext, 602, bext.limit() - 602));
+		}
+	}
+
+	/**
+	 * @return null if empty
+	 */
+	private static String readString(final ByteBuffer buffer, final int position, final int length) {
+		final var bytes = new byte[length];
+		buffer.duplicate().position(position).get(bytes);
+		var end = 0;
+		while (end < length && bytes[end] != 0) {
+			end++;
+		}
+		final var value = new String(bytes, 0, end, ISO_8859_1).trim();
+		return value.isEmpty() ? null : value;
+	}
+
+}
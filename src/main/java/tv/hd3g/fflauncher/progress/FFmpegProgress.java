@@ -0,0 +1,171 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.progress;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Last known state from a "-progress" ffmpeg output block.
+ * Not threadsafe, and reused (updated) for each block by FFmpegProgressParser: copy it if you need to keep values.
+ * Unknown values (like "N/A") are set to -1.
+ */
+public class FFmpegProgress {
+
+	private final long durationUs;
+
+	long frame;
+	double fps;
+	/**
+	 * In kbits/s
+	 */
+	double bitrate;
+	long totalSize;
+	long outTimeUs;
+	long dupFrames;
+	long dropFrames;
+	double speed;
+	boolean ended;
+
+	/**
+	 * @param durationUs expected media duration, in microseconds. Set -1 if unknown.
+	 */
+	FFmpegProgress(final long durationUs) {
+		this.durationUs = durationUs;
+		reset();
+	}
+
+	void reset() {
+		frame = -1;
+		fps = -1;
+		bitrate = -1;
+		totalSize = -1;
+		outTimeUs = -1;
+		dupFrames = -1;
+		dropFrames = -1;
+		speed = -1;
+		ended = false;
+	}
+
+	public long getFrame() {
+		return frame;
+	}
+
+	public double getFps() {
+		return fps;
+	}
+
+	/**
+	 * @return in kbits/s
+	 */
+	public double getBitrate() {
+		return bitrate;
+	}
+
+	/**
+	 * @return in bytes
+	 */
+	public long getTotalSize() {
+		return totalSize;
+	}
+
+	public long getOutTime(final TimeUnit unit) {
+		if (outTimeUs < 0) {
+			return -1;
+		}
+		return unit.convert(outTimeUs, TimeUnit.MICROSECONDS);
+	}
+
+	public long getDupFrames() {
+		return dupFrames;
+	}
+
+	public long getDropFrames() {
+		return dropFrames;
+	}
+
+	/**
+	 * @return like 1.5 for "1.5x"
+	 */
+	public double getSpeed() {
+		return speed;
+	}
+
+	/**
+	 * @return true if ffmpeg has send the last progress block
+	 */
+	public boolean isEnded() {
+		return ended;
+	}
+
+	/**
+	 * @return -1 if duration or out time are unknown, else 0 to 100
+	 */
+	public double getPercent() {
+		if (ended) {
+			return 100d;
+		} else if (durationUs <= 0 || outTimeUs < 0) {
+			return -1d;
+		}
+		return Math.min(100d, outTimeUs * 100d / durationUs);
+	}
+
+	/**
+	 * Estimated remaining (wall clock) time, computed with the current speed.
+	 * @return -1 if duration, out time or speed are unknown
+	 */
+	public long getETA(final TimeUnit unit) {
+		if (ended) {
+			return 0;
+		} else if (durationUs <= 0 || outTimeUs < 0 || speed <= 0d) {
+			return -1;
+		}
+		final var remainingUs = Math.max(0L, durationUs - outTimeUs);
+		return unit.convert(Math.round(remainingUs / speed), TimeUnit.MICROSECONDS);
+	}
+
+	@Override
+	public String toString() {
+		final var sb = new StringBuilder();
+		sb.append("frame=");
+		sb.append(frame);
+		sb.append(" fps=");
+		sb.append(fps);
+		sb.append(" bitrate=");
+		sb.append(bitrate);
+		sb.append("kbits/s size=");
+		sb.append(totalSize);
+		sb.append(" time=");
+		sb.append(getOutTime(TimeUnit.MILLISECONDS));
+		sb.append("ms dup=");
+		sb.append(dupFrames);
+		sb.append(" drop=");
+		sb.append(dropFrames);
+		sb.append(" speed=");
+		sb.append(speed);
+		sb.append("x");
+		if (durationUs > 0) {
+			sb.append(" ");
+			sb.append(Math.round(getPercent()));
+			sb.append("%");
+		}
+		if (ended) {
+			sb.append(" (end)");
+		}
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,28 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.progress;
+
+@FunctionalInterface
+public interface FFmpegProgressListener {
+
+	/**
+	 * Called on each complete progress block, from the stdout capture thread.
+	 * @param progress is always the same (reused) instance for an execution.
+	 */
+	void onProgress(FFmpegProgress progress);
+
+}
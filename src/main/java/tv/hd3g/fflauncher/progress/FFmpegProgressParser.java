@@ -0,0 +1,152 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.progress;
+
+import static java.util.Objects.requireNonNull;
+
+import tv.hd3g.fflauncher.exec.CapturedLineObserver;
+import tv.hd3g.processlauncher.LineEntry;
+
+/**
+ * Parse "-progress pipe:1" stdout key=value lines, block by block.
+ * Keys and values are read in place from the captured line, without substring or regex.
+ */
+public class FFmpegProgressParser extends CapturedLineObserver {
+
+	private final FFmpegProgressListener listener;
+	private final FFmpegProgress progress;
+
+	/**
+	 * @param durationUs expected media duration, in microseconds, for percent and ETA. Set -1 if unknown.
+	 */
+	public FFmpegProgressParser(final FFmpegProgressListener listener, final long durationUs) {
+		this.listener = requireNonNull(listener, "\"listener\" can't to be null");
+		progress = new FFmpegProgress(durationUs);
+	}
+
+	@Override
+	public void onLine(final LineEntry lineEntry) {
+		if (lineEntry.isStdErr()) {
+			return;
+		}
+		parseLine(lineEntry.getLine());
+	}
+
+	void parseLine(final String line) {
+		final var eqPos = line.indexOf('=');
+		if (eqPos < 1) {
+			return;
+		}
+		final var from = eqPos + 1;
+		final var to = line.length();
+
+		if (isKey(line, eqPos, "frame")) {
+			progress.frame = parseLong(line, from, to);
+		} else if (isKey(line, eqPos, "fps")) {
+			progress.fps = parseDouble(line, from, to);
+		} else if (isKey(line, eqPos, "bitrate")) {
+			progress.bitrate = parseDouble(line, from, to);
+		} else if (isKey(line, eqPos, "total_size")) {
+			progress.totalSize = parseLong(line, from, to);
+		} else if (isKey(line, eqPos, "out_time_us")) {
+			progress.outTimeUs = parseLong(line, from, to);
+		} else if (isKey(line, eqPos, "dup_frames")) {
+			progress.dupFrames = parseLong(line, from, to);
+		} else if (isKey(line, eqPos, "drop_frames")) {
+			progress.dropFrames = parseLong(line, from, to);
+		} else if (isKey(line, eqPos, "speed")) {
+			progress.speed = parseDouble(line, from, to);
+		} else if (isKey(line, eqPos, "progress")) {
+			progress.ended = line.startsWith("end", from);
+			listener.onProgress(progress);
+		}
+	}
+
+	private static boolean isKey(final String line, final int eqPos, final String key) {
+		return eqPos == key.length() && line.startsWith(key);
+	}
+
+	/**
+	 * @return -1 if not a number (like "N/A")
+	 */
+	static long parseLong(final String line, final int from, final int to) {
+		var pos = skipSpaces(line, from, to);
+		var negative = false;
+		if (pos < to && line.charAt(pos) == '-') {
+			negative = true;
+			pos++;
+		}
+		var result = 0L;
+		var digits = 0;
+		for (; pos < to; pos++) {
+			final var c = line.charAt(pos);
+			if (c < '0' || c > '9') {
+				break;
+			}
+			result = result * 10 + (c - '0');
+			digits++;
+		}
+		if (digits == 0 || negative) {
+			return -1;
+		}
+		return result;
+	}
+
+	/**
+	 * Ignore ends like "kbits/s" or "x"
+	 * @return -1 if not a number (like "N/A")
+	 */
+	static double parseDouble(final String line, final int from, final int to) {
+		var pos = skipSpaces(line, from, to);
+		var integerPart = 0L;
+		var fractionalPart = 0L;
+		var fractionalDivisor = 1L;
+		var digits = 0;
+		var inFraction = false;
+		for (; pos < to; pos++) {
+			final var c = line.charAt(pos);
+			if (c == '.' && inFraction == false) {
+				inFraction = true;
+				continue;
+			} else if (c < '0' || c > '9') {
+				break;
+			}
+			digits++;
+			if (inFraction) {
+				if (fractionalDivisor < 1_000_000_000L) {
+					fractionalPart = fractionalPart * 10 + (c - '0');
+					fractionalDivisor *= 10;
+				}
+			} else {
+				integerPart = integerPart * 10 + (c - '0');
+			}
+		}
+		if (digits == 0) {
+			return -1d;
+		}
+		return integerPart + (double) fractionalPart / fractionalDivisor;
+	}
+
+	private static int skipSpaces(final String line, final int from, final int to) {
+		var pos = from;
+		while (pos < to && line.charAt(pos) == ' ') {
+			pos++;
+		}
+		return pos;
+	}
+
+}
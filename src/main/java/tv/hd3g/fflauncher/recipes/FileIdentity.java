@@ -0,0 +1,128 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.recipes;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A file state: canonical path, size, last modified date and file key (like the inode, if available).
+ * Two identities are equals only if the file is supposed to be not changed. Immutable.
+ */
+public class FileIdentity {
+	private static final Logger log = LogManager.getLogger();
+
+	private final String canonicalPath;
+	private final long size;
+	private final long lastModified;
+	private final String fileKey;
+
+	FileIdentity(final String canonicalPath, final long size, final long lastModified, final String fileKey) {
+		this.canonicalPath = requireNonNull(canonicalPath, "\"canonicalPath\" can't to be null");
+		this.size = size;
+		this.lastModified = lastModified;
+		this.fileKey = requireNonNull(fileKey, "\"fileKey\" can't to be null");
+	}
+
+	/**
+	 * @throws UncheckedIOException if the file can't be read
+	 */
+	public static FileIdentity of(final File file) {
+		requireNonNull(file, "\"file\" can't to be null");
+		try {
+			final var canonical = file.getCanonicalFile().toPath();
+			final var attributes = Files.readAttributes(canonical, BasicFileAttributes.class);
+			final var key = attributes.fileKey();
+			return new FileIdentity(canonical.toString(),
+			        attributes.size(),
+			        attributes.lastModifiedTime().toMillis(),
+			        key == null ? "" : key.toString());
+		} catch (final IOException e) {
+			throw new UncheckedIOException("Can't read " + file, e);
+		}
+	}
+
+	/**
+	 * @param fallbackReason what will be done without the identity, for the logs, like "cache".
+	 * @return null if the file can't be read: ffprobe will report the error.
+	 */
+	static FileIdentity ofReadable(final File file, final String fallbackReason) {
+		try {
+			return of(file);
+		} catch (final UncheckedIOException e) {
+			log.debug("Can't get file identity for {}, ignore {}", file, fallbackReason, e);
+			return null;
+		}
+	}
+
+	public String getCanonicalPath() {
+		return canonicalPath;
+	}
+
+	public long getSize() {
+		return size;
+	}
+
+	public long getLastModified() {
+		return lastModified;
+	}
+
+	/**
+	 * @return like "(dev=803,ino=1234)", empty if not provided by the file system.
+	 */
+	public String getFileKey() {
+		return fileKey;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(canonicalPath, size, lastModified, fileKey);
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		final var other = (FileIdentity) obj;
+		return Objects.equals(canonicalPath, other.canonicalPath)
+		       && size == other.size
+		       && lastModified == other.lastModified
+		       && Objects.equals(fileKey, other.fileKey);
+	}
+
+	@Override
+	public String toString() {
+		return canonicalPath + " (" + size + " bytes, " + lastModified + ", " + fileKey + ")";
+	}
+
+}
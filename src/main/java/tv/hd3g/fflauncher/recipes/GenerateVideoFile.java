@@ -22,8 +22,13 @@ import java.awt.Point;
 import java.io.File;
 import java.io.IOException;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
 import tv.hd3g.fflauncher.FFmpeg;
+import tv.hd3g.fflauncher.exec.KillOnCancel;
 import tv.hd3g.processlauncher.cmdline.ExecutableFinder;
 import tv.hd3g.processlauncher.cmdline.Parameters;
 
@@ -104,4 +109,70 @@ public class GenerateVideoFile {
 		return ffmpeg;
 	}
 
+	/**
+	 * Stateless, non-blocking version of generateBarsAnd1k.
+	 * Cancel the returned future will kill the ffmpeg process (and delete the output file).
+	 * @param executor used to prepare and start ffmpeg, and to check its execution.
+	 */
+	public CompletableFuture<FFmpeg> generateBarsAnd1kAsync(final String destination,
+	                                                        final int duration_in_sec,
+	                                                        final Point resolution,
+	                                                        final Executor executor) {
+		return executeAsync(ffmpeg -> ffmpeg.addSimpleOutputDestination(destination),
+		        duration_in_sec, resolution, executor);
+	}
+
+	/**
+	 * Stateless, non-blocking version of generateBarsAnd1k.
+	 * Cancel the returned future will kill the ffmpeg process (and delete the output file).
+	 * @param executor used to prepare and start ffmpeg, and to check its execution.
+	 */
+	public CompletableFuture<FFmpeg> generateBarsAnd1kAsync(final File destination,
+	                                                        final int duration_in_sec,
+	                                                        final Point resolution,
+	                                                        final Executor executor) {
+		return executeAsync(ffmpeg -> ffmpeg.addSimpleOutputDestination(destination),
+		        duration_in_sec, resolution, executor);
+	}
+
+	/**
+	 * No thread waits the process during its execution: the check is done from the executor after its end.
+	 */
+	private CompletableFuture<FFmpeg> executeAsync(final Consumer<FFmpeg> setDestination,
+	                                               final int duration_in_sec,
+	                                               final Point resolution,
+	                                               final Executor executor) {
+		Objects.requireNonNull(executor, "\"executor\" can't to be null");
+		final var result = new CompletableFuture<FFmpeg>();
+		final var killOnCancel = new KillOnCancel(result);
+
+		try {
+			executor.execute(() -> {
+				if (killOnCancel.isFutureDone()) {
+					return;
+				}
+				try {
+					final var ffmpeg = internal(duration_in_sec, resolution);
+					setDestination.accept(ffmpeg);
+					ffmpeg.fixIOParametredVars(APPEND_PARAM_AT_END, APPEND_PARAM_AT_END);
+
+					final var running = ffmpeg.toExecutableTool(killOnCancel).execute(executableFinder);
+					running.getLifecyle().getProcess().onExit().whenCompleteAsync((p, e) -> {
+						try {
+							running.waitForEndAndCheckExecution();
+							result.complete(ffmpeg);
+						} catch (final RuntimeException e1) {
+							result.completeExceptionally(e1);
+						}
+					}, executor);
+				} catch (final IOException | RuntimeException e) {
+					result.completeExceptionally(e);
+				}
+			});
+		} catch (final RejectedExecutionException e) {
+			result.completeExceptionally(e);
+		}
+		return result;
+	}
+
 }
@@ -0,0 +1,175 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.recipes;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Objects.requireNonNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import tv.hd3g.fflauncher.mediainfo.KeyframeIndex;
+
+/**
+ * Persisted keyframes indexes, one small binary file by media in a directory, keyed on file identity.
+ * A change on the media file identity invalidate its indexes.
+ * Threadsafe (files are written atomically).
+ * @see ProbeMedia#setKeyframeIndexStore(KeyframeIndexStore)
+ */
+public class KeyframeIndexStore {
+	private static final Logger log = LogManager.getLogger();
+
+	static final int FILE_MAGIC = 0x4B465831;
+	private static final String EXTENSION = ".kfx";
+
+	private final Path directory;
+	private final AtomicLong hits;
+	private final AtomicLong misses;
+	private final AtomicLong invalidations;
+
+	/**
+	 * @param directory created if not exists
+	 * @throws UncheckedIOException if directory can't be created
+	 */
+	public KeyframeIndexStore(final File directory) {
+		this.directory = requireNonNull(directory, "\"directory\" can't to be null").toPath();
+		try {
+			Files.createDirectories(this.directory);
+		} catch (final IOException e) {
+			throw new UncheckedIOException("Can't create " + directory, e);
+		}
+		hits = new AtomicLong();
+		misses = new AtomicLong();
+		invalidations = new AtomicLong();
+	}
+
+	private Path getFile(final FileIdentity identity) {
+		try {
+			final var digest = MessageDigest.getInstance("SHA-256")
+			        .digest(identity.getCanonicalPath().getBytes(UTF_8));
+			final var name = new StringBuilder(digest.length * 2 + EXTENSION.length());
+			for (final var b : digest) {
+				name.append(Character.forDigit(b >> 4 & 0xF, 16));
+				name.append(Character.forDigit(b & 0xF, 16));
+			}
+			return directory.resolve(name.append(EXTENSION).toString());
+		} catch (final NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * @return empty if not stored, or if the file identity has changed (the stored file is removed).
+	 */
+	public Optional<List<KeyframeIndex>> get(final FileIdentity identity) {
+		requireNonNull(identity, "\"identity\" can't to be null");
+		final var file = getFile(identity);
+		try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			if (in.readInt() != FILE_MAGIC) {
+				throw new IOException("Invalid file magic");
+			}
+			final var stored = new FileIdentity(in.readUTF(), in.readLong(), in.readLong(), in.readUTF());
+			if (stored.equals(identity) == false) {
+				log.debug("File has changed, remove keyframe indexes for {}", identity);
+				invalidations.incrementAndGet();
+				misses.incrementAndGet();
+				Files.deleteIfExists(file);
+				return Optional.empty();
+			}
+			final var count = in.readInt();
+			final var result = new ArrayList<KeyframeIndex>(Math.max(0, count));
+			for (var pos = 0; pos < count; pos++) {
+				result.add(KeyframeIndex.read(in));
+			}
+			hits.incrementAndGet();
+			return Optional.ofNullable(List.copyOf(result));
+		} catch (final NoSuchFileException e) {
+			misses.incrementAndGet();
+			return Optional.empty();
+		} catch (final IOException | IllegalArgumentException e) {
+			log.warn("Invalid keyframe indexes file {} for {}", file, identity, e);
+			misses.incrementAndGet();
+			return Optional.empty();
+		}
+	}
+
+	public void put(final FileIdentity identity, final List<KeyframeIndex> indexes) {
+		requireNonNull(identity, "\"identity\" can't to be null");
+		requireNonNull(indexes, "\"indexes\" can't to be null");
+		final var file = getFile(identity);
+		final var temp = file.resolveSibling(file.getFileName() + "." + Thread.currentThread().getId() + ".tmp");
+		try {
+			try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+				out.writeInt(FILE_MAGIC);
+				out.writeUTF(identity.getCanonicalPath());
+				out.writeLong(identity.getSize());
+				out.writeLong(identity.getLastModified());
+				out.writeUTF(identity.getFileKey());
+				out.writeInt(indexes.size());
+				for (final var index : indexes) {
+					index.write(out);
+				}
+			}
+			Files.move(temp, file, REPLACE_EXISTING, ATOMIC_MOVE);
+		} catch (final IOException e) {
+			throw new UncheckedIOException("Can't write keyframe indexes for " + identity, e);
+		}
+	}
+
+	public void remove(final File media) {
+		try {
+			Files.deleteIfExists(getFile(FileIdentity.of(media)));
+		} catch (final IOException e) {
+			throw new UncheckedIOException("Can't remove keyframe indexes for " + media, e);
+		}
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return all get without result, including invalidations.
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	public long getInvalidations() {
+		return invalidations.get();
+	}
+
+}
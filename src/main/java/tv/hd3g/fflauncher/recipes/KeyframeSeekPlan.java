@@ -0,0 +1,171 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.recipes;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+import tv.hd3g.fflauncher.FFmpeg;
+import tv.hd3g.fflauncher.mediainfo.KeyframeIndex;
+import tv.hd3g.fflauncher.mediainfo.MediaPackets;
+
+/**
+ * Clip extraction plan from a keyframe index: the input -ss is set on the nearest preceding keyframe, so ffmpeg
+ * don't decode from the file start, and an output -ss/-t trim the decoded frames to the exact in/out.
+ * Frame accurate only if the video is encoded (not with a stream copy). Immutable.
+ */
+public class KeyframeSeekPlan {
+
+	private final BigDecimal inputSeek;
+	private final BigDecimal outputTrim;
+	private final BigDecimal duration;
+	private final int keyframe;
+	private final long keyframePosition;
+
+	private KeyframeSeekPlan(final BigDecimal inputSeek,
+	                         final BigDecimal outputTrim,
+	                         final BigDecimal duration,
+	                         final int keyframe,
+	                         final long keyframePosition) {
+		this.inputSeek = inputSeek;
+		this.outputTrim = outputTrim;
+		this.duration = duration;
+		this.keyframe = keyframe;
+		this.keyframePosition = keyframePosition;
+	}
+
+	/**
+	 * @param fileStartTime the format start time, in seconds (see MediaFormat.getStartTime), often 0
+	 * @param inSeconds relative to the file start time
+	 * @param outSeconds relative to the file start time
+	 */
+	public static KeyframeSeekPlan plan(final KeyframeIndex index,
+	                                    final double fileStartTime,
+	                                    final double inSeconds,
+	                                    final double outSeconds) {
+		requireNonNull(index, "\"index\" can't to be null");
+		if (inSeconds < 0 || outSeconds <= inSeconds) {
+			throw new IllegalArgumentException("Invalid in/out: " + inSeconds + "/" + outSeconds);
+		}
+		final var in = toMicroSeconds(inSeconds, RoundingMode.HALF_UP);
+		final var duration = toMicroSeconds(outSeconds, RoundingMode.HALF_UP).subtract(in);
+		final var keyframe = index.findPreceding(fileStartTime + inSeconds);
+		if (keyframe == -1) {
+			return new KeyframeSeekPlan(BigDecimal.ZERO.setScale(6), in, duration, -1, MediaPackets.NO_VALUE);
+		}
+
+		// Rounded up: a seek just before the keyframe time will land on the previous keyframe.
+		final var inputSeek = toMicroSeconds(Math.max(0d, index.getTime(keyframe) - fileStartTime),
+		        RoundingMode.CEILING).min(in);
+		return new KeyframeSeekPlan(inputSeek, in.subtract(inputSeek), duration, keyframe,
+		        index.getPosition(keyframe));
+	}
+
+	private static BigDecimal toMicroSeconds(final double seconds, final RoundingMode roundingMode) {
+		return BigDecimal.valueOf(seconds).setScale(6, roundingMode);
+	}
+
+	/**
+	 * @return in seconds, relative to the file start time. 0 if no seek.
+	 */
+	public double getInputSeek() {
+		return inputSeek.doubleValue();
+	}
+
+	/**
+	 * @return in seconds, the decoded duration to drop after the input seek
+	 */
+	public double getOutputTrim() {
+		return outputTrim.doubleValue();
+	}
+
+	/**
+	 * @return in seconds, out - in
+	 */
+	public double getDuration() {
+		return duration.doubleValue();
+	}
+
+	/**
+	 * @return the keyframe # in the index, -1 if in is before the first keyframe.
+	 */
+	public int getKeyframe() {
+		return keyframe;
+	}
+
+	/**
+	 * @return the keyframe byte position in the source file, or MediaPackets.NO_VALUE
+	 */
+	public long getKeyframePosition() {
+		return keyframePosition;
+	}
+
+	/**
+	 * @return like [-ss, 12.000000], empty if no seek. To set before -i.
+	 */
+	public List<String> getInputOptions() {
+		if (inputSeek.signum() == 0) {
+			return List.of();
+		}
+		return List.of("-ss", inputSeek.toPlainString());
+	}
+
+	/**
+	 * @return like [-ss, 0.480000, -t, 10.000000]. To set before the output.
+	 */
+	public List<String> getOutputOptions() {
+		final var result = new ArrayList<String>(4);
+		if (outputTrim.signum() > 0) {
+			result.add("-ss");
+			result.add(outputTrim.toPlainString());
+		}
+		result.add("-t");
+		result.add(duration.toPlainString());
+		return List.copyOf(result);
+	}
+
+	/**
+	 * Add source with the input options, and add the output options in ffmpeg internal parameters: set the
+	 * output(s) after this.
+	 */
+	public FFmpeg applyTo(final FFmpeg ffmpeg, final String source) {
+		ffmpeg.addSimpleInputSource(source, getInputOptions());
+		ffmpeg.getInternalParameters().addParameters(getOutputOptions());
+		return ffmpeg;
+	}
+
+	/**
+	 * Add source with the input options, and add the output options in ffmpeg internal parameters: set the
+	 * output(s) after this.
+	 */
+	public FFmpeg applyTo(final FFmpeg ffmpeg, final File source) {
+		ffmpeg.addSimpleInputSource(source, getInputOptions());
+		ffmpeg.getInternalParameters().addParameters(getOutputOptions());
+		return ffmpeg;
+	}
+
+	@Override
+	public String toString() {
+		return "in " + getInputOptions() + " out " + getOutputOptions();
+	}
+
+}
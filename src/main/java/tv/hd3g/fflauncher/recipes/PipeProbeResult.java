@@ -0,0 +1,163 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.recipes;
+
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import tv.hd3g.fflauncher.mediainfo.MediaInfo;
+import tv.hd3g.fflauncher.mediainfo.MediaStream;
+import tv.hd3g.processlauncher.InvalidExecution;
+
+/**
+ * Result of a ffprobe run on the first bytes of a media, sent to its stdin.
+ * It tells if the provided bytes were enough, and else, how many bytes to provide on the next try.
+ * @see ProbeMedia#doPipeAnalysing(java.nio.channels.ReadableByteChannel, long)
+ */
+public class PipeProbeResult {
+
+	/**
+	 * 1 MiB
+	 */
+	public static final long MIN_NEXT_REQUEST_INCREMENT = 1L << 20;
+
+	private final MediaInfo mediaInfo;
+	private final InvalidExecution error;
+	private final long providedBytes;
+	private final long totalSize;
+	private final boolean sourceEndReached;
+	private final boolean enough;
+
+	/**
+	 * @param mediaInfo null if ffprobe has failed
+	 * @param error null if ffprobe has not failed
+	 * @param totalSize -1 if unknown
+	 */
+	PipeProbeResult(final MediaInfo mediaInfo,
+	                final InvalidExecution error,
+	                final long providedBytes,
+	                final long totalSize,
+	                final boolean sourceEndReached) {
+		this.mediaInfo = mediaInfo;
+		this.error = error;
+		this.providedBytes = providedBytes;
+		this.totalSize = totalSize;
+		this.sourceEndReached = sourceEndReached;
+		if (mediaInfo == null) {
+			enough = false;
+		} else {
+			enough = sourceEndReached == false
+			         || isComplete()
+			         || mediaInfo.getStreams().isEmpty() == false
+			            && mediaInfo.getStreams().stream().allMatch(PipeProbeResult::hasCodecParameters);
+		}
+	}
+
+	private static boolean hasCodecParameters(final MediaStream stream) {
+		if (stream.isVideo()) {
+			return stream.getWidth() > 0 && stream.getHeight() > 0;
+		} else if (stream.isAudio()) {
+			return stream.getSampleRate() > 0 && stream.getChannels() > 0;
+		}
+		return stream.getCodecName().isPresent();
+	}
+
+	/**
+	 * @return empty if ffprobe has failed. Partial if the full media was not provided.
+	 */
+	public Optional<MediaInfo> getMediaInfo() {
+		return Optional.ofNullable(mediaInfo);
+	}
+
+	/**
+	 * @return the ffprobe error, if the provided bytes were not enough for it.
+	 */
+	public Optional<InvalidExecution> getError() {
+		return Optional.ofNullable(error);
+	}
+
+	/**
+	 * @return true if ffprobe has found all the streams and their codec parameters before the end of the
+	 *         provided bytes (or, with all the media bytes).
+	 */
+	public boolean isEnough() {
+		return enough;
+	}
+
+	/**
+	 * @return bytes written to ffprobe stdin, some of them may still be in the OS pipe buffer
+	 */
+	public long getProvidedBytes() {
+		return providedBytes;
+	}
+
+	/**
+	 * @return true if ffprobe has read all the provided bytes
+	 */
+	public boolean isSourceEndReached() {
+		return sourceEndReached;
+	}
+
+	/**
+	 * @return true if all the media bytes were provided
+	 */
+	public boolean isComplete() {
+		return totalSize > -1 && providedBytes >= totalSize;
+	}
+
+	/**
+	 * @return empty if enough, else the bytes count to provide on the next try: the double of the provided
+	 *         bytes (1 MiB more at least), up to the total size if known. It's a hint: only ffprobe can tell.
+	 */
+	public OptionalLong getNextRequestSize() {
+		if (enough || isComplete()) {
+			return OptionalLong.empty();
+		}
+		final var next = providedBytes + Math.max(providedBytes, MIN_NEXT_REQUEST_INCREMENT);
+		if (totalSize > -1) {
+			return OptionalLong.of(Math.min(next, totalSize));
+		}
+		return OptionalLong.of(next);
+	}
+
+	/**
+	 * @return empty if enough, else the bytes to add to the provided bytes for the next try.
+	 */
+	public OptionalLong getMissingBytes() {
+		final var next = getNextRequestSize();
+		if (next.isEmpty()) {
+			return OptionalLong.empty();
+		}
+		return OptionalLong.of(next.getAsLong() - providedBytes);
+	}
+
+	@Override
+	public String toString() {
+		final var sb = new StringBuilder();
+		sb.append(enough ? "enough" : "not enough");
+		sb.append(" with ");
+		sb.append(providedBytes);
+		sb.append(" bytes");
+		if (totalSize > -1) {
+			sb.append("/");
+			sb.append(totalSize);
+		}
+		getNextRequestSize().ifPresent(next -> sb.append(", next try with " + next + " bytes"));
+		return sb.toString();
+	}
+
+}
@@ -19,8 +19,29 @@ package tv.hd3g.fflauncher.recipes;
 import static tv.hd3g.fflauncher.ConversionTool.APPEND_PARAM_AT_END;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -28,17 +49,40 @@ import org.apache.logging.log4j.Logger;
 import tv.hd3g.fflauncher.FFprobe;
 import tv.hd3g.fflauncher.FFprobe.FFPrintFormat;
 import tv.hd3g.fflauncher.enums.FFLogLevel;
+import tv.hd3g.fflauncher.exec.CaptureStdOutBytes;
+import tv.hd3g.fflauncher.exec.KillOnCancel;
+import tv.hd3g.fflauncher.exec.StdInFeeder;
+import tv.hd3g.fflauncher.mediainfo.KeyframeIndex;
+import tv.hd3g.fflauncher.mediainfo.MediaHeaderReader;
+import tv.hd3g.fflauncher.mediainfo.MediaInfo;
+import tv.hd3g.fflauncher.mediainfo.MediaPackets;
+import tv.hd3g.fflauncher.mediainfo.MediaPacketsParser;
 import tv.hd3g.ffprobejaxb.FFprobeJAXB;
+import tv.hd3g.processlauncher.ExecutionCallbacker;
+import tv.hd3g.processlauncher.InvalidExecution;
+import tv.hd3g.processlauncher.ProcesslauncherLifecycle;
 import tv.hd3g.processlauncher.cmdline.ExecutableFinder;
 import tv.hd3g.processlauncher.cmdline.Parameters;
 
 public class ProbeMedia {
 
 	private static Logger log = LogManager.getLogger();
+	/**
+	 * Max retained stderr lines on error.
+	 */
+	private static final int STDERR_TAIL_LINES = 50;
+	private static final String PIPE_STDIN = "pipe:0";
 
 	private final String execName;
 	private final ExecutableFinder executableFinder;
 	private final ScheduledExecutorService maxExecTimeScheduler;
+	private volatile ThreadFactory captureThreadFactory;
+	private volatile ProbeMediaCache cache;
+	private volatile KeyframeIndexStore keyframeIndexStore;
+	private volatile List<MediaHeaderReader> headerReaders;
+	private final LongAdder headerReadersHits;
+	private final LongAdder headerReadersFallbacks;
+	private final ConcurrentHashMap<String, CompletableFuture<FFprobeJAXB>> batchInFlight;
 
 	public ProbeMedia(final ExecutableFinder executableFinder, final ScheduledExecutorService maxExecTimeScheduler) {
 		this("ffprobe", executableFinder, maxExecTimeScheduler);
@@ -49,52 +93,732 @@ public class ProbeMedia {
 		this.execName = Objects.requireNonNull(execName);
 		this.executableFinder = Objects.requireNonNull(executableFinder);
 		this.maxExecTimeScheduler = Objects.requireNonNull(maxExecTimeScheduler);
+		batchInFlight = new ConcurrentHashMap<>();
+		headerReaders = MediaHeaderReader.getInstalled();
+		headerReadersHits = new LongAdder();
+		headerReadersFallbacks = new LongAdder();
+	}
+
+	/**
+	 * ThreadFactory used to create the stdout/stderr capture threads (and the stdin feeder thread on pipe probes)
+	 * of each ffprobe run. Each thread blocks until the end of its process stream.
+	 * On a recent JVM, a virtual thread factory let start many concurrent probes without reserve a platform
+	 * thread per stream.
+	 * @param captureThreadFactory set null for a new daemon thread per stream (default).
+	 */
+	public ProbeMedia setCaptureThreadFactory(final ThreadFactory captureThreadFactory) {
+		this.captureThreadFactory = captureThreadFactory;
+		return this;
+	}
+
+	/**
+	 * @param cache set null for no cache (default). Only used with File sources.
+	 */
+	public ProbeMedia setCache(final ProbeMediaCache cache) {
+		this.cache = cache;
+		return this;
+	}
+
+	/**
+	 * @return null if not set
+	 */
+	public ProbeMediaCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * @param keyframeIndexStore set null for no persistence (default). Used by doKeyframesAnalysing.
+	 */
+	public ProbeMedia setKeyframeIndexStore(final KeyframeIndexStore keyframeIndexStore) {
+		this.keyframeIndexStore = keyframeIndexStore;
+		return this;
+	}
+
+	/**
+	 * @return null if not set
+	 */
+	public KeyframeIndexStore getKeyframeIndexStore() {
+		return keyframeIndexStore;
 	}
 
 	private FFprobe internal() {
+		return internal(FFPrintFormat.XML);
+	}
+
+	private FFprobe internal(final FFPrintFormat printFormat) {
+		return internal(printFormat, ProbePreset.ALL);
+	}
+
+	private FFprobe internal(final FFPrintFormat printFormat, final ProbePreset preset) {
 		final var parameters = new Parameters();
 		final var ffprobe = new FFprobe(execName, parameters);
 
-		ffprobe.setPrintFormat(FFPrintFormat.XML).setShowStreams().setShowFormat().setShowChapters().isHidebanner();
+		ffprobe.setPrintFormat(printFormat).isHidebanner();
+		preset.applyTo(ffprobe);
 		ffprobe.setMaxExecTimeScheduler(maxExecTimeScheduler);
 		ffprobe.setLogLevel(FFLogLevel.ERROR, false, false);
-		ffprobe.setFilterForLinesEventsToDisplay(l -> (l.isStdErr() && ffprobe.filterOutErrorLines().test(l
-		        .getLine())));
+		return ffprobe;
+	}
 
+	private FFprobe internalPackets(final boolean frames, final String selectStreams) {
+		final var parameters = new Parameters();
+		final var ffprobe = new FFprobe(execName, parameters);
+
+		ffprobe.setPrintFormat(FFPrintFormat.COMPACT).setHidebanner();
+		if (frames) {
+			ffprobe.setShowFrames().setShowEntries(MediaPacketsParser.FRAMES_ENTRIES);
+		} else {
+			ffprobe.setShowPackets().setShowEntries(MediaPacketsParser.PACKETS_ENTRIES);
+		}
+		if (selectStreams != null) {
+			ffprobe.setSelectStreams(selectStreams);
+		}
+		ffprobe.setMaxExecTimeScheduler(maxExecTimeScheduler);
+		ffprobe.setLogLevel(FFLogLevel.ERROR, false, false);
 		return ffprobe;
 	}
 
-	private FFprobeJAXB execute(final FFprobe ffprobe) {
-		final var rtFFprobe = ffprobe.execute(executableFinder);
-		final var textRetention = rtFFprobe.checkExecutionGetText();
-		final var stdOut = textRetention.getStdout(false, System.lineSeparator());
-		return new FFprobeJAXB(stdOut, warn -> log.warn(warn));
+	private ThreadFactory getCaptureThreadFactory() {
+		if (captureThreadFactory == null) {
+			return CaptureStdOutBytes.DAEMON_THREAD_FACTORY;
+		}
+		return captureThreadFactory;
+	}
+
+	/**
+	 * Stdout bytes are captured in one buffer (no lines list), and decoded once for the XML/JSON parser.
+	 * Only the last stderr lines are kept.
+	 */
+	private CaptureStdOutBytes createCapture(final FFprobe ffprobe) {
+		final var errorLinesFilter = ffprobe.filterOutErrorLines();
+		return new CaptureStdOutBytes(STDERR_TAIL_LINES, line -> {
+			if (errorLinesFilter.test(line)) {
+				log.warn("{}: {}", execName, line);
+			}
+		}, getCaptureThreadFactory());
+	}
+
+	private ProcesslauncherLifecycle start(final FFprobe ffprobe,
+	                                       final CaptureStdOutBytes capture,
+	                                       final ExecutionCallbacker... executionCallbackers) {
+		final var processBuilder = ffprobe.prepareProcesslauncherBuilder(executableFinder);
+		processBuilder.setCaptureStandardOutput(capture);
+		for (final var executionCallbacker : executionCallbackers) {
+			processBuilder.addExecutionCallbacker(executionCallbacker);
+		}
+		try {
+			return processBuilder.start();
+		} catch (final IOException e) {
+			throw new UncheckedIOException("Can't start " + execName, e);
+		}
+	}
+
+	private <T> T execute(final FFprobe ffprobe, final Function<String, T> parser) {
+		final var capture = createCapture(ffprobe);
+		return parser.apply(getStdOut(start(ffprobe, capture), capture));
+	}
+
+	/**
+	 * The process is started from the executor, and the result is parsed from the executor after the process
+	 * end: no thread waits the process during its execution.
+	 */
+	private <T> CompletableFuture<T> executeAsync(final FFprobe ffprobe,
+	                                              final Function<String, T> parser,
+	                                              final Executor executor) {
+		Objects.requireNonNull(executor, "\"executor\" can't to be null");
+		final var result = new CompletableFuture<T>();
+		final var killOnCancel = new KillOnCancel(result);
+
+		try {
+			executor.execute(() -> {
+				if (killOnCancel.isFutureDone()) {
+					return;
+				}
+				try {
+					final var capture = createCapture(ffprobe);
+					final var lifecycle = start(ffprobe, capture, killOnCancel);
+					lifecycle.getProcess().onExit().whenCompleteAsync((p, e) -> {
+						try {
+							result.complete(parser.apply(getStdOut(lifecycle, capture)));
+						} catch (final RuntimeException e1) {
+							result.completeExceptionally(e1);
+						}
+					}, executor);
+				} catch (final RuntimeException e) {
+					result.completeExceptionally(e);
+				}
+			});
+		} catch (final RejectedExecutionException e) {
+			result.completeExceptionally(e);
+		}
+		return result;
+	}
+
+	private String getStdOut(final ProcesslauncherLifecycle lifecycle, final CaptureStdOutBytes capture) {
+		lifecycle.waitForEnd();
+		capture.waitForCaptureEnd();
+		try {
+			lifecycle.checkExecution();
+		} catch (final InvalidExecution e) {
+			throw e.injectStdErr(String.join(System.lineSeparator(), capture.getStdErrTail()));
+		}
+		log.trace("Parse {} bytes from {}", capture.getStdOutSize(), execName);
+		return capture.getStdOut();
+	}
+
+	/**
+	 * @param lookup the result will be put in its cache, if any.
+	 */
+	private static Function<String, FFprobeJAXB> xmlParser(final ProbeMediaCache.Lookup lookup) {
+		return xml -> {
+			final var result = new FFprobeJAXB(xml, warn -> log.warn(warn));
+			lookup.put(xml, result);
+			return result;
+		};
+	}
+
+	private ProbeMediaCache.Lookup lookup(final File source) {
+		final var currentCache = cache;
+		if (currentCache == null) {
+			return ProbeMediaCache.Lookup.NONE;
+		}
+		return currentCache.lookup(source);
 	}
 
 	/**
 	 * Stateless
 	 * Get streams, format and chapters.
-	 * Can throw an InvalidExecution in CompletableFuture, with stderr embedded.
+	 * Can throw an InvalidExecution, with the last stderr lines embedded.
 	 * @see FFprobe to get cool FfprobeType parsers
 	 */
 	public FFprobeJAXB doAnalysing(final String source) {
 		final var ffprobe = internal();
 		ffprobe.addSimpleInputSource(source);
 		ffprobe.fixIOParametredVars(APPEND_PARAM_AT_END, APPEND_PARAM_AT_END);
-		return execute(ffprobe);
+		return execute(ffprobe, xmlParser(ProbeMediaCache.Lookup.NONE));
 	}
 
 	/**
 	 * Stateless
 	 * Get streams, format and chapters.
-	 * Can throw an InvalidExecution in CompletableFuture, with stderr embedded.
+	 * Can throw an InvalidExecution, with the last stderr lines embedded.
+	 * If a cache is set, ffprobe is not run for an unchanged file.
 	 * @see FFprobe to get cool FfprobeType parsers
 	 */
 	public FFprobeJAXB doAnalysing(final File source) {
+		final var lookup = lookup(source);
+		if (lookup.getHit().isPresent()) {
+			return lookup.getHit().get();
+		}
+		final var ffprobe = internal();
+		ffprobe.addSimpleInputSource(source);
+		ffprobe.fixIOParametredVars(APPEND_PARAM_AT_END, APPEND_PARAM_AT_END);
+		return execute(ffprobe, xmlParser(lookup));
+	}
+
+	/**
+	 * Stateless, non-blocking version of doAnalysing.
+	 * Cancel the returned future will kill the ffprobe process.
+	 * @param executor used to start ffprobe and to parse its result.
+	 * @return completed exceptionally with an InvalidExecution if ffprobe fails.
+	 */
+	public CompletableFuture<FFprobeJAXB> doAnalysingAsync(final String source, final Executor executor) {
 		final var ffprobe = internal();
 		ffprobe.addSimpleInputSource(source);
 		ffprobe.fixIOParametredVars(APPEND_PARAM_AT_END, APPEND_PARAM_AT_END);
-		return execute(ffprobe);
+		return executeAsync(ffprobe, xmlParser(ProbeMediaCache.Lookup.NONE), executor);
+	}
+
+	/**
+	 * Stateless, non-blocking version of doAnalysing.
+	 * Cancel the returned future will kill the ffprobe process.
+	 * @param executor used to start ffprobe and to parse its result.
+	 * @return completed exceptionally with an InvalidExecution if ffprobe fails. Already completed on a cache hit.
+	 */
+	public CompletableFuture<FFprobeJAXB> doAnalysingAsync(final File source, final Executor executor) {
+		final var lookup = lookup(source);
+		if (lookup.getHit().isPresent()) {
+			return CompletableFuture.completedFuture(lookup.getHit().get());
+		}
+		final var ffprobe = internal();
+		ffprobe.addSimpleInputSource(source);
+		ffprobe.fixIOParametredVars(APPEND_PARAM_AT_END, APPEND_PARAM_AT_END);
+		return executeAsync(ffprobe, xmlParser(lookup), executor);
+	}
+
+	/**
+	 * Stateless
+	 * Get streams, format and chapters, with ffprobe JSON output and without JAXB.
+	 * Can throw an InvalidExecution, with the last stderr lines embedded. The cache is not used here.
+	 */
+	public MediaInfo doAnalysingMediaInfo(final String source) {
+		return doAnalysingMediaInfo(source, ProbeMode.full());
+	}
+
+	/**
+	 * Stateless
+	 * Get streams, format and chapters, with ffprobe JSON output and without JAXB.
+	 * Can throw an InvalidExecution, with the last stderr lines embedded. The cache is not used here.
+	 */
+	public MediaInfo doAnalysingMediaInfo(final File source) {
+		return doAnalysingMediaInfo(source, ProbeMode.full());
+	}
+
+	/**
+	 * Stateless
+	 * @param mode how much ffprobe will read. A partial mode produce a partial MediaInfo.
+	 */
+	public MediaInfo doAnalysingMediaInfo(final String source, final ProbeMode mode) {
+		return doAnalysingMediaInfo(source, ProbePreset.ALL, mode);
+	}
+
+	/**
+	 * Stateless
+	 * @param preset what ffprobe will show. Only the requested values will be set on the MediaInfo.
+	 */
+	public MediaInfo doAnalysingMediaInfo(final String source, final ProbePreset preset) {
+		return doAnalysingMediaInfo(source, preset, ProbeMode.full());
+	}
+
+	/**
+	 * Stateless
+	 * @param preset what ffprobe will show. Only the requested values will be set on the MediaInfo.
+	 * @param mode how much ffprobe will read. A partial mode produce a partial MediaInfo.
+	 */
+	public MediaInfo doAnalysingMediaInfo(final String source, final ProbePreset preset, final ProbeMode mode) {
+		final var ffprobe = internalMediaInfo(preset, mode);
+		ffprobe.addSimpleInputSource(source);
+		ffprobe.fixIOParametredVars(APPEND_PARAM_AT_END, APPEND_PARAM_AT_END);
+		return execute(ffprobe, jsonParser(mode));
+	}
+
+	/**
+	 * Stateless
+	 * @param mode how much ffprobe will read. A partial mode produce a partial MediaInfo.
+	 */
+	public MediaInfo doAnalysingMediaInfo(final File source, final ProbeMode mode) {
+		return doAnalysingMediaInfo(source, ProbePreset.ALL, mode);
+	}
+
+	/**
+	 * Stateless
+	 * @param preset what ffprobe will show. Only the requested values will be set on the MediaInfo.
+	 */
+	public MediaInfo doAnalysingMediaInfo(final File source, final ProbePreset preset) {
+		return doAnalysingMediaInfo(source, preset, ProbeMode.full());
+	}
+
+	/**
+	 * Stateless
+	 * @param preset what ffprobe will show. Only the requested values will be set on the MediaInfo.
+	 * @param mode how much ffprobe will read. A partial mode produce a partial MediaInfo.
+	 */
+	public MediaInfo doAnalysingMediaInfo(final File source, final ProbePreset preset, final ProbeMode mode) {
+		final var ffprobe = internalMediaInfo(preset, mode);
+		ffprobe.addSimpleInputSource(source);
+		ffprobe.fixIOParametredVars(APPEND_PARAM_AT_END, APPEND_PARAM_AT_END);
+		return execute(ffprobe, jsonParser(mode));
+	}
+
+	/**
+	 * Stateless, non-blocking version of doAnalysingMediaInfo.
+	 * Cancel the returned future will kill the ffprobe process.
+	 * @param executor used to start ffprobe and to parse its result.
+	 */
+	public CompletableFuture<MediaInfo> doAnalysingMediaInfoAsync(final String source, final Executor executor) {
+		return doAnalysingMediaInfoAsync(source, ProbeMode.full(), executor);
+	}
+
+	/**
+	 * Stateless, non-blocking version of doAnalysingMediaInfo.
+	 * Cancel the returned future will kill the ffprobe process.
+	 * @param executor used to start ffprobe and to parse its result.
+	 */
+	public CompletableFuture<MediaInfo> doAnalysingMediaInfoAsync(final File source, final Executor executor) {
+		return doAnalysingMediaInfoAsync(source, ProbeMode.full(), executor);
+	}
+
+	/**
+	 * Stateless, non-blocking version of doAnalysingMediaInfo.
+	 * @param executor used to start ffprobe and to parse its result.
+	 */
+	public CompletableFuture<MediaInfo> doAnalysingMediaInfoAsync(final String source,
+	                                                              final ProbeMode mode,
+	                                                              final Executor executor) {
+		return doAnalysingMediaInfoAsync(source, ProbePreset.ALL, mode, executor);
+	}
+
+	/**
+	 * Stateless, non-blocking version of doAnalysingMediaInfo.
+	 * @param executor used to start ffprobe and to parse its result.
+	 */
+	public CompletableFuture<MediaInfo> doAnalysingMediaInfoAsync(final String source,
+	                                                              final ProbePreset preset,
+	                                                              final ProbeMode mode,
+	                                                              final Executor executor) {
+		final var ffprobe = internalMediaInfo(preset, mode);
+		ffprobe.addSimpleInputSource(source);
+		ffprobe.fixIOParametredVars(APPEND_PARAM_AT_END, APPEND_PARAM_AT_END);
+		return executeAsync(ffprobe, jsonParser(mode), executor);
+	}
+
+	/**
+	 * Stateless, non-blocking version of doAnalysingMediaInfo.
+	 * @param executor used to start ffprobe and to parse its result.
+	 */
+	public CompletableFuture<MediaInfo> doAnalysingMediaInfoAsync(final File source,
+	                                                              final ProbeMode mode,
+	                                                              final Executor executor) {
+		return doAnalysingMediaInfoAsync(source, ProbePreset.ALL, mode, executor);
+	}
+
+	/**
+	 * Stateless, non-blocking version of doAnalysingMediaInfo.
+	 * @param executor used to start ffprobe and to parse its result.
+	 */
+	public CompletableFuture<MediaInfo> doAnalysingMediaInfoAsync(final File source,
+	                                                              final ProbePreset preset,
+	                                                              final ProbeMode mode,
+	                                                              final Executor executor) {
+		final var ffprobe = internalMediaInfo(preset, mode);
+		ffprobe.addSimpleInputSource(source);
+		ffprobe.fixIOParametredVars(APPEND_PARAM_AT_END, APPEND_PARAM_AT_END);
+		return executeAsync(ffprobe, jsonParser(mode), executor);
+	}
+
+	/**
+	 * @param headerReaders used by doFastAnalysingMediaInfo, in this order. Set an empty list to always use
+	 *        ffprobe. By default, the ServiceLoader declared readers.
+	 */
+	public ProbeMedia setHeaderReaders(final List<MediaHeaderReader> headerReaders) {
+		this.headerReaders = List.copyOf(headerReaders);
+		return this;
+	}
+
+	public List<MediaHeaderReader> getHeaderReaders() {
+		return headerReaders;
+	}
+
+	/**
+	 * @return doFastAnalysingMediaInfo count of results provided by a header reader
+	 */
+	public long getHeaderReadersHits() {
+		return headerReadersHits.sum();
+	}
+
+	/**
+	 * @return doFastAnalysingMediaInfo count of ffprobe executions
+	 */
+	public long getHeaderReadersFallbacks() {
+		return headerReadersFallbacks.sum();
+	}
+
+	/**
+	 * Try to read the file headers in Java, with the header readers, without starting ffprobe. If no reader can
+	 * answer with certitude, ffprobe is used, like doAnalysingMediaInfo(File).
+	 * A header reader result only contains the values it's sure about: check MediaHeaderReader implementations.
+	 */
+	public MediaInfo doFastAnalysingMediaInfo(final File source) {
+		Objects.requireNonNull(source, "\"source\" can't to be null");
+		final var readers = headerReaders;
+		if (readers.isEmpty() == false && source.isFile()) {
+			try (var channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+				for (final var reader : readers) {
+					final var result = reader.read(channel, source.getPath());
+					if (result.isPresent()) {
+						log.trace("Read {} with {}", source, reader.getName());
+						headerReadersHits.increment();
+						return result.get();
+					}
+				}
+			} catch (final IOException e) {
+				log.warn("Can't read {} headers, fall back to {}", source, execName, e);
+			}
+		}
+		headerReadersFallbacks.increment();
+		return doAnalysingMediaInfo(source);
+	}
+
+	private FFprobe internalMediaInfo(final ProbePreset preset, final ProbeMode mode) {
+		Objects.requireNonNull(preset, "\"preset\" can't to be null");
+		Objects.requireNonNull(mode, "\"mode\" can't to be null");
+		final var ffprobe = internal(FFPrintFormat.JSON, preset);
+		mode.applyTo(ffprobe);
+		return ffprobe;
+	}
+
+	private static Function<String, MediaInfo> jsonParser(final ProbeMode mode) {
+		final var partial = mode.isPartial();
+		return json -> MediaInfo.parseJson(json, partial);
+	}
+
+	/**
+	 * Stateless
+	 * Get all packets (-show_packets) or all frames (-show_frames, this will decode all the media), streamed
+	 * and parsed to primitive columns during the ffprobe execution: no XML/JSON document, no object by packet.
+	 * Can throw an InvalidExecution, with the last stderr lines embedded.
+	 * @param selectStreams like "v:0", for -select_streams. Can be null (all streams).
+	 */
+	public MediaPackets doPacketsAnalysing(final String source, final boolean frames, final String selectStreams) {
+		final var ffprobe = internalPackets(frames, selectStreams);
+		ffprobe.addSimpleInputSource(source);
+		ffprobe.fixIOParametredVars(APPEND_PARAM_AT_END, APPEND_PARAM_AT_END);
+		return executePackets(ffprobe, frames);
+	}
+
+	/**
+	 * Stateless
+	 * Get all packets (-show_packets) or all frames (-show_frames, this will decode all the media), streamed
+	 * and parsed to primitive columns during the ffprobe execution: no XML/JSON document, no object by packet.
+	 * Can throw an InvalidExecution, with the last stderr lines embedded.
+	 * @param selectStreams like "v:0", for -select_streams. Can be null (all streams).
+	 */
+	public MediaPackets doPacketsAnalysing(final File source, final boolean frames, final String selectStreams) {
+		final var ffprobe = internalPackets(frames, selectStreams);
+		ffprobe.addSimpleInputSource(source);
+		ffprobe.fixIOParametredVars(APPEND_PARAM_AT_END, APPEND_PARAM_AT_END);
+		return executePackets(ffprobe, frames);
+	}
+
+	/**
+	 * Get the keyframes of all video streams. If a KeyframeIndexStore is set, ffprobe is not run for an
+	 * unchanged file.
+	 * Can throw an InvalidExecution, with the last stderr lines embedded.
+	 * @param fromFrames false: read key flags from packets, without decoding (fast).
+	 *        true: decode only the keyframes (-skip_frame nokey), if the packets flags are not reliable.
+	 * @see KeyframeSeekPlan
+	 */
+	public List<KeyframeIndex> doKeyframesAnalysing(final File source, final boolean fromFrames) {
+		final var store = keyframeIndexStore;
+		final var identity = store != null ? FileIdentity.ofReadable(source, "keyframe indexes") : null;
+		if (identity != null) {
+			final var stored = store.get(identity);
+			if (stored.isPresent()) {
+				return stored.get();
+			}
+		}
+
+		final var ffprobe = internalPackets(fromFrames, "v");
+		if (fromFrames) {
+			ffprobe.addSimpleInputSource(source, "-skip_frame", "nokey");
+		} else {
+			ffprobe.addSimpleInputSource(source);
+		}
+		ffprobe.fixIOParametredVars(APPEND_PARAM_AT_END, APPEND_PARAM_AT_END);
+		final var packets = executePackets(ffprobe, fromFrames, true);
+		final var result = packets.getStreamIndexes().stream()
+		        .map(streamIndex -> KeyframeIndex.from(packets, streamIndex))
+		        .collect(Collectors.toUnmodifiableList());
+
+		if (identity != null) {
+			store.put(identity, result);
+		}
+		return result;
+	}
+
+	private MediaPackets executePackets(final FFprobe ffprobe, final boolean frames) {
+		return executePackets(ffprobe, frames, false);
+	}
+
+	private MediaPackets executePackets(final FFprobe ffprobe, final boolean frames, final boolean keysOnly) {
+		final var parser = new MediaPacketsParser(frames, keysOnly);
+		final var capture = createCapture(ffprobe).setStdOutSink(parser);
+		getStdOut(start(ffprobe, capture), capture);
+		return parser.getResult();
+	}
+
+	/**
+	 * Stateless
+	 * Run ffprobe on the first bytes of a media (like a partial download), sent to its stdin (pipe:0), without
+	 * temp file. The source is read only when ffprobe is ready to get more bytes, and not after ffprobe has
+	 * found what it needs. The capture thread factory will create a third thread, for the stdin feeding.
+	 * @param source the first bytes of the media, until its end. Not closed here.
+	 * @param totalSize the full media size, or -1 if unknown
+	 * @return the MediaInfo, if the provided bytes are enough, else how many bytes to provide on the next try.
+	 * @throws InvalidExecution if ffprobe fails before reading all the provided bytes (invalid media).
+	 */
+	public PipeProbeResult doPipeAnalysing(final ReadableByteChannel source, final long totalSize) {
+		return doPipeAnalysing(source, totalSize, ProbePreset.ALL);
+	}
+
+	/**
+	 * Stateless
+	 * Run ffprobe on a media bytes slice, like doPipeAnalysing(ReadableByteChannel, long).
+	 * @param source from its position to its limit. Its position is not changed.
+	 * @param totalSize the full media size, or -1 if unknown
+	 */
+	public PipeProbeResult doPipeAnalysing(final ByteBuffer source, final long totalSize) {
+		Objects.requireNonNull(source, "\"source\" can't to be null");
+		final var slice = source.duplicate();
+		return doPipeAnalysing(new ReadableByteChannel() {
+
+			private boolean open = true;
+
+			@Override
+			public boolean isOpen() {
+				return open;
+			}
+
+			@Override
+			public void close() {
+				open = false;
+			}
+
+			@Override
+			public int read(final ByteBuffer dst) {
+				if (slice.hasRemaining() == false) {
+					return -1;
+				}
+				final var size = Math.min(dst.remaining(), slice.remaining());
+				final var chunk = slice.duplicate();
+				chunk.limit(chunk.position() + size);
+				dst.put(chunk);
+				slice.position(slice.position() + size);
+				return size;
+			}
+		}, totalSize, ProbePreset.ALL);
+	}
+
+	/**
+	 * Stateless
+	 * Run ffprobe on the first bytes of a media, like doPipeAnalysing(ReadableByteChannel, long).
+	 * @param preset what ffprobe will show.
+	 */
+	public PipeProbeResult doPipeAnalysing(final ReadableByteChannel source,
+	                                       final long totalSize,
+	                                       final ProbePreset preset) {
+		Objects.requireNonNull(source, "\"source\" can't to be null");
+		final var ffprobe = internalMediaInfo(preset, ProbeMode.full());
+		ffprobe.addSimpleInputSource(PIPE_STDIN);
+		ffprobe.fixIOParametredVars(APPEND_PARAM_AT_END, APPEND_PARAM_AT_END);
+
+		final var capture = createCapture(ffprobe);
+		final var lifecycle = start(ffprobe, capture);
+		final var feeder = new StdInFeeder(source)
+		        .start(lifecycle.getProcess().getOutputStream(), getCaptureThreadFactory());
+
+		String stdOut;
+		try {
+			stdOut = getStdOut(lifecycle, capture);
+		} catch (final InvalidExecution e) {
+			feeder.waitForEnd();
+			if (feeder.isSourceEndReached() == false
+			    || totalSize > -1 && feeder.getWrittenBytes() >= totalSize) {
+				throw e;
+			}
+			log.debug("ffprobe needs more than {} bytes", feeder.getWrittenBytes(), e);
+			return new PipeProbeResult(null, e, feeder.getWrittenBytes(), totalSize, true);
+		}
+		feeder.waitForEnd();
+		final var complete = totalSize > -1 && feeder.getWrittenBytes() >= totalSize;
+		return new PipeProbeResult(MediaInfo.parseJson(stdOut, complete == false),
+		        null, feeder.getWrittenBytes(), totalSize, feeder.isSourceEndReached());
+	}
+
+	/**
+	 * Analyse all sources, with never more than parallelism ffprobe processes at the same time for this batch.
+	 * A failed analysing don't stop the batch, its error is set on its result.
+	 * The same sources, in this batch or in all the concurrent batches of this instance, are analysed only once
+	 * at the same time.
+	 * @param executor used to start ffprobe and to parse its results, see doAnalysingAsync.
+	 * @return a stream of sources.size() results, in completion order. Reading it blocks until the next end.
+	 */
+	public Stream<ProbeMediaResult> doAnalysingAll(final Collection<String> sources,
+	                                               final int parallelism,
+	                                               final Executor executor) {
+		Objects.requireNonNull(sources, "\"sources\" can't to be null");
+		return analysingAll(sources, parallelism, executor, source -> doAnalysingAsync(source, executor));
+	}
+
+	/**
+	 * Analyse all files, like doAnalysingAll. Same files are checked on their absolute path.
+	 * @return a stream of sources.size() results, in completion order. Reading it blocks until the next end.
+	 */
+	public Stream<ProbeMediaResult> doAnalysingAllFiles(final Collection<File> sources,
+	                                                    final int parallelism,
+	                                                    final Executor executor) {
+		Objects.requireNonNull(sources, "\"sources\" can't to be null");
+		return analysingAll(sources.stream()
+		        .map(File::getAbsolutePath)
+		        .collect(Collectors.toUnmodifiableList()),
+		        parallelism, executor, source -> doAnalysingAsync(new File(source), executor));
+	}
+
+	private Stream<ProbeMediaResult> analysingAll(final Collection<String> sources,
+	                                              final int parallelism,
+	                                              final Executor executor,
+	                                              final Function<String, CompletableFuture<FFprobeJAXB>> starter) {
+		Objects.requireNonNull(executor, "\"executor\" can't to be null");
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Invalid parallelism: " + parallelism);
+		}
+		final var pending = new ConcurrentLinkedQueue<>(sources);
+		final var count = pending.size();
+		final var results = new LinkedBlockingQueue<ProbeMediaResult>();
+
+		final var batch = new Runnable() {
+
+			@Override
+			public void run() {
+				String source;
+				while ((source = pending.poll()) != null) {
+					final var started = new CompletableFuture<FFprobeJAXB>();
+					final var current = batchInFlight.putIfAbsent(source, started);
+					final var publish = publisher(source);
+					if (current != null) {
+						current.whenComplete(publish);
+						continue;
+					}
+					final var finalSource = source;
+					startSafely(finalSource, starter).whenCompleteAsync((result, error) -> {
+						batchInFlight.remove(finalSource, started);
+						if (error != null) {
+							started.completeExceptionally(error);
+						} else {
+							started.complete(result);
+						}
+						publish.accept(result, error);
+						run();
+					}, executor);
+					return;
+				}
+			}
+
+			private BiConsumer<FFprobeJAXB, Throwable> publisher(final String source) {
+				return (result, error) -> {
+					var cause = error;
+					if (cause instanceof CompletionException && cause.getCause() != null) {
+						cause = cause.getCause();
+					}
+					if (cause != null) {
+						log.debug("Can't analyse {}", source, cause);
+					}
+					results.add(new ProbeMediaResult(source, result, cause));
+				};
+			}
+		};
+
+		for (var pos = 0; pos < parallelism; pos++) {
+			batch.run();
+		}
+
+		return Stream.generate(() -> {
+			try {
+				return results.take();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted", e);
+			}
+		}).limit(count);
+	}
+
+	private static CompletableFuture<FFprobeJAXB> startSafely(final String source,
+	                                                          final Function<String, CompletableFuture<FFprobeJAXB>> starter) {
+		try {
+			return starter.apply(source);
+		} catch (final RuntimeException e) {
+			return CompletableFuture.failedFuture(e);
+		}
 	}
 
 }
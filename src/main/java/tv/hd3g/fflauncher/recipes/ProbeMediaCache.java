@@ -0,0 +1,327 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.recipes;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import tv.hd3g.ffprobejaxb.FFprobeJAXB;
+
+/**
+ * ffprobe results cache, keyed on file identity (canonical path, size, last modified, inode).
+ * A change on the file identity invalidate its entry.
+ * Two tiers: an in-memory LRU with parsed results, and an optional persistent file with the raw ffprobe XML,
+ * memory mapped, and parsed again on hit.
+ * Threadsafe.
+ * @see ProbeMedia#setCache(ProbeMediaCache)
+ */
+public class ProbeMediaCache implements Closeable {
+	private static final Logger log = LogManager.getLogger();
+
+	private final int maxMemoryEntries;
+	private final LinkedHashMap<String, MemoryEntry> memory;
+	private final ProbeMediaDiskCache disk;
+	private final Function<String, FFprobeJAXB> parser;
+
+	private final AtomicLong memoryHits;
+	private final AtomicLong diskHits;
+	private final AtomicLong misses;
+	private final AtomicLong invalidations;
+	private final AtomicLong evictions;
+
+	private static class MemoryEntry {
+		final FileIdentity identity;
+		final FFprobeJAXB result;
+
+		MemoryEntry(final FileIdentity identity, final FFprobeJAXB result) {
+			this.identity = identity;
+			this.result = result;
+		}
+	}
+
+	/**
+	 * In-memory only cache.
+	 */
+	public ProbeMediaCache(final int maxMemoryEntries) {
+		this(maxMemoryEntries, null);
+	}
+
+	/**
+	 * @param diskFile can be null (no persistence). Created if not exists.
+	 * @throws UncheckedIOException if diskFile can't be opened
+	 */
+	public ProbeMediaCache(final int maxMemoryEntries, final File diskFile) {
+		this(maxMemoryEntries, diskFile, xml -> new FFprobeJAXB(xml, warn -> log.warn(warn)));
+	}
+
+	ProbeMediaCache(final int maxMemoryEntries, final File diskFile, final Function<String, FFprobeJAXB> parser) {
+		if (maxMemoryEntries < 1) {
+			throw new IllegalArgumentException("Invalid maxMemoryEntries: " + maxMemoryEntries);
+		}
+		this.maxMemoryEntries = maxMemoryEntries;
+		this.parser = requireNonNull(parser, "\"parser\" can't to be null");
+		memoryHits = new AtomicLong();
+		diskHits = new AtomicLong();
+		misses = new AtomicLong();
+		invalidations = new AtomicLong();
+		evictions = new AtomicLong();
+		memory = new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, MemoryEntry> eldest) {
+				if (size() > ProbeMediaCache.this.maxMemoryEntries) {
+					evictions.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+		disk = Optional.ofNullable(diskFile).map(ProbeMediaDiskCache::new).orElse(null);
+	}
+
+	/**
+	 * A cache lookup for a file, done before its probe. The file identity is took before the probe: a result is
+	 * put with the file state before the probe, and a file changed during the probe will be probed again.
+	 */
+	static class Lookup {
+		static final Lookup NONE = new Lookup(null, null, Optional.empty());
+
+		private final ProbeMediaCache cache;
+		private final FileIdentity identity;
+		private final Optional<FFprobeJAXB> hit;
+
+		private Lookup(final ProbeMediaCache cache, final FileIdentity identity, final Optional<FFprobeJAXB> hit) {
+			this.cache = cache;
+			this.identity = identity;
+			this.hit = hit;
+		}
+
+		Optional<FFprobeJAXB> getHit() {
+			return hit;
+		}
+
+		/**
+		 * Do nothing if the file identity can't be read.
+		 */
+		void put(final String xml, final FFprobeJAXB result) {
+			if (cache != null && identity != null) {
+				cache.put(identity, xml, result);
+			}
+		}
+	}
+
+	/**
+	 * @return a miss without put if the file can't be read: ffprobe will report the error.
+	 */
+	Lookup lookup(final File source) {
+		final var identity = FileIdentity.ofReadable(source, "cache");
+		if (identity == null) {
+			return Lookup.NONE;
+		}
+		return new Lookup(this, identity, get(identity));
+	}
+
+	/**
+	 * @return empty on miss, or if the file identity has changed since the put (the entry is removed).
+	 */
+	public Optional<FFprobeJAXB> get(final FileIdentity identity) {
+		requireNonNull(identity, "\"identity\" can't to be null");
+		final var path = identity.getCanonicalPath();
+
+		synchronized (memory) {
+			final var entry = memory.get(path);
+			if (entry != null) {
+				if (entry.identity.equals(identity)) {
+					memoryHits.incrementAndGet();
+					return Optional.ofNullable(entry.result);
+				}
+				memory.remove(path);
+				invalidate(path);
+				return Optional.empty();
+			}
+		}
+
+		if (disk == null) {
+			misses.incrementAndGet();
+			return Optional.empty();
+		}
+		if (disk.isOutdated(identity)) {
+			invalidate(path);
+			return Optional.empty();
+		}
+		final var result = disk.get(identity).map(parser);
+		if (result.isEmpty()) {
+			misses.incrementAndGet();
+			return Optional.empty();
+		}
+		diskHits.incrementAndGet();
+		synchronized (memory) {
+			memory.put(path, new MemoryEntry(identity, result.get()));
+		}
+		return result;
+	}
+
+	private void invalidate(final String path) {
+		log.debug("File has changed, invalidate cached probe result for {}", path);
+		invalidations.incrementAndGet();
+		misses.incrementAndGet();
+		if (disk != null) {
+			disk.remove(path);
+		}
+	}
+
+	/**
+	 * @param xml the raw ffprobe XML, stored on disk, if set.
+	 * @param result the parsed xml, stored in memory.
+	 */
+	public void put(final FileIdentity identity, final String xml, final FFprobeJAXB result) {
+		requireNonNull(identity, "\"identity\" can't to be null");
+		requireNonNull(xml, "\"xml\" can't to be null");
+		requireNonNull(result, "\"result\" can't to be null");
+		synchronized (memory) {
+			memory.put(identity.getCanonicalPath(), new MemoryEntry(identity, result));
+		}
+		if (disk != null) {
+			disk.put(identity, xml);
+		}
+	}
+
+	/**
+	 * Remove from all tiers, regardless of the file identity.
+	 */
+	public void remove(final File file) {
+		final var path = FileIdentity.of(file).getCanonicalPath();
+		synchronized (memory) {
+			memory.remove(path);
+		}
+		if (disk != null) {
+			disk.remove(path);
+		}
+	}
+
+	/**
+	 * Rewrite the persistent file without the outdated and removed entries. Blocking: get and put wait the end.
+	 */
+	public void compact() {
+		if (disk != null) {
+			disk.compact();
+		}
+	}
+
+	public long getMemoryHits() {
+		return memoryHits.get();
+	}
+
+	public long getDiskHits() {
+		return diskHits.get();
+	}
+
+	/**
+	 * @return all get without result, including invalidations.
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * @return the entries removed on get because the file identity has changed.
+	 */
+	public long getInvalidations() {
+		return invalidations.get();
+	}
+
+	/**
+	 * @return the entries removed from memory because maxMemoryEntries was reached.
+	 */
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	/**
+	 * @return between 0 and 1, the memory and disk hits by all get. 0 if never used.
+	 */
+	public double getHitRate() {
+		final var hits = memoryHits.get() + diskHits.get();
+		final var total = hits + misses.get();
+		if (total == 0) {
+			return 0;
+		}
+		return (double) hits / (double) total;
+	}
+
+	public int getMaxMemoryEntries() {
+		return maxMemoryEntries;
+	}
+
+	public int getMemorySize() {
+		synchronized (memory) {
+			return memory.size();
+		}
+	}
+
+	/**
+	 * @return 0 if no persistent file
+	 */
+	public int getDiskSize() {
+		return disk == null ? 0 : disk.size();
+	}
+
+	/**
+	 * @return 0 if no persistent file
+	 */
+	public long getDiskFileSize() {
+		return disk == null ? 0 : disk.getFileSize();
+	}
+
+	/**
+	 * @return 0 if no persistent file. The bytes freed by a compact().
+	 */
+	public long getDiskDeadBytes() {
+		return disk == null ? 0 : disk.getDeadBytes();
+	}
+
+	@Override
+	public String toString() {
+		return "memory=" + getMemorySize() + "/" + maxMemoryEntries
+		       + ", disk=" + getDiskSize() + " (" + getDiskFileSize() + " bytes)"
+		       + ", hits=" + getMemoryHits() + "+" + getDiskHits()
+		       + ", misses=" + getMisses()
+		       + ", invalidations=" + getInvalidations()
+		       + ", evictions=" + getEvictions();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (disk != null) {
+			disk.close();
+		}
+	}
+
+}
@@ -0,0 +1,363 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.recipes;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Optional;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Append-only file of deflated ffprobe XML results, read with a memory mapping.
+ * File: [long magic][int version] then records:
+ * [int magic][short path len][path][long size][long last modified][short file key len][file key]
+ * [int xml len][int deflated len][deflated xml].
+ * Only the last record for a path is used, the previous are dead until compact().
+ * A truncated or corrupted file tail (like after a crash) is dropped on open. Limited to 2 GB.
+ * Threadsafe.
+ */
+class ProbeMediaDiskCache implements Closeable {
+	private static final Logger log = LogManager.getLogger();
+
+	static final long FILE_MAGIC = 0x4646505242434348L;
+	static final int FILE_VERSION = 1;
+	static final int HEADER_SIZE = Long.BYTES + Integer.BYTES;
+	static final int RECORD_MAGIC = 0x50524231;
+
+	private final Path file;
+	private final HashMap<String, Entry> index;
+	private FileChannel channel;
+	private MappedByteBuffer mapped;
+	private long fileSize;
+	private long deadBytes;
+
+	private static class Entry {
+		final FileIdentity identity;
+		final long recordPosition;
+		final long dataPosition;
+		final int xmlLength;
+		final int deflatedLength;
+
+		Entry(final FileIdentity identity,
+		      final long recordPosition,
+		      final long dataPosition,
+		      final int xmlLength,
+		      final int deflatedLength) {
+			this.identity = identity;
+			this.recordPosition = recordPosition;
+			this.dataPosition = dataPosition;
+			this.xmlLength = xmlLength;
+			this.deflatedLength = deflatedLength;
+		}
+
+		long getRecordSize() {
+			return dataPosition + deflatedLength - recordPosition;
+		}
+	}
+
+	/**
+	 * @throws UncheckedIOException if the file can't be opened or created
+	 */
+	ProbeMediaDiskCache(final File file) {
+		this.file = requireNonNull(file, "\"file\" can't to be null").toPath();
+		index = new HashMap<>();
+		try {
+			open();
+		} catch (final IOException e) {
+			throw new UncheckedIOException("Can't open cache file " + file, e);
+		}
+	}
+
+	private void open() throws IOException {
+		channel = FileChannel.open(file, READ, WRITE, CREATE);
+		fileSize = channel.size();
+		if (fileSize < HEADER_SIZE || readHeaderIsValid() == false) {
+			if (fileSize > 0) {
+				log.warn("Invalid probe cache file {}, reset it", file);
+			}
+			channel.truncate(0);
+			final var header = ByteBuffer.allocate(HEADER_SIZE).putLong(FILE_MAGIC).putInt(FILE_VERSION).flip();
+			channel.write(header, 0);
+			fileSize = HEADER_SIZE;
+		}
+		map();
+		scan();
+	}
+
+	private boolean readHeaderIsValid() throws IOException {
+		final var header = ByteBuffer.allocate(HEADER_SIZE);
+		channel.read(header, 0);
+		header.flip();
+		return header.getLong() == FILE_MAGIC && header.getInt() == FILE_VERSION;
+	}
+
+	private void map() throws IOException {
+		mapped = channel.map(MapMode.READ_ONLY, 0, fileSize);
+	}
+
+	/**
+	 * Remap only if the file has grown since the last mapping.
+	 */
+	private ByteBuffer getMapped() {
+		if (mapped.capacity() < fileSize) {
+			try {
+				map();
+			} catch (final IOException e) {
+				throw new UncheckedIOException("Can't map cache file " + file, e);
+			}
+		}
+		return mapped.duplicate();
+	}
+
+	private void scan() throws IOException {
+		final var buffer = mapped.duplicate();
+		buffer.position(HEADER_SIZE);
+		while (buffer.hasRemaining()) {
+			final var recordPosition = buffer.position();
+			try {
+				if (buffer.getInt() != RECORD_MAGIC) {
+					throw new IllegalStateException("Invalid record magic");
+				}
+				final var path = readString(buffer);
+				final var size = buffer.getLong();
+				final var lastModified = buffer.getLong();
+				final var fileKey = readString(buffer);
+				final var xmlLength = buffer.getInt();
+				final var deflatedLength = buffer.getInt();
+				if (xmlLength < 0 || deflatedLength < 0 || deflatedLength > buffer.remaining()) {
+					throw new IllegalStateException("Invalid record length");
+				}
+				final var dataPosition = buffer.position();
+				buffer.position(dataPosition + deflatedLength);
+				setEntry(new Entry(new FileIdentity(path, size, lastModified, fileKey),
+				        recordPosition, dataPosition, xmlLength, deflatedLength));
+			} catch (final BufferUnderflowException | IllegalStateException | IllegalArgumentException e) {
+				log.warn("Drop invalid probe cache file tail from {} in {}", recordPosition, file);
+				channel.truncate(recordPosition);
+				fileSize = recordPosition;
+				map();
+				return;
+			}
+		}
+	}
+
+	private static String readString(final ByteBuffer buffer) {
+		final var bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+		buffer.get(bytes);
+		return new String(bytes, UTF_8);
+	}
+
+	private static void writeString(final ByteBuffer buffer, final byte[] bytes) {
+		buffer.putShort((short) bytes.length);
+		buffer.put(bytes);
+	}
+
+	private void setEntry(final Entry entry) {
+		final var previous = index.put(entry.identity.getCanonicalPath(), entry);
+		if (previous != null) {
+			deadBytes += previous.getRecordSize();
+		}
+	}
+
+	/**
+	 * @return empty if this path is not present, or if the file identity has changed (see isOutdated).
+	 */
+	synchronized Optional<String> get(final FileIdentity identity) {
+		final var entry = index.get(identity.getCanonicalPath());
+		if (entry == null || entry.identity.equals(identity) == false) {
+			return Optional.empty();
+		}
+		final var deflated = new byte[entry.deflatedLength];
+		getMapped().position((int) entry.dataPosition).get(deflated);
+		final var inflater = new Inflater();
+		try {
+			inflater.setInput(deflated);
+			final var xml = new byte[entry.xmlLength];
+			var pos = 0;
+			while (pos < xml.length && inflater.finished() == false) {
+				final var readed = inflater.inflate(xml, pos, xml.length - pos);
+				if (readed == 0 && inflater.needsInput()) {
+					break;
+				}
+				pos += readed;
+			}
+			if (pos != xml.length) {
+				log.warn("Invalid cached probe result for {}", identity);
+				remove(identity.getCanonicalPath());
+				return Optional.empty();
+			}
+			return Optional.ofNullable(new String(xml, UTF_8));
+		} catch (final DataFormatException e) {
+			log.warn("Invalid cached probe result for {}", identity, e);
+			remove(identity.getCanonicalPath());
+			return Optional.empty();
+		} finally {
+			inflater.end();
+		}
+	}
+
+	/**
+	 * @return true if this path is present with an other file identity.
+	 */
+	synchronized boolean isOutdated(final FileIdentity identity) {
+		final var entry = index.get(identity.getCanonicalPath());
+		return entry != null && entry.identity.equals(identity) == false;
+	}
+
+	/**
+	 * Only remove from index: the record stay on file until compact().
+	 */
+	synchronized void remove(final String canonicalPath) {
+		final var previous = index.remove(canonicalPath);
+		if (previous != null) {
+			deadBytes += previous.getRecordSize();
+		}
+	}
+
+	synchronized void put(final FileIdentity identity, final String xml) {
+		final var path = identity.getCanonicalPath().getBytes(UTF_8);
+		final var fileKey = identity.getFileKey().getBytes(UTF_8);
+		if (path.length > 0xFFFF || fileKey.length > 0xFFFF) {
+			log.debug("Too long path to be cached: {}", identity);
+			return;
+		}
+		final var xmlBytes = xml.getBytes(UTF_8);
+		final var deflated = deflate(xmlBytes);
+
+		final var headerSize = Integer.BYTES + Short.BYTES + path.length + Long.BYTES * 2 + Short.BYTES
+		                       + fileKey.length + Integer.BYTES * 2;
+		final var record = ByteBuffer.allocate(headerSize + deflated.length);
+		record.putInt(RECORD_MAGIC);
+		writeString(record, path);
+		record.putLong(identity.getSize());
+		record.putLong(identity.getLastModified());
+		writeString(record, fileKey);
+		record.putInt(xmlBytes.length);
+		record.putInt(deflated.length);
+		record.put(deflated);
+		record.flip();
+
+		final var recordPosition = fileSize;
+		try {
+			var pos = recordPosition;
+			while (record.hasRemaining()) {
+				pos += channel.write(record, pos);
+			}
+			fileSize = pos;
+		} catch (final IOException e) {
+			throw new UncheckedIOException("Can't write to cache file " + file, e);
+		}
+		setEntry(new Entry(identity, recordPosition, recordPosition + headerSize, xmlBytes.length,
+		        deflated.length));
+	}
+
+	private static byte[] deflate(final byte[] content) {
+		final var deflater = new Deflater(Deflater.BEST_COMPRESSION);
+		try {
+			deflater.setInput(content);
+			deflater.finish();
+			final var out = new ByteArrayOutputStream(Math.max(64, content.length / 4));
+			final var buffer = new byte[8192];
+			while (deflater.finished() == false) {
+				out.write(buffer, 0, deflater.deflate(buffer));
+			}
+			return out.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * Rewrite the file with only the live records.
+	 */
+	synchronized void compact() {
+		final var temp = file.resolveSibling(file.getFileName() + ".compact");
+		try (var out = FileChannel.open(temp, READ, WRITE, CREATE, TRUNCATE_EXISTING)) {
+			out.write(ByteBuffer.allocate(HEADER_SIZE).putLong(FILE_MAGIC).putInt(FILE_VERSION).flip(), 0);
+			var pos = (long) HEADER_SIZE;
+			final var source = getMapped();
+			for (final var entry : index.values()) {
+				final var record = source.duplicate()
+				        .position((int) entry.recordPosition)
+				        .limit((int) (entry.recordPosition + entry.getRecordSize()));
+				while (record.hasRemaining()) {
+					pos += out.write(record, pos);
+				}
+			}
+			out.force(true);
+		} catch (final IOException e) {
+			throw new UncheckedIOException("Can't compact cache file " + file, e);
+		}
+		try {
+			channel.close();
+			mapped = null;
+			Files.move(temp, file, REPLACE_EXISTING, ATOMIC_MOVE);
+			index.clear();
+			deadBytes = 0;
+			open();
+		} catch (final IOException e) {
+			throw new UncheckedIOException("Can't reopen cache file " + file, e);
+		}
+	}
+
+	synchronized int size() {
+		return index.size();
+	}
+
+	synchronized long getFileSize() {
+		return fileSize;
+	}
+
+	/**
+	 * @return the size of the outdated/removed records, freed by compact().
+	 */
+	synchronized long getDeadBytes() {
+		return deadBytes;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		mapped = null;
+		channel.close();
+	}
+
+}
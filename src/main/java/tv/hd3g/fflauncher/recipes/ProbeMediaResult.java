@@ -0,0 +1,71 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.recipes;
+
+import java.util.Optional;
+
+import tv.hd3g.ffprobejaxb.FFprobeJAXB;
+
+/**
+ * A ProbeMedia batch item: the analysing result, or its error. Immutable.
+ */
+public class ProbeMediaResult {
+
+	private final String source;
+	private final FFprobeJAXB result;
+	private final Throwable error;
+
+	ProbeMediaResult(final String source, final FFprobeJAXB result, final Throwable error) {
+		this.source = source;
+		this.result = result;
+		this.error = error;
+	}
+
+	/**
+	 * @return the source as requested, or the File path.
+	 */
+	public String getSource() {
+		return source;
+	}
+
+	public boolean isOk() {
+		return error == null;
+	}
+
+	/**
+	 * @return empty on error
+	 */
+	public Optional<FFprobeJAXB> getResult() {
+		return Optional.ofNullable(result);
+	}
+
+	/**
+	 * @return like an InvalidExecution, empty if ok.
+	 */
+	public Optional<Throwable> getError() {
+		return Optional.ofNullable(error);
+	}
+
+	@Override
+	public String toString() {
+		if (error != null) {
+			return source + ": " + error.getMessage();
+		}
+		return source + ": ok";
+	}
+
+}
@@ -0,0 +1,187 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.recipes;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toUnmodifiableList;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import tv.hd3g.fflauncher.FFprobe;
+
+/**
+ * How much ffprobe reads from a media: all (full), or only a bounded part, with -read_intervals, -probesize and
+ * -analyzeduration. A bounded probe is partial: durations, bitrates and frames counts may be estimated or missing.
+ * Immutable.
+ */
+public class ProbeMode {
+
+	/**
+	 * 1 MiB
+	 */
+	public static final long HEADER_ONLY_PROBESIZE = 1L << 20;
+	/**
+	 * 0.1 second
+	 */
+	public static final long HEADER_ONLY_ANALYZEDURATION = 100_000;
+
+	private static final ProbeMode FULL = new ProbeMode("full", null, 0, -1);
+
+	private final String name;
+	private final String readIntervals;
+	private final long probeSize;
+	private final long analyzeDuration;
+
+	private ProbeMode(final String name, final String readIntervals, final long probeSize, final long analyzeDuration) {
+		this.name = name;
+		this.readIntervals = readIntervals;
+		this.probeSize = probeSize;
+		this.analyzeDuration = analyzeDuration;
+	}
+
+	/**
+	 * Default ffprobe behavior: not partial.
+	 */
+	public static ProbeMode full() {
+		return FULL;
+	}
+
+	/**
+	 * Only the container headers and the first packet, with a 1 MiB probe size and 0.1 s analyze duration.
+	 * Enough for the streams layout, regardless of the file size.
+	 */
+	public static ProbeMode headerOnly() {
+		return new ProbeMode("header-only", "%+#1", HEADER_ONLY_PROBESIZE, HEADER_ONLY_ANALYZEDURATION);
+	}
+
+	/**
+	 * Only read the first seconds.
+	 */
+	public static ProbeMode firstSeconds(final double seconds) {
+		if (seconds <= 0) {
+			throw new IllegalArgumentException("Invalid seconds: " + seconds);
+		}
+		return new ProbeMode("first " + seconds + "s", "%+" + format(seconds), 0, Math.round(seconds * 1_000_000d));
+	}
+
+	/**
+	 * Read count samples of sampleSeconds, evenly spaced in totalDuration (like from a previous headerOnly probe).
+	 */
+	public static ProbeMode sampledIntervals(final double totalDuration, final int count, final double sampleSeconds) {
+		if (totalDuration <= 0 || count < 1 || sampleSeconds <= 0) {
+			throw new IllegalArgumentException("Invalid sampled intervals: " + totalDuration + ", " + count
+			                                   + ", " + sampleSeconds);
+		}
+		final var step = totalDuration / count;
+		return intervals(IntStream.range(0, count)
+		        .mapToDouble(pos -> pos * step)
+		        .boxed()
+		        .collect(toUnmodifiableList()), sampleSeconds);
+	}
+
+	/**
+	 * Read sampleSeconds from each start.
+	 * @param starts in seconds
+	 */
+	public static ProbeMode intervals(final List<Double> starts, final double sampleSeconds) {
+		requireNonNull(starts, "\"starts\" can't to be null");
+		if (starts.isEmpty() || sampleSeconds <= 0) {
+			throw new IllegalArgumentException("Invalid intervals: " + starts + ", " + sampleSeconds);
+		}
+		final var readIntervals = starts.stream()
+		        .map(start -> format(start) + "%+" + format(sampleSeconds))
+		        .collect(joining(","));
+		return new ProbeMode(starts.size() + " samples of " + sampleSeconds + "s", readIntervals, 0,
+		        Math.round(sampleSeconds * 1_000_000d));
+	}
+
+	private static String format(final double seconds) {
+		return BigDecimal.valueOf(seconds).setScale(3, RoundingMode.HALF_UP).stripTrailingZeros().toPlainString();
+	}
+
+	/**
+	 * @param bytes for -probesize, 0 for ffprobe default
+	 * @return a new ProbeMode
+	 */
+	public ProbeMode withProbeSize(final long bytes) {
+		if (bytes != 0 && bytes < 32) {
+			throw new IllegalArgumentException("Invalid probesize: " + bytes);
+		}
+		return new ProbeMode(name, readIntervals, bytes, analyzeDuration);
+	}
+
+	/**
+	 * @param microseconds for -analyzeduration, -1 for ffprobe default
+	 * @return a new ProbeMode
+	 */
+	public ProbeMode withAnalyzeDuration(final long microseconds) {
+		return new ProbeMode(name, readIntervals, probeSize, Math.max(-1, microseconds));
+	}
+
+	/**
+	 * @return true if ffprobe will not read all the media
+	 */
+	public boolean isPartial() {
+		return readIntervals != null || probeSize > 0;
+	}
+
+	/**
+	 * @return null for full reads
+	 */
+	public String getReadIntervals() {
+		return readIntervals;
+	}
+
+	/**
+	 * @return 0 for ffprobe default
+	 */
+	public long getProbeSize() {
+		return probeSize;
+	}
+
+	/**
+	 * @return -1 for ffprobe default
+	 */
+	public long getAnalyzeDuration() {
+		return analyzeDuration;
+	}
+
+	/**
+	 * Set the options on ffprobe, before the input source.
+	 */
+	public void applyTo(final FFprobe ffprobe) {
+		if (readIntervals != null) {
+			ffprobe.setReadIntervals(readIntervals);
+		}
+		if (probeSize > 0) {
+			ffprobe.setProbeSize(probeSize);
+		}
+		if (analyzeDuration > -1) {
+			ffprobe.setAnalyzeDuration(analyzeDuration);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+}
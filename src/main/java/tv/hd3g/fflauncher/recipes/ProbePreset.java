@@ -0,0 +1,92 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.recipes;
+
+import tv.hd3g.fflauncher.FFprobe;
+import tv.hd3g.fflauncher.FFprobe.FFStreamType;
+import tv.hd3g.fflauncher.FFprobeEntries;
+
+/**
+ * What ffprobe will show, for ProbeMedia.doAnalysingMediaInfo. Except for ALL, ffprobe only outputs the needed
+ * fields, so the output volume and the parse cost scale with the request. Not requested values are absent
+ * (empty Optional, 0) in the MediaInfo.
+ */
+public enum ProbePreset {
+
+	/**
+	 * All format, streams and chapters fields (-show_format -show_streams -show_chapters).
+	 */
+	ALL(null, null),
+	/**
+	 * Only the format duration and start time. No streams.
+	 */
+	DURATION_ONLY(new FFprobeEntries()
+	        .format("duration", "start_time"), null),
+	/**
+	 * Only the audio streams layouts, as needed by InputAudioStream and AudioChannelManipulationSetup.
+	 */
+	AUDIO_TOPOLOGY(new FFprobeEntries()
+	        .stream("index", "codec_type", "codec_name", "sample_rate", "sample_fmt", "channels", "channel_layout",
+	                "bits_per_sample", "start_time", "duration")
+	        .streamTags("language")
+	        .streamDisposition("default"), FFStreamType.AUDIO),
+	/**
+	 * Only the video streams geometry, codec and frame rates.
+	 */
+	VIDEO_GEOMETRY(new FFprobeEntries()
+	        .stream("index", "codec_type", "codec_name", "codec_long_name", "profile", "width", "height",
+	                "pix_fmt", "sample_aspect_ratio", "display_aspect_ratio", "field_order", "r_frame_rate",
+	                "avg_frame_rate")
+	        .streamDisposition("default", "attached_pic"), FFStreamType.VIDEO);
+
+	private final String showEntries;
+	private final FFStreamType selectStreams;
+
+	ProbePreset(final FFprobeEntries showEntries, final FFStreamType selectStreams) {
+		this.showEntries = showEntries != null ? showEntries.toString() : null;
+		this.selectStreams = selectStreams;
+	}
+
+	/**
+	 * @return null for ALL
+	 */
+	public String getShowEntries() {
+		return showEntries;
+	}
+
+	/**
+	 * @return null if all streams are selected
+	 */
+	public FFStreamType getSelectStreams() {
+		return selectStreams;
+	}
+
+	/**
+	 * Set the sections or entries to show, and the streams to select, on ffprobe.
+	 */
+	public void applyTo(final FFprobe ffprobe) {
+		if (showEntries == null) {
+			ffprobe.setShowStreams().setShowFormat().setShowChapters();
+		} else {
+			ffprobe.setShowEntries(showEntries);
+		}
+		if (selectStreams != null) {
+			ffprobe.setSelectStreams(selectStreams);
+		}
+	}
+
+}
@@ -0,0 +1,111 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import tv.hd3g.processlauncher.ProcesslauncherBuilder;
+import tv.hd3g.processlauncher.ProcesslauncherLifecycle;
+import tv.hd3g.processlauncher.cmdline.Parameters;
+
+class ConversionToolTemplateTest {
+
+	private static FFmpeg makeFFmpeg(final String in0, final String in1, final String out0) {
+		final var ffmpeg = new FFmpeg("ffmpeg", Parameters.bulk("-y -hide_banner"));
+		ffmpeg.addSimpleInputSource(in0, List.of("-ss", "1"));
+		ffmpeg.addSimpleInputSource(in1);
+		ffmpeg.addVideoCodecName("ffv1", -1);
+		ffmpeg.addSimpleOutputDestination(out0);
+		ffmpeg.fixIOParametredVars();
+		return ffmpeg;
+	}
+
+	@Test
+	void testInstantiate() {
+		final var template = makeFFmpeg("a.mkv", "b.wav", "c.mkv").compileTemplate();
+		assertEquals(2, template.getInputSlotCount());
+		assertEquals(1, template.getOutputSlotCount());
+
+		assertEquals(makeFFmpeg("d.mkv", "e.wav", "f.mkv").getReadyToRunParameters().getParameters(),
+		        template.instantiate(List.of("d.mkv", "e.wav"), List.of("f.mkv")));
+		assertEquals(makeFFmpeg("g.mkv", "h.wav", "i.mkv").getReadyToRunParameters().getParameters(),
+		        template.instantiate(List.of("g.mkv", "h.wav"), List.of("i.mkv")));
+
+		final var tool = template.toExecutableTool(List.of("d.mkv", "e.wav"), List.of("f.mkv"));
+		assertEquals("ffmpeg", tool.getExecutableName());
+		assertEquals(template.instantiate(List.of("d.mkv", "e.wav"), List.of("f.mkv")),
+		        tool.getReadyToRunParameters().getParameters());
+	}
+
+	@Test
+	void testOnErrorDeleteOutFiles() throws IOException {
+		final var templateOutput = File.createTempFile("fflauncher-template", ".mkv");
+		final var jobOutput = File.createTempFile("fflauncher-job", ".mkv");
+		try {
+			final var ffmpeg = makeFFmpeg("a.mkv", "b.wav", templateOutput.getPath());
+			ffmpeg.setOnErrorDeleteOutFiles(true);
+			final var tool = ffmpeg.compileTemplate()
+			        .toExecutableTool(List.of("a.mkv", "b.wav"), List.of(jobOutput.getPath()));
+
+			final var processBuilder = new ProcesslauncherBuilder(new File("ffmpeg"), List.of());
+			tool.beforeRun(processBuilder);
+			assertEquals(1, processBuilder.getExecutionCallbackers().size());
+
+			final var lifecycle = mock(ProcesslauncherLifecycle.class);
+			when(lifecycle.isCorrectlyDone()).thenReturn(false);
+			processBuilder.getExecutionCallbackers().forEach(c -> c.onEndExecution(lifecycle));
+
+			assertFalse(jobOutput.exists());
+			assertTrue(templateOutput.exists());
+		} finally {
+			Files.deleteIfExists(templateOutput.toPath());
+			Files.deleteIfExists(jobOutput.toPath());
+		}
+	}
+
+	@Test
+	void testToString() {
+		final var ct = new ConversionTool("java", Parameters.bulk("-a <%IN%> -b <%OUT%>"));
+		ct.addInputSource("x", "IN");
+		ct.addOutputDestination("y", "OUT");
+		assertEquals("java -a <in:0> -b <out:0>", ct.compileTemplate().toString());
+	}
+
+	@Test
+	void testBadIO() {
+		final var template = makeFFmpeg("a.mkv", "b.wav", "c.mkv").compileTemplate();
+		final var oneInput = List.of("a.mkv");
+		final var twoInputs = List.of("a.mkv", "b.wav");
+		final var noOutputs = List.<String> of();
+		final var oneOutput = List.of("c.mkv");
+		assertThrows(IllegalArgumentException.class, () -> template.instantiate(oneInput, oneOutput));
+		assertThrows(IllegalArgumentException.class, () -> template.instantiate(twoInputs, noOutputs));
+	}
+
+}
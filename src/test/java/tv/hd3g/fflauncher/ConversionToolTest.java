@@ -22,6 +22,7 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
 
 import java.io.File;
 import java.io.IOException;
@@ -40,6 +41,8 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
 import tv.hd3g.fflauncher.enums.OutputFilePresencePolicy;
+import tv.hd3g.processlauncher.ExecutionCallbacker;
+import tv.hd3g.processlauncher.ProcesslauncherBuilder;
 import tv.hd3g.processlauncher.cmdline.Parameters;
 
 class ConversionToolTest {
@@ -149,6 +152,25 @@ class ConversionToolTest {
 		assertEquals("source", catchs.get("<%found_var%>"));
 	}
 
+	@Test
+	void testToExecutableTool() {
+		final var ct = new ConversionTool("java");
+		ct.getInternalParameters().addParameters("-version");
+		final var callbacker = mock(ExecutionCallbacker.class);
+		final var executableTool = ct.toExecutableTool(callbacker);
+
+		assertEquals("java", executableTool.getExecutableName());
+		assertEquals("-version", executableTool.getReadyToRunParameters().toString());
+
+		final var processBuilder = new ProcesslauncherBuilder(new File("java"), List.of());
+		executableTool.beforeRun(processBuilder);
+		assertEquals(List.of(callbacker), processBuilder.getExecutionCallbackers());
+
+		final var toolProcessBuilder = new ProcesslauncherBuilder(new File("java"), List.of());
+		ct.beforeRun(toolProcessBuilder);
+		assertTrue(toolProcessBuilder.getExecutionCallbackers().isEmpty());
+	}
+
 	@Test
 	void testManageOutFiles() throws IOException {
 		final var f1 = File.createTempFile("test", ".txt");
@@ -22,6 +22,8 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Test;
 
@@ -70,6 +72,19 @@ class FFbaseTest {
 		assertFalse(about.isToFormatIsAvaliable("nonono"), "Format notAvaliable");
 	}
 
+	@Test
+	void testWarmUp() throws Exception {
+		final var executor = Executors.newCachedThreadPool();
+		final var about = new FFbaseImpl(new Parameters()).getAbout(executableFinder);
+		about.warmUp(executor).get(30, TimeUnit.SECONDS);
+		executor.shutdownNow();
+
+		assertNotNull(about.getVersion(), "version");
+		assertFalse(about.getCodecs().isEmpty(), "codecs empty");
+		assertFalse(about.getFilters().isEmpty(), "filters empty");
+		assertNotNull(about.getAvailableHWAccelerationMethods(), "hwaccels");
+	}
+
 	@Test
 	void testNVPresence() throws Exception {
 		final var b = new FFbaseImpl(new Parameters());
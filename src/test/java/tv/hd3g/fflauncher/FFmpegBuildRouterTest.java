@@ -0,0 +1,100 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import tv.hd3g.processlauncher.cmdline.ExecutableFinder;
+import tv.hd3g.processlauncher.cmdline.Parameters;
+
+class FFmpegBuildRouterTest {
+
+	FFmpegBuildRouter router;
+
+	@BeforeEach
+	void init() {
+		router = new FFmpegBuildRouter(new ExecutableFinder(), 0.5d);
+	}
+
+	@Test
+	void testBadSetup() {
+		final var executableFinder = new ExecutableFinder();
+		assertThrows(IllegalArgumentException.class, () -> new FFmpegBuildRouter(executableFinder, 0d));
+		assertThrows(IllegalArgumentException.class, () -> new FFmpegBuildRouter(executableFinder, 1.1d));
+	}
+
+	@Test
+	void testRecordSpeed() {
+		assertTrue(router.getMeasuredSpeed("ffmpeg", "p").isEmpty());
+		router.recordSpeed("ffmpeg", "p", 2d);
+		router.recordSpeed("ffmpeg", "p", -1d);
+		assertEquals(Optional.ofNullable(2d), router.getMeasuredSpeed("ffmpeg", "p"));
+		router.recordSpeed("ffmpeg", "p", 4d);
+		assertEquals(Optional.ofNullable(3d), router.getMeasuredSpeed("ffmpeg", "p"));
+		assertTrue(router.getMeasuredSpeed("ffmpeg", "other").isEmpty());
+	}
+
+	@Test
+	void testRegister() {
+		router.register("ffmpeg").register("ffmpeg");
+		assertEquals(List.of("ffmpeg"), router.getRegistered());
+	}
+
+	@Test
+	void testRoute() {
+		router.register("ffmpeg");
+		final var ffmpeg = new FFmpeg("ffmpeg", Parameters.bulk("-f lavfi -i smptehdbars -c:v ffv1 -f matroska -"));
+
+		final var route = router.route(ffmpeg, "test").get();
+		assertEquals("ffmpeg", route.getExecName());
+		assertEquals("test", route.getProfile());
+		assertEquals("ffmpeg", route.toExecutableTool(ffmpeg).getExecutableName());
+
+		final var notCapable = new FFmpeg("ffmpeg", Parameters.bulk("-i in.mov -c:v nonono -f matroska -"));
+		assertTrue(router.route(notCapable).isEmpty());
+	}
+
+	@Test
+	void testRouteProbes() {
+		router.register("ffmpeg-a").register("ffmpeg-b");
+		final var noRequirements = new ConversionTool("ffmpeg", Parameters.bulk("-version"));
+
+		assertEquals("ffmpeg-a", router.route(noRequirements, "p").get().getExecName());
+		assertEquals("ffmpeg-b", router.route(noRequirements, "p").get().getExecName());
+		final var inTurn = Set.of(
+		        router.route(noRequirements, "p").get().getExecName(),
+		        router.route(noRequirements, "p").get().getExecName());
+		assertEquals(Set.of("ffmpeg-a", "ffmpeg-b"), inTurn);
+
+		router.recordSpeed("ffmpeg-a", "p", 2d);
+		assertEquals("ffmpeg-a", router.route(noRequirements, "p").get().getExecName());
+		router.recordSpeed("ffmpeg-b", "p", 3d);
+		assertEquals("ffmpeg-b", router.route(noRequirements, "p").get().getExecName());
+
+		assertEquals("ffmpeg-a", router.route(noRequirements, "other").get().getExecName());
+	}
+
+}
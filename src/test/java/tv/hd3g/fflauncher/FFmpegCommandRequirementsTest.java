@@ -0,0 +1,60 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import tv.hd3g.processlauncher.cmdline.Parameters;
+
+class FFmpegCommandRequirementsTest {
+
+	@Test
+	void testParse() {
+		final var parameters = Parameters.bulk("-hide_banner -f lavfi -i smptehdbars -i in.wav "
+		                                       + "-vf scale=320:240,fps=25 -c:v libx264 -c:a copy -f mp4 out.mp4");
+		final var requirements = new FFmpegCommandRequirements(parameters);
+		assertEquals(Set.of("libx264"), requirements.encoders);
+		assertEquals(Set.of("scale", "fps"), requirements.filters);
+		assertEquals(Set.of("mp4"), requirements.muxers);
+		assertEquals(Set.of("lavfi"), requirements.demuxers);
+		assertEquals("enc=libx264;flt=fps,scale;mux=mp4;dmx=lavfi", requirements.toProfile());
+	}
+
+	@Test
+	void testParseInputFormats() {
+		assertEquals(List.of("lavfi", "wav"), FFmpegCommandValidator.parseInputFormats(List.of(
+		        "-f", "lavfi", "-i", "smptehdbars", "-i", "in.mov", "-f", "wav", "-i", "in.wav", "-f", "mp4",
+		        "out.mp4")));
+		assertEquals(List.of("lavfi"), FFmpegCommandValidator.parseInputFormats(List.of(
+		        "-f", "lavfi", "-i", "smptehdbars", "-fix_sub_duration", "-f", "wav", "-i", "in.wav", "out.mp4")));
+	}
+
+	@Test
+	void testParseUnknownOption() {
+		final var parameters = Parameters.bulk("-i in.mov -c:a aac out.m4a -psnr -c:v libx264 -f mp4 out.mp4");
+		final var requirements = new FFmpegCommandRequirements(parameters);
+		assertEquals(Set.of("aac"), requirements.encoders);
+		assertTrue(requirements.muxers.isEmpty());
+	}
+
+}
@@ -0,0 +1,122 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import tv.hd3g.fflauncher.about.FFAbout;
+import tv.hd3g.fflauncher.about.FFAboutAVOption;
+import tv.hd3g.fflauncher.about.FFAboutEncoder;
+import tv.hd3g.fflauncher.about.FFAboutMuxer;
+
+class FFmpegCommandValidatorTest {
+
+	FFAbout about;
+	FFAboutEncoder x264;
+	FFAboutEncoder aac;
+	FFAboutEncoder unknown;
+	FFAboutMuxer mp4;
+	FFAboutMuxer wav;
+
+	@BeforeEach
+	void init() {
+		about = mock(FFAbout.class);
+		x264 = mock(FFAboutEncoder.class);
+		aac = mock(FFAboutEncoder.class);
+		unknown = mock(FFAboutEncoder.class);
+		mp4 = mock(FFAboutMuxer.class);
+		wav = mock(FFAboutMuxer.class);
+
+		when(about.getEncoder("libx264")).thenReturn(x264);
+		when(about.getEncoder("aac")).thenReturn(aac);
+		when(about.getEncoder("nope")).thenReturn(unknown);
+		when(about.getMuxer("mp4")).thenReturn(mp4);
+		when(about.getMuxer("wav")).thenReturn(wav);
+
+		when(x264.isKnown()).thenReturn(true);
+		when(x264.getEncoderName()).thenReturn("libx264");
+		when(x264.getPixelFormats()).thenReturn(List.of("yuv420p", "yuv422p"));
+		when(x264.getOption("preset")).thenReturn(Optional.ofNullable(mock(FFAboutAVOption.class)));
+		when(x264.getOption("tune")).thenReturn(Optional.empty());
+		when(aac.isKnown()).thenReturn(true);
+		when(aac.getEncoderName()).thenReturn("aac");
+		when(aac.getSampleFormats()).thenReturn(List.of("fltp"));
+		when(aac.getSampleRates()).thenReturn(List.of(44100, 48000));
+		when(mp4.isKnown()).thenReturn(true);
+		when(mp4.getDefaultVideoCodec()).thenReturn(Optional.ofNullable("h264"));
+		when(mp4.getDefaultAudioCodec()).thenReturn(Optional.ofNullable("aac"));
+		when(wav.isKnown()).thenReturn(true);
+		when(wav.getDefaultVideoCodec()).thenReturn(Optional.empty());
+		when(wav.getDefaultAudioCodec()).thenReturn(Optional.ofNullable("pcm_s16le"));
+	}
+
+	@Test
+	void testParseOutputs() {
+		final var outputs = FFmpegCommandValidator.parseOutputs(List.of(
+		        "-hide_banner", "-y", "-ss", "1", "-i", "in.mov",
+		        "-c:v", "libx264", "-pix_fmt", "yuv420p", "-an", "-f", "mp4", "out.mp4",
+		        "-vn", "-c:a:0", "aac", "-ar", "48000", "out.m4a"));
+		assertEquals(2, outputs.size());
+		assertEquals("out.mp4", outputs.get(0).destination);
+		assertEquals(Map.of("v", "libx264"), outputs.get(0).getCodecs("v", "-vcodec"));
+		assertEquals(List.of("yuv420p"), outputs.get(0).getValuesFor("-pix_fmt", "v", "v"));
+		assertTrue(outputs.get(0).get("-ss").isEmpty());
+		assertEquals(Map.of("a:0", "aac"), outputs.get(1).getCodecs("a", "-acodec"));
+		assertEquals(List.of("48000"), outputs.get(1).getValuesFor("-ar", "a", "a:0"));
+	}
+
+	@Test
+	void testParseOutputsUnknownOption() {
+		final var outputs = FFmpegCommandValidator.parseOutputs(List.of(
+		        "-i", "in.mov", "-c:a", "aac", "out.m4a",
+		        "-bitexact", "-c:v", "libx264", "-f", "mp4", "out.mp4"));
+		assertEquals(1, outputs.size());
+		assertEquals("out.m4a", outputs.get(0).destination);
+	}
+
+	@Test
+	void testCheckOk() {
+		assertTrue(FFmpegCommandValidator.check(List.of(
+		        "-i", "in.mov", "-c:v", "libx264", "-preset", "fast", "-pix_fmt", "yuv420p",
+		        "-c:a", "aac", "-ar", "48000", "-f", "mp4", "out.mp4"), about).isEmpty());
+		assertTrue(FFmpegCommandValidator.check(List.of(
+		        "-i", "in.mov", "-c", "copy", "-f", "mp4", "out.mp4"), about).isEmpty());
+		assertTrue(FFmpegCommandValidator.check(List.of(
+		        "-i", "in.mov", "-bitexact", "-c:v", "libx264", "-f", "mp4", "out.mp4"), about).isEmpty());
+	}
+
+	@Test
+	void testCheckErrors() {
+		final var result = FFmpegCommandValidator.check(List.of(
+		        "-i", "in.mov", "-c:v", "libx264", "-tune:a", "film", "-pix_fmt", "yuv420p12le",
+		        "-c:a", "aac", "-sample_fmt", "s16", "-ar", "50000", "-f", "wav", "out.wav",
+		        "-vcodec", "nope", "out2.mov"), about);
+		assertEquals(6, result.size());
+		assertTrue(result.contains("Output out.wav, -tune film: not an option for [aac]"));
+	}
+
+}
@@ -18,7 +18,10 @@ package tv.hd3g.fflauncher;
 
 import static java.util.stream.Collectors.toUnmodifiableList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static tv.hd3g.fflauncher.ConversionTool.APPEND_PARAM_AT_END;
 import static tv.hd3g.fflauncher.ConversionTool.PREPEND_PARAM_AT_START;
 
@@ -39,7 +42,9 @@ import org.junit.jupiter.api.Test;
 import tv.hd3g.fflauncher.FFmpeg.FFHardwareCodec;
 import tv.hd3g.fflauncher.FFmpeg.Preset;
 import tv.hd3g.fflauncher.FFmpeg.Tune;
+import tv.hd3g.fflauncher.about.FFAbout;
 import tv.hd3g.fflauncher.enums.FFUnit;
+import tv.hd3g.fflauncher.mediainfo.MediaInfo;
 import tv.hd3g.fflauncher.recipes.ProbeMedia;
 import tv.hd3g.processlauncher.cmdline.ExecutableFinder;
 import tv.hd3g.processlauncher.cmdline.Parameters;
@@ -84,6 +89,16 @@ class FFmpegTest {
 		        ffmpeg.getInternalParameters().toString().substring(header));
 	}
 
+	@Test
+	void testHardwareVideoDecodingWithoutCodecName() {
+		final var about = mock(FFAbout.class);
+		final var mediaInfo = MediaInfo.parseJson("{\"streams\":[{\"index\":0,\"codec_type\":\"video\"}]}");
+		final var ffmpeg = create();
+		assertThrows(MediaException.class,
+		        () -> ffmpeg.addHardwareVideoDecoding("source", mediaInfo, FFHardwareCodec.NV, about));
+		verifyNoInteractions(about);
+	}
+
 	@Test
 	void testNV() throws IOException, MediaException {
 		if (System.getProperty("ffmpeg.test.nvidia", "").equals("1") == false) {
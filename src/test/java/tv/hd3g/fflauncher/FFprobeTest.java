@@ -18,11 +18,13 @@ package tv.hd3g.fflauncher;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
 
 import tv.hd3g.fflauncher.FFprobe.FFPrintFormat;
+import tv.hd3g.fflauncher.FFprobe.FFStreamType;
 import tv.hd3g.processlauncher.cmdline.Parameters;
 
 class FFprobeTest {
@@ -110,6 +112,44 @@ class FFprobeTest {
 		assertTrue(p.isShowChapters());
 
 		parameters.clear();
+
+		assertFalse(p.hasReadIntervals());
+		p.setReadIntervals("%+10");
+		assertEquals("-read_intervals %+10", parameters.toString().substring(skip_base_cmdline));
+		assertTrue(p.hasReadIntervals());
+
+		parameters.clear();
+
+		assertFalse(p.hasProbeSize());
+		p.setProbeSize(1000000);
+		assertEquals("-probesize 1000000", parameters.toString().substring(skip_base_cmdline));
+		assertTrue(p.hasProbeSize());
+		assertThrows(IllegalArgumentException.class, () -> p.setProbeSize(1));
+
+		parameters.clear();
+
+		assertFalse(p.hasAnalyzeDuration());
+		p.setAnalyzeDuration(500000);
+		assertEquals("-analyzeduration 500000", parameters.toString().substring(skip_base_cmdline));
+		assertTrue(p.hasAnalyzeDuration());
+
+		parameters.clear();
+
+		assertFalse(p.hasShowEntries());
+		p.setShowEntries(new FFprobeEntries().format("duration").stream("index", "channels").streamTags("language"));
+		assertEquals("-show_entries format=duration:stream=index,channels:stream_tags=language",
+		        parameters.toString().substring(skip_base_cmdline));
+		assertTrue(p.hasShowEntries());
+		assertThrows(IllegalArgumentException.class, () -> p.setShowEntries(new FFprobeEntries()));
+
+		parameters.clear();
+
+		assertFalse(p.hasSelectStreams());
+		p.setSelectStreams(FFStreamType.AUDIO, 1);
+		assertEquals("-select_streams a:1", parameters.toString().substring(skip_base_cmdline));
+		assertTrue(p.hasSelectStreams());
+
+		parameters.clear();
 	}
 
 }
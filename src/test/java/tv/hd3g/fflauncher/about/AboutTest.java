@@ -27,12 +27,16 @@ import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
 
 import tv.hd3g.fflauncher.about.FFAboutCodec.CodecType;
 import tv.hd3g.fflauncher.enums.FilterConnectorType;
+import tv.hd3g.fflauncher.filtering.Filter;
+import tv.hd3g.fflauncher.filtering.FilterArgument;
 
 class AboutTest {
 
@@ -186,6 +190,38 @@ class AboutTest {
 
 	}
 
+	@Test
+	void testIndexes() {
+		final var codecs = new FFAboutIndexes.Codecs(FFAboutCodec.parse(readLinesFromResource("test-codecs.txt")));
+		assertEquals("h264", codecs.getEncodingCodec("H264").get().name);
+		assertEquals("h264", codecs.getDecodingCodec("h264").get().name);
+		assertTrue(codecs.getEncodingCodec("nope").isEmpty());
+		assertTrue(codecs.getEncodingCodec(null).isEmpty());
+		assertTrue(codecs.getDecodingCodec(null).isEmpty());
+		assertEquals("h264", codecs.getByEncoderEngine("h264_nvenc").get().name);
+		assertEquals("h264", codecs.getByDecoderEngine("h264_cuvid").get().name);
+		assertTrue(codecs.getByDecoderEngine("h264_nvenc").isEmpty());
+		assertTrue(codecs.getEncoderEngines().contains("libx264"));
+
+		final var formats = new FFAboutIndexes.Formats(FFAboutFormat.parseFormats(readLinesFromResource(
+		        "test-formats.txt")));
+		assertTrue(formats.isDemuxer("mov"));
+		assertTrue(formats.isDemuxer("MP4"));
+		assertTrue(formats.isMuxer("h264"));
+		assertFalse(formats.isMuxer("nope"));
+		assertFalse(formats.isDemuxer(null));
+		assertFalse(formats.isMuxer(null));
+
+		final var filters = new FFAboutIndexes.Filters(FFAboutFilter.parseFilters(readLinesFromResource(
+		        "test-filters.txt")));
+		assertEquals(299, filters.getTags(null).size());
+		assertTrue(filters.getTags(FilterConnectorType.AUDIO).contains("afftfilt"));
+		assertFalse(filters.getTags(FilterConnectorType.VIDEO).contains("afftfilt"));
+		assertTrue(filters.getTags(FilterConnectorType.VIDEO).contains("scale2ref"));
+		assertFalse(filters.getTags(null).contains(FFAboutIndexes.toKey(null)));
+		assertEquals("mjpeg", FFAboutIndexes.toKey("MJPEG"));
+	}
+
 	@Test
 	void testPixelFormats() {
 		final var list = FFAboutPixelFormat.parsePixelsFormats(readLinesFromResource(
@@ -216,4 +252,98 @@ class AboutTest {
 		assertTrue(list.contains("qsv"));
 	}
 
+	@Test
+	void testFilterOptions() {
+		final var lines = readLinesFromResource("test-help-filter-scale.txt").stream()
+		        .map(String::trim)
+		        .collect(Collectors.toUnmodifiableList());
+		final var options = new FFAboutFilterOptions("scale", lines);
+		assertTrue(options.isKnown());
+		assertTrue(options.isTimelineSupport());
+		assertEquals(13, options.getOptions().size());
+
+		final var w = options.getOption("w").get();
+		assertEquals("string", w.getType());
+		assertEquals("..FV.....T.", w.getFlags());
+		assertEquals(Set.of("width"), w.getAliases());
+		assertEquals(Set.of("w"), options.getOption("width").get().getAliases());
+		assertTrue(options.getOption("h").get().getAliases().contains("w") == false);
+
+		final var forceAR = options.getOption("force_original_aspect_ratio").get();
+		assertEquals(Set.of("disable", "decrease", "increase"), forceAR.getConstants());
+		assertEquals(Optional.ofNullable(0d), forceAR.getMin());
+		assertEquals(Optional.ofNullable(2d), forceAR.getMax());
+		assertEquals("disable", forceAR.getDefaultValue().get());
+		assertTrue(options.getOption("param0").get().getMin().isEmpty());
+		assertEquals(Set.of("fast_bilinear", "bilinear", "bicubic", "accurate_rnd"),
+		        options.getOption("sws_flags").get().getConstants());
+
+		assertTrue(options.checkArgument(new FilterArgument("1280")).isEmpty());
+		assertTrue(options.checkArgument(new FilterArgument("width", "1280")).isEmpty());
+		assertTrue(options.checkArgument(new FilterArgument("enable", "gte(t,1)")).isEmpty());
+		assertTrue(options.checkArgument(new FilterArgument("wdth", "1280")).isPresent());
+		assertTrue(options.checkArgument(new FilterArgument("force_divisible_by", "2")).isEmpty());
+		assertTrue(options.checkArgument(new FilterArgument("force_divisible_by", "512")).isPresent());
+		assertTrue(options.checkArgument(new FilterArgument("force_original_aspect_ratio", "decrease")).isEmpty());
+		assertTrue(options.checkArgument(new FilterArgument("srcw", "2147483647")).isEmpty());
+		assertTrue(options.checkArgument(new FilterArgument("interl", "true")).isEmpty());
+		assertTrue(options.checkArgument(new FilterArgument("interl", "maybe")).isPresent());
+		assertTrue(options.checkArgument(new FilterArgument("sws_flags", "bicubic+accurate_rnd")).isEmpty());
+		assertTrue(options.checkArgument(new FilterArgument("sws_flags", "bicubik")).isPresent());
+
+		assertEquals(2, options.checkFilter(new Filter("scale=wdth=1280:h=720:interl=maybe")).size());
+		assertTrue(options.checkFilter(new Filter("scale=1280:720")).isEmpty());
+		assertFalse(new FFAboutFilterOptions("nope", List.of("Unknown filter 'nope'.")).isKnown());
+	}
+
+	private static List<String> readTrimLinesFromResource(final String resource) {
+		return readLinesFromResource(resource).stream()
+		        .map(String::trim)
+		        .collect(Collectors.toUnmodifiableList());
+	}
+
+	@Test
+	void testEncoder() {
+		final var x264 = new FFAboutEncoder("libx264", readTrimLinesFromResource("test-help-encoder-libx264.txt"));
+		assertTrue(x264.isKnown());
+		assertEquals("libx264", x264.getEncoderName());
+		assertEquals("libx264 H.264 / AVC / MPEG-4 AVC / MPEG-4 part 10", x264.getLongName());
+		assertEquals(List.of("dr1", "delay", "threads"), x264.getGeneralCapabilities());
+		assertEquals("other", x264.getThreadingCapabilities());
+		assertFalse(x264.isFrameThreading());
+		assertEquals(15, x264.getPixelFormats().size());
+		assertTrue(x264.getPixelFormats().contains("yuv420p10le"));
+		assertTrue(x264.getSampleFormats().isEmpty());
+		assertEquals(5, x264.getOptions().size());
+		assertTrue(x264.getOption("preset").isPresent());
+		assertEquals(Set.of("none", "variance", "autovariance"), x264.getOption("aq-mode").get().getConstants());
+
+		final var aac = new FFAboutEncoder("aac", readTrimLinesFromResource("test-help-encoder-aac.txt"));
+		assertEquals(List.of("fltp"), aac.getSampleFormats());
+		assertTrue(aac.getSampleRates().contains(48000));
+		assertTrue(aac.getPixelFormats().isEmpty());
+		assertTrue(aac.getOption("preset").isEmpty());
+
+		assertFalse(new FFAboutEncoder("nope", List.of("Codec 'nope' is not recognized by FFmpeg.")).isKnown());
+	}
+
+	@Test
+	void testMuxer() {
+		final var mp4 = new FFAboutMuxer("mp4", readTrimLinesFromResource("test-help-muxer-mp4.txt"));
+		assertTrue(mp4.isKnown());
+		assertEquals("MP4 (MPEG-4 Part 14)", mp4.getLongName());
+		assertEquals(List.of("mp4"), mp4.getExtensions());
+		assertEquals(Optional.ofNullable("h264"), mp4.getDefaultVideoCodec());
+		assertEquals(Optional.ofNullable("aac"), mp4.getDefaultAudioCodec());
+		assertEquals(Optional.ofNullable("mov_text"), mp4.getDefaultSubtitleCodec());
+		assertTrue(mp4.getOption("movflags").get().checkValue("+faststart").isEmpty());
+
+		final var wav = new FFAboutMuxer("wav", readTrimLinesFromResource("test-help-muxer-wav.txt"));
+		assertEquals(List.of("audio/x-wav", "audio/wav"), wav.getMimeTypes());
+		assertTrue(wav.getDefaultVideoCodec().isEmpty());
+		assertEquals(2, wav.getOptions().size());
+
+		assertFalse(new FFAboutMuxer("nope", List.of("Unknown format 'nope'.")).isKnown());
+	}
+
 }
@@ -0,0 +1,86 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.about;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class FFAboutCacheTest {
+
+	Path directory;
+	File executable;
+	FFAboutCache cache;
+
+	@BeforeEach
+	void init() throws IOException {
+		directory = Files.createTempDirectory("ffaboutcache");
+		executable = File.createTempFile("fakeffmpeg", ".bin");
+		Files.writeString(executable.toPath(), "v1");
+		cache = new FFAboutCache(directory.resolve("sub"));
+	}
+
+	@AfterEach
+	void end() throws IOException {
+		Files.deleteIfExists(cache.getCacheFile(executable));
+		Files.deleteIfExists(directory.resolve("sub"));
+		Files.deleteIfExists(directory);
+		Files.deleteIfExists(executable.toPath());
+	}
+
+	@Test
+	void testPutGet() {
+		final var entry = cache.getEntry(executable);
+		assertTrue(entry.get("-codecs").isEmpty());
+		entry.put("-codecs", List.of("A", "B"));
+		entry.put("-version", List.of("ffmpeg version 5"));
+		assertEquals(List.of("A", "B"), entry.get("-codecs").get());
+		assertTrue(Files.exists(cache.getCacheFile(executable)));
+
+		final var reloaded = new FFAboutCache(directory.resolve("sub")).getEntry(executable);
+		assertEquals(List.of("A", "B"), reloaded.get("-codecs").get());
+		assertEquals(List.of("ffmpeg version 5"), reloaded.get("-version").get());
+	}
+
+	@Test
+	void testInvalidateOnChange() throws IOException {
+		cache.getEntry(executable).put("-codecs", List.of("A"));
+		Files.writeString(executable.toPath(), "v2 longer");
+		assertFalse(cache.getEntry(executable).get("-codecs").isPresent());
+	}
+
+	@Test
+	void testBadCacheFile() throws IOException {
+		Files.createDirectories(directory.resolve("sub"));
+		Files.writeString(cache.getCacheFile(executable), "not a cache file");
+		final var entry = cache.getEntry(executable);
+		assertFalse(entry.get("-codecs").isPresent());
+		entry.put("-codecs", List.of("A"));
+		assertEquals(List.of("A"), cache.getEntry(executable).get("-codecs").get());
+	}
+
+}
@@ -0,0 +1,112 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.about;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class FFAboutLazySectionTest {
+
+	@Test
+	void testConcurrentGet() throws Exception {
+		final var loads = new AtomicInteger();
+		final var start = new CountDownLatch(1);
+		final var section = new FFAboutLazySection<>(() -> {
+			loads.incrementAndGet();
+			try {
+				Thread.sleep(50);
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return new Object();
+		});
+		assertFalse(section.isLoaded());
+
+		final var executor = Executors.newFixedThreadPool(8);
+		try {
+			final var results = IntStream.range(0, 8)
+			        .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+				        try {
+					        start.await();
+				        } catch (final InterruptedException e) {
+					        Thread.currentThread().interrupt();
+				        }
+				        return section.get();
+			        }, executor))
+			        .collect(Collectors.toUnmodifiableList());
+			start.countDown();
+
+			final var first = results.get(0).get(10, TimeUnit.SECONDS);
+			for (final var result : results) {
+				assertSame(first, result.get(10, TimeUnit.SECONDS));
+			}
+			assertEquals(1, loads.get());
+			assertTrue(section.isLoaded());
+			assertSame(first, section.get());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void testRetryAfterFail() {
+		final var loads = new AtomicInteger();
+		final var section = new FFAboutLazySection<>(() -> {
+			if (loads.incrementAndGet() == 1) {
+				throw new IllegalStateException("First load");
+			}
+			return "ok";
+		});
+		assertThrows(IllegalStateException.class, section::get);
+		assertFalse(section.isLoaded());
+		assertEquals("ok", section.get());
+		assertEquals("ok", section.get());
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void testPublish() {
+		final var loads = new AtomicInteger();
+		final var section = new FFAboutLazySection<>(() -> "load" + loads.incrementAndGet());
+
+		final var loaded = section.loadUnpublished();
+		assertEquals("load1", loaded);
+		assertFalse(section.isLoaded());
+
+		section.publish(loaded);
+		assertTrue(section.isLoaded());
+		assertSame(loaded, section.get());
+
+		section.publish(section.loadUnpublished());
+		assertSame(loaded, section.get());
+		assertEquals(2, loads.get());
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.about;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import tv.hd3g.fflauncher.FFmpeg;
+import tv.hd3g.processlauncher.cmdline.ExecutableFinder;
+import tv.hd3g.processlauncher.cmdline.Parameters;
+
+class FFAboutRegistryTest {
+
+	ExecutableFinder executableFinder;
+	FFAboutRegistry registry;
+
+	@BeforeEach
+	void init() {
+		executableFinder = new ExecutableFinder();
+		registry = new FFAboutRegistry();
+	}
+
+	@Test
+	void testGetAbout() {
+		final var about = registry.getAbout("ffmpeg", executableFinder, null);
+		assertSame(about, registry.getAbout("ffmpeg", new ExecutableFinder(), null));
+		assertEquals(1, registry.size());
+
+		registry.clear();
+		assertEquals(0, registry.size());
+		assertNotSame(about, registry.getAbout("ffmpeg", executableFinder, null));
+	}
+
+	@Test
+	void testNotFound() {
+		final var about = registry.getAbout("nonono-ffmpeg", executableFinder, null);
+		assertNotSame(about, registry.getAbout("nonono-ffmpeg", executableFinder, null));
+		assertEquals(0, registry.size());
+	}
+
+	@Test
+	void testScheduler() {
+		assertSame(registry.getScheduler(), registry.getScheduler());
+	}
+
+	@Test
+	void testSharedByFFbase() {
+		final var about = new FFmpeg("ffmpeg", new Parameters()).getAbout(executableFinder);
+		assertSame(about, new FFmpeg("ffmpeg", new Parameters()).getAbout(executableFinder));
+		assertSame(about, FFAboutRegistry.getDefault().getAbout("ffmpeg", executableFinder, null));
+	}
+
+}
@@ -31,6 +31,7 @@ import org.ffmpeg.ffprobe.StreamType;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import tv.hd3g.fflauncher.mediainfo.MediaInfo;
 import tv.hd3g.ffprobejaxb.FFprobeJAXB;
 
 class InputAudioStreamTest {
@@ -101,6 +102,24 @@ class InputAudioStreamTest {
 		assertEquals(new InputAudioStream(MONO, 1, 0), streamList.get(2));
 	}
 
+	@Test
+	void testGetListFromMediaInfo() {
+		final var file0 = MediaInfo.parseJson("{\"streams\":["
+		                                      + "{\"index\":0,\"codec_type\":\"video\"},"
+		                                      + "{\"index\":2,\"codec_type\":\"audio\",\"channels\":2,"
+		                                      + "\"channel_layout\":\"stereo\"},"
+		                                      + "{\"index\":1,\"codec_type\":\"audio\",\"channels\":6,"
+		                                      + "\"channel_layout\":\"5.1\"}]}");
+		final var file1 = MediaInfo.parseJson("{\"streams\":[{\"index\":0,\"codec_type\":\"audio\","
+		                                      + "\"channels\":1,\"channel_layout\":\"\"}]}");
+
+		final var streamList = InputAudioStream.getListFromMediaInfo(file0, file1);
+		assertEquals(3, streamList.size());
+		assertEquals(new InputAudioStream(CH5_1, 0, 1), streamList.get(0));
+		assertEquals(new InputAudioStream(STEREO, 0, 2), streamList.get(1));
+		assertEquals(new InputAudioStream(MONO, 1, 0), streamList.get(2));
+	}
+
 	@Test
 	void testGetFromRelativeIndexes() {
 		final var audioStream0 = new InputAudioStream(STEREO, 0, 1);
@@ -0,0 +1,72 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.exec;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import tv.hd3g.processlauncher.ProcesslauncherLifecycle;
+
+class CaptureStdOutBytesTest {
+
+	@Test
+	void testCapture() {
+		final var stdErrLines = new ArrayList<String>();
+		final var capture = new CaptureStdOutBytes(2, stdErrLines::add);
+		final var lifecycle = mock(ProcesslauncherLifecycle.class);
+
+		final var xml = "<ffprobe>\n\t<format duration=\"1.0\" />\n</ffprobe>\n";
+		final var stdOutThread = capture.stdOutStreamConsumer(new ByteArrayInputStream(xml.getBytes(UTF_8)), lifecycle);
+		final var stdErrThread = capture.stdErrStreamConsumer(
+		        new ByteArrayInputStream("e1\ne2\ne3\n".getBytes(UTF_8)), lifecycle);
+		capture.waitForCaptureEnd();
+		assertTrue(stdOutThread.isDaemon());
+		assertNotSame(stdOutThread, stdErrThread);
+
+		assertEquals(xml, capture.getStdOut());
+		assertEquals(xml.length(), capture.getStdOutSize());
+		assertEquals(List.of("e2", "e3"), capture.getStdErrTail());
+		assertEquals(List.of("e1", "e2", "e3"), stdErrLines);
+	}
+
+	@Test
+	void testNoStdErrRetention() {
+		final var capture = new CaptureStdOutBytes(0);
+		final var lifecycle = mock(ProcesslauncherLifecycle.class);
+		capture.stdOutStreamConsumer(new ByteArrayInputStream(new byte[0]), lifecycle);
+		capture.stdErrStreamConsumer(new ByteArrayInputStream("e1\n".getBytes(UTF_8)), lifecycle);
+		capture.waitForCaptureEnd();
+		assertEquals("", capture.getStdOut());
+		assertEquals(List.of(), capture.getStdErrTail());
+	}
+
+	@Test
+	void testBadSetup() {
+		assertThrows(IllegalArgumentException.class, () -> new CaptureStdOutBytes(-1));
+	}
+
+}
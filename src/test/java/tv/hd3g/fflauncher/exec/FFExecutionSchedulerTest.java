@@ -0,0 +1,157 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.exec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import tv.hd3g.fflauncher.FFbase;
+import tv.hd3g.fflauncher.FFprobe;
+import tv.hd3g.processlauncher.ExecutableTool;
+import tv.hd3g.processlauncher.ExecutionCallbacker;
+import tv.hd3g.processlauncher.ProcesslauncherLifecycle;
+import tv.hd3g.processlauncher.cmdline.ExecutableFinder;
+import tv.hd3g.processlauncher.cmdline.Parameters;
+
+class FFExecutionSchedulerTest {
+
+	final ExecutableFinder executableFinder;
+	final List<ExecutionCallbacker> startedJobs;
+
+	FFExecutionSchedulerTest() {
+		executableFinder = new ExecutableFinder();
+		startedJobs = new ArrayList<>();
+	}
+
+	/**
+	 * The returned tool don't run any process: the job ends only when the test call onEndExecution on it.
+	 */
+	private FFbase mockTool() {
+		final var tool = mock(FFbase.class);
+		when(tool.toExecutableTool(any())).thenAnswer(invocation -> {
+			startedJobs.add(invocation.getArgument(0));
+			return mock(ExecutableTool.class);
+		});
+		return tool;
+	}
+
+	@Test
+	void testBadSetup() {
+		assertThrows(IllegalArgumentException.class, () -> new FFExecutionScheduler(executableFinder, 0));
+		final var scheduler = new FFExecutionScheduler(executableFinder, 2);
+		final var ffprobe = new FFprobe("ffprobe", Parameters.bulk("-version"));
+		assertThrows(IllegalArgumentException.class, () -> scheduler.submit(ffprobe, 0));
+	}
+
+	@Test
+	void testSubmit() throws Exception {
+		final var scheduler = new FFExecutionScheduler(executableFinder, 2);
+		assertEquals(2, scheduler.getTotalSlots());
+
+		final var futures = IntStream.range(0, 6)
+		        .mapToObj(i -> scheduler.submit(new FFprobe("ffprobe", Parameters.bulk("-version")), 1 + i % 3))
+		        .collect(Collectors.toUnmodifiableList());
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()])).get(30, TimeUnit.SECONDS);
+
+		for (final var f : futures) {
+			assertTrue(f.get().isCorrectlyDone());
+		}
+		assertEquals(6, scheduler.getAdmittedCount());
+		assertEquals(0, scheduler.getQueueDepth());
+		assertEquals(0, scheduler.getUsedSlots());
+		assertEquals(0, scheduler.getRunningJobsCount());
+		assertTrue(scheduler.getMaxWaitTime(TimeUnit.NANOSECONDS) >= scheduler.getMeanWaitTime(TimeUnit.NANOSECONDS));
+	}
+
+	@Test
+	void testWaitForSlots() throws Exception {
+		final var scheduler = new FFExecutionScheduler(executableFinder, 2);
+		final var heavy = scheduler.submit(mockTool(), 2);
+		final var light = scheduler.submit(mockTool(), 1);
+
+		assertEquals(1, startedJobs.size());
+		assertEquals(2, scheduler.getUsedSlots());
+		assertEquals(1, scheduler.getRunningJobsCount());
+		assertEquals(1, scheduler.getQueueDepth());
+		assertFalse(light.isDone());
+
+		final var heavyLifecycle = mock(ProcesslauncherLifecycle.class);
+		startedJobs.get(0).onEndExecution(heavyLifecycle);
+		assertEquals(heavyLifecycle, heavy.get());
+
+		assertEquals(2, startedJobs.size());
+		assertEquals(1, scheduler.getUsedSlots());
+		assertEquals(1, scheduler.getRunningJobsCount());
+		assertEquals(0, scheduler.getQueueDepth());
+		assertFalse(light.isDone());
+
+		startedJobs.get(1).onEndExecution(mock(ProcesslauncherLifecycle.class));
+		assertTrue(light.isDone());
+		assertEquals(0, scheduler.getUsedSlots());
+		assertEquals(0, scheduler.getRunningJobsCount());
+		assertEquals(2, scheduler.getAdmittedCount());
+	}
+
+	@Test
+	void testCancelQueued() {
+		final var scheduler = new FFExecutionScheduler(executableFinder, 1);
+		scheduler.submit(mockTool());
+		final var queued = scheduler.submit(mockTool());
+		assertEquals(1, scheduler.getQueueDepth());
+
+		assertTrue(queued.cancel(true));
+		assertEquals(0, scheduler.getQueueDepth());
+
+		startedJobs.get(0).onEndExecution(mock(ProcesslauncherLifecycle.class));
+		assertEquals(1, startedJobs.size());
+		assertEquals(0, scheduler.getUsedSlots());
+		assertEquals(0, scheduler.getRunningJobsCount());
+		assertEquals(1, scheduler.getAdmittedCount());
+	}
+
+	@Test
+	void testCancelRunning() {
+		final var scheduler = new FFExecutionScheduler(executableFinder, 1);
+		final var running = scheduler.submit(mockTool());
+		final var lifecycle = mock(ProcesslauncherLifecycle.class);
+		when(lifecycle.isRunning()).thenReturn(true);
+		startedJobs.get(0).postStartupExecution(lifecycle);
+
+		assertTrue(running.cancel(true));
+		verify(lifecycle).kill();
+
+		startedJobs.get(0).onEndExecution(lifecycle);
+		assertEquals(0, scheduler.getUsedSlots());
+		assertEquals(0, scheduler.getRunningJobsCount());
+	}
+
+}
@@ -0,0 +1,74 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.exec;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import tv.hd3g.processlauncher.ProcesslauncherLifecycle;
+
+class KillOnCancelTest {
+
+	@Test
+	void testCancelAfterStart() {
+		final var future = new CompletableFuture<Void>();
+		final var killOnCancel = new KillOnCancel(future);
+		final var lifecycle = mock(ProcesslauncherLifecycle.class);
+		when(lifecycle.isRunning()).thenReturn(true);
+
+		assertFalse(killOnCancel.isFutureDone());
+		killOnCancel.postStartupExecution(lifecycle);
+		verify(lifecycle, never()).kill();
+
+		future.cancel(true);
+		assertTrue(killOnCancel.isFutureDone());
+		verify(lifecycle).kill();
+	}
+
+	@Test
+	void testCancelBeforeStart() {
+		final var future = new CompletableFuture<Void>();
+		final var killOnCancel = new KillOnCancel(future);
+		final var lifecycle = mock(ProcesslauncherLifecycle.class);
+
+		future.cancel(true);
+		killOnCancel.postStartupExecution(lifecycle);
+		verify(lifecycle).kill();
+	}
+
+	@Test
+	void testComplete() {
+		final var future = new CompletableFuture<Void>();
+		final var killOnCancel = new KillOnCancel(future);
+		final var lifecycle = mock(ProcesslauncherLifecycle.class);
+		when(lifecycle.isRunning()).thenReturn(true);
+
+		killOnCancel.postStartupExecution(lifecycle);
+		future.complete(null);
+		assertTrue(killOnCancel.isFutureDone());
+		verify(lifecycle, never()).kill();
+	}
+
+}
@@ -0,0 +1,94 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.exec;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+class StdInFeederTest {
+
+	private static byte[] createSource(final int size) {
+		final var source = new byte[size];
+		for (var pos = 0; pos < size; pos++) {
+			source[pos] = (byte) pos;
+		}
+		return source;
+	}
+
+	@Test
+	void testFullCopy() {
+		final var source = createSource(100_000);
+		final var stdIn = new ByteArrayOutputStream();
+		final var feeder = new StdInFeeder(Channels.newChannel(new ByteArrayInputStream(source)), 4096)
+		        .start(stdIn, CaptureStdOutBytes.DAEMON_THREAD_FACTORY)
+		        .waitForEnd();
+
+		assertTrue(feeder.isSourceEndReached());
+		assertFalse(feeder.isClosedByProcess());
+		assertEquals(source.length, feeder.getWrittenBytes());
+		assertArrayEquals(source, stdIn.toByteArray());
+	}
+
+	@Test
+	void testClosedByProcess() {
+		final var source = createSource(100_000);
+		final var stdIn = new ByteArrayOutputStream();
+		final var limitedStdIn = new OutputStream() {
+
+			@Override
+			public void write(final int b) throws IOException {
+				write(new byte[] { (byte) b }, 0, 1);
+			}
+
+			@Override
+			public void write(final byte[] b, final int off, final int len) throws IOException {
+				if (stdIn.size() + len > 10_000) {
+					throw new IOException("Broken pipe");
+				}
+				stdIn.write(b, off, len);
+			}
+		};
+
+		final var feeder = new StdInFeeder(Channels.newChannel(new ByteArrayInputStream(source)), 1000)
+		        .start(limitedStdIn, CaptureStdOutBytes.DAEMON_THREAD_FACTORY)
+		        .waitForEnd();
+
+		assertFalse(feeder.isSourceEndReached());
+		assertTrue(feeder.isClosedByProcess());
+		assertEquals(10_000, feeder.getWrittenBytes());
+		assertArrayEquals(Arrays.copyOf(source, 10_000), stdIn.toByteArray());
+	}
+
+	@Test
+	void testBadSetup() {
+		final var channel = Channels.newChannel(new ByteArrayInputStream(new byte[0]));
+		assertThrows(IllegalArgumentException.class, () -> new StdInFeeder(channel, 0));
+	}
+
+}
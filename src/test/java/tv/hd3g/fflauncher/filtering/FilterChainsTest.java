@@ -9,6 +9,7 @@ import static org.mockito.Mockito.when;
 
 import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,7 +18,6 @@ import org.mockito.Mockito;
 import tv.hd3g.fflauncher.ConversionTool;
 import tv.hd3g.fflauncher.FFbase;
 import tv.hd3g.fflauncher.about.FFAbout;
-import tv.hd3g.fflauncher.about.FFAboutFilter;
 import tv.hd3g.fflauncher.enums.FilterConnectorType;
 import tv.hd3g.processlauncher.cmdline.Parameters;
 
@@ -243,12 +243,7 @@ class FilterChainsTest {
 	@Test
 	void testCheckFiltersAvailability() {
 		final var about = Mockito.mock(FFAbout.class);
-		final var ffFilter0 = Mockito.mock(FFAboutFilter.class);
-		final var ffFilter1 = Mockito.mock(FFAboutFilter.class);
-
-		when(about.getFilters()).thenReturn(List.of(ffFilter0, ffFilter1));
-		when(ffFilter0.getTag()).thenReturn("ff0");
-		when(ffFilter1.getTag()).thenReturn("ff1");
+		when(about.getFilterTags(null)).thenReturn(Set.of("ff0", "ff1"));
 
 		final var fcNone = new FilterChains("nope, ff1");
 		var avail = fcNone.checkFiltersAvailability(about);
@@ -265,14 +260,9 @@ class FilterChainsTest {
 	@Test
 	void testCheckFiltersAvailability_ConnectorType() {
 		final var about = Mockito.mock(FFAbout.class);
-		final var ffFilter0 = Mockito.mock(FFAboutFilter.class);
-		final var ffFilter1 = Mockito.mock(FFAboutFilter.class);
-
-		when(about.getFilters()).thenReturn(List.of(ffFilter0, ffFilter1));
-		when(ffFilter0.getTag()).thenReturn("fvideo");
-		when(ffFilter0.getSourceConnector()).thenReturn(FilterConnectorType.VIDEO);
-		when(ffFilter1.getTag()).thenReturn("faudio");
-		when(ffFilter1.getSourceConnector()).thenReturn(FilterConnectorType.AUDIO);
+		when(about.getFilterTags(FilterConnectorType.VIDEO)).thenReturn(Set.of("fvideo"));
+		when(about.getFilterTags(FilterConnectorType.AUDIO)).thenReturn(Set.of("faudio"));
+		when(about.getFilterTags(null)).thenReturn(Set.of("fvideo", "faudio"));
 
 		final var fcNone = new FilterChains("nope, fvideo, faudio");
 		var avail = fcNone.checkFiltersAvailability(about, FilterConnectorType.VIDEO);
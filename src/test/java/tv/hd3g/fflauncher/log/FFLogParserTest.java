@@ -0,0 +1,123 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.log;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tv.hd3g.fflauncher.enums.FFLogLevel.ERROR;
+import static tv.hd3g.fflauncher.enums.FFLogLevel.INFO;
+import static tv.hd3g.fflauncher.enums.FFLogLevel.WARNING;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class FFLogParserTest {
+
+	List<FFLogEvent> events;
+
+	@BeforeEach
+	void init() {
+		events = new ArrayList<>();
+	}
+
+	@Test
+	void testComponentAndLevel() {
+		final var p = new FFLogParser(INFO, events::add);
+		p.parseLine("[h264 @ 0x55d5a0ee3c40] [error] non-existing PPS 0 referenced  ");
+		p.parseLine("[mov,mp4,m4a,3gp,3g2,mj2 @ 0x5581] [h264 @ 0x5582] [warning] Some warn");
+		p.parseLine("[info] Input #0, lavfi, from 'sine':");
+		p.parseLine("   Duration: N/A, start: 0.000000, bitrate: 768 kb/s");
+
+		assertEquals(4, events.size());
+		var e = events.get(0);
+		assertEquals(Optional.ofNullable(ERROR), e.getLevel());
+		assertEquals(Optional.ofNullable("h264 @ 0x55d5a0ee3c40"), e.getComponent());
+		assertEquals("non-existing PPS 0 referenced", e.getMessage());
+		assertEquals(1, e.getRepeatCount());
+
+		e = events.get(1);
+		assertEquals(Optional.ofNullable(WARNING), e.getLevel());
+		assertEquals(Optional.ofNullable("h264 @ 0x5582"), e.getComponent());
+		assertEquals("Some warn", e.getMessage());
+
+		e = events.get(2);
+		assertEquals(Optional.ofNullable(INFO), e.getLevel());
+		assertEquals(Optional.empty(), e.getComponent());
+		assertEquals("Input #0, lavfi, from 'sine':", e.getMessage());
+
+		e = events.get(3);
+		assertEquals(Optional.empty(), e.getLevel());
+		assertEquals("Duration: N/A, start: 0.000000, bitrate: 768 kb/s", e.getMessage());
+	}
+
+	@Test
+	void testFilterLevel() {
+		final var p = new FFLogParser(WARNING, events::add);
+		p.parseLine("[info] Nope");
+		p.parseLine("No level, like info");
+		p.parseLine("[aac @ 0x01] [verbose] Nope");
+		p.parseLine("[fatal] Yep");
+		assertEquals(1, events.size());
+		assertEquals("[fatal] Yep", events.get(0).toString());
+	}
+
+	@Test
+	void testRepeat() {
+		final var p = new FFLogParser(ERROR, events::add);
+		p.parseLine("    Last message repeated 3 times");
+		p.parseLine("[h264 @ 0x01] [error] Bad");
+		p.parseLine("    Last message repeated 12 times");
+		p.parseLine("[h264 @ 0x01] [info] Nope");
+		p.parseLine("    Last message repeated 2 times");
+
+		assertEquals(2, events.size());
+		assertEquals("Bad", events.get(1).getMessage());
+		assertEquals(12, events.get(1).getRepeatCount());
+		assertEquals(Optional.ofNullable(ERROR), events.get(1).getLevel());
+	}
+
+	@Test
+	void testBanner() {
+		final var p = new FFLogParser(INFO, events::add);
+		p.parseLine("ffmpeg version 4.4.1 Copyright (c) 2000-2021 the FFmpeg developers");
+		p.parseLine("  libavutil      56. 70.100 / 56. 70.100");
+		p.parseLine("");
+		p.parseLine("   ");
+		assertTrue(events.isEmpty());
+
+		assertTrue(FFLogParser.isBannerLine("  configuration: --enable-gpl"));
+		assertFalse(FFLogParser.isBannerLine("[libx264 @ 0x01] configuration:"));
+		assertFalse(FFLogParser.isBannerLine("Stream #0:0: Video: h264"));
+	}
+
+	@Test
+	void testPrefixTrie() {
+		final var trie = new PrefixTrie<Integer>().put("ab", 1).put("abc", 2).put("b", 3);
+		assertEquals(Integer.valueOf(1), trie.find("abcd", 0));
+		assertEquals(Integer.valueOf(3), trie.find("ab", 1));
+		assertNull(trie.find("a", 0));
+		assertNull(trie.find("\u00e9ab", 0));
+		assertEquals(2, PrefixTrie.skipWhitespaces(" \tx", 0));
+	}
+
+}
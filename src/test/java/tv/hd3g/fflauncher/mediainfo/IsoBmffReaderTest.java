@@ -0,0 +1,236 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.mediainfo;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class IsoBmffReaderTest {
+
+	private File media;
+	private IsoBmffReader reader;
+
+	@BeforeEach
+	void init() throws IOException {
+		media = File.createTempFile("media-", ".mov");
+		reader = new IsoBmffReader();
+	}
+
+	@AfterEach
+	void end() throws IOException {
+		Files.deleteIfExists(media.toPath());
+	}
+
+	static byte[] box(final String type, final byte[]... payloads) {
+		final var content = new ByteArrayOutputStream();
+		for (final var payload : payloads) {
+			content.writeBytes(payload);
+		}
+		return ByteBuffer.allocate(8 + content.size())
+		        .putInt(8 + content.size())
+		        .put(type.getBytes(US_ASCII))
+		        .put(content.toByteArray())
+		        .array();
+	}
+
+	static byte[] bytes(final int size, final Map<Integer, Object> values) {
+		final var buffer = ByteBuffer.allocate(size);
+		values.forEach((pos, value) -> {
+			if (value instanceof Short) {
+				buffer.putShort(pos, (Short) value);
+			} else if (value instanceof Byte) {
+				buffer.put(pos, (Byte) value);
+			} else if (value instanceof String) {
+				final var chars = ((String) value).getBytes(US_ASCII);
+				for (var i = 0; i < chars.length; i++) {
+					buffer.put(pos + i, chars[i]);
+				}
+			} else {
+				buffer.putInt(pos, ((Number) value).intValue());
+			}
+		});
+		return buffer.array();
+	}
+
+	private static byte[] trak(final String handler,
+	                           final int timescale,
+	                           final int duration,
+	                           final short language,
+	                           final byte[] sampleEntry,
+	                           final byte[]... stblBoxes) {
+		final var stbl = new ByteArrayOutputStream();
+		stbl.writeBytes(box("stsd", bytes(8, Map.of(4, 1)), sampleEntry));
+		for (final var stblBox : stblBoxes) {
+			stbl.writeBytes(stblBox);
+		}
+		return box("trak",
+		        box("tkhd", bytes(84, Map.of(0, 3))),
+		        box("mdia",
+		                box("mdhd", bytes(24, Map.of(12, timescale, 16, duration, 20, language))),
+		                box("hdlr", bytes(25, Map.of(8, handler))),
+		                box("minf", box("stbl", stbl.toByteArray()))));
+	}
+
+	private byte[] createMoov(final int timecodeOffset) {
+		final var video = trak("vide", 12800, 128000, (short) 0x55C4,
+		        box("avc1", bytes(78, Map.of(24, (short) 1920, 26, (short) 1080)),
+		                box("pasp", bytes(8, Map.of(0, 4, 4, 3))),
+		                box("fiel", bytes(2, Map.of(0, (byte) 2, 1, (byte) 9)))),
+		        box("stts", bytes(16, Map.of(4, 1, 8, 250, 12, 512))),
+		        box("stsz", bytes(12, Map.of(8, 250))));
+
+		final var esds = box("esds", new byte[] {
+		                                          0, 0, 0, 0,
+		                                          0x03, 23, 0, 1, 0,
+		                                          0x04, 15, 0x40, 0x15, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
+		                                          0x05, 2, 0x11, (byte) 0xB0 });
+		final var audio = trak("soun", 48000, 480000, (short) 0x15C7,
+		        box("mp4a", bytes(28, Map.of(16, (short) 2, 18, (short) 16, 24, 48000 << 16)), esds));
+
+		final var timecode = trak("tmcd", 25, 250, (short) 0x55C4,
+		        box("tmcd", bytes(28, Map.of(16, 25, 20, 1, 24, (byte) 25))),
+		        box("stco", bytes(12, Map.of(4, 1, 8, timecodeOffset))));
+
+		return box("moov",
+		        box("mvhd", bytes(100, Map.of(12, 1000, 16, 10000))),
+		        video, audio, timecode);
+	}
+
+	private void writeMedia(final byte[]... boxes) throws IOException {
+		final var content = new ByteArrayOutputStream();
+		for (final var b : boxes) {
+			content.writeBytes(b);
+		}
+		Files.write(media.toPath(), content.toByteArray());
+	}
+
+	private Optional<MediaInfo> read() throws IOException {
+		try (var channel = FileChannel.open(media.toPath(), StandardOpenOption.READ)) {
+			return reader.read(channel, media.getPath());
+		}
+	}
+
+	@Test
+	void testRead() throws IOException {
+		final var ftyp = box("ftyp", bytes(16, Map.of(0, "isom", 4, 512, 8, "isomavc1")));
+		final var moovSize = createMoov(0).length;
+		final var moov = createMoov(ftyp.length + moovSize + 8);
+		final var mdat = box("mdat", bytes(4, Map.of(0, 90000)));
+		writeMedia(ftyp, moov, mdat);
+
+		final var mediaInfo = read().orElseThrow();
+		assertFalse(mediaInfo.isPartial());
+		final var format = mediaInfo.getFormat().orElseThrow();
+		assertEquals(IsoBmffReader.FORMAT_NAME, format.getFormatName().orElseThrow());
+		assertEquals(OptionalDouble.of(10d), format.getDuration());
+		assertEquals(media.length(), format.getSize());
+		assertEquals(3, format.getNbStreams());
+		assertEquals("isom", format.getTags().get("major_brand"));
+		assertEquals("isomavc1", format.getTags().get("compatible_brands"));
+
+		final var video = mediaInfo.getFirstVideoStream().orElseThrow();
+		assertEquals(0, video.getIndex());
+		assertEquals("h264", video.getCodecName().orElseThrow());
+		assertEquals("avc1", video.getCodecTagString().orElseThrow());
+		assertEquals(1920, video.getWidth());
+		assertEquals(1080, video.getHeight());
+		assertEquals("25/1", video.getRFrameRate().orElseThrow());
+		assertEquals("4:3", video.getSampleAspectRatio().orElseThrow());
+		assertEquals("tb", video.getFieldOrder().orElseThrow());
+		assertEquals(250, video.getNbFrames());
+		assertEquals("und", video.getTags().get("language"));
+		assertTrue(video.isDefault());
+
+		final var audio = mediaInfo.getAudioStreams().findFirst().orElseThrow();
+		assertEquals(1, audio.getIndex());
+		assertEquals("aac", audio.getCodecName().orElseThrow());
+		assertEquals(48000, audio.getSampleRate());
+		assertEquals(6, audio.getChannels());
+		assertEquals("5.1", audio.getChannelLayout().orElseThrow());
+		assertEquals(OptionalDouble.of(10d), audio.getDuration());
+		assertEquals("eng", audio.getTags().get("language"));
+
+		final var data = mediaInfo.getDataStreams().findFirst().orElseThrow();
+		assertEquals("tmcd", data.getCodecTagString().orElseThrow());
+		assertEquals("01:00:00:00", data.getTags().get("timecode"));
+	}
+
+	@Test
+	void testNotIsoBmff() throws IOException {
+		writeMedia("RIFF\0\0\0\0WAVEfmt ".getBytes(US_ASCII));
+		assertTrue(read().isEmpty());
+	}
+
+	@Test
+	void testNoMoov() throws IOException {
+		writeMedia(box("ftyp", bytes(8, Map.of(0, "isom"))), box("mdat", new byte[100]));
+		assertTrue(read().isEmpty());
+	}
+
+	@Test
+	void testFragmented() throws IOException {
+		writeMedia(box("ftyp", bytes(8, Map.of(0, "isom"))), createMoov(0), box("moof", new byte[8]));
+		assertTrue(read().isEmpty());
+	}
+
+	@Test
+	void testTruncated() throws IOException {
+		writeMedia(box("ftyp", bytes(8, Map.of(0, "isom"))), createMoov(0), new byte[] { 0, 0, 1, 0 },
+		        "mdat".getBytes(US_ASCII));
+		assertTrue(read().isEmpty());
+	}
+
+	@Test
+	void testFormatTimecode() {
+		assertEquals("01:00:00:00", IsoBmffReader.formatTimecode(90000, 25, false, false).orElseThrow());
+		assertEquals("00:10:00;00", IsoBmffReader.formatTimecode(17982, 30, true, false).orElseThrow());
+		assertEquals("00:01:00;02", IsoBmffReader.formatTimecode(1800, 30, true, false).orElseThrow());
+		assertEquals("01:00:00:00", IsoBmffReader.formatTimecode(25 * 3600 * 25, 25, false, true).orElseThrow());
+		assertTrue(IsoBmffReader.formatTimecode(0, 25, true, false).isEmpty());
+	}
+
+	@Test
+	void testInstalled() {
+		assertTrue(MediaHeaderReader.getInstalled().stream().anyMatch(IsoBmffReader.class::isInstance));
+	}
+
+	@Test
+	void testPcmName() {
+		assertEquals("pcm_s24le", IsoBmffReader.getPcmName(false, true, 24, true));
+		assertEquals("pcm_f32be", IsoBmffReader.getPcmName(true, true, 32, false));
+		assertEquals("pcm_u8", IsoBmffReader.getPcmName(false, false, 8, true));
+	}
+
+}
@@ -0,0 +1,86 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.mediainfo;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class KeyframeIndexTest {
+
+	MediaPackets packets;
+
+	@BeforeEach
+	void init() throws Exception {
+		final var sb = new StringBuilder();
+		for (var pos = 9; pos >= 0; pos--) {
+			sb.append("packet|stream_index=0|pts=" + pos * 50 + "|dts=" + pos * 50 + "|pos=" + pos * 1000
+			          + "|size=10|flags=" + (pos % 5 == 0 ? "K_" : "__") + "\n");
+		}
+		sb.append("packet|stream_index=1|pts=0|dts=0|pos=1|size=10|flags=K_\n");
+		sb.append("stream|index=0|time_base=1/25\n");
+		final var parser = new MediaPacketsParser(false, true);
+		parser.write(sb.toString().getBytes(US_ASCII));
+		packets = parser.getResult();
+	}
+
+	@Test
+	void testFrom() {
+		assertEquals(3, packets.size());
+		final var index = KeyframeIndex.from(packets, 0);
+		assertEquals(0, index.getStreamIndex());
+		assertEquals("1/25", index.getTimeBase());
+		assertEquals(2, index.size());
+		assertEquals(0, index.getPts(0));
+		assertEquals(250, index.getPts(1));
+		assertEquals(10d, index.getTime(1), 0.000001d);
+		assertEquals(5000, index.getPosition(1));
+
+		assertThrows(IllegalArgumentException.class, () -> KeyframeIndex.from(packets, 1));
+	}
+
+	@Test
+	void testFindPreceding() {
+		final var index = KeyframeIndex.from(packets, 0);
+		assertEquals(-1, index.findPreceding(-1));
+		assertEquals(0, index.findPreceding(0));
+		assertEquals(0, index.findPreceding(9.99));
+		assertEquals(1, index.findPreceding(10));
+		assertEquals(1, index.findPreceding(1000));
+	}
+
+	@Test
+	void testWriteRead() throws Exception {
+		final var index = KeyframeIndex.from(packets, 0);
+		final var bytes = new ByteArrayOutputStream();
+		index.write(new DataOutputStream(bytes));
+		final var readed = KeyframeIndex.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		assertEquals(index.getTimeBase(), readed.getTimeBase());
+		assertEquals(index.size(), readed.size());
+		assertEquals(index.getPts(1), readed.getPts(1));
+		assertEquals(index.getPosition(1), readed.getPosition(1));
+	}
+
+}
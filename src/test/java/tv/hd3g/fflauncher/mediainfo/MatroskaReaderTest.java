@@ -0,0 +1,220 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.mediainfo;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.OptionalDouble;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MatroskaReaderTest {
+
+	private File media;
+	private MatroskaReader reader;
+
+	@BeforeEach
+	void init() throws IOException {
+		media = File.createTempFile("media-", ".mkv");
+		reader = new MatroskaReader();
+	}
+
+	@AfterEach
+	void end() throws IOException {
+		Files.deleteIfExists(media.toPath());
+	}
+
+	/**
+	 * With a 8 bytes size.
+	 */
+	private static byte[] element(final int id, final byte[]... payloads) {
+		final var content = new ByteArrayOutputStream();
+		for (final var payload : payloads) {
+			content.writeBytes(payload);
+		}
+		final var idLength = 4 - Integer.numberOfLeadingZeros(id) / 8;
+		final var buffer = ByteBuffer.allocate(idLength + 8 + content.size());
+		for (var pos = idLength - 1; pos >= 0; pos--) {
+			buffer.put((byte) (id >> pos * 8));
+		}
+		return buffer.putLong(0x0100000000000000L | content.size())
+		        .put(content.toByteArray())
+		        .array();
+	}
+
+	private static byte[] uint(final int id, final long value) {
+		return element(id, ByteBuffer.allocate(8).putLong(value).array());
+	}
+
+	private static byte[] string(final int id, final String value) {
+		return element(id, value.getBytes(UTF_8));
+	}
+
+	private static byte[] ebml(final String docType) {
+		return element(0x1A45DFA3, uint(0x4286, 1), string(0x4282, docType));
+	}
+
+	private static byte[] info() {
+		return element(0x1549A966,
+		        uint(0x2AD7B1, 1_000_000),
+		        element(0x4489, ByteBuffer.allocate(8).putDouble(10_000d).array()),
+		        string(0x7BA9, "A title"),
+		        string(0x4D80, "libebml"));
+	}
+
+	private static byte[] videoTrack() {
+		return element(0xAE,
+		        uint(0xD7, 1),
+		        uint(0x83, 1),
+		        string(0x86, "V_MPEG4/ISO/AVC"),
+		        uint(0x23E383, 41_708_333),
+		        string(0x22B59C, "und"),
+		        element(0xE0, uint(0xB0, 1440), uint(0xBA, 1080), uint(0x54B0, 1920), uint(0x54BA, 1080)));
+	}
+
+	private static byte[] audioTrack(final byte[]... encodings) {
+		return element(0xAE,
+		        uint(0xD7, 2),
+		        uint(0x83, 2),
+		        string(0x86, "A_AAC"),
+		        string(0x22B59C, "fre"),
+		        string(0x536E, "Surround"),
+		        uint(0x88, 0),
+		        element(0x63A2, new byte[] { 0x11, (byte) 0xB0 }),
+		        element(0xE1, element(0xB5, ByteBuffer.allocate(4).putFloat(48000f).array()), uint(0x9F, 6)),
+		        element(0x6D80, encodings));
+	}
+
+	private void writeMedia(final byte[] ebml, final byte[]... segmentContent) throws IOException {
+		final var content = new ByteArrayOutputStream();
+		content.writeBytes(ebml);
+		content.writeBytes(new byte[] { 0x18, 0x53, (byte) 0x80, 0x67, 0x01, -1, -1, -1, -1, -1, -1, -1 });
+		for (final var c : segmentContent) {
+			content.writeBytes(c);
+		}
+		Files.write(media.toPath(), content.toByteArray());
+	}
+
+	private Optional<MediaInfo> read() throws IOException {
+		try (var channel = FileChannel.open(media.toPath(), StandardOpenOption.READ)) {
+			return reader.read(channel, media.getPath());
+		}
+	}
+
+	@Test
+	void testRead() throws IOException {
+		writeMedia(ebml("matroska"),
+		        element(0x114D9B74, element(0x4DBB, element(0x53AB, new byte[] { 0x15, 0x49, (byte) 0xA9, 0x66 }))),
+		        element(0xEC, new byte[10]),
+		        info(),
+		        element(0x1654AE6B, videoTrack(), audioTrack()),
+		        element(0x1F43B675, new byte[100]));
+
+		final var mediaInfo = read().orElseThrow();
+		assertFalse(mediaInfo.isPartial());
+		final var format = mediaInfo.getFormat().orElseThrow();
+		assertEquals(MatroskaReader.FORMAT_NAME, format.getFormatName().orElseThrow());
+		assertEquals(OptionalDouble.of(10d), format.getDuration());
+		assertEquals(2, format.getNbStreams());
+		assertEquals("A title", format.getTags().get("title"));
+		assertEquals("libebml", format.getTags().get("encoder"));
+
+		final var video = mediaInfo.getFirstVideoStream().orElseThrow();
+		assertEquals(0, video.getIndex());
+		assertEquals("h264", video.getCodecName().orElseThrow());
+		assertEquals(1440, video.getWidth());
+		assertEquals(1080, video.getHeight());
+		assertEquals("4:3", video.getSampleAspectRatio().orElseThrow());
+		assertEquals("24000/1001", video.getAvgFrameRate().orElseThrow());
+		assertFalse(video.getTags().containsKey("language"));
+		assertTrue(video.isDefault());
+
+		final var audio = mediaInfo.getAudioStreams().findFirst().orElseThrow();
+		assertEquals(1, audio.getIndex());
+		assertEquals("aac", audio.getCodecName().orElseThrow());
+		assertEquals(48000, audio.getSampleRate());
+		assertEquals(6, audio.getChannels());
+		assertEquals("5.1", audio.getChannelLayout().orElseThrow());
+		assertEquals("fre", audio.getTags().get("language"));
+		assertEquals("Surround", audio.getTags().get("title"));
+		assertFalse(audio.isDefault());
+	}
+
+	@Test
+	void testWebm() throws IOException {
+		writeMedia(ebml("webm"), info(), element(0x1654AE6B, videoTrack()));
+		assertTrue(read().isPresent());
+	}
+
+	@Test
+	void testOtherDocType() throws IOException {
+		writeMedia(ebml("other"), info(), element(0x1654AE6B, videoTrack()));
+		assertTrue(read().isEmpty());
+	}
+
+	@Test
+	void testTracksAfterCluster() throws IOException {
+		writeMedia(ebml("matroska"), info(), element(0x1F43B675, new byte[100]), element(0x1654AE6B, videoTrack()));
+		assertTrue(read().isEmpty());
+	}
+
+	@Test
+	void testChapters() throws IOException {
+		writeMedia(ebml("matroska"), info(), element(0x1043A770, new byte[10]), element(0x1654AE6B, videoTrack()));
+		assertTrue(read().isEmpty());
+	}
+
+	@Test
+	void testSeekToAttachments() throws IOException {
+		writeMedia(ebml("matroska"),
+		        element(0x114D9B74, element(0x4DBB, element(0x53AB, new byte[] { 0x19, 0x41, (byte) 0xA4, 0x69 }))),
+		        info(), element(0x1654AE6B, videoTrack()));
+		assertTrue(read().isEmpty());
+	}
+
+	@Test
+	void testEncrypted() throws IOException {
+		writeMedia(ebml("matroska"), info(),
+		        element(0x1654AE6B, audioTrack(element(0x6240, element(0x5035, uint(0x47E1, 5))))));
+		assertTrue(read().isEmpty());
+	}
+
+	@Test
+	void testNotMatroska() throws IOException {
+		Files.write(media.toPath(), "RIFF\0\0\0\0WAVE".getBytes(UTF_8));
+		assertTrue(read().isEmpty());
+	}
+
+	@Test
+	void testInstalled() {
+		assertTrue(MediaHeaderReader.getInstalled().stream().anyMatch(MatroskaReader.class::isInstance));
+	}
+
+}
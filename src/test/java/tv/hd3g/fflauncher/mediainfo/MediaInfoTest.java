@@ -0,0 +1,124 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.mediainfo;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MediaInfoTest {
+
+	MediaInfo mediaInfo;
+
+	@BeforeEach
+	void init() throws Exception {
+		mediaInfo = MediaInfo.parseJson(Files.readString(new File("src/test/resources/test-ffprobe.json").toPath(),
+		        UTF_8));
+	}
+
+	@Test
+	void testFormat() {
+		final var format = mediaInfo.getFormat().get();
+		assertEquals(Optional.ofNullable("C:\\media\\test.mp4"), format.getFilename());
+		assertEquals(3, format.getNbStreams());
+		assertEquals(Optional.ofNullable("mov,mp4,m4a,3gp,3g2,mj2"), format.getFormatName());
+		assertEquals(OptionalDouble.of(10.005333d), format.getDuration());
+		assertEquals(6420000L, format.getSize());
+		assertEquals(5133262L, format.getBitRate());
+		assertEquals(100, format.getProbeScore());
+		assertEquals(Map.of("major_brand", "isom", "encoder", "Lavf58.29.100"), format.getTags());
+	}
+
+	@Test
+	void testStreams() {
+		assertEquals(3, mediaInfo.getStreams().size());
+		assertEquals(1, mediaInfo.getVideoStreams().count());
+		assertEquals(2, mediaInfo.getAudioStreams().count());
+		assertEquals(0, mediaInfo.getSubtitleStreams().count());
+
+		final var video = mediaInfo.getFirstVideoStream().get();
+		assertEquals(0, video.getIndex());
+		assertTrue(video.isVideo());
+		assertEquals(Optional.ofNullable("h264"), video.getCodecName());
+		assertEquals(1920, video.getWidth());
+		assertEquals(1080, video.getHeight());
+		assertEquals(Optional.ofNullable("yuv420p"), video.getPixFmt());
+		assertEquals(Optional.ofNullable("25/1"), video.getRFrameRate());
+		assertEquals(5000000L, video.getBitRate());
+		assertEquals(250L, video.getNbFrames());
+		assertEquals(Set.of("default"), video.getDisposition());
+		assertTrue(video.isDefault());
+		assertFalse(video.isAttachedPic());
+		assertEquals("VideoHandler \"main\"", video.getTags().get("handler_name"));
+
+		final var audio = mediaInfo.getStreams().get(1);
+		assertTrue(audio.isAudio());
+		assertEquals(48000, audio.getSampleRate());
+		assertEquals(2, audio.getChannels());
+		assertEquals(Optional.ofNullable("stereo"), audio.getChannelLayout());
+		assertEquals(Optional.ofNullable("fltp"), audio.getSampleFmt());
+
+		final var pcm = mediaInfo.getStreams().get(2);
+		assertEquals(Optional.empty(), pcm.getChannelLayout());
+		assertEquals(OptionalDouble.empty(), pcm.getDuration());
+		assertEquals(24, pcm.getBitsPerSample());
+		assertFalse(pcm.isDefault());
+		assertEquals(Map.of(), pcm.getTags());
+	}
+
+	@Test
+	void testChapters() {
+		assertEquals(1, mediaInfo.getChapters().size());
+		final var chapter = mediaInfo.getChapters().get(0);
+		assertEquals(5000L, chapter.getEnd());
+		assertEquals(OptionalDouble.of(5d), chapter.getEndTime());
+		assertEquals(Optional.ofNullable("Chapter \u00e9 1"), chapter.getTitle());
+	}
+
+	@Test
+	void testAttachedPic() {
+		final var cover = MediaInfo.parseJson("{\"streams\":[{\"index\":0,\"codec_type\":\"video\","
+		                                      + "\"disposition\":{\"attached_pic\":1}}]}");
+		assertEquals(1, cover.getVideoStreams().count());
+		assertTrue(cover.getFirstVideoStream().isEmpty());
+		assertTrue(cover.getFormat().isEmpty());
+		assertEquals(List.of(), cover.getChapters());
+	}
+
+	@Test
+	void testInvalid() {
+		assertThrows(IllegalArgumentException.class, () -> MediaInfo.parseJson(""));
+		assertThrows(IllegalArgumentException.class, () -> MediaInfo.parseJson("{\"streams\":[{}"));
+		assertThrows(IllegalArgumentException.class, () -> MediaInfo.parseJson("{\"format\":{\"a\":\"b}}"));
+		assertThrows(IllegalArgumentException.class, () -> MediaInfo.parseJson("{} {}"));
+		assertTrue(MediaInfo.parseJson(" {\n} \n").getStreams().isEmpty());
+	}
+
+}
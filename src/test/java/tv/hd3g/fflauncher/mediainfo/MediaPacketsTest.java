@@ -0,0 +1,121 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.mediainfo;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+class MediaPacketsTest {
+
+	private static MediaPackets parse(final boolean frames, final String content) {
+		final var parser = new MediaPacketsParser(frames);
+		final var bytes = content.getBytes(US_ASCII);
+		for (var pos = 0; pos < bytes.length; pos += 7) {
+			parser.write(bytes, pos, Math.min(7, bytes.length - pos));
+		}
+		return parser.getResult();
+	}
+
+	@Test
+	void testPackets() {
+		final var sb = new StringBuilder();
+		for (var pos = 0; pos < 50; pos++) {
+			sb.append("packet|stream_index=0|pts=" + (pos * 2 + 2) + "|dts=" + pos * 2 + "|duration=2|size=1000|flags="
+			          + (pos % 10 == 0 ? "K_" : "__") + "\r\n");
+			sb.append("packet|stream_index=1|pts=" + pos * 1024 + "|dts=" + pos * 1024
+			          + "|duration=1024|size=100|flags=K_\n");
+		}
+		sb.append("packet|stream_index=0|pts=N/A|dts=N/A|duration=N/A|size=10|flags=__\n");
+		sb.append("stream|index=0|time_base=1/50\n");
+		sb.append("stream|index=1|time_base=1/48000");
+
+		final var packets = parse(false, sb.toString());
+		assertFalse(packets.isFrames());
+		assertEquals(101, packets.size());
+		assertEquals(51, packets.size(0));
+		assertEquals(50, packets.size(1));
+
+		assertEquals(2, packets.getPts(0));
+		assertEquals(0, packets.getDts(0));
+		assertEquals(2, packets.getDuration(0));
+		assertEquals(1000, packets.getSize(0));
+		assertTrue(packets.isKey(0));
+		assertFalse(packets.isKey(2));
+		assertEquals(1, packets.getStreamIndex(1));
+		assertEquals(MediaPackets.NO_VALUE, packets.getPts(100));
+		assertEquals(MediaPackets.NO_VALUE, packets.getDts(100));
+		assertEquals(0, packets.getDuration(100));
+		assertThrows(IndexOutOfBoundsException.class, () -> packets.getPts(101));
+
+		assertEquals(Optional.ofNullable("1/50"), packets.getTimeBase(0));
+		assertEquals(1d / 48000d, packets.getTimeBaseSeconds(1), 0.0000001d);
+		assertThrows(IllegalArgumentException.class, () -> packets.getTimeBaseSeconds(2));
+
+		assertArrayEquals(new long[] { 200000, 200000 }, packets.getBitrateOverTime(0, 1));
+		assertArrayEquals(new int[] { 10, 10, 10, 10, 11 }, packets.getGopSizes(0));
+		assertEquals(50, packets.getGopSizes(1).length);
+		assertFalse(packets.isVariableFrameRate(0, 0.01d));
+		assertFalse(packets.isVariableFrameRate(1, 0.01d));
+	}
+
+	@Test
+	void testFrames() {
+		final var content = "frame|stream_index=0|key_frame=1|pts=0|pkt_dts=0|pkt_duration=40|pkt_size=5000"
+		                    + "|pict_type=I\n"
+		                    + "frame|stream_index=0|key_frame=0|pts=40|pkt_dts=40|pkt_duration=40|pkt_size=500"
+		                    + "|pict_type=B\n"
+		                    + "frame|stream_index=0|key_frame=0|pts=N/A|best_effort_timestamp=120|pkt_size=900"
+		                    + "|pict_type=P\n"
+		                    + "frame|stream_index=0|key_frame=1|pts=160|pkt_size=5000|pict_type=I\n"
+		                    + "frame|stream_index=0|key_frame=0|pts=200|pkt_size=500|pict_type=?\n"
+		                    + "packet|stream_index=0|pts=0|dts=0|size=10|flags=K_\n"
+		                    + "stream|index=0|time_base=1/1000\n";
+		final var frames = parse(true, content);
+		assertTrue(frames.isFrames());
+		assertEquals(5, frames.size());
+		assertEquals('I', frames.getPictType(0));
+		assertEquals('B', frames.getPictType(1));
+		assertEquals(0, frames.getPictType(4));
+		assertEquals(120, frames.getPts(2));
+		assertEquals(40, frames.getDuration(0));
+		assertEquals(5000, frames.getSize(0));
+
+		assertEquals(List.of("IBP", "I?"), frames.getGopStructures(0));
+		assertArrayEquals(new int[] { 3, 2 }, frames.getGopSizes(0));
+		assertTrue(frames.isVariableFrameRate(0, 0.01d));
+		assertFalse(frames.isVariableFrameRate(0, 0.5d));
+	}
+
+	@Test
+	void testEmpty() {
+		final var packets = parse(false, "");
+		assertEquals(0, packets.size());
+		assertEquals(0, packets.getGopSizes(0).length);
+		assertEquals(List.of(), packets.getGopStructures(0));
+		assertFalse(packets.isVariableFrameRate(0, 0.01d));
+	}
+
+}
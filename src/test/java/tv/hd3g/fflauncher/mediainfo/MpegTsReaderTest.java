@@ -0,0 +1,204 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.mediainfo;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MpegTsReaderTest {
+
+	private static final byte[] ADTS_5_1 = { -1, (byte) 0xF1, 0x4D, (byte) 0x80, 0, 0, 0, 0 };
+	private static final byte[] AC3_STEREO = { 0x0B, 0x77, 0, 0, 0x1C, 0x40, 0x40, 0 };
+
+	private File media;
+	private MpegTsReader reader;
+
+	@BeforeEach
+	void init() throws IOException {
+		media = File.createTempFile("media-", ".ts");
+		reader = new MpegTsReader();
+	}
+
+	@AfterEach
+	void end() throws IOException {
+		Files.deleteIfExists(media.toPath());
+	}
+
+	private static byte[] packet(final int pid, final boolean payloadStart, final byte[] payload) {
+		final var packet = new byte[188];
+		Arrays.fill(packet, (byte) 0xFF);
+		return ByteBuffer.wrap(packet)
+		        .put((byte) 0x47)
+		        .putShort((short) ((payloadStart ? 0x4000 : 0) | pid))
+		        .put((byte) 0x10)
+		        .put(payload)
+		        .array();
+	}
+
+	/**
+	 * @return pointer field, section, and a zero CRC.
+	 */
+	private static byte[] section(final int tableId, final int id, final byte[] content) {
+		final var length = 5 + content.length + 4;
+		return ByteBuffer.allocate(1 + 3 + length)
+		        .put((byte) 0)
+		        .put((byte) tableId)
+		        .putShort((short) (0xB000 | length))
+		        .putShort((short) id)
+		        .put((byte) 0xC1)
+		        .putShort((short) 0)
+		        .put(content)
+		        .array();
+	}
+
+	private static byte[] pat(final int programNumber, final int pmtPid) {
+		return section(0x00, 1, ByteBuffer.allocate(4)
+		        .putShort((short) programNumber)
+		        .putShort((short) (0xE000 | pmtPid))
+		        .array());
+	}
+
+	private static byte[] elementaryStream(final int streamType, final int pid, final byte[] descriptors) {
+		return ByteBuffer.allocate(5 + descriptors.length)
+		        .put((byte) streamType)
+		        .putShort((short) (0xE000 | pid))
+		        .putShort((short) (0xF000 | descriptors.length))
+		        .put(descriptors)
+		        .array();
+	}
+
+	private static byte[] pmt(final int programNumber, final byte[]... elementaryStreams) {
+		final var content = new ByteArrayOutputStream();
+		content.writeBytes(new byte[] { (byte) 0xE1, 0x00, (byte) 0xF0, 0x00 });
+		for (final var es : elementaryStreams) {
+			content.writeBytes(es);
+		}
+		return section(0x02, programNumber, content.toByteArray());
+	}
+
+	private static byte[] pes(final byte[] audioHeader) {
+		return ByteBuffer.allocate(14 + audioHeader.length)
+		        .put(new byte[] { 0, 0, 1, (byte) 0xC0, 0, 0, (byte) 0x80, (byte) 0x80, 5, 0x21, 0, 1, 0, 1 })
+		        .put(audioHeader)
+		        .array();
+	}
+
+	private void writeMedia(final int prefixSize, final byte[]... packets) throws IOException {
+		final var content = new ByteArrayOutputStream();
+		for (final var p : packets) {
+			content.writeBytes(new byte[prefixSize]);
+			content.writeBytes(p);
+		}
+		Files.write(media.toPath(), content.toByteArray());
+	}
+
+	private Optional<MediaInfo> read() throws IOException {
+		try (var channel = FileChannel.open(media.toPath(), StandardOpenOption.READ)) {
+			return reader.read(channel, media.getPath());
+		}
+	}
+
+	private byte[][] createPackets(final int audioStreamType) {
+		return new byte[][] {
+		                      packet(0, true, pat(1, 0x1000)),
+		                      packet(0x1000, true, pmt(1,
+		                              elementaryStream(0x1B, 0x100, new byte[0]),
+		                              elementaryStream(audioStreamType, 0x101, new byte[] { 0x0A, 4, 'f', 'r', 'e', 0 }),
+		                              elementaryStream(0x06, 0x102, new byte[] { 0x6A, 1, 0 }),
+		                              elementaryStream(0x06, 0x103, new byte[] { 0x56, 0 }))),
+		                      packet(0x100, true, new byte[] { 0, 0, 1, (byte) 0xE0 }),
+		                      packet(0x102, true, pes(AC3_STEREO)),
+		                      packet(0x101, true, pes(ADTS_5_1)) };
+	}
+
+	@Test
+	void testRead() throws IOException {
+		writeMedia(0, createPackets(0x0F));
+
+		final var mediaInfo = read().orElseThrow();
+		assertTrue(mediaInfo.isPartial());
+		final var format = mediaInfo.getFormat().orElseThrow();
+		assertEquals(MpegTsReader.FORMAT_NAME, format.getFormatName().orElseThrow());
+		assertEquals(4, format.getNbStreams());
+		assertEquals(1, format.getNbPrograms());
+
+		final var video = mediaInfo.getFirstVideoStream().orElseThrow();
+		assertEquals(0, video.getIndex());
+		assertEquals("h264", video.getCodecName().orElseThrow());
+
+		final var audio = mediaInfo.getAudioStreams().toArray(MediaStream[]::new);
+		assertEquals(2, audio.length);
+		assertEquals("aac", audio[0].getCodecName().orElseThrow());
+		assertEquals(48000, audio[0].getSampleRate());
+		assertEquals(6, audio[0].getChannels());
+		assertEquals("5.1", audio[0].getChannelLayout().orElseThrow());
+		assertEquals("fre", audio[0].getTags().get("language"));
+		assertEquals("ac3", audio[1].getCodecName().orElseThrow());
+		assertEquals("stereo", audio[1].getChannelLayout().orElseThrow());
+
+		assertEquals("dvb_teletext",
+		        mediaInfo.getSubtitleStreams().findFirst().orElseThrow().getCodecName().orElseThrow());
+	}
+
+	@Test
+	void testReadM2ts() throws IOException {
+		writeMedia(4, createPackets(0x0F));
+		assertEquals(4, read().orElseThrow().getFormat().orElseThrow().getNbStreams());
+	}
+
+	@Test
+	void testLatm() throws IOException {
+		writeMedia(0, createPackets(0x11));
+		assertTrue(read().isEmpty());
+	}
+
+	@Test
+	void testMissingAudioPes() throws IOException {
+		final var packets = createPackets(0x0F);
+		writeMedia(0, Arrays.copyOf(packets, packets.length - 1));
+		assertTrue(read().isEmpty());
+	}
+
+	@Test
+	void testNotTs() throws IOException {
+		Files.write(media.toPath(), new byte[1024]);
+		assertTrue(read().isEmpty());
+		Files.write(media.toPath(), "RIFF".getBytes(US_ASCII));
+		assertTrue(read().isEmpty());
+	}
+
+	@Test
+	void testInstalled() {
+		assertTrue(MediaHeaderReader.getInstalled().stream().anyMatch(MpegTsReader.class::isInstance));
+	}
+
+}
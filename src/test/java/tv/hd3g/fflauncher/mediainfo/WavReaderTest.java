@@ -0,0 +1,192 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.mediainfo;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.OptionalDouble;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class WavReaderTest {
+
+	private File media;
+	private WavReader reader;
+
+	@BeforeEach
+	void init() throws IOException {
+		media = File.createTempFile("media-", ".wav");
+		reader = new WavReader();
+	}
+
+	@AfterEach
+	void end() throws IOException {
+		Files.deleteIfExists(media.toPath());
+	}
+
+	private static byte[] chunk(final String id, final long size, final byte[] payload) {
+		return ByteBuffer.allocate(8 + payload.length + payload.length % 2)
+		        .order(ByteOrder.LITTLE_ENDIAN)
+		        .put(id.getBytes(US_ASCII))
+		        .putInt((int) size)
+		        .put(payload)
+		        .array();
+	}
+
+	private static byte[] chunk(final String id, final byte[] payload) {
+		return chunk(id, payload.length, payload);
+	}
+
+	private static byte[] fmtExtensible(final int channels, final int mask, final int subFormat) {
+		return ByteBuffer.allocate(40)
+		        .order(ByteOrder.LITTLE_ENDIAN)
+		        .putShort((short) 0xFFFE)
+		        .putShort((short) channels)
+		        .putInt(48000)
+		        .putInt(48000 * channels * 3)
+		        .putShort((short) (channels * 3))
+		        .putShort((short) 24)
+		        .putShort((short) 22)
+		        .putShort((short) 24)
+		        .putInt(mask)
+		        .putShort((short) subFormat)
+		        .array();
+	}
+
+	private static byte[] bext() {
+		final var bext = ByteBuffer.allocate(602 + 12).order(ByteOrder.LITTLE_ENDIAN);
+		bext.put("A description".getBytes(US_ASCII));
+		bext.position(256).put("Originator".getBytes(US_ASCII));
+		bext.position(320).put("2022-01-02".getBytes(US_ASCII)).put("10:20:30".getBytes(US_ASCII));
+		bext.putLong(338, 48000L * 3600);
+		bext.position(602).put("A=PCM,F=4800".getBytes(US_ASCII));
+		return bext.array();
+	}
+
+	private void writeMedia(final String riff, final byte[]... chunks) throws IOException {
+		final var content = new ByteArrayOutputStream();
+		content.writeBytes(riff.getBytes(US_ASCII));
+		content.writeBytes(new byte[] { -1, -1, -1, -1 });
+		content.writeBytes("WAVE".getBytes(US_ASCII));
+		for (final var c : chunks) {
+			content.writeBytes(c);
+		}
+		Files.write(media.toPath(), content.toByteArray());
+	}
+
+	private Optional<MediaInfo> read() throws IOException {
+		try (var channel = FileChannel.open(media.toPath(), StandardOpenOption.READ)) {
+			return reader.read(channel, media.getPath());
+		}
+	}
+
+	@Test
+	void testReadBwf() throws IOException {
+		writeMedia("RIFF",
+		        chunk("bext", bext()),
+		        chunk("fmt ", fmtExtensible(6, 0x3F, 1)),
+		        chunk("iXML", "<BWFXML/>\0".getBytes(US_ASCII)),
+		        chunk("data", new byte[18 * 4800]));
+
+		final var mediaInfo = read().orElseThrow();
+		assertFalse(mediaInfo.isPartial());
+		final var format = mediaInfo.getFormat().orElseThrow();
+		assertEquals(WavReader.FORMAT_NAME, format.getFormatName().orElseThrow());
+		assertEquals(OptionalDouble.of(0.1d), format.getDuration());
+		assertEquals(1, format.getNbStreams());
+		assertEquals("A description", format.getTags().get("description"));
+		assertEquals("Originator", format.getTags().get("originator"));
+		assertEquals("2022-01-02", format.getTags().get("origination_date"));
+		assertEquals("10:20:30", format.getTags().get("origination_time"));
+		assertEquals("172800000", format.getTags().get("time_reference"));
+		assertEquals("A=PCM,F=4800", format.getTags().get("coding_history"));
+		assertEquals("<BWFXML/>", format.getTags().get("iXML"));
+
+		final var audio = mediaInfo.getAudioStreams().findFirst().orElseThrow();
+		assertEquals("pcm_s24le", audio.getCodecName().orElseThrow());
+		assertEquals(48000, audio.getSampleRate());
+		assertEquals(6, audio.getChannels());
+		assertEquals("5.1", audio.getChannelLayout().orElseThrow());
+		assertEquals(24, audio.getBitsPerSample());
+	}
+
+	@Test
+	void testReadRf64() throws IOException {
+		final var ds64 = ByteBuffer.allocate(28).order(ByteOrder.LITTLE_ENDIAN)
+		        .putLong(0).putLong(6 * 48000).putLong(48000).putInt(0)
+		        .array();
+		writeMedia("RF64",
+		        chunk("ds64", ds64),
+		        chunk("fmt ", fmtExtensible(2, 0x3, 1)),
+		        chunk("data", 0xFFFFFFFFL, new byte[6 * 48000]));
+
+		final var mediaInfo = read().orElseThrow();
+		assertEquals(OptionalDouble.of(1d), mediaInfo.getFormat().orElseThrow().getDuration());
+		assertEquals("stereo", mediaInfo.getAudioStreams().findFirst().orElseThrow().getChannelLayout()
+		        .orElseThrow());
+	}
+
+	@Test
+	void testUnknownSize() throws IOException {
+		writeMedia("RIFF",
+		        chunk("fmt ", fmtExtensible(2, 0x3, 1)),
+		        chunk("data", 0xFFFFFFFFL, new byte[600]));
+		assertTrue(read().isEmpty());
+	}
+
+	@Test
+	void testCompressed() throws IOException {
+		writeMedia("RIFF",
+		        chunk("fmt ", fmtExtensible(2, 0x3, 0x55)),
+		        chunk("data", new byte[600]));
+		assertTrue(read().isEmpty());
+	}
+
+	@Test
+	void testUnknownMultichannelLayout() throws IOException {
+		writeMedia("RIFF",
+		        chunk("fmt ", fmtExtensible(6, 0, 1)),
+		        chunk("data", new byte[1800]));
+		assertTrue(read().isEmpty());
+	}
+
+	@Test
+	void testNotWav() throws IOException {
+		Files.write(media.toPath(), "\0\0\0\u0018ftypisom".getBytes(US_ASCII));
+		assertTrue(read().isEmpty());
+	}
+
+	@Test
+	void testInstalled() {
+		assertTrue(MediaHeaderReader.getInstalled().stream().anyMatch(WavReader.class::isInstance));
+	}
+
+}
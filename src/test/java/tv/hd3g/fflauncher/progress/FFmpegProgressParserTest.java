@@ -0,0 +1,158 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.progress;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import tv.hd3g.fflauncher.FFmpeg;
+import tv.hd3g.processlauncher.LineEntry;
+import tv.hd3g.processlauncher.cmdline.Parameters;
+
+class FFmpegProgressParserTest {
+
+	private static final List<String> block0 = List.of(
+	        "frame=120",
+	        "fps=59.94",
+	        "stream_0_0_q=28.0",
+	        "bitrate=1234.5kbits/s",
+	        "total_size=786432",
+	        "out_time_us=5000000",
+	        "out_time_ms=5000000",
+	        "out_time=00:00:05.000000",
+	        "dup_frames=1",
+	        "drop_frames=2",
+	        "speed=2.5x",
+	        "progress=continue");
+
+	private static final List<String> block1 = List.of(
+	        "frame=240",
+	        "fps=60.00",
+	        "bitrate=N/A",
+	        "total_size=N/A",
+	        "out_time_us=10000000",
+	        "speed=N/A",
+	        "progress=end");
+
+	List<FFmpegProgress> received;
+	List<Long> frames;
+	FFmpegProgressParser parser;
+
+	@BeforeEach
+	void init() {
+		received = new ArrayList<>();
+		frames = new ArrayList<>();
+		parser = new FFmpegProgressParser(p -> {
+			received.add(p);
+			frames.add(p.getFrame());
+		}, TimeUnit.SECONDS.toMicros(20));
+	}
+
+	@Test
+	void testParseBlocks() {
+		block0.forEach(parser::parseLine);
+		assertEquals(1, received.size());
+
+		final var p = received.get(0);
+		assertEquals(120, p.getFrame());
+		assertEquals(59.94d, p.getFps(), 0.0001d);
+		assertEquals(1234.5d, p.getBitrate(), 0.0001d);
+		assertEquals(786432, p.getTotalSize());
+		assertEquals(5000, p.getOutTime(TimeUnit.MILLISECONDS));
+		assertEquals(1, p.getDupFrames());
+		assertEquals(2, p.getDropFrames());
+		assertEquals(2.5d, p.getSpeed(), 0.0001d);
+		assertFalse(p.isEnded());
+		assertEquals(25d, p.getPercent(), 0.0001d);
+		assertEquals(6000, p.getETA(TimeUnit.MILLISECONDS));
+
+		block1.forEach(parser::parseLine);
+		assertEquals(2, received.size());
+		assertSame(p, received.get(1));
+		assertEquals(List.of(120L, 240L), frames);
+		assertEquals(-1d, p.getBitrate(), 0d);
+		assertEquals(-1, p.getTotalSize());
+		assertTrue(p.isEnded());
+		assertEquals(100d, p.getPercent(), 0d);
+		assertEquals(0, p.getETA(TimeUnit.SECONDS));
+	}
+
+	@Test
+	void testUnknownDuration() {
+		parser = new FFmpegProgressParser(received::add, -1);
+		block0.forEach(parser::parseLine);
+		assertEquals(-1d, received.get(0).getPercent(), 0d);
+		assertEquals(-1, received.get(0).getETA(TimeUnit.SECONDS));
+	}
+
+	@Test
+	void testIgnoreBadLines() {
+		parser.parseLine("");
+		parser.parseLine("=");
+		parser.parseLine("nope");
+		parser.parseLine("framerate=12");
+		assertTrue(received.isEmpty());
+	}
+
+	@Test
+	void testOnLine() {
+		final var stdErrLine = mock(LineEntry.class);
+		when(stdErrLine.isStdErr()).thenReturn(true);
+		when(stdErrLine.getLine()).thenReturn("progress=end");
+		parser.onLine(stdErrLine);
+		assertTrue(received.isEmpty());
+
+		final var stdOutLine = mock(LineEntry.class);
+		when(stdOutLine.getLine()).thenReturn("progress=end");
+		parser.onLine(stdOutLine);
+		assertEquals(1, received.size());
+		assertTrue(received.get(0).isEnded());
+	}
+
+	@Test
+	void testParseNumbers() {
+		assertEquals(123, FFmpegProgressParser.parseLong("a=123", 2, 5));
+		assertEquals(-1, FFmpegProgressParser.parseLong("a=N/A", 2, 5));
+		assertEquals(-1, FFmpegProgressParser.parseLong("a=-5", 2, 4));
+		assertEquals(0.5d, FFmpegProgressParser.parseDouble("a= 0.5x", 2, 7), 0d);
+		assertEquals(-1d, FFmpegProgressParser.parseDouble("a=N/A", 2, 5), 0d);
+	}
+
+	@Test
+	void testFFmpegParameters() {
+		final var ffmpeg = new FFmpeg("ffmpeg", new Parameters());
+		assertFalse(ffmpeg.isProgressListenerSet());
+		ffmpeg.setProgressListener(p -> {
+		}, 10, TimeUnit.SECONDS);
+		ffmpeg.setProgressListener(p -> {
+		});
+		assertTrue(ffmpeg.isProgressListenerSet());
+		assertEquals("-progress pipe:1 -nostats", ffmpeg.getInternalParameters().toString());
+	}
+
+}
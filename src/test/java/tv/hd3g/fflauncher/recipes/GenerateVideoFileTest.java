@@ -17,12 +17,16 @@
 package tv.hd3g.fflauncher.recipes;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.awt.Point;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Test;
 
@@ -46,4 +50,23 @@ class GenerateVideoFileTest {
 		assertFalse(test_file.exists());
 	}
 
+	@Test
+	void testAsync() throws Exception {
+		final var executableFinder = new ExecutableFinder();
+		final var gvf = new GenerateVideoFile(executableFinder);
+		final var executor = Executors.newCachedThreadPool();
+
+		final var test_file = File.createTempFile("smptebars", ".mkv");
+		final var ffmpeg = gvf.generateBarsAnd1kAsync(test_file, 1, new Point(320, 240), executor)
+		        .get(30, TimeUnit.SECONDS);
+		assertTrue(test_file.exists());
+		ffmpeg.cleanUpOutputFiles(true, true);
+		assertFalse(test_file.exists());
+
+		final var cancelled = gvf.generateBarsAnd1kAsync(test_file, 3600, new Point(1280, 720), executor);
+		assertTrue(cancelled.cancel(true));
+		assertThrows(CancellationException.class, cancelled::join);
+		executor.shutdown();
+	}
+
 }
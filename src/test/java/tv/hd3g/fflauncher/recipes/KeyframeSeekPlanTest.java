@@ -0,0 +1,122 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.recipes;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import tv.hd3g.fflauncher.mediainfo.KeyframeIndex;
+import tv.hd3g.fflauncher.mediainfo.MediaPackets;
+import tv.hd3g.fflauncher.mediainfo.MediaPacketsParser;
+
+class KeyframeSeekPlanTest {
+
+	KeyframeIndex index;
+	File media;
+	File storeDir;
+
+	@BeforeEach
+	void init() throws Exception {
+		final var sb = new StringBuilder();
+		for (var pos = 0; pos < 10; pos++) {
+			sb.append("packet|stream_index=0|pts=" + (pos * 90000 + 1800) + "|pos=" + pos * 100 + "|flags=K_\n");
+		}
+		sb.append("stream|index=0|time_base=1/90000\n");
+		final var parser = new MediaPacketsParser(false, true);
+		parser.write(sb.toString().getBytes(US_ASCII));
+		index = KeyframeIndex.from(parser.getResult(), 0);
+
+		media = File.createTempFile("media-", ".mp4");
+		Files.writeString(media.toPath(), "media");
+		storeDir = Files.createTempDirectory("kfx").toFile();
+	}
+
+	@AfterEach
+	void end() {
+		media.delete();
+		for (final var file : storeDir.listFiles()) {
+			file.delete();
+		}
+		storeDir.delete();
+	}
+
+	@Test
+	void testPlan() {
+		final var plan = KeyframeSeekPlan.plan(index, 0.02d, 3.5d, 5.25d);
+		assertEquals(3, plan.getKeyframe());
+		assertEquals(300, plan.getKeyframePosition());
+		assertEquals(3d, plan.getInputSeek(), 0.000001d);
+		assertEquals(0.5d, plan.getOutputTrim(), 0.000001d);
+		assertEquals(1.75d, plan.getDuration(), 0.000001d);
+		assertEquals(List.of("-ss", "3.000000"), plan.getInputOptions());
+		assertEquals(List.of("-ss", "0.500000", "-t", "1.750000"), plan.getOutputOptions());
+	}
+
+	@Test
+	void testPlanOnKeyframe() {
+		final var plan = KeyframeSeekPlan.plan(index, 0.02d, 2d, 3d);
+		assertEquals(2, plan.getKeyframe());
+		assertEquals(List.of("-ss", "2.000000"), plan.getInputOptions());
+		assertEquals(List.of("-t", "1.000000"), plan.getOutputOptions());
+	}
+
+	@Test
+	void testPlanBeforeFirstKeyframe() {
+		final var plan = KeyframeSeekPlan.plan(index, 0d, 0.01d, 1d);
+		assertEquals(-1, plan.getKeyframe());
+		assertEquals(MediaPackets.NO_VALUE, plan.getKeyframePosition());
+		assertEquals(List.of(), plan.getInputOptions());
+		assertEquals(List.of("-ss", "0.010000", "-t", "0.990000"), plan.getOutputOptions());
+	}
+
+	@Test
+	void testPlanInvalid() {
+		assertThrows(IllegalArgumentException.class, () -> KeyframeSeekPlan.plan(index, 0d, 2d, 1d));
+		assertThrows(IllegalArgumentException.class, () -> KeyframeSeekPlan.plan(index, 0d, -1d, 1d));
+	}
+
+	@Test
+	void testStore() throws Exception {
+		final var store = new KeyframeIndexStore(storeDir);
+		final var identity = FileIdentity.of(media);
+		assertTrue(store.get(identity).isEmpty());
+
+		store.put(identity, List.of(index));
+		final var stored = store.get(identity).get();
+		assertEquals(1, stored.size());
+		assertEquals(index.size(), stored.get(0).size());
+		assertEquals(index.getPts(9), stored.get(0).getPts(9));
+		assertEquals(1, store.getHits());
+
+		Files.writeString(media.toPath(), "changed media");
+		assertTrue(store.get(FileIdentity.of(media)).isEmpty());
+		assertEquals(1, store.getInvalidations());
+		assertEquals(2, store.getMisses());
+		assertEquals(0, storeDir.listFiles().length);
+	}
+
+}
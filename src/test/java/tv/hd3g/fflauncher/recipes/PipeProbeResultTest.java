@@ -0,0 +1,82 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.recipes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.OptionalLong;
+
+import org.junit.jupiter.api.Test;
+
+import tv.hd3g.fflauncher.mediainfo.MediaInfo;
+
+class PipeProbeResultTest {
+
+	private static final String COMPLETE_STREAMS = "{\"streams\": [{\"index\": 0, \"codec_type\": \"video\", "
+	                                               + "\"width\": 1920, \"height\": 1080}, {\"index\": 1, "
+	                                               + "\"codec_type\": \"audio\", \"sample_rate\": \"48000\", "
+	                                               + "\"channels\": 2}]}";
+	private static final String INCOMPLETE_STREAMS = "{\"streams\": [{\"index\": 0, \"codec_type\": \"video\", "
+	                                                 + "\"width\": 0, \"height\": 0}]}";
+
+	@Test
+	void testEnoughBeforeSourceEnd() {
+		final var result = new PipeProbeResult(MediaInfo.parseJson(INCOMPLETE_STREAMS, true),
+		        null, 5_000_000, -1, false);
+		assertTrue(result.isEnough());
+		assertEquals(OptionalLong.empty(), result.getNextRequestSize());
+		assertTrue(result.getMediaInfo().isPresent());
+	}
+
+	@Test
+	void testEnoughAtSourceEnd() {
+		final var result = new PipeProbeResult(MediaInfo.parseJson(COMPLETE_STREAMS, true),
+		        null, 5_000_000, 100_000_000, true);
+		assertTrue(result.isEnough());
+		assertFalse(result.isComplete());
+	}
+
+	@Test
+	void testNotEnough() {
+		final var result = new PipeProbeResult(MediaInfo.parseJson(INCOMPLETE_STREAMS, true),
+		        null, 3_000_000, 10_000_000, true);
+		assertFalse(result.isEnough());
+		assertEquals(OptionalLong.of(6_000_000), result.getNextRequestSize());
+		assertEquals(OptionalLong.of(3_000_000), result.getMissingBytes());
+
+		final var small = new PipeProbeResult(null, null, 1000, -1, true);
+		assertFalse(small.isEnough());
+		assertTrue(small.getMediaInfo().isEmpty());
+		assertEquals(OptionalLong.of(1000 + PipeProbeResult.MIN_NEXT_REQUEST_INCREMENT),
+		        small.getNextRequestSize());
+
+		final var capped = new PipeProbeResult(null, null, 8_000_000, 10_000_000, true);
+		assertEquals(OptionalLong.of(10_000_000), capped.getNextRequestSize());
+	}
+
+	@Test
+	void testComplete() {
+		final var result = new PipeProbeResult(MediaInfo.parseJson(INCOMPLETE_STREAMS, false),
+		        null, 10_000, 10_000, true);
+		assertTrue(result.isComplete());
+		assertTrue(result.isEnough());
+		assertEquals(OptionalLong.empty(), result.getMissingBytes());
+	}
+
+}
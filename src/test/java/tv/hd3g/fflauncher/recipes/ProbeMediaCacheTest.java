@@ -0,0 +1,255 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.recipes;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import tv.hd3g.ffprobejaxb.FFprobeJAXB;
+
+class ProbeMediaCacheTest {
+
+	static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+	                          + "<ffprobe><format filename=\"%s\" nb_streams=\"0\" nb_programs=\"0\" "
+	                          + "format_name=\"wav\" duration=\"1.000000\" size=\"%d\" probe_score=\"100\"/>"
+	                          + "</ffprobe>";
+
+	File media0;
+	File media1;
+	File diskFile;
+	List<String> parsed;
+	Function<String, FFprobeJAXB> parser;
+
+	@BeforeEach
+	void init() throws Exception {
+		media0 = File.createTempFile("media0-", ".wav");
+		media1 = File.createTempFile("media1-", ".wav");
+		Files.writeString(media0.toPath(), "media0");
+		Files.writeString(media1.toPath(), "media1");
+		diskFile = File.createTempFile("probecache-", ".bin");
+		diskFile.delete();
+		parsed = new ArrayList<>();
+		parser = xml -> {
+			parsed.add(xml);
+			return new FFprobeJAXB(xml, w -> {
+			});
+		};
+	}
+
+	@AfterEach
+	void end() {
+		media0.delete();
+		media1.delete();
+		diskFile.delete();
+	}
+
+	private static String xmlOf(final FileIdentity identity) {
+		return String.format(XML, identity.getCanonicalPath(), identity.getSize());
+	}
+
+	private static FFprobeJAXB put(final ProbeMediaCache cache, final FileIdentity identity) {
+		final var xml = xmlOf(identity);
+		final var result = new FFprobeJAXB(xml, w -> {
+		});
+		cache.put(identity, xml, result);
+		return result;
+	}
+
+	@Test
+	void testFileIdentity() throws Exception {
+		final var identity = FileIdentity.of(media0);
+		assertEquals(media0.getCanonicalPath(), identity.getCanonicalPath());
+		assertEquals(6, identity.getSize());
+		assertEquals(identity, FileIdentity.of(media0));
+		assertNotEquals(identity, FileIdentity.of(media1));
+
+		Files.writeString(media0.toPath(), "changed");
+		assertNotEquals(identity, FileIdentity.of(media0));
+	}
+
+	@Test
+	void testMemory() throws Exception {
+		final var cache = new ProbeMediaCache(10, null, parser);
+		final var identity = FileIdentity.of(media0);
+		assertTrue(cache.get(identity).isEmpty());
+		assertEquals(1, cache.getMisses());
+
+		final var result = put(cache, identity);
+		assertSame(result, cache.get(identity).get());
+		assertSame(result, cache.get(FileIdentity.of(media0)).get());
+		assertEquals(2, cache.getMemoryHits());
+		assertEquals(1, cache.getMemorySize());
+		assertEquals(0, cache.getDiskSize());
+		assertEquals(0, cache.getDiskFileSize());
+		assertEquals(2d / 3d, cache.getHitRate(), 0.0001d);
+		assertTrue(parsed.isEmpty());
+		cache.close();
+	}
+
+	@Test
+	void testLookup() throws Exception {
+		final var cache = new ProbeMediaCache(10, null, parser);
+		final var miss = cache.lookup(media0);
+		assertTrue(miss.getHit().isEmpty());
+
+		final var identity = FileIdentity.of(media0);
+		final var xml = xmlOf(identity);
+		final var result = new FFprobeJAXB(xml, w -> {
+		});
+		miss.put(xml, result);
+		assertSame(result, cache.lookup(media0).getHit().get());
+
+		final var notFound = new File(media0.getPath() + ".notfound");
+		final var notReadable = cache.lookup(notFound);
+		assertTrue(notReadable.getHit().isEmpty());
+		notReadable.put(xml, result);
+		assertEquals(1, cache.getMemorySize());
+		assertNull(FileIdentity.ofReadable(notFound, "test"));
+		cache.close();
+	}
+
+	@Test
+	void testInvalidation() throws Exception {
+		final var cache = new ProbeMediaCache(10, diskFile, parser);
+		final var identity = FileIdentity.of(media0);
+		put(cache, identity);
+
+		Files.writeString(media0.toPath(), "changed content");
+		final var newIdentity = FileIdentity.of(media0);
+		assertTrue(cache.get(newIdentity).isEmpty());
+		assertEquals(1, cache.getInvalidations());
+		assertEquals(1, cache.getMisses());
+		assertEquals(0, cache.getMemorySize());
+		assertEquals(0, cache.getDiskSize());
+		assertTrue(cache.getDiskDeadBytes() > 0);
+
+		assertTrue(cache.get(newIdentity).isEmpty());
+		assertEquals(1, cache.getInvalidations());
+		assertEquals(2, cache.getMisses());
+		cache.close();
+	}
+
+	@Test
+	void testEvictions() throws Exception {
+		final var cache = new ProbeMediaCache(1, null, parser);
+		final var identity0 = FileIdentity.of(media0);
+		final var identity1 = FileIdentity.of(media1);
+		put(cache, identity0);
+		put(cache, identity1);
+		assertEquals(1, cache.getEvictions());
+		assertEquals(1, cache.getMemorySize());
+		assertTrue(cache.get(identity0).isEmpty());
+		assertTrue(cache.get(identity1).isPresent());
+		cache.close();
+	}
+
+	@Test
+	void testDisk() throws Exception {
+		final var identity0 = FileIdentity.of(media0);
+		final var identity1 = FileIdentity.of(media1);
+
+		var cache = new ProbeMediaCache(1, diskFile, parser);
+		put(cache, identity0);
+		put(cache, identity1);
+		assertEquals(1, cache.getEvictions());
+		assertEquals(2, cache.getDiskSize());
+
+		assertTrue(cache.get(identity0).isPresent());
+		assertEquals(1, cache.getDiskHits());
+		assertEquals(List.of(xmlOf(identity0)), parsed);
+		assertTrue(cache.get(identity0).isPresent());
+		assertEquals(1, cache.getMemoryHits());
+		cache.close();
+
+		final var fileSize = diskFile.length();
+		cache = new ProbeMediaCache(10, diskFile, parser);
+		assertEquals(2, cache.getDiskSize());
+		assertEquals(fileSize, cache.getDiskFileSize());
+		assertTrue(cache.get(identity1).isPresent());
+		assertEquals(xmlOf(identity1), parsed.get(1));
+		assertEquals(1, cache.getDiskHits());
+		cache.close();
+	}
+
+	@Test
+	void testDiskCompact() throws Exception {
+		final var identity0 = FileIdentity.of(media0);
+		final var identity1 = FileIdentity.of(media1);
+		final var cache = new ProbeMediaCache(10, diskFile, parser);
+		put(cache, identity0);
+		put(cache, identity0);
+		put(cache, identity1);
+		cache.remove(media1);
+		assertEquals(1, cache.getDiskSize());
+		final var before = cache.getDiskFileSize();
+		assertTrue(cache.getDiskDeadBytes() > 0);
+
+		cache.compact();
+		assertEquals(1, cache.getDiskSize());
+		assertEquals(0, cache.getDiskDeadBytes());
+		assertTrue(cache.getDiskFileSize() < before);
+		cache.close();
+
+		final var reopened = new ProbeMediaCache(10, diskFile, parser);
+		assertTrue(reopened.get(identity0).isPresent());
+		assertTrue(reopened.get(identity1).isEmpty());
+		reopened.close();
+	}
+
+	@Test
+	void testDiskTruncated() throws Exception {
+		final var identity0 = FileIdentity.of(media0);
+		final var identity1 = FileIdentity.of(media1);
+		var cache = new ProbeMediaCache(10, diskFile, parser);
+		put(cache, identity0);
+		final var validSize = cache.getDiskFileSize();
+		put(cache, identity1);
+		cache.close();
+
+		try (var raf = new RandomAccessFile(diskFile, "rw")) {
+			raf.setLength(raf.length() - 3);
+		}
+		cache = new ProbeMediaCache(10, diskFile, parser);
+		assertEquals(1, cache.getDiskSize());
+		assertEquals(validSize, cache.getDiskFileSize());
+		assertTrue(cache.get(identity0).isPresent());
+		assertFalse(cache.get(identity1).isPresent());
+		cache.close();
+
+		Files.write(diskFile.toPath(), "not a cache file".getBytes(UTF_8));
+		cache = new ProbeMediaCache(10, diskFile, parser);
+		assertEquals(0, cache.getDiskSize());
+		cache.close();
+	}
+
+}
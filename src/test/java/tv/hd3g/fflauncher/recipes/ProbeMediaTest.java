@@ -17,15 +17,23 @@
 package tv.hd3g.fflauncher.recipes;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.awt.Point;
 import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
 
 import tv.hd3g.fflauncher.enums.OutputFilePresencePolicy;
+import tv.hd3g.processlauncher.InvalidExecution;
 import tv.hd3g.processlauncher.cmdline.ExecutableFinder;
 
 class ProbeMediaTest {
@@ -56,6 +64,60 @@ class ProbeMediaTest {
 		assertEquals(1, result.getFormat().getDuration().intValue());
 		assertEquals(432, result.getVideoStreams().findFirst().get().getHeight().intValue());
 
+		probe.setCaptureThreadFactory(Executors.defaultThreadFactory());
+		final var resultWithThreadFactory = probe.doAnalysing(test_file_to_create);
+		assertEquals(1, resultWithThreadFactory.getFormat().getDuration().intValue());
+		final var executor = Executors.newCachedThreadPool();
+		final var resultAsync = probe.doAnalysingAsync(test_file_to_create, executor)
+		        .get(30, TimeUnit.SECONDS);
+		assertEquals(432, resultAsync.getVideoStreams().findFirst().get().getHeight().intValue());
+		executor.shutdown();
+
+		final var notAMedia = File.createTempFile("notamedia", ".mkv");
+		Files.writeString(notAMedia.toPath(), "nope");
+		final var e = assertThrows(InvalidExecution.class, () -> probe.doAnalysing(notAMedia));
+		assertFalse(e.getStdErr().isEmpty());
+		notAMedia.delete();
+
+		ffmpeg.cleanUpOutputFiles(true, false);
+	}
+
+	@Test
+	void testAll() throws Exception {
+		final var gvf = new GenerateVideoFile(executableFinder);
+		final var tDir = System.getProperty("java.io.tmpdir");
+		final var test_file_to_create = new File(tDir + File.separator + "smptebars-" + System.nanoTime() + ".mkv");
+		final var ffmpeg = gvf.generateBarsAnd1k(test_file_to_create, 1, new Point(768, 432));
+		ffmpeg.checkDestinations();
+
+		final var notAMedia = File.createTempFile("notamedia", ".mkv");
+		Files.writeString(notAMedia.toPath(), "nope");
+
+		final var executor = Executors.newCachedThreadPool();
+		final var probe = new ProbeMedia(executableFinder, Executors.newSingleThreadScheduledExecutor());
+		final var results = probe.doAnalysingAllFiles(
+		        List.of(test_file_to_create, notAMedia, test_file_to_create), 2, executor)
+		        .collect(Collectors.toUnmodifiableList());
+		executor.shutdown();
+
+		assertEquals(3, results.size());
+		final var oks = results.stream().filter(ProbeMediaResult::isOk).collect(Collectors.toUnmodifiableList());
+		assertEquals(2, oks.size());
+		for (final var ok : oks) {
+			assertEquals(test_file_to_create.getAbsolutePath(), ok.getSource());
+			assertEquals(432, ok.getResult().get().getVideoStreams().findFirst().get().getHeight().intValue());
+		}
+		final var error = results.stream().filter(r -> r.isOk() == false).findFirst().get();
+		assertEquals(notAMedia.getAbsolutePath(), error.getSource());
+		assertTrue(error.getError().get() instanceof InvalidExecution);
+		assertTrue(error.getResult().isEmpty());
+
+		final var executableFinder = this.executableFinder;
+		assertThrows(IllegalArgumentException.class,
+		        () -> new ProbeMedia(executableFinder, Executors.newSingleThreadScheduledExecutor())
+		                .doAnalysingAll(List.of("a"), 0, Runnable::run));
+
+		notAMedia.delete();
 		ffmpeg.cleanUpOutputFiles(true, false);
 	}
 
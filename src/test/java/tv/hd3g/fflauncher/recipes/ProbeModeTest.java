@@ -0,0 +1,94 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.recipes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import tv.hd3g.fflauncher.FFprobe;
+import tv.hd3g.fflauncher.mediainfo.MediaInfo;
+import tv.hd3g.processlauncher.cmdline.Parameters;
+
+class ProbeModeTest {
+
+	private static String apply(final ProbeMode mode) {
+		final var parameters = new Parameters();
+		final var ffprobe = new FFprobe("ffprobe", parameters);
+		final var skip = parameters.toString().length();
+		mode.applyTo(ffprobe);
+		return parameters.toString().substring(skip);
+	}
+
+	@Test
+	void testFull() {
+		final var mode = ProbeMode.full();
+		assertSame(mode, ProbeMode.full());
+		assertFalse(mode.isPartial());
+		assertNull(mode.getReadIntervals());
+		assertEquals("", apply(mode));
+	}
+
+	@Test
+	void testHeaderOnly() {
+		final var mode = ProbeMode.headerOnly();
+		assertTrue(mode.isPartial());
+		assertEquals("-read_intervals %+#1 -probesize 1048576 -analyzeduration 100000", apply(mode));
+	}
+
+	@Test
+	void testFirstSeconds() {
+		final var mode = ProbeMode.firstSeconds(2.5);
+		assertTrue(mode.isPartial());
+		assertEquals("-read_intervals %+2.5 -analyzeduration 2500000", apply(mode));
+		assertThrows(IllegalArgumentException.class, () -> ProbeMode.firstSeconds(0));
+	}
+
+	@Test
+	void testSampledIntervals() {
+		final var mode = ProbeMode.sampledIntervals(60, 3, 1);
+		assertEquals("0%+1,20%+1,40%+1", mode.getReadIntervals());
+		assertEquals(1_000_000, mode.getAnalyzeDuration());
+		assertEquals("1.5%+0.25", ProbeMode.intervals(List.of(1.5d), 0.25).getReadIntervals());
+		assertThrows(IllegalArgumentException.class, () -> ProbeMode.sampledIntervals(60, 0, 1));
+		assertThrows(IllegalArgumentException.class, () -> ProbeMode.intervals(List.of(), 1));
+	}
+
+	@Test
+	void testWith() {
+		final var mode = ProbeMode.full().withProbeSize(5_000_000).withAnalyzeDuration(0);
+		assertTrue(mode.isPartial());
+		assertEquals("-probesize 5000000 -analyzeduration 0", apply(mode));
+		assertFalse(ProbeMode.headerOnly().withProbeSize(0).withAnalyzeDuration(-1).getProbeSize() > 0);
+		assertThrows(IllegalArgumentException.class, () -> ProbeMode.full().withProbeSize(10));
+	}
+
+	@Test
+	void testPartialMediaInfo() {
+		final var json = "{\"streams\": [], \"format\": {\"duration\": \"10.0\"}}";
+		assertFalse(MediaInfo.parseJson(json).isPartial());
+		assertTrue(MediaInfo.parseJson(json, true).isPartial());
+	}
+
+}
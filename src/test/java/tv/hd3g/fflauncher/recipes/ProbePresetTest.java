@@ -0,0 +1,69 @@
+/*
+ * This file is part of fflauncher.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2022
+ *
+ */
+package tv.hd3g.fflauncher.recipes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import tv.hd3g.fflauncher.FFprobe;
+import tv.hd3g.fflauncher.FFprobe.FFStreamType;
+import tv.hd3g.fflauncher.mediainfo.MediaInfo;
+import tv.hd3g.processlauncher.cmdline.Parameters;
+
+class ProbePresetTest {
+
+	private static String apply(final ProbePreset preset) {
+		final var parameters = new Parameters();
+		final var ffprobe = new FFprobe("ffprobe", parameters);
+		final var skip = parameters.toString().length();
+		preset.applyTo(ffprobe);
+		return parameters.toString().substring(skip);
+	}
+
+	@Test
+	void testApplyTo() {
+		assertEquals("-show_streams -show_format -show_chapters", apply(ProbePreset.ALL));
+		assertNull(ProbePreset.ALL.getShowEntries());
+		assertEquals("-show_entries format=duration,start_time", apply(ProbePreset.DURATION_ONLY));
+		assertNull(ProbePreset.DURATION_ONLY.getSelectStreams());
+
+		final var audio = apply(ProbePreset.AUDIO_TOPOLOGY);
+		assertTrue(audio.startsWith("-show_entries stream=index,codec_type,"));
+		assertTrue(audio.endsWith(":stream_tags=language:stream_disposition=default -select_streams a"));
+		assertEquals(FFStreamType.VIDEO, ProbePreset.VIDEO_GEOMETRY.getSelectStreams());
+	}
+
+	@Test
+	void testAudioTopologyResult() {
+		final var json = "{\"programs\": [], \"streams\": [{\"index\": 1, \"codec_type\": \"audio\", "
+		                 + "\"codec_name\": \"pcm_s24le\", \"sample_rate\": \"48000\", \"channels\": 2, "
+		                 + "\"channel_layout\": \"stereo\", \"disposition\": {\"default\": 1}, "
+		                 + "\"tags\": {\"language\": \"fra\"}}]}";
+		final var mediaInfo = MediaInfo.parseJson(json);
+		assertTrue(mediaInfo.getFormat().isEmpty());
+		final var stream = mediaInfo.getAudioStreams().findFirst().orElseThrow();
+		assertEquals(1, stream.getIndex());
+		assertEquals(2, stream.getChannels());
+		assertEquals("stereo", stream.getChannelLayout().orElseThrow());
+		assertTrue(stream.isDefault());
+		assertEquals(0, stream.getWidth());
+	}
+
+}